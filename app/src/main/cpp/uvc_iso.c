@@ -0,0 +1,180 @@
+/*
+ * Isochronous URBs on the usbfs file descriptor of a UsbDeviceConnection
+ *
+ * UsbRequest cannot be initialized on an isochronous endpoint, so IsochronousTransport
+ * submits and reaps ISO URBs directly. Each transfer slot owns one URB whose data buffer
+ * is a direct ByteBuffer kept alive by the Java side; packet i lands at i * packetSize.
+ */
+
+#include <jni.h>
+#include <errno.h>
+#include <poll.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+#include <sys/ioctl.h>
+#include <linux/usbdevice_fs.h>
+#include <android/log.h>
+
+#define TAG "UvcIso"
+#define MAX_TRANSFERS 32
+#define MAX_PACKETS 128
+
+typedef struct {
+    int fd;
+    int endpoint;
+    int packets;
+    struct usbdevfs_urb *urbs[MAX_TRANSFERS];
+    int submitted[MAX_TRANSFERS];
+} iso_context;
+
+static size_t urb_size(int packets) {
+    return sizeof(struct usbdevfs_urb) + packets * sizeof(struct usbdevfs_iso_packet_desc);
+}
+
+/* Reaps one completed URB, waiting up to timeout_ms; NULL with *err set otherwise */
+static struct usbdevfs_urb *reap(iso_context *ctx, int timeout_ms, int *err) {
+    struct usbdevfs_urb *urb = NULL;
+    if (ioctl(ctx->fd, USBDEVFS_REAPURBNDELAY, &urb) == 0) {
+        return urb;
+    }
+    if (errno != EAGAIN) {
+        *err = -errno;
+        return NULL;
+    }
+
+    // usbfs reports completed URBs as writable
+    struct pollfd pfd = { .fd = ctx->fd, .events = POLLOUT };
+    int ready = poll(&pfd, 1, timeout_ms);
+    if (ready <= 0) {
+        *err = ready == 0 ? -ETIMEDOUT : -errno;
+        return NULL;
+    }
+    if (ioctl(ctx->fd, USBDEVFS_REAPURBNDELAY, &urb) == 0) {
+        return urb;
+    }
+    *err = errno == EAGAIN ? -ETIMEDOUT : -errno;
+    return NULL;
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_example_thermalarglass_IsochronousTransport_nativeCreate(JNIEnv *env, jclass clazz,
+        jint fd, jint endpoint, jint packets) {
+    if (packets < 1 || packets > MAX_PACKETS) {
+        return 0;
+    }
+    iso_context *ctx = calloc(1, sizeof(iso_context));
+    if (ctx == NULL) {
+        return 0;
+    }
+    ctx->fd = fd;
+    ctx->endpoint = endpoint;
+    ctx->packets = packets;
+    return (jlong) (intptr_t) ctx;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_example_thermalarglass_IsochronousTransport_nativeSubmit(JNIEnv *env, jclass clazz,
+        jlong handle, jint slot, jobject buffer, jint packetSize) {
+    iso_context *ctx = (iso_context *) (intptr_t) handle;
+    if (slot < 0 || slot >= MAX_TRANSFERS || ctx->submitted[slot]) {
+        return -EINVAL;
+    }
+
+    void *data = (*env)->GetDirectBufferAddress(env, buffer);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+    if (data == NULL || capacity < (jlong) ctx->packets * packetSize) {
+        return -EINVAL;
+    }
+
+    struct usbdevfs_urb *urb = ctx->urbs[slot];
+    if (urb == NULL) {
+        urb = ctx->urbs[slot] = malloc(urb_size(ctx->packets));
+        if (urb == NULL) {
+            return -ENOMEM;
+        }
+    }
+    memset(urb, 0, urb_size(ctx->packets));
+    urb->type = USBDEVFS_URB_TYPE_ISO;
+    urb->endpoint = (unsigned char) ctx->endpoint;
+    urb->flags = USBDEVFS_URB_ISO_ASAP;
+    urb->buffer = data;
+    urb->buffer_length = ctx->packets * packetSize;
+    urb->number_of_packets = ctx->packets;
+    urb->usercontext = (void *) (intptr_t) slot;
+    for (int i = 0; i < ctx->packets; i++) {
+        urb->iso_frame_desc[i].length = (unsigned int) packetSize;
+    }
+
+    if (ioctl(ctx->fd, USBDEVFS_SUBMITURB, urb) < 0) {
+        return -errno;
+    }
+    ctx->submitted[slot] = 1;
+    return 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_example_thermalarglass_IsochronousTransport_nativeReap(JNIEnv *env, jclass clazz,
+        jlong handle, jint timeoutMs, jintArray packetLengths) {
+    iso_context *ctx = (iso_context *) (intptr_t) handle;
+    int err = 0;
+    struct usbdevfs_urb *urb = reap(ctx, timeoutMs, &err);
+    if (urb == NULL) {
+        return err;
+    }
+
+    int slot = (int) (intptr_t) urb->usercontext;
+    ctx->submitted[slot] = 0;
+
+    // Actual length per packet, -1 for packets that completed with an error
+    jint *lengths = (*env)->GetIntArrayElements(env, packetLengths, NULL);
+    int count = (*env)->GetArrayLength(env, packetLengths);
+    if (count > urb->number_of_packets) {
+        count = urb->number_of_packets;
+    }
+    for (int i = 0; i < count; i++) {
+        struct usbdevfs_iso_packet_desc *desc = &urb->iso_frame_desc[i];
+        lengths[i] = urb->status != 0 || desc->status != 0 ? -1 : (jint) desc->actual_length;
+    }
+    (*env)->ReleaseIntArrayElements(env, packetLengths, lengths, 0);
+    return slot;
+}
+
+/* Discards every URB in flight and waits for the kernel to hand them back */
+static void cancel_all(iso_context *ctx) {
+    int pending = 0;
+    for (int i = 0; i < MAX_TRANSFERS; i++) {
+        if (ctx->submitted[i]) {
+            if (ioctl(ctx->fd, USBDEVFS_DISCARDURB, ctx->urbs[i]) < 0 && errno != EINVAL) {
+                __android_log_print(ANDROID_LOG_WARN, TAG, "DISCARDURB failed: %d", errno);
+            }
+            pending++;
+        }
+    }
+
+    // Discarded URBs still have to be reaped before their buffers can be freed
+    while (pending > 0) {
+        int err = 0;
+        struct usbdevfs_urb *urb = reap(ctx, 100, &err);
+        if (urb == NULL) {
+            __android_log_print(ANDROID_LOG_WARN, TAG, "%d URBs not reaped: %d", pending, err);
+            break;
+        }
+        ctx->submitted[(int) (intptr_t) urb->usercontext] = 0;
+        pending--;
+    }
+}
+
+JNIEXPORT void JNICALL
+Java_com_example_thermalarglass_IsochronousTransport_nativeDestroy(JNIEnv *env, jclass clazz,
+        jlong handle) {
+    iso_context *ctx = (iso_context *) (intptr_t) handle;
+    cancel_all(ctx);
+    for (int i = 0; i < MAX_TRANSFERS; i++) {
+        // A URB the kernel still owns must not be freed
+        if (!ctx->submitted[i]) {
+            free(ctx->urbs[i]);
+        }
+    }
+    free(ctx);
+}
@@ -0,0 +1,130 @@
+package com.example.thermalarglass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Isochronous streaming reads through usbfs (libuvciso)
+ * UsbRequest only supports bulk and interrupt endpoints, so ISO URBs are submitted on the
+ * connection's file descriptor from native code. Every transfer slot owns a direct buffer of
+ * packetsPerTransfer packets; packet i of a reaped transfer starts at i * packetSize and
+ * carries its own UVC payload header.
+ */
+class IsochronousTransport {
+
+    // One transfer covers 32 (micro)frames, 4 ms at high speed
+    static final int DEFAULT_PACKETS_PER_TRANSFER = 32;
+
+    private static final int ETIMEDOUT = 110;
+
+    private static native long nativeCreate(int fd, int endpointAddress, int packets);
+    private static native int nativeSubmit(long handle, int slot, ByteBuffer buffer, int packetSize);
+    private static native int nativeReap(long handle, int timeoutMs, int[] packetLengths);
+    private static native void nativeDestroy(long handle);
+
+    private static boolean sLibraryLoaded = false;
+
+    private final int mPacketSize;
+    private final int mPacketsPerTransfer;
+    private final ByteBuffer[] mBuffers;
+    private final int[] mPacketLengths;
+    private long mHandle;
+
+    /**
+     * @param fd UsbDeviceConnection.getFileDescriptor(), the caller keeps it open
+     * @param endpointAddress isochronous IN endpoint of the selected alternate setting
+     * @param packetSize bytes per (micro)frame of that endpoint
+     * @param packetsPerTransfer (micro)frames covered by one transfer
+     * @param transfers number of transfers kept in flight
+     */
+    IsochronousTransport(int fd, int endpointAddress, int packetSize, int packetsPerTransfer,
+                         int transfers) throws IOException {
+        loadLibrary();
+        mPacketSize = packetSize;
+        mPacketsPerTransfer = packetsPerTransfer;
+        mPacketLengths = new int[packetsPerTransfer];
+        mBuffers = new ByteBuffer[transfers];
+        for (int i = 0; i < transfers; i++) {
+            mBuffers[i] = ByteBuffer.allocateDirect(packetSize * packetsPerTransfer);
+        }
+
+        mHandle = nativeCreate(fd, endpointAddress, packetsPerTransfer);
+        if (mHandle == 0) {
+            throw new IOException("Cannot create isochronous transport for endpoint 0x" +
+                    Integer.toHexString(endpointAddress));
+        }
+    }
+
+    private static synchronized void loadLibrary() throws IOException {
+        if (!sLibraryLoaded) {
+            try {
+                System.loadLibrary("uvciso");
+                sLibraryLoaded = true;
+            } catch (UnsatisfiedLinkError e) {
+                throw new IOException("Isochronous streaming unavailable: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Submits every transfer slot
+     */
+    void submitAll() throws IOException {
+        for (int slot = 0; slot < mBuffers.length; slot++) {
+            submit(slot);
+        }
+    }
+
+    /**
+     * Resubmits a reaped transfer slot
+     */
+    void submit(int slot) throws IOException {
+        int result = nativeSubmit(mHandle, slot, mBuffers[slot], mPacketSize);
+        if (result < 0) {
+            throw new IOException("Isochronous submit failed: errno " + -result);
+        }
+    }
+
+    /**
+     * Waits for the next completed transfer
+     * Returns its slot, or -1 on timeout; packet lengths are then available via getPacketLength().
+     */
+    int reap(int timeoutMs) throws IOException {
+        int result = nativeReap(mHandle, timeoutMs, mPacketLengths);
+        if (result == -ETIMEDOUT) {
+            return -1;
+        } else if (result < 0) {
+            throw new IOException("Isochronous reap failed: errno " + -result);
+        }
+        return result;
+    }
+
+    ByteBuffer getBuffer(int slot) {
+        return mBuffers[slot];
+    }
+
+    /**
+     * Bytes received in packet i of the last reaped transfer, -1 if the packet had an error
+     */
+    int getPacketLength(int packet) {
+        return mPacketLengths[packet];
+    }
+
+    int getPacketSize() {
+        return mPacketSize;
+    }
+
+    int getPacketsPerTransfer() {
+        return mPacketsPerTransfer;
+    }
+
+    /**
+     * Cancels and reaps every transfer in flight, then frees the native state
+     */
+    void close() {
+        if (mHandle != 0) {
+            nativeDestroy(mHandle);
+            mHandle = 0;
+        }
+    }
+}
@@ -18,7 +18,6 @@ import android.os.BatteryManager;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Base64;
 import android.util.Log;
 import android.view.GestureDetector;
 import android.view.KeyEvent;
@@ -38,6 +37,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -45,9 +45,11 @@ import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.socket.client.IO;
 import io.socket.client.Socket;
@@ -70,26 +72,19 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     private static final int BOSON_HEIGHT = 256;
     private static final int TARGET_FPS = 60;
 
-    // Boson format specifications
-    // FLIR Boson can include 2 telemetry rows at the bottom of frames (per SDK)
-    private static final int Y16_FRAME_SIZE = 320 * 256 * 2;           // 163,840 bytes (16-bit grayscale, no telemetry)
-    private static final int Y16_FRAME_SIZE_WITH_TELEM = 320 * 258 * 2; // 165,120 bytes (with 2 telemetry rows)
-    private static final int I420_FRAME_SIZE = 640 * 512 * 3 / 2;      // 491,520 bytes (YUV420 planar, no telemetry)
-    private static final int I420_FRAME_SIZE_WITH_TELEM = 640 * 514 * 3 / 2; // 494,592 bytes (with 2 telemetry rows)
-    private static final int I420_WIDTH = 640;
-    private static final int I420_HEIGHT = 512;
-
-    // Format detection
-    private enum BosonFormat {
-        Y16,    // 16-bit radiometric (320×256)
-        I420,   // 8-bit colorized YUV420 (640×512)
-        MJPEG   // MJPEG compressed (variable size, typically 150KB-350KB)
-    }
-    private BosonFormat mDetectedFormat = null;
-
     // Glass display
     private static final int GLASS_WIDTH = 640;
     private static final int GLASS_HEIGHT = 360;
+
+    // Frame formats: one decoder per UVC format (MJPEG, Y16, I420, YUYV, NV12, RGB24), resolved
+    // from the first frame of each stream and then called for every frame
+    private final MjpegFrameDecoder mMjpegDecoder = new MjpegFrameDecoder(GLASS_WIDTH, GLASS_HEIGHT);
+    private final FrameDecoders mDecoders = FrameDecoders.standard(GLASS_WIDTH, GLASS_HEIGHT, mMjpegDecoder);
+    private volatile FrameDecoder mDecoder = null;
+    private volatile DisplayProjection.Fit mDisplayFit = DisplayProjection.Fit.LETTERBOX;
+    // Scaling of the frames not already projected onto the display; null leaves it to Canvas
+    private DisplayScaler.Mode mScalerMode = DisplayScaler.Mode.BILINEAR;
+    private volatile DisplayScaler mScaler = null;  // Built by the decode thread for the current source size
     
     // USB Camera - Native implementation
     private NativeUSBMonitor mUSBMonitor;
@@ -104,6 +99,11 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     private TextView mModeIndicator;
     private TextView mFrameCounter;
     private TextView mCenterTemperature;
+
+    // Frame counter and center temperature: written by the pipeline, shown by one main-thread ticker
+    private final UiState mUiState = new UiState();
+    private UiStatePublisher mUiPublisher;
+    private int mUiRateHz = UiStatePublisher.DEFAULT_RATE_HZ;
     private TextView mBatteryIndicator;
     private TextView mNetworkIndicator;
     private ImageView mCenterReticle;
@@ -149,12 +149,46 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     // Current annotations from server
     private List<Detection> mDetections = new ArrayList<>();
     private ThermalAnalysis mThermalAnalysis = null;
+    private volatile List<AnnotatedObject> mAnnotatedObjects = Collections.emptyList();  // Rebuilt per event
     private String mCurrentMode = MODE_THERMAL_ONLY;
 
-    // Colormap settings
-    private String mCurrentColormap = "iron"; // Default colormap
-    private String[] mAvailableColormaps = {"iron", "rainbow", "white_hot", "arctic", "grayscale"};
-    private int mCurrentColormapIndex = 0;
+    // HUD and annotations, cached in a layer repainted only when one of these inputs changes
+    // (annotations invalidate it themselves); render thread only
+    private volatile OverlayCompositor mOverlay;
+    private boolean mOverlayConnected;
+    private String mOverlayMode;
+    private SmartDisplayManager.DisplayMode mOverlayDisplayMode;
+    private FrameDecoder mOverlayDecoder;
+    private DisplayProjection mOverlayProjection;
+    private DisplayScaler mOverlayScaler;
+    private final Paint mOverlayPaint = new Paint();
+    private final Paint mFrameCounterPaint = new Paint();
+    private final StringBuilder mFrameCounterText = new StringBuilder();
+    private final Rect mDisplayRect = new Rect(0, 0, GLASS_WIDTH, GLASS_HEIGHT);   // Render thread only
+    private final Paint mErrorPaint = new Paint();                                  // Render thread only
+
+    // Render and overlay rates between two settings syncs
+    private long mRateSampleNanos = 0;
+    private long mRateSampleRendered = 0;
+    private long mRateSampleRebuilds = 0;
+
+    // Latency from USB transfer completion to decoded, on screen and sent. The histograms are
+    // never cleared; settings sync reports a window per sync, the HUD in detailed mode its own
+    // window of the last few seconds, whether or not a client is connected
+    private static final long LATENCY_HUD_INTERVAL_NANOS = 500_000_000L;
+    private static final long LATENCY_HUD_WINDOW_NANOS = 5_000_000_000L;
+    private final LatencyHistogram mDecodeLatency = new LatencyHistogram("decode");
+    private final LatencyHistogram mDisplayLatency = new LatencyHistogram("display");
+    private final LatencyHistogram mNetworkLatency = new LatencyHistogram("network");
+    private final LatencyHistogram.Window[] mSyncLatency = latencyWindows();    // Settings sync thread only
+    private final LatencyHistogram.Window[] mHudLatency = latencyWindows();     // Render thread only
+    private final StringBuilder[] mLatencyText = { new StringBuilder(), new StringBuilder(), new StringBuilder() };
+    private final Paint mLatencyPaint = new Paint();
+    private long mLatencyTextNanos = 0;                 // Render thread only
+    private long mLatencyWindowNanos = 0;               // Render thread only
+
+    // Colormap settings: built-in and user palettes, the active table is swapped atomically
+    private final ColormapRegistry mColormaps = new ColormapRegistry();
 
     // Glass EE2 built-in RGB camera
     private android.hardware.Camera mRgbCamera;
@@ -168,9 +202,51 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     // Frame counter
     private int mFrameCount = 0;
 
-    // Latest thermal frame for snapshot capture
-    private Bitmap mLatestThermalBitmap = null;
-    private ByteBuffer mLatestFrameData = null;
+    // Latest thermal frame for snapshot capture, a retained lease swapped under the lock
+    private final Object mLatestSurfaceLock = new Object();
+    private FrameSurfacePool.Surface<Bitmap> mLatestSurface = null;
+
+    // Frame-processing pipeline: capture -> decode -> {render, network, record, analytics}
+    // Each stage runs on its own thread behind a bounded queue so a slow consumer
+    // (Wi-Fi, PNG encoding) never holds up USB capture or the display. Render is paced by
+    // vsync and draws only the newest decoded frame.
+    private static final int FRAME_POOL_SIZE = 8;           // capture + decode + network + analytics
+    private static final int DECODE_QUEUE_CAPACITY = 1;
+    private static final int NETWORK_QUEUE_CAPACITY = 1;
+    private static final int ANALYTICS_QUEUE_CAPACITY = 1;
+    // Recording skips frames (counted as record stage drops) rather than hold up decode; queued
+    // frames are copies in the record stage's own bitmaps, never leases on display surfaces
+    private static final int RECORD_QUEUE_CAPACITY = 3;     // ~0.3 s of recording at 10 fps
+    private FrameStage<FrameBufferPool.Frame> mDecodeStage;
+    private VsyncRenderer<DecodedFrame> mRenderer;
+    // Handoffs to the renderer: one waiting, one being drawn and one being filled
+    private final DecodedFrame[] mDecodedFrames = { new DecodedFrame(), new DecodedFrame(), new DecodedFrame() };
+    private FrameStage<FrameBufferPool.Frame> mNetworkStage;
+    private FrameStage<FrameBufferPool.Frame> mAnalyticsStage;
+    private FrameStage<Runnable> mRecordStage;
+    private volatile ThermalData mLatestThermalData = null;  // Written by analytics stage
+    private byte[] mAnalyticsFrameData = null;               // Analytics thread only (non-Y16 frames)
+    // Display bitmaps and pixel arrays reused across frames, leased by the converters
+    private final FrameSurfacePool<Bitmap.Config, Bitmap> mSurfacePool =
+            new FrameSurfacePool<>(FrameSurfacePool.DEFAULT_POOL_SIZE, Bitmap::createBitmap, Bitmap::recycle);
+    // Queued and in-progress recording copies plus the one being refused when the queue is full
+    private final FrameSurfacePool<Bitmap.Config, Bitmap> mRecordSurfacePool =
+            new FrameSurfacePool<>(RECORD_QUEUE_CAPACITY + 2, Bitmap::createBitmap, Bitmap::recycle);
+    private final AutoGainControl mAgc = new AutoGainControl(AutoGainControl.Mode.PLATEAU,
+            AutoGainControl.DEFAULT_INTERVAL_FRAMES, AutoGainControl.DEFAULT_SMOOTHING);
+    private final BosonTelemetry mLatestTelemetry = new BosonTelemetry();  // Written by analytics stage
+    private volatile long mFfcSkippedFrames = 0;
+
+    // Pixel kernels split into row bands on a worker pool; serial when the battery is low
+    private static final int SERIAL_PIXELS_BATTERY_PERCENT = 20;
+    private BandExecutor mBandExecutor = null;
+    private int mPixelThreads = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+    private int mPixelBandRows = BandExecutor.DEFAULT_BAND_ROWS;
+
+    // Frame conversion time (decode stage), smoothed over ~16 frames, for comparing formats
+    private static final int CONVERT_TIME_SMOOTHING_SHIFT = 4;
+    private volatile long mConvertTimeNanos = 0;
+    private volatile long mMaxConvertTimeNanos = 0;
 
     // Video recording (frame-based for Glass EE2)
     private int mRecordingFrameInterval = 3; // Capture every 3rd frame (~10 fps from 30fps source)
@@ -271,19 +347,49 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     private void loadSettings() {
         android.content.SharedPreferences prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
 
+        // User palettes (.gpl/.pal/.txt) next to the built-in colormaps
+        File paletteDir = new File(getExternalFilesDir(null), ColormapRegistry.PALETTE_DIR);
+        for (String error : mColormaps.loadDirectory(paletteDir)) {
+            Log.w(TAG, "Skipped colormap " + error);
+        }
+
         // Load default colormap
         String defaultColormap = prefs.getString("default_colormap", "iron");
-        mCurrentColormap = defaultColormap;
-
-        // Find colormap index
-        for (int i = 0; i < mAvailableColormaps.length; i++) {
-            if (mAvailableColormaps[i].equals(defaultColormap)) {
-                mCurrentColormapIndex = i;
-                break;
-            }
+        if (!mColormaps.setActive(defaultColormap)) {
+            Log.w(TAG, "Unknown colormap " + defaultColormap + " - using " + mColormaps.getActive());
         }
 
-        Log.i(TAG, "Loaded settings - Colormap: " + mCurrentColormap);
+        // Y16 display gain: off (fixed high byte), linear or plateau, curve updated every N frames
+        mAgc.setMode(AutoGainControl.Mode.fromName(prefs.getString("agc_mode", "plateau")));
+        mAgc.setUpdateRate(prefs.getInt("agc_interval_frames", AutoGainControl.DEFAULT_INTERVAL_FRAMES),
+                prefs.getInt("agc_smoothing", AutoGainControl.DEFAULT_SMOOTHING));
+
+        // I420/NV12 frames keep their aspect ratio: letterbox (whole scene) or crop (fill the display)
+        mDisplayFit = DisplayProjection.Fit.fromName(prefs.getString("display_fit", "letterbox"));
+        mDecoders.setDisplayFit(mDisplayFit);
+        Log.i(TAG, "Display fit: " + mDisplayFit.name().toLowerCase(Locale.US));
+
+        // Y16, YUYV, RGB24 and MJPEG frames: bilinear or nearest into a display-sized buffer with
+        // the same fit, or "canvas" for the previous full-screen stretch
+        String scaler = prefs.getString("display_scaler", "bilinear");
+        mScalerMode = "canvas".equalsIgnoreCase(scaler) ? null : DisplayScaler.Mode.fromName(scaler);
+        Log.i(TAG, "Display scaler: " + scaler);
+
+        // Threads (caller included) and band height for the pixel kernels; 1 thread = serial
+        mPixelThreads = prefs.getInt("pixel_threads", Math.min(Runtime.getRuntime().availableProcessors(), 4));
+        mPixelBandRows = prefs.getInt("pixel_band_rows", BandExecutor.DEFAULT_BAND_ROWS);
+
+        // MJPEG inSampleSize: 0 picks the largest that still covers the display
+        mMjpegDecoder.setSampleSetting(prefs.getInt("mjpeg_sample_size", MjpegFrameDecoder.SAMPLE_AUTO));
+
+        // Refresh rate of the frame counter and temperature readouts
+        mUiRateHz = prefs.getInt("ui_update_hz", UiStatePublisher.DEFAULT_RATE_HZ);
+
+        // Event tracer for the capture and render paths, dumped on request ("dump_trace")
+        FrameTracer.setRingCapacity(prefs.getInt("frame_trace_events", FrameTracer.DEFAULT_RING_CAPACITY));
+        FrameTracer.setEnabled(prefs.getBoolean("frame_trace", true));
+
+        Log.i(TAG, "Loaded settings - Colormap: " + mColormaps.getActive());
     }
 
     /**
@@ -502,12 +608,11 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
         }
 
         // Cycle to next colormap
-        mCurrentColormapIndex = (mCurrentColormapIndex + 1) % mAvailableColormaps.length;
-        mCurrentColormap = mAvailableColormaps[mCurrentColormapIndex];
+        Colormap colormap = mColormaps.activateNext();
 
         // Update UI
-        Toast.makeText(this, "Colormap: " + mCurrentColormap, Toast.LENGTH_SHORT).show();
-        Log.i(TAG, "Switched to colormap: " + mCurrentColormap);
+        Toast.makeText(this, "Colormap: " + colormap, Toast.LENGTH_SHORT).show();
+        Log.i(TAG, "Switched to colormap: " + colormap);
 
         performHapticFeedback();
     }
@@ -611,7 +716,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
         new Thread(() -> {
             try {
                 // Create snapshot bitmap with annotations
-                Bitmap snapshot = createSnapshotBitmap();
+                FrameSurfacePool.Surface<Bitmap> snapshot = createSnapshotSurface();
 
                 if (snapshot == null) {
                     runOnUiThread(() -> {
@@ -630,6 +735,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                     if (!created) {
                         Log.e(TAG, "FAILED to create snapshot directory: " + picturesDir.getAbsolutePath());
                         Log.e(TAG, "Check storage permissions and available space");
+                        snapshot.release();
                         runOnUiThread(() -> {
                             Toast.makeText(this,
                                 "Failed to create snapshot directory - check storage permissions",
@@ -655,7 +761,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                     out = new FileOutputStream(file);
 
                     // VALIDATE: Check if compression succeeded
-                    boolean compressed = snapshot.compress(Bitmap.CompressFormat.PNG, 100, out);
+                    boolean compressed = snapshot.image().compress(Bitmap.CompressFormat.PNG, 100, out);
                     if (!compressed) {
                         Log.e(TAG, "FAILED to compress bitmap to PNG");
                         throw new IOException("Bitmap compression failed");
@@ -690,6 +796,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                     });
 
                 } finally {
+                    snapshot.release();
                     if (out != null) {
                         try {
                             out.close();
@@ -715,23 +822,39 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     }
 
     /**
-     * Creates a snapshot bitmap with thermal image and annotations
+     * Creates a snapshot with thermal image and annotations; the caller releases the surface
      */
-    private Bitmap createSnapshotBitmap() {
-        if (mLatestThermalBitmap == null) {
+    private FrameSurfacePool.Surface<Bitmap> createSnapshotSurface() {
+        FrameSurfacePool.Surface<Bitmap> thermal;
+        synchronized (mLatestSurfaceLock) {
+            thermal = mLatestSurface != null ? mLatestSurface.retain() : null;
+        }
+        if (thermal == null) {
             return null;
         }
+        try {
+            return createSnapshotSurface(thermal.image());
+        } finally {
+            thermal.release();
+        }
+    }
 
-        // Create a new bitmap for the snapshot (Glass display size)
-        Bitmap snapshot = Bitmap.createBitmap(GLASS_WIDTH, GLASS_HEIGHT, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(snapshot);
+    private FrameSurfacePool.Surface<Bitmap> createSnapshotSurface(Bitmap thermalBitmap) {
+        // Pooled bitmap for the snapshot (Glass display size), fully redrawn below
+        FrameSurfacePool.Surface<Bitmap> snapshot =
+                mSurfacePool.acquire(GLASS_WIDTH, GLASS_HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(snapshot.image());
 
         // Draw black background
         canvas.drawColor(Color.BLACK);
 
-        // Scale and draw thermal bitmap
-        Rect destRect = new Rect(0, 0, GLASS_WIDTH, GLASS_HEIGHT);
-        canvas.drawBitmap(mLatestThermalBitmap, null, destRect, null);
+        // Draw thermal bitmap, 1:1 unless the scaler is off
+        if (thermalBitmap.getWidth() == GLASS_WIDTH && thermalBitmap.getHeight() == GLASS_HEIGHT) {
+            canvas.drawBitmap(thermalBitmap, 0, 0, null);
+        } else {
+            Rect destRect = new Rect(0, 0, GLASS_WIDTH, GLASS_HEIGHT);
+            canvas.drawBitmap(thermalBitmap, null, destRect, null);
+        }
 
         // Draw annotations on top
         drawAnnotations(canvas);
@@ -828,8 +951,8 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             }
         });
 
-        // Save recording info file in background
-        new Thread(() -> {
+        // Save recording info file once every queued frame has been written
+        final Runnable saveInfo = () -> {
             try {
                 if (mRecordingDir == null || mRecordingSavedFrames == 0) {
                     runOnUiThread(() ->
@@ -879,15 +1002,16 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             mRecordingSavedFrames = 0;
             mRecordingFrameCounter = 0;
 
-        }).start();
+        };
+        new Thread(() -> runOnRecordStage(saveInfo)).start();
     }
 
     /**
      * Saves a frame during recording
-     * Called from renderThermalFrame() when recording is active
+     * Called from the decode stage when recording is active
      */
-    private void saveRecordingFrame(Bitmap frame) {
-        if (!mIsRecording || mRecordingDir == null || frame == null) {
+    private void saveRecordingFrame(FrameSurfacePool.Surface<Bitmap> thermal) {
+        if (!mIsRecording || mRecordingDir == null || thermal == null) {
             return;
         }
 
@@ -897,59 +1021,119 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             return;
         }
 
-        // Save frame in background thread
-        final Bitmap frameCopy = frame.copy(frame.getConfig(), false);
-        new Thread(() -> {
-            FileOutputStream out = null;
+        FrameStage<Runnable> recordStage = mRecordStage;
+        if (recordStage == null) {
+            return;
+        }
+
+        // Copy into a record stage bitmap so display surfaces go straight back to the pool
+        Bitmap image = thermal.image();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        FrameSurfacePool.Surface<Bitmap> copy =
+                mRecordSurfacePool.acquire(width, height, Bitmap.Config.ARGB_8888);
+        image.getPixels(copy.pixels(), 0, width, 0, 0, width, height);
+
+        // Annotate and compress on the record stage; if it is behind, this frame is skipped
+        recordStage.tryOffer(new RecordingFrame(mRecordingDir, copy));
+    }
+
+    /**
+     * Record stage task holding a lease on the copied pixels it will write
+     * The lease is returned exactly once: after writing, or by cancel() when the stage
+     * refuses or discards the task unrun.
+     */
+    private final class RecordingFrame implements Runnable {
+        private final File mDir;
+        private final FrameSurfacePool.Surface<Bitmap> mThermal;
+        private final AtomicBoolean mDone = new AtomicBoolean(false);
+
+        RecordingFrame(File dir, FrameSurfacePool.Surface<Bitmap> thermal) {
+            mDir = dir;
+            mThermal = thermal;
+        }
+
+        @Override
+        public void run() {
+            if (!mDone.compareAndSet(false, true)) {
+                return;
+            }
+            FrameSurfacePool.Surface<Bitmap> snapshot;
+            try {
+                Bitmap image = mThermal.image();
+                image.setPixels(mThermal.pixels(), 0, mThermal.getWidth(), 0, 0,
+                        mThermal.getWidth(), mThermal.getHeight());
+                snapshot = createSnapshotSurface(image);
+            } finally {
+                mThermal.release();
+            }
             try {
-                String filename = String.format(Locale.US, "frame_%06d.png", mRecordingSavedFrames);
-                File frameFile = new File(mRecordingDir, filename);
+                writeRecordingFrame(mDir, snapshot.image());
+            } finally {
+                snapshot.release();
+            }
+        }
+
+        void cancel() {
+            if (mDone.compareAndSet(false, true)) {
+                mThermal.release();
+            }
+        }
+    }
 
-                out = new FileOutputStream(frameFile);
+    /**
+     * Writes one recording frame as PNG, runs on the record stage
+     */
+    private void writeRecordingFrame(File recordingDir, Bitmap frame) {
+        FileOutputStream out = null;
+        try {
+            String filename = String.format(Locale.US, "frame_%06d.png", mRecordingSavedFrames);
+            File frameFile = new File(recordingDir, filename);
 
-                // VALIDATE: Check if compression succeeded
-                boolean compressed = frameCopy.compress(Bitmap.CompressFormat.PNG, 100, out);
-                if (!compressed) {
-                    Log.e(TAG, "FAILED to compress recording frame " + mRecordingSavedFrames);
-                    throw new IOException("Bitmap compression failed");
-                }
+            out = new FileOutputStream(frameFile);
 
-                out.flush();
-                out.close();
-                out = null;  // Prevent double-close
+            // VALIDATE: Check if compression succeeded
+            boolean compressed = frame.compress(Bitmap.CompressFormat.PNG, 100, out);
+            if (!compressed) {
+                Log.e(TAG, "FAILED to compress recording frame " + mRecordingSavedFrames);
+                throw new IOException("Bitmap compression failed");
+            }
 
-                // VALIDATE: File exists and has content
-                if (!frameFile.exists() || frameFile.length() == 0) {
-                    Log.e(TAG, "FAILED to save recording frame - file missing or empty");
-                    throw new IOException("Frame file not created properly");
-                }
+            out.flush();
+            out.close();
+            out = null;  // Prevent double-close
 
-                // Only increment if save actually succeeded
-                mRecordingSavedFrames++;
+            // VALIDATE: File exists and has content
+            if (!frameFile.exists() || frameFile.length() == 0) {
+                Log.e(TAG, "FAILED to save recording frame - file missing or empty");
+                throw new IOException("Frame file not created properly");
+            }
 
-                // Update UI every 30 frames (~3 seconds)
-                if (mRecordingSavedFrames % 30 == 0) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(this,
-                            String.format(Locale.US, "Recording: %d frames (~%.1fs)",
-                                mRecordingSavedFrames, mRecordingSavedFrames / 10.0f),
-                            Toast.LENGTH_SHORT).show();
-                    });
-                }
+            // Only increment if save actually succeeded
+            mRecordingSavedFrames++;
 
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to save recording frame " + mRecordingSavedFrames, e);
-                // Note: Frame counter NOT incremented on failure
-            } finally {
-                if (out != null) {
-                    try {
-                        out.close();
-                    } catch (IOException e) {
-                        Log.e(TAG, "Error closing frame output stream", e);
-                    }
+            // Update UI every 30 frames (~3 seconds)
+            if (mRecordingSavedFrames % 30 == 0) {
+                runOnUiThread(() -> {
+                    Toast.makeText(this,
+                        String.format(Locale.US, "Recording: %d frames (~%.1fs)",
+                            mRecordingSavedFrames, mRecordingSavedFrames / 10.0f),
+                        Toast.LENGTH_SHORT).show();
+                });
+            }
+
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to save recording frame " + mRecordingSavedFrames, e);
+            // Note: Frame counter NOT incremented on failure
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Error closing frame output stream", e);
                 }
             }
-        }).start();
+        }
     }
 
     /**
@@ -1010,6 +1194,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     @Override
     protected void onStart() {
         super.onStart();
+        startFramePipeline();
         mUSBMonitor.register();
 
         // Respect auto-connect setting
@@ -1045,6 +1230,7 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             mCamera.close();
             mCamera = null;
         }
+        stopFramePipeline();
 
         // Stop RGB camera
         stopRgbCamera();
@@ -1327,73 +1513,16 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
 
     /**
      * Extract temperature measurements from thermal frame
-     * Boson 320 outputs 16-bit thermal data (YUYV format)
+     * Boson 320 outputs 16-bit thermal data; see BosonCalibration
      */
     private ThermalData extractTemperatures(byte[] thermalFrame) {
-        try {
-            // Validate frame size
-            int expectedSize = BOSON_WIDTH * BOSON_HEIGHT * 2; // YUYV = 2 bytes/pixel
-            if (thermalFrame == null || thermalFrame.length < expectedSize) {
-                Log.w(TAG, "Invalid thermal frame size: " +
-                      (thermalFrame != null ? thermalFrame.length : "null") +
-                      " (expected: " + expectedSize + ")");
-                return null;  // Return null to indicate extraction failed
-            }
-
-            // Calculate center pixel offset (center of 320x256 frame)
-            int centerY = BOSON_HEIGHT / 2;
-            int centerX = BOSON_WIDTH / 2;
-            int centerOffset = (centerY * BOSON_WIDTH + centerX) * 2; // *2 for YUYV (2 bytes per pixel)
-
-            // Bounds check for center pixel
-            if (centerOffset + 1 >= thermalFrame.length) {
-                Log.e(TAG, "Center pixel offset out of bounds: " + centerOffset +
-                      " (frame length: " + thermalFrame.length + ")");
-                return null;  // Return null to indicate extraction failed
-            }
-
-            // Extract center pixel value
-            int centerPixel = (thermalFrame[centerOffset] & 0xFF) | ((thermalFrame[centerOffset + 1] & 0xFF) << 8);
-            float centerTemp = applyCalibration(centerPixel);
-
-            // Calculate min, max, and average temperatures
-            float minTemp = Float.MAX_VALUE;
-            float maxTemp = Float.MIN_VALUE;
-            float sum = 0;
-            int count = 0;
-
-            // Iterate through all pixels (YUYV format - 2 bytes per pixel)
-            for (int i = 0; i < thermalFrame.length - 1; i += 2) {
-                int pixel = (thermalFrame[i] & 0xFF) | ((thermalFrame[i + 1] & 0xFF) << 8);
-                float temp = applyCalibration(pixel);
-
-                minTemp = Math.min(minTemp, temp);
-                maxTemp = Math.max(maxTemp, temp);
-                sum += temp;
-                count++;
-            }
-
-            // Prevent division by zero
-            float avgTemp = count > 0 ? sum / count : 0;
-
-            return new ThermalData(centerTemp, minTemp, maxTemp, avgTemp);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error extracting temperatures", e);
-            // Return null to indicate extraction failed
-            return null;
+        ThermalData thermalData = BosonCalibration.extractTemperatures(thermalFrame, BOSON_WIDTH, BOSON_HEIGHT);
+        if (thermalData == null) {
+            Log.w(TAG, "Invalid thermal frame size: " +
+                  (thermalFrame != null ? thermalFrame.length : "null") +
+                  " (expected: " + BOSON_WIDTH * BOSON_HEIGHT * 2 + ")");
         }
-    }
-
-    /**
-     * Apply Boson 320 calibration to convert raw pixel value to temperature (Celsius)
-     * Boson 320 calibration formula: T = (pixel - 8192) * 0.01 + 20.0
-     * This is a simplified calibration - actual Boson calibration may vary
-     */
-    private float applyCalibration(int pixelValue) {
-        // Boson 320 typical calibration
-        // Raw values typically range from ~7000-10000 for normal temperature ranges
-        return (pixelValue - 8192) * 0.01f + 20.0f;
+        return thermalData;  // Null indicates extraction failed
     }
 
     /**
@@ -1450,21 +1579,66 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
         try {
             String colormap = data.getString("colormap");
 
-            // Store current colormap
-            mCurrentColormap = colormap;
+            // Swap the active table; the decode stage picks it up with the next frame
+            if (!mColormaps.setActive(colormap)) {
+                Log.w(TAG, "Unknown colormap requested: " + colormap);
+                return;
+            }
 
             Log.i(TAG, "Colormap changed to: " + colormap);
 
+            // Optional display gain mode ("off", "linear", "plateau")
+            if (data.has("agc")) {
+                mAgc.setMode(AutoGainControl.Mode.fromName(data.getString("agc")));
+                Log.i(TAG, "AGC mode: " + mAgc.getMode());
+            }
+
             runOnUiThread(() ->
                 Toast.makeText(this, "Colormap: " + colormap, Toast.LENGTH_SHORT).show()
             );
-
-            // Colormap will be applied in frame processing (applyThermalColormap)
         } catch (JSONException e) {
             Log.e(TAG, "Error parsing colormap change", e);
         }
     }
 
+    /**
+     * Dumps the frame tracer to a file and, if requested, sends it to the companion app
+     * The .gtrc file converts to Chrome trace JSON with the TraceToChromeJson tool.
+     */
+    private void dumpFrameTrace(boolean sendToServer) {
+        new Thread(() -> {
+            File traceDir = new File(getExternalFilesDir(null), "traces");
+            if (!traceDir.exists() && !traceDir.mkdirs()) {
+                Log.e(TAG, "Failed to create trace directory: " + traceDir.getAbsolutePath());
+                return;
+            }
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+            File traceFile = new File(traceDir, "frametrace_" + timestamp + ".gtrc");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (FileOutputStream out = new FileOutputStream(traceFile)) {
+                FrameTracer.dump(bytes);
+                bytes.writeTo(out);
+                Log.i(TAG, "✓ Frame trace written: " + traceFile.getAbsolutePath() + " (" + bytes.size() + " bytes)");
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to write frame trace", e);
+                return;
+            }
+
+            if (sendToServer && mSocket != null && mConnected) {
+                try {
+                    JSONObject data = new JSONObject();
+                    data.put("filename", traceFile.getName());
+                    data.put("trace", bytes.toByteArray());  // Sent as a binary attachment
+                    data.put("timestamp", System.currentTimeMillis());
+                    mSocket.emit("frame_trace", data);
+                } catch (JSONException e) {
+                    Log.e(TAG, "Error sending frame trace", e);
+                }
+            }
+        }, "GlassAR-trace-dump").start();
+    }
+
     /**
      * Get configured server URL from SharedPreferences
      * Falls back to default if not configured
@@ -1587,6 +1761,14 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                 }
             });
 
+            mSocket.on("dump_trace", new Emitter.Listener() {
+                @Override
+                public void call(Object... args) {
+                    Log.i(TAG, "Frame trace requested by server");
+                    dumpFrameTrace(true);
+                }
+            });
+
             // Settings sync response handler
             mSocket.on("settings_sync_response", new Emitter.Listener() {
                 @Override
@@ -1706,7 +1888,8 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             // Glass-owned settings (authoritative)
             JSONObject glassOwned = new JSONObject();
             JSONObject formatSetting = new JSONObject();
-            formatSetting.put("value", mDetectedFormat != null ? mDetectedFormat.toString() : "unknown");
+            FrameDecoder decoder = mDecoder;
+            formatSetting.put("value", decoder != null ? decoder.getName() : "unknown");
             formatSetting.put("ownership", "glass");
             formatSetting.put("last_modified", currentTime);
             glassOwned.put("format", formatSetting);
@@ -1734,6 +1917,96 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             performance.put("cpu_usage", getCPUUsage());
             performance.put("battery_level", mBatteryLevel);
             performance.put("thermal_state", getThermalState());
+            performance.put("capture_dropped_frames", mCamera != null ? mCamera.getDroppedFrameCount() : 0);
+            performance.put("capture_lost_frames_per_min", mCamera != null ? mCamera.getLostFramesPerMinute() : 0);
+            performance.put("usb_transfer_size", mCamera != null ? mCamera.getTransferSize() : 0);
+            performance.put("usb_transfers_per_frame", mCamera != null ? mCamera.getTransfersPerFrame() : 0);
+            performance.put("camera_frame_gaps", mCamera != null ? mCamera.getCameraFrameGapCount() : 0);
+            performance.put("ffc_skipped_frames", mFfcSkippedFrames);
+            performance.put("display_agc", mAgc.describe());
+            performance.put("convert_time_ms", mConvertTimeNanos / 1e6);
+            performance.put("pixel_threads", mBatteryLevel > SERIAL_PIXELS_BATTERY_PERCENT ? mPixelThreads : 1);
+            performance.put("max_convert_time_ms", mMaxConvertTimeNanos / 1e6);
+            performance.put("mjpeg_sample_size", mMjpegDecoder.getSampleSize());
+            performance.put("display_fit", mDisplayFit.name().toLowerCase(Locale.US));
+            performance.put("display_scaler", mScalerMode != null ? mScalerMode.name().toLowerCase(Locale.US) : "canvas");
+            performance.put("surface_pool_size", mSurfacePool.getSize());
+            performance.put("surface_pool_in_use", mSurfacePool.getInUseCount());
+            performance.put("surface_allocations", mSurfacePool.getAllocationCount());
+            performance.put("surface_pool_misses", mSurfacePool.getMissCount());
+            if (mLatestTelemetry.isValid()) {
+                performance.put("fpa_temp_c", mLatestTelemetry.getFpaTempCelsius());
+                performance.put("ffc_status", mLatestTelemetry.getFfcStatus());
+                performance.put("gain_mode", mLatestTelemetry.getGainMode());
+            }
+
+            // Per-stage queue depth and service time
+            JSONObject pipeline = new JSONObject();
+            for (FrameStage<?> stage : getFrameStages()) {
+                JSONObject stageMetrics = new JSONObject();
+                stageMetrics.put("queue_depth", stage.getQueueDepth());
+                stageMetrics.put("queue_capacity", stage.getCapacity());
+                stageMetrics.put("peak_queue_depth", stage.getPeakQueueDepth());
+                stageMetrics.put("service_time_ms", stage.getServiceTimeMs());
+                stageMetrics.put("max_service_time_ms", stage.getMaxServiceTimeMs());
+                stageMetrics.put("processed", stage.getProcessedCount());
+                stageMetrics.put("dropped", stage.getDroppedCount());
+                stageMetrics.put("errors", stage.getErrorCount());
+                pipeline.put(stage.getName(), stageMetrics);
+            }
+            VsyncRenderer<DecodedFrame> renderer = mRenderer;
+            if (renderer != null) {
+                // Same keys as the stages; "dropped" are the frames skipped for a newer one
+                JSONObject renderMetrics = new JSONObject();
+                renderMetrics.put("queue_depth", renderer.getPendingCount());
+                renderMetrics.put("queue_capacity", 1);
+                renderMetrics.put("service_time_ms", renderer.getRenderTimeMs());
+                renderMetrics.put("max_service_time_ms", renderer.getMaxRenderTimeMs());
+                renderMetrics.put("processed", renderer.getRenderedCount());
+                renderMetrics.put("dropped", renderer.getSkippedCount());
+                renderMetrics.put("errors", renderer.getErrorCount());
+                pipeline.put(renderer.getName(), renderMetrics);
+                performance.put("render_frames_skipped", renderer.getSkippedCount());
+
+                // Frames drawn and overlay repaints per second since the previous sync
+                OverlayCompositor overlay = mOverlay;
+                long rendered = renderer.getRenderedCount();
+                long rebuilds = overlay != null ? overlay.getRebuildCount() : 0;
+                long now = System.nanoTime();
+                if (mRateSampleNanos != 0 && rendered >= mRateSampleRendered) {
+                    double seconds = (now - mRateSampleNanos) / 1e9;
+                    performance.put("render_fps", (rendered - mRateSampleRendered) / seconds);
+                    performance.put("overlay_rebuilds_per_s", (rebuilds - mRateSampleRebuilds) / seconds);
+                }
+                mRateSampleNanos = now;
+                mRateSampleRendered = rendered;
+                mRateSampleRebuilds = rebuilds;
+            }
+            performance.put("pipeline", pipeline);
+
+            // Latency from USB arrival since the previous sync, then a new window
+            JSONObject latency = new JSONObject();
+            for (LatencyHistogram.Window window : mSyncLatency) {
+                window.update();
+                JSONObject percentiles = new JSONObject();
+                percentiles.put("p50_ms", window.percentileMs(50));
+                percentiles.put("p95_ms", window.percentileMs(95));
+                percentiles.put("p99_ms", window.percentileMs(99));
+                percentiles.put("max_ms", window.getMaxMs());
+                percentiles.put("count", window.getCount());
+                latency.put(window.getName(), percentiles);
+                window.restart();
+            }
+            performance.put("latency", latency);
+
+            // How late the main thread runs the readout ticker, a proxy for touchpad latency
+            UiStatePublisher uiPublisher = mUiPublisher;
+            if (uiPublisher != null) {
+                performance.put("ui_update_hz", uiPublisher.getRateHz());
+                performance.put("ui_updates", uiPublisher.getPublishCount());
+                performance.put("ui_tick_lag_ms", uiPublisher.getLagMs());
+                performance.put("max_ui_tick_lag_ms", uiPublisher.getMaxLagMs());
+            }
             payload.put("performance_metrics", performance);
 
             // General info
@@ -1749,6 +2022,12 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             mSocket.emit("settings_sync", payload);
             Log.d(TAG, "Settings sync sent (fps=" + String.format("%.1f", mCurrentFPS) +
                 ", thermal=" + getThermalState() + ")");
+            for (FrameStage<?> stage : getFrameStages()) {
+                Log.d(TAG, "  " + stage.describe());
+            }
+            if (renderer != null) {
+                Log.d(TAG, "  " + renderer.describe());
+            }
 
         } catch (JSONException e) {
             Log.e(TAG, "Error creating settings sync", e);
@@ -2008,6 +2287,15 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                 // Create and open native UVC camera
                 mCamera = new NativeUVCCamera(MainActivity.this);
 
+                // Optionally record the USB packet stream for offline replay (TraceReplayTransport)
+                if (getSharedPreferences(PREF_NAME, MODE_PRIVATE).getBoolean("usb_trace_capture", false)) {
+                    File traceDir = new File(getExternalFilesDir(null), "traces");
+                    if (traceDir.exists() || traceDir.mkdirs()) {
+                        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+                        mCamera.setTraceFile(new File(traceDir, "boson_" + timestamp + ".uvct"));
+                    }
+                }
+
                 if (mCamera.open(device)) {
                     try {
                         // Set Boson 320 resolution and VALIDATE it succeeded
@@ -2025,6 +2313,18 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                         Log.i(TAG, "Preview size set successfully: " + BOSON_WIDTH + "x" + BOSON_HEIGHT);
                         mCamera.setFrameCallback(mFrameCallback);
 
+                        // Number of USB reads kept in flight (0 = legacy synchronous loop)
+                        android.content.SharedPreferences prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
+                        mCamera.setRequestQueueDepth(prefs.getInt("usb_queue_depth",
+                            NativeUVCCamera.DEFAULT_REQUEST_QUEUE_DEPTH));
+
+                        // Pooled frame buffers shared by capture and the pipeline stages
+                        mCamera.setFramePoolSize(prefs.getInt("frame_pool_size", FRAME_POOL_SIZE));
+
+                        // New stream: its format is resolved again from the first frame
+                        mDecoder = null;
+                        mCamera.setFrameDecoders(mDecoders);
+
                         if (mCamera.startPreview()) {
                             mThermalCameraActive = true;
                             Log.i(TAG, "✓ Boson 320 camera started successfully");
@@ -2105,88 +2405,238 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     
     private final NativeUVCCamera.IFrameCallback mFrameCallback = new NativeUVCCamera.IFrameCallback() {
         @Override
-        public void onFrame(final ByteBuffer frame) {
+        public void onFrame(final FrameBufferPool.Frame frame) {
             mFrameCount++;
+            // Frames received so far, not the camera's sequence (which counts dropped frames too)
+            mUiState.setFrameNumber(mFrameCount);
 
             // Update FPS calculation for settings sync
             updateFPS();
 
-            // Update frame counter UI
-            runOnUiThread(() ->
-                mFrameCounter.setText(String.valueOf(mFrameCount))
-            );
+            // Hand off to the decode stage and get straight back to USB reads
+            FrameStage<FrameBufferPool.Frame> decodeStage = mDecodeStage;
+            if (decodeStage != null) {
+                decodeStage.offer(frame.retain());
+            }
+        }
+    };
 
-            // Ensure ByteBuffer is at position 0 before processing
-            frame.rewind();
+    /**
+     * Starts the frame-processing stages, one thread each
+     * Render and network keep only the newest frame; recording is lossless.
+     */
+    private void startFramePipeline() {
+        if (mDecodeStage != null) {
+            return;
+        }
 
-            // Send frame to server if connected
-            if (mConnected && mSocket != null) {
-                // Convert frame to byte array
-                byte[] frameData = new byte[frame.remaining()];
-                frame.get(frameData);
-                frame.rewind();  // Reset position after extraction
+        mRenderer = new VsyncRenderer<>("render", this::renderThermalFrame, DecodedFrame::release);
+        mNetworkStage = new FrameStage<>("network", NETWORK_QUEUE_CAPACITY, FrameStage.Policy.DROP_OLDEST,
+                this::sendThermalFrame, FrameBufferPool.Frame::release);
+        mAnalyticsStage = new FrameStage<>("analytics", ANALYTICS_QUEUE_CAPACITY, FrameStage.Policy.DROP_OLDEST,
+                this::analyzeThermalFrame, FrameBufferPool.Frame::release);
+        mRecordStage = new FrameStage<>("record", RECORD_QUEUE_CAPACITY, FrameStage.Policy.LOSSLESS,
+                Runnable::run, MainActivity::cancelRecordTask);
+        mDecodeStage = new FrameStage<>("decode", DECODE_QUEUE_CAPACITY, FrameStage.Policy.DROP_OLDEST,
+                this::decodeThermalFrame, FrameBufferPool.Frame::release);
+        mBandExecutor = new BandExecutor(mPixelThreads, "GlassAR-band");
 
-                // Extract temperature measurements from thermal data
-                ThermalData thermalData = extractTemperatures(frameData);
+        for (FrameStage<?> stage : getFrameStages()) {
+            stage.setErrorListener(mStageErrorListener);
+        }
 
-                // VALIDATE: Check if extraction succeeded
-                if (thermalData == null) {
-                    Log.w(TAG, "Failed to extract temperature data from frame - skipping temperature update");
-                    // Don't update display or send to server if extraction failed
-                    runOnUiThread(() -> {
-                        if (mCenterTemperature != null) {
-                            mCenterTemperature.setText("--°C");  // Show invalid
-                        }
-                    });
-                } else {
-                    // Update center temperature display
-                    runOnUiThread(() -> {
-                        if (mCenterTemperature != null) {
-                            mCenterTemperature.setText(String.format("%.1f°C", thermalData.centerTemp));
-                        }
-                    });
+        mRenderer.start();
+        mNetworkStage.start();
+        mAnalyticsStage.start();
+        mRecordStage.start();
+        mDecodeStage.start();
 
-                    // Send thermal data measurements to companion app
-                    sendThermalData(thermalData);
-                }
+        mUiPublisher = new UiStatePublisher(mUiState, mFrameCounter, mCenterTemperature, mUiRateHz);
+        mUiPublisher.start();
+        Log.i(TAG, "Frame pipeline started");
+    }
 
-                // Encode to base64 for JSON transmission
-                String frameBase64 = Base64.encodeToString(frameData, Base64.NO_WRAP);
+    /**
+     * Stops the pipeline upstream first so no stage is fed after it stops
+     */
+    private void stopFramePipeline() {
+        if (mDecodeStage == null) {
+            return;
+        }
 
-                // Create JSON payload with temperature data
-                try {
-                    JSONObject payload = new JSONObject();
-                    payload.put("frame", frameBase64);  // Now base64 encoded
-                    payload.put("mode", mCurrentMode);
-                    payload.put("frame_number", mFrameCount);
-                    payload.put("timestamp", System.currentTimeMillis());
-
-                    // Include format metadata for server syncing
-                    if (mDetectedFormat != null) {
-                        payload.put("format", mDetectedFormat.toString());  // "MJPEG", "Y16", or "I420"
-                        payload.put("has_temperature", mDetectedFormat == BosonFormat.Y16);  // Only Y16 is radiometric
-                    } else {
-                        payload.put("format", "unknown");
-                        payload.put("has_temperature", false);
-                    }
+        FrameStage<FrameBufferPool.Frame> decodeStage = mDecodeStage;
+        mDecodeStage = null;
+        decodeStage.stop();
+        mRenderer.stop();
+        // The render thread is gone; the layer is rebuilt when the next stream starts
+        if (mOverlay != null) {
+            mOverlay.recycle();
+            mOverlay = null;
+        }
+        mNetworkStage.stop();
+        mAnalyticsStage.stop();
+        mRecordStage.stop();
+        mBandExecutor.shutdown();
+        mUiPublisher.stop();
+
+        FrameSurfacePool.Surface<Bitmap> latestSurface;
+        synchronized (mLatestSurfaceLock) {
+            latestSurface = mLatestSurface;
+            mLatestSurface = null;
+        }
+        if (latestSurface != null) {
+            latestSurface.release();
+        }
+        Log.i(TAG, "Frame pipeline stopped");
+    }
 
-                    // Include temperature measurements
-                    payload.put("center_temp", thermalData.centerTemp);
-                    payload.put("min_temp", thermalData.minTemp);
-                    payload.put("max_temp", thermalData.maxTemp);
-                    payload.put("avg_temp", thermalData.avgTemp);
+    private final FrameStage.ErrorListener mStageErrorListener = (stage, e) -> {
+        // Only log the first few per stage, settings sync reports the running count
+        if (stage.getErrorCount() <= 10) {
+            Log.e(TAG, "Error in " + stage.getName() + " stage", e);
+        }
+    };
 
-                    mSocket.emit("thermal_frame", payload);
+    private List<FrameStage<?>> getFrameStages() {
+        List<FrameStage<?>> stages = new ArrayList<>();
+        if (mDecodeStage != null) {
+            stages.add(mDecodeStage);
+            stages.add(mNetworkStage);
+            stages.add(mAnalyticsStage);
+            stages.add(mRecordStage);
+        }
+        return stages;
+    }
 
-                } catch (JSONException e) {
-                    Log.e(TAG, "Error creating frame payload", e);
-                }
+    // Returns the frame lease of a recording task the record stage processed or discarded
+    private static void cancelRecordTask(Runnable task) {
+        if (task instanceof RecordingFrame) {
+            ((RecordingFrame) task).cancel();
+        }
+    }
+
+    /**
+     * Runs a task on the lossless record stage, or inline if the pipeline is not running
+     * Only for plain tasks: a RecordingFrame the stage refuses has already been cancelled.
+     */
+    private void runOnRecordStage(Runnable task) {
+        FrameStage<Runnable> recordStage = mRecordStage;
+        if (recordStage == null || !recordStage.offer(task)) {
+            task.run();
+        }
+    }
+
+    /**
+     * Decode stage: converts the raw frame once and fans it out to the other stages
+     */
+    private void decodeThermalFrame(FrameBufferPool.Frame frame) {
+        ByteBuffer frameData = frame.buffer();
+        frameData.rewind();
+
+        FrameTracer.begin(FrameTracer.CONVERT, frame.sequence());
+        long convertStart = System.nanoTime();
+        FrameSurfacePool.Surface<Bitmap> surface = convertThermalToBitmap(frameData, frame.stats());
+        long decoded = System.nanoTime();
+        recordConvertTime(decoded - convertStart);
+        mDecodeLatency.record(decoded - frame.timestampNanos());
+        FrameTracer.end(FrameTracer.CONVERT, frame.sequence());
+        frameData.rewind();
+
+        if (surface != null) {
+            // Store latest frame for snapshot capture
+            FrameSurfacePool.Surface<Bitmap> previousSurface;
+            synchronized (mLatestSurfaceLock) {
+                previousSurface = mLatestSurface;
+                mLatestSurface = surface.retain();
+            }
+            if (previousSurface != null) {
+                previousSurface.release();
             }
 
-            // Render frame on display
-            renderThermalFrame(frame);
+            // Save frame if recording is active
+            if (mIsRecording) {
+                saveRecordingFrame(surface);
+            }
         }
-    };
+
+        // The renderer takes over the converter's lease; it replaces a frame not drawn yet
+        mRenderer.offer(obtainDecodedFrame(surface, frame.sequence(), frame.timestampNanos()));
+        mAnalyticsStage.offer(frame.retain());
+
+        // Send frame to server if connected
+        if (mConnected && mSocket != null) {
+            mNetworkStage.offer(frame.retain());
+        }
+    }
+
+    // Same smoothing as the stage service times; decode thread only writes
+    private void recordConvertTime(long nanos) {
+        long smoothed = mConvertTimeNanos;
+        mConvertTimeNanos = smoothed == 0 ? nanos
+                : smoothed + ((nanos - smoothed) >> CONVERT_TIME_SMOOTHING_SHIFT);
+        if (nanos > mMaxConvertTimeNanos) {
+            mMaxConvertTimeNanos = nanos;
+        }
+    }
+
+    /**
+     * Analytics stage: temperature extraction and HUD readouts
+     */
+    private void analyzeThermalFrame(FrameBufferPool.Frame frame) {
+        // Shutter is closed for flat-field correction: the image is frozen, skip measurements
+        mLatestTelemetry.copyFrom(frame.telemetry());
+        if (mLatestTelemetry.isFfcInProgress()) {
+            mFfcSkippedFrames++;
+            return;
+        }
+
+        // Y16 statistics were filled by the decode stage in the same pass as the colormap
+        ThermalData thermalData;
+        FrameStats stats = frame.stats();
+        if (stats.isValid()) {
+            thermalData = BosonCalibration.fromStats(stats);
+        } else {
+            // Copy into a reusable array; the decode and network stages share the buffer
+            if (mAnalyticsFrameData == null || mAnalyticsFrameData.length != frame.length()) {
+                mAnalyticsFrameData = new byte[frame.length()];
+            }
+            frame.buffer().duplicate().get(mAnalyticsFrameData);
+
+            // Extract temperature measurements from thermal data
+            thermalData = extractTemperatures(mAnalyticsFrameData);
+        }
+        mLatestThermalData = thermalData;
+
+        // VALIDATE: Check if extraction succeeded
+        if (thermalData == null) {
+            Log.w(TAG, "Failed to extract temperature data from frame - skipping temperature update");
+            mUiState.setCenterTemp(Float.NaN);  // Show invalid
+        } else {
+            // Update center temperature display
+            mUiState.setCenterTemp(thermalData.centerTemp);
+
+            // Send thermal data measurements to companion app
+            sendThermalData(thermalData);
+        }
+    }
+
+    /**
+     * Network stage: base64 frame upload to the companion server
+     * Temperatures come from the analytics stage's most recent result.
+     */
+    private void sendThermalFrame(FrameBufferPool.Frame frame) {
+        if (!mConnected || mSocket == null) {
+            return;
+        }
+
+        try {
+            JSONObject payload = ThermalFramePayload.build(frame, mCurrentMode, mDecoder, mLatestThermalData);
+            mSocket.emit("thermal_frame", payload);
+            mNetworkLatency.record(System.nanoTime() - frame.timestampNanos());
+        } catch (JSONException e) {
+            Log.e(TAG, "Error creating frame payload", e);
+        }
+    }
     
     private void handleAnnotations(JSONObject data) {
         try {
@@ -2206,15 +2656,39 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             } else if (data.has("component_temps")) {
                 mThermalAnalysis = ThermalAnalysis.fromElectronicsJSON(data.getJSONArray("component_temps"));
             }
-            
-            // Update display will happen on next frame
-            
+
+            // The overlay is repainted once with these, not on every frame
+            mAnnotatedObjects = buildAnnotatedObjects(mDetections, mThermalAnalysis);
+            OverlayCompositor overlay = mOverlay;
+            if (overlay != null) {
+                overlay.invalidate();
+            }
+
         } catch (JSONException e) {
             Log.e(TAG, "Error parsing annotations", e);
         }
     }
     
-    private void renderThermalFrame(ByteBuffer frameData) {
+    /**
+     * Decode thread: a free handoff for the renderer, which returns it through release()
+     */
+    private DecodedFrame obtainDecodedFrame(FrameSurfacePool.Surface<Bitmap> surface, long sequence,
+                                            long captureNanos) {
+        for (DecodedFrame decoded : mDecodedFrames) {
+            if (decoded.tryClaim()) {
+                return decoded.set(surface, sequence, captureNanos);
+            }
+        }
+        // Not reached while the renderer holds at most two; never wait on the render thread
+        DecodedFrame extra = new DecodedFrame();
+        extra.tryClaim();
+        return extra.set(surface, sequence, captureNanos);
+    }
+
+    /**
+     * Render thread, once per vsync with a new frame: draws it and the annotations to the Glass display
+     */
+    private void renderThermalFrame(DecodedFrame frame) {
         if (mSurfaceHolder == null) {
             Log.w(TAG, "Cannot render - surface holder is null");
             return;
@@ -2226,12 +2700,14 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             return;
         }
 
+        // Drawing and posting only; the render event also covers waiting for the canvas
+        FrameTracer.begin(FrameTracer.DRAW, frame.sequence);
         try {
             // Clear canvas
             canvas.drawColor(Color.BLACK);
 
-            // Convert thermal frame to bitmap and draw
-            Bitmap thermalBitmap = convertThermalToBitmap(frameData);
+            // Draw the bitmap produced by the decode stage
+            Bitmap thermalBitmap = frame.bitmap;
             if (thermalBitmap != null) {
                 // Log bitmap size before rendering (first 3 frames only)
                 if (mFrameCount <= 3) {
@@ -2239,21 +2715,12 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
                               thermalBitmap.getHeight() + " to display: " + GLASS_WIDTH + "×" + GLASS_HEIGHT);
                 }
 
-                // Store latest frame for snapshot capture
-                mLatestThermalBitmap = thermalBitmap;
-
-                // Store frame data copy for snapshot
-                if (mLatestFrameData == null || mLatestFrameData.capacity() != frameData.capacity()) {
-                    mLatestFrameData = ByteBuffer.allocate(frameData.capacity());
+                // Projected and scaled bitmaps are display-sized and drawn 1:1; Canvas stretches the rest
+                if (thermalBitmap.getWidth() == GLASS_WIDTH && thermalBitmap.getHeight() == GLASS_HEIGHT) {
+                    canvas.drawBitmap(thermalBitmap, 0, 0, null);
+                } else {
+                    canvas.drawBitmap(thermalBitmap, null, mDisplayRect, null);
                 }
-                frameData.rewind();
-                mLatestFrameData.clear();
-                mLatestFrameData.put(frameData);
-                frameData.rewind();
-
-                // Scale to Glass display size
-                Rect destRect = new Rect(0, 0, GLASS_WIDTH, GLASS_HEIGHT);
-                canvas.drawBitmap(thermalBitmap, null, destRect, null);
 
                 // Log successful render (only first 5 frames)
                 if (mFrameCount <= 5) {
@@ -2262,28 +2729,26 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             } else {
                 Log.e(TAG, "✗ Frame #" + mFrameCount + " - convertThermalToBitmap returned NULL");
                 // Draw error indicator
-                Paint paint = new Paint();
-                paint.setColor(Color.RED);
-                paint.setTextSize(30);
-                canvas.drawText("NO FRAME DATA", 50, 100, paint);
+                mErrorPaint.setColor(Color.RED);
+                mErrorPaint.setTextSize(30);
+                canvas.drawText("NO FRAME DATA", 50, 100, mErrorPaint);
             }
 
-            // Draw annotations on top
-            drawAnnotations(canvas);
-
-            // Save frame if recording is active
-            if (mIsRecording && thermalBitmap != null) {
-                // Create snapshot with annotations for recording
-                Bitmap recordingFrame = createSnapshotBitmap();
-                saveRecordingFrame(recordingFrame);
-            }
+            // Cached HUD and annotations on top
+            drawOverlay(canvas);
 
         } finally {
             mSurfaceHolder.unlockCanvasAndPost(canvas);
+            mDisplayLatency.record(System.nanoTime() - frame.captureNanos);
+            FrameTracer.end(FrameTracer.DRAW, frame.sequence);
         }
     }
 
-    private Bitmap convertThermalToBitmap(ByteBuffer frameData) {
+    /**
+     * Converts a raw frame to a leased bitmap; Y16 frames also get their statistics filled in
+     * The decoder is resolved on the first frame of a stream and used for every frame after it.
+     */
+    private FrameSurfacePool.Surface<Bitmap> convertThermalToBitmap(ByteBuffer frameData, FrameStats stats) {
         try {
             // Validate frame data
             if (frameData == null) {
@@ -2294,434 +2759,283 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
             int available = frameData.remaining();
 
             // Auto-detect format on first frame
-            if (mDetectedFormat == null) {
-                Log.i(TAG, ">>> FORMAT AUTO-DETECTION <<<");
-                Log.i(TAG, "  Received frame size: " + available + " bytes");
-
-                // Check for MJPEG format first (JPEG magic bytes: 0xFF 0xD8)
-                frameData.mark();
-                if (available >= 2) {
-                    byte firstByte = frameData.get();
-                    byte secondByte = frameData.get();
-                    if (firstByte == (byte)0xFF && secondByte == (byte)0xD8) {
-                        mDetectedFormat = BosonFormat.MJPEG;
-                        Log.i(TAG, "✓ DETECTED: MJPEG format (JPEG compressed, variable size)");
-                        Log.i(TAG, "  Boson is in MJPEG mode - compressed 8-bit thermal");
-                        Log.w(TAG, "  ⚠ NOTE: MJPEG loses radiometric data! Use Boson serial port for temperatures");
-                        Log.i(TAG, "  Typical frame sizes: 150KB-350KB (varies with image complexity)");
-                        frameData.reset();
-                        return convertMJPEGToBitmap(frameData, available);
-                    }
-                }
-                frameData.reset();
-
-                // Check for uncompressed formats
-                Log.i(TAG, "  Y16 expected: " + Y16_FRAME_SIZE + " or " + Y16_FRAME_SIZE_WITH_TELEM + " bytes (320×256 or 320×258 with telemetry)");
-                Log.i(TAG, "  I420 expected: " + I420_FRAME_SIZE + " or " + I420_FRAME_SIZE_WITH_TELEM + " bytes (640×512 or 640×514 with telemetry)");
-
-                if (available == Y16_FRAME_SIZE || available == Y16_FRAME_SIZE_WITH_TELEM) {
-                    mDetectedFormat = BosonFormat.Y16;
-                    if (available == Y16_FRAME_SIZE_WITH_TELEM) {
-                        Log.i(TAG, "✓ DETECTED: Y16 format (320×258, 16-bit radiometric WITH telemetry)");
-                        Log.w(TAG, "  ⚠ Telemetry rows detected - will strip last 2 rows (1280 bytes)");
-                    } else {
-                        Log.i(TAG, "✓ DETECTED: Y16 format (320×256, 16-bit radiometric, no telemetry)");
-                    }
-                } else if (available == I420_FRAME_SIZE || available == I420_FRAME_SIZE_WITH_TELEM) {
-                    mDetectedFormat = BosonFormat.I420;
-                    if (available == I420_FRAME_SIZE_WITH_TELEM) {
-                        Log.i(TAG, "✓ DETECTED: I420 format (640×514, YUV420 colorized WITH telemetry)");
-                        Log.w(TAG, "  ⚠ Telemetry rows detected - will strip last 2 rows");
-                    } else {
-                        Log.i(TAG, "✓ DETECTED: I420 format (640×512, YUV420 colorized, no telemetry)");
-                    }
-                } else {
-                    Log.e(TAG, "✗ UNKNOWN FRAME FORMAT: " + available + " bytes");
-                    Log.e(TAG, "  Expected Y16: " + Y16_FRAME_SIZE + " or " + Y16_FRAME_SIZE_WITH_TELEM);
-                    Log.e(TAG, "  Expected I420: " + I420_FRAME_SIZE + " or " + I420_FRAME_SIZE_WITH_TELEM);
-                    Log.e(TAG, "  Expected MJPEG: Variable size, starts with 0xFF 0xD8");
-                    Log.e(TAG, "  Camera may be sending unexpected format!");
+            FrameDecoder decoder = mDecoder;
+            if (decoder == null) {
+                decoder = resolveDecoder(frameData, available);
+                if (decoder == null) {
                     return null;
                 }
+                mDecoder = decoder;
             }
 
-            // Process based on detected format
-            if (mDetectedFormat == BosonFormat.Y16) {
-                return convertY16ToBitmap(frameData, available);
-            } else if (mDetectedFormat == BosonFormat.I420) {
-                return convertI420ToBitmap(frameData, available);
-            } else if (mDetectedFormat == BosonFormat.MJPEG) {
-                return convertMJPEGToBitmap(frameData, available);
-            }
-
-            Log.e(TAG, "✗ No format detected - this should not happen!");
-            return null;
+            // Spread pixel work over the other cores, unless the battery is low
+            BandExecutor executor = mBatteryLevel > SERIAL_PIXELS_BATTERY_PERCENT ? mBandExecutor : null;
+            decoder.setExecutor(executor, mPixelBandRows);
 
-        } catch (Exception e) {
-            Log.e(TAG, "✗ EXCEPTION in convertThermalToBitmap", e);
-            return null;
-        }
-    }
-
-    /**
-     * Convert Y16 format (16-bit radiometric) to bitmap
-     * Format: 320×256, 2 bytes per pixel (Little Endian)
-     */
-    private Bitmap convertY16ToBitmap(ByteBuffer frameData, int available) {
-        try {
-            if (available < Y16_FRAME_SIZE) {
-                Log.w(TAG, "Incomplete Y16 frame: expected " + Y16_FRAME_SIZE + " bytes, got " + available);
+            // Radiometric frames go through the AGC table built from previous frames' histograms,
+            // then this frame feeds the next update; 8-bit frames use the colormap directly
+            boolean radiometric = decoder.isRadiometric();
+            Colormap colormap = mColormaps.getActive();
+            int[] pixels = decoder.decode(frameData, available,
+                    radiometric ? mAgc.getTable(colormap) : colormap.table(), stats);
+            if (pixels == null) {
+                Log.w(TAG, "Incomplete or undecodable " + decoder.getName() + " frame: " + available + " bytes");
                 return null;
             }
+            if (radiometric) {
+                mAgc.onFrame(stats);
+            }
 
-            // Make defensive copy - only copy image data, skip telemetry rows if present
-            frameData.rewind();
-            byte[] frameCopy = new byte[Y16_FRAME_SIZE];
-            frameData.get(frameCopy);
-
-            // If frame has telemetry (320×258), we already copied only first 163,840 bytes (320×256)
-            // The last 1,280 bytes (2 telemetry rows) are automatically ignored
-
-            // Create bitmap (320×256)
-            Bitmap bitmap = Bitmap.createBitmap(BOSON_WIDTH, BOSON_HEIGHT, Bitmap.Config.ARGB_8888);
-            int[] pixels = new int[BOSON_WIDTH * BOSON_HEIGHT];
-
-            // Extract 16-bit values from Y16 format
-            int byteIndex = 0;
-            for (int i = 0; i < pixels.length; i++) {
-                if (byteIndex + 1 >= frameCopy.length) {
-                    Log.w(TAG, "Buffer underrun at pixel " + i);
-                    break;
+            // Output not projected by the decoder is scaled into the display-sized buffer
+            int width = decoder.getOutputWidth();
+            int height = decoder.getOutputHeight();
+            DisplayScaler.Mode scalerMode = mScalerMode;
+            if (decoder.getProjection() == null && scalerMode != null) {
+                DisplayScaler scaler = mScaler;
+                if (scaler == null || !scaler.matches(width, height, mDisplayFit, scalerMode)) {
+                    scaler = new DisplayScaler(width, height, GLASS_WIDTH, GLASS_HEIGHT, mDisplayFit, scalerMode);
+                    Log.i(TAG, "Display scaler: " + scaler);
+                    mScaler = scaler;
                 }
-
-                // Read 16-bit Y16 value (Little Endian)
-                int lowByte = frameCopy[byteIndex] & 0xFF;
-                int highByte = frameCopy[byteIndex + 1] & 0xFF;
-                int y16Value = (highByte << 8) | lowByte;
-
-                // Scale 16-bit (0-65535) to 8-bit (0-255) for colormap
-                int y8Value = (y16Value >> 8);
-
-                byteIndex += 2;
-
-                // Apply thermal colormap
-                pixels[i] = applyThermalColormap(y8Value);
+                pixels = scaler.scale(pixels);
+                width = GLASS_WIDTH;
+                height = GLASS_HEIGHT;
             }
 
-            bitmap.setPixels(pixels, 0, BOSON_WIDTH, 0, 0, BOSON_WIDTH, BOSON_HEIGHT);
-            frameData.rewind();
-
-            return bitmap;
+            // Reused bitmap of the output size, every pixel overwritten
+            FrameSurfacePool.Surface<Bitmap> surface = mSurfacePool.acquire(width, height, Bitmap.Config.ARGB_8888);
+            surface.image().setPixels(pixels, 0, width, 0, 0, width, height);
+            return surface;
 
         } catch (Exception e) {
-            Log.e(TAG, "Error converting Y16 frame", e);
+            Log.e(TAG, "✗ EXCEPTION in convertThermalToBitmap", e);
             return null;
         }
     }
 
     /**
-     * Convert I420 format (YUV420 colorized) to bitmap
-     * Format: 640×512, YUV420 planar (Y plane + U plane + V plane)
+     * Picks the decoder for a new stream from the negotiated format and its first frame
      */
-    private Bitmap convertI420ToBitmap(ByteBuffer frameData, int available) {
-        try {
-            if (available < I420_FRAME_SIZE) {
-                Log.w(TAG, "Incomplete I420 frame: expected " + I420_FRAME_SIZE + " bytes, got " + available);
-                return null;
-            }
-
-            // Make defensive copy - only copy image data, skip telemetry rows if present
-            frameData.rewind();
-            byte[] frameCopy = new byte[I420_FRAME_SIZE];
-            frameData.get(frameCopy);
-
-            // If frame has telemetry (640×514), we already copied only first 491,520 bytes (640×512)
-            // The telemetry rows at the end are automatically ignored
-
-            // Create bitmap (640×512)
-            Bitmap bitmap = Bitmap.createBitmap(I420_WIDTH, I420_HEIGHT, Bitmap.Config.ARGB_8888);
-            int[] pixels = new int[I420_WIDTH * I420_HEIGHT];
-
-            // I420 structure:
-            // Y plane: 640×512 bytes (full resolution luminance)
-            // U plane: 320×256 bytes (subsampled chrominance)
-            // V plane: 320×256 bytes (subsampled chrominance)
-            int ySize = I420_WIDTH * I420_HEIGHT;
-            int uvSize = (I420_WIDTH / 2) * (I420_HEIGHT / 2);
-
-            // Extract Y plane and apply colormap (ignoring U/V for thermal visualization)
-            for (int i = 0; i < pixels.length; i++) {
-                if (i >= ySize) {
-                    Log.w(TAG, "Y plane underrun at pixel " + i);
-                    break;
-                }
-
-                // Read Y value from Y plane
-                int yValue = frameCopy[i] & 0xFF;
-
-                // Apply thermal colormap to luminance
-                pixels[i] = applyThermalColormap(yValue);
-            }
-
-            bitmap.setPixels(pixels, 0, I420_WIDTH, 0, 0, I420_WIDTH, I420_HEIGHT);
-            frameData.rewind();
-
-            return bitmap;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error converting I420 frame", e);
+    private FrameDecoder resolveDecoder(ByteBuffer frameData, int available) {
+        Log.i(TAG, ">>> FORMAT AUTO-DETECTION <<<");
+        Log.i(TAG, "  Received frame size: " + available + " bytes");
+
+        NativeUVCCamera camera = mCamera;
+        String fourCC = camera != null ? camera.getFormatFourCC() : null;
+        Log.i(TAG, "  Negotiated format: " + (fourCC != null ? fourCC : "unknown"));
+
+        FrameDecoder decoder = mDecoders.resolve(fourCC, frameData, available);
+        if (decoder == null) {
+            Log.e(TAG, "✗ UNKNOWN FRAME FORMAT: " + available + " bytes");
+            Log.e(TAG, "  Expected: " + mDecoders.describeFormats());
+            Log.e(TAG, "  MJPEG: Variable size, starts with 0xFF 0xD8");
+            Log.e(TAG, "  Camera may be sending unexpected format!");
             return null;
         }
-    }
 
+        Log.i(TAG, "✓ DETECTED: " + decoder.getName() + " format" + (decoder.getWidth() > 0 ?
+                " (" + decoder.getWidth() + "×" + decoder.getHeight() + ")" : " (variable size)"));
+        if (decoder.getTelemetryOffset(available) >= 0) {
+            Log.w(TAG, "  ⚠ Telemetry rows detected - will strip last 2 rows");
+        }
+        if (!decoder.isRadiometric()) {
+            Log.w(TAG, "  ⚠ NOTE: " + decoder.getName() + " loses radiometric data! Use Boson serial port for temperatures");
+        }
+        if (decoder.getProjection() != null) {
+            Log.i(TAG, "  Display projection: " + decoder.getProjection());
+        }
+        return decoder;
+    }
+    
     /**
-     * Convert MJPEG format (Motion JPEG compressed) to bitmap
-     * Format: Variable size JPEG compressed frames
-     * NOTE: MJPEG loses radiometric temperature data - use serial port for temp readings
+     * Converts detections and thermal anomalies to the objects SmartDisplayManager draws
      */
-    private Bitmap convertMJPEGToBitmap(ByteBuffer frameData, int available) {
-        try {
-            // Extract JPEG data from ByteBuffer
-            frameData.rewind();
-            byte[] jpegData = new byte[available];
-            frameData.get(jpegData);
-            frameData.rewind();
-
-            // Decode JPEG using Android's BitmapFactory
-            android.graphics.BitmapFactory.Options options = new android.graphics.BitmapFactory.Options();
-            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
-
-            Bitmap decodedBitmap = android.graphics.BitmapFactory.decodeByteArray(jpegData, 0, jpegData.length, options);
-
-            if (decodedBitmap == null) {
-                Log.e(TAG, "✗ MJPEG decode failed - BitmapFactory returned null");
-                Log.e(TAG, "  Frame size: " + available + " bytes");
-                // Log first few bytes for debugging
-                if (jpegData.length >= 4) {
-                    Log.e(TAG, "  First 4 bytes: 0x" +
-                          String.format("%02X %02X %02X %02X",
-                                      jpegData[0], jpegData[1], jpegData[2], jpegData[3]));
-                }
-                return null;
+    private static List<AnnotatedObject> buildAnnotatedObjects(List<Detection> detections,
+            ThermalAnalysis thermalAnalysis) {
+        List<AnnotatedObject> objects = new ArrayList<>();
+
+        // Add object detections
+        for (Detection det : detections) {
+            AnnotatedObject obj =
+                new AnnotatedObject(det.bbox, det.confidence, det.className);
+            objects.add(obj);
+        }
+
+        // Add thermal anomalies (hot spots)
+        if (thermalAnalysis != null) {
+            for (ThermalAnomaly anomaly : thermalAnalysis.hotSpots) {
+                AnnotatedObject obj =
+                    new AnnotatedObject(
+                        anomaly.bbox, 1.0f, "Hot Spot");
+                obj.temperature = anomaly.temperature;
+                obj.isThermalAnomaly = true;
+                objects.add(obj);
             }
 
-            // Log successful decode (first 5 frames only)
-            if (mFrameCount <= 5) {
-                Log.i(TAG, "✓ MJPEG decoded: " + available + " bytes → " +
-                          decodedBitmap.getWidth() + "×" + decodedBitmap.getHeight() + " bitmap");
-                Log.i(TAG, "  Bitmap config: " + decodedBitmap.getConfig());
-                Log.i(TAG, "  Expected size: " + BOSON_WIDTH + "×" + BOSON_HEIGHT);
-                if (decodedBitmap.getWidth() != BOSON_WIDTH || decodedBitmap.getHeight() != BOSON_HEIGHT) {
-                    Log.w(TAG, "  ⚠ SIZE MISMATCH! MJPEG decoded to different resolution than expected");
-                    Log.w(TAG, "  This may require scaling or the Boson may be in a different mode");
-                }
+            // Add cold spots
+            for (ThermalAnomaly anomaly : thermalAnalysis.coldSpots) {
+                AnnotatedObject obj =
+                    new AnnotatedObject(
+                        anomaly.bbox, 1.0f, "Cold Spot");
+                obj.temperature = anomaly.temperature;
+                obj.isThermalAnomaly = true;
+                objects.add(obj);
             }
-
-            // MJPEG from Boson is typically grayscale thermal data
-            // We can apply a colormap for better visualization
-            return applyColormapToBitmap(decodedBitmap);
-
-        } catch (Exception e) {
-            Log.e(TAG, "✗ Error converting MJPEG frame", e);
-            return null;
         }
+        return Collections.unmodifiableList(objects);
     }
 
     /**
-     * Apply thermal colormap to an existing bitmap
-     * Used for MJPEG frames that need colorization
+     * Render thread: blits the cached overlay, repainting it first if an input changed
+     * The frame counter changes every frame and is drawn directly.
      */
-    private Bitmap applyColormapToBitmap(Bitmap grayscaleBitmap) {
-        try {
-            int width = grayscaleBitmap.getWidth();
-            int height = grayscaleBitmap.getHeight();
-
-            // Log colormap application (first 3 frames only)
-            if (mFrameCount <= 3) {
-                Log.d(TAG, "Applying colormap to " + width + "×" + height + " bitmap");
-            }
-
-            // Extract pixels
-            int[] pixels = new int[width * height];
-            grayscaleBitmap.getPixels(pixels, 0, width, 0, 0, width, height);
-
-            // Apply colormap to each pixel
-            for (int i = 0; i < pixels.length; i++) {
-                // Extract grayscale value (use red channel as they're all equal in grayscale)
-                int pixel = pixels[i];
-                int grayValue = (pixel >> 16) & 0xFF;  // Red channel
-
-                // Apply thermal colormap
-                pixels[i] = applyThermalColormap(grayValue);
-            }
-
-            // Create new bitmap with colormap applied
-            Bitmap coloredBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            coloredBitmap.setPixels(pixels, 0, width, 0, 0, width, height);
-
-            return coloredBitmap;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error applying colormap to bitmap", e);
-            // Return original bitmap if colormap fails
-            return grayscaleBitmap;
-        }
+    private void drawOverlay(Canvas canvas) {
+        if (mOverlay == null) {
+            mOverlay = new OverlayCompositor(GLASS_WIDTH, GLASS_HEIGHT, layer -> paintOverlay(layer,
+                    mOverlayConnected, mOverlayMode, mOverlayDecoder, mOverlayScaler, mOverlayPaint));
+            mOverlayPaint.setAntiAlias(true);
+            mOverlayPaint.setTextSize(20);
+            mFrameCounterPaint.setAntiAlias(true);
+            mFrameCounterPaint.setTextSize(20);
+            mFrameCounterPaint.setColor(Color.WHITE);
+            mLatencyPaint.setAntiAlias(true);
+            mLatencyPaint.setTextSize(16);
+            mLatencyPaint.setColor(Color.WHITE);
+        }
+
+        boolean connected = mConnected;
+        String mode = mCurrentMode;
+        SmartDisplayManager.DisplayMode displayMode = mSmartDisplay != null ? mSmartDisplay.getDisplayMode() : null;
+        FrameDecoder decoder = mDecoder;
+        DisplayProjection projection = decoder != null ? decoder.getProjection() : null;
+        DisplayScaler scaler = mScaler;
+        if (connected != mOverlayConnected || !mode.equals(mOverlayMode) || displayMode != mOverlayDisplayMode
+                || decoder != mOverlayDecoder || projection != mOverlayProjection || scaler != mOverlayScaler) {
+            mOverlayConnected = connected;
+            mOverlayMode = mode;
+            mOverlayDisplayMode = displayMode;
+            mOverlayDecoder = decoder;
+            mOverlayProjection = projection;
+            mOverlayScaler = scaler;
+            mOverlay.invalidate();
+        }
+        mOverlay.draw(canvas);
+
+        mFrameCounterText.setLength(0);
+        mFrameCounterText.append("Frame: ").append(mFrameCount);
+        canvas.drawText(mFrameCounterText, 0, mFrameCounterText.length(), 10, 80, mFrameCounterPaint);
+
+        if (displayMode == SmartDisplayManager.DisplayMode.DETAILED) {
+            drawLatency(canvas);
+        }
+    }
+
+    private LatencyHistogram.Window[] latencyWindows() {
+        return new LatencyHistogram.Window[] {
+            new LatencyHistogram.Window(mDecodeLatency),
+            new LatencyHistogram.Window(mDisplayLatency),
+            new LatencyHistogram.Window(mNetworkLatency)
+        };
     }
 
-    private int applyThermalColormap(int value) {
-        // Apply colormap based on current selection
-        // Value range: 0-255
-
-        int r, g, b;
-
-        switch (mCurrentColormap) {
-            case "iron":
-            default:
-                // Iron/Hot colormap: Black -> Blue -> Purple -> Red -> Yellow -> White
-                if (value < 64) {
-                    // Black to Blue
-                    r = 0;
-                    g = 0;
-                    b = value * 4;
-                } else if (value < 128) {
-                    // Blue to Purple
-                    r = (value - 64) * 4;
-                    g = 0;
-                    b = 255;
-                } else if (value < 192) {
-                    // Purple to Red
-                    r = 255;
-                    g = 0;
-                    b = 255 - ((value - 128) * 4);
-                } else {
-                    // Red to Yellow to White
-                    r = 255;
-                    g = (value - 192) * 4;
-                    b = (value - 192) * 2;
-                }
-                break;
-
-            case "rainbow":
-                // Rainbow colormap: Blue -> Cyan -> Green -> Yellow -> Red
-                if (value < 51) {
-                    // Blue to Cyan
-                    r = 0;
-                    g = value * 5;
-                    b = 255;
-                } else if (value < 102) {
-                    // Cyan to Green
-                    r = 0;
-                    g = 255;
-                    b = 255 - ((value - 51) * 5);
-                } else if (value < 153) {
-                    // Green to Yellow
-                    r = (value - 102) * 5;
-                    g = 255;
-                    b = 0;
-                } else if (value < 204) {
-                    // Yellow to Orange
-                    r = 255;
-                    g = 255 - ((value - 153) * 2);
-                    b = 0;
+    /**
+     * Render thread: USB-to-decode, -display and -network percentiles at the bottom left
+     * The text is rebuilt twice a second into reused builders and drawn on every frame. It
+     * covers at most the last few seconds: the HUD windows restart every 5 s.
+     */
+    private void drawLatency(Canvas canvas) {
+        long now = System.nanoTime();
+        if (now - mLatencyTextNanos >= LATENCY_HUD_INTERVAL_NANOS) {
+            mLatencyTextNanos = now;
+            boolean restart = now - mLatencyWindowNanos >= LATENCY_HUD_WINDOW_NANOS;
+            if (restart) {
+                mLatencyWindowNanos = now;
+            }
+            for (int i = 0; i < mHudLatency.length; i++) {
+                LatencyHistogram.Window window = mHudLatency[i];
+                window.update();
+                StringBuilder text = mLatencyText[i];
+                text.setLength(0);
+                text.append("USB→").append(window.getName());
+                if (window.getCount() == 0) {
+                    text.append("  -");
                 } else {
-                    // Orange to Red
-                    r = 255;
-                    g = 255 - ((value - 204) * 5);
-                    b = 0;
+                    appendMs(text.append("  p50 "), window.percentileMs(50));
+                    appendMs(text.append("  p95 "), window.percentileMs(95));
+                    appendMs(text.append("  p99 "), window.percentileMs(99));
+                    text.append(" ms");
                 }
-                break;
-
-            case "white_hot":
-                // White hot colormap: Black -> Gray -> White
-                r = value;
-                g = value;
-                b = value;
-                break;
-
-            case "arctic":
-                // Arctic colormap: Blue -> Cyan -> White
-                if (value < 128) {
-                    // Blue to Cyan
-                    r = 0;
-                    g = value * 2;
-                    b = 255;
-                } else {
-                    // Cyan to White
-                    r = (value - 128) * 2;
-                    g = 255;
-                    b = 255;
+                if (restart) {
+                    window.restart();
                 }
-                break;
-
-            case "grayscale":
-                // Grayscale: Black to White
-                r = value;
-                g = value;
-                b = value;
-                break;
+            }
         }
+        for (int i = 0; i < mLatencyText.length; i++) {
+            StringBuilder text = mLatencyText[i];
+            float y = GLASS_HEIGHT - 10 - 20 * (mLatencyText.length - 1 - i);
+            canvas.drawText(text, 0, text.length(), 10, y, mLatencyPaint);
+        }
+    }
 
-        // Clamp values
-        r = Math.min(255, Math.max(0, r));
-        g = Math.min(255, Math.max(0, g));
-        b = Math.min(255, Math.max(0, b));
-
-        return Color.argb(255, r, g, b);
+    // One decimal without String.format, which allocates on every call
+    private static void appendMs(StringBuilder text, float ms) {
+        int tenths = Math.round(ms * 10);
+        text.append(tenths / 10).append('.').append(tenths % 10);
     }
-    
-    private void drawAnnotations(Canvas canvas) {
-        // Use smart display manager for intelligent object rendering
-        if (mSmartDisplay != null && (!mDetections.isEmpty() || mThermalAnalysis != null)) {
-            // Convert detections and thermal anomalies to AnnotatedObject list
-            List<SmartDisplayManager.AnnotatedObject> objects = new ArrayList<>();
-
-            // Add object detections
-            for (Detection det : mDetections) {
-                SmartDisplayManager.AnnotatedObject obj =
-                    new SmartDisplayManager.AnnotatedObject(det.bbox, det.confidence, det.className);
-                objects.add(obj);
-            }
 
-            // Add thermal anomalies (hot spots)
-            if (mThermalAnalysis != null) {
-                for (ThermalAnomaly anomaly : mThermalAnalysis.hotSpots) {
-                    SmartDisplayManager.AnnotatedObject obj =
-                        new SmartDisplayManager.AnnotatedObject(
-                            anomaly.bbox, 1.0f, "Hot Spot");
-                    obj.temperature = anomaly.temperature;
-                    obj.isThermalAnomaly = true;
-                    objects.add(obj);
-                }
+    /**
+     * Annotations and HUD drawn straight onto a snapshot or recording frame
+     */
+    private void drawAnnotations(Canvas canvas) {
+        Paint textPaint = new Paint();
+        textPaint.setAntiAlias(true);
+        textPaint.setTextSize(20);
+        paintOverlay(canvas, mConnected, mCurrentMode, mDecoder, mScaler, textPaint);
 
-                // Add cold spots
-                for (ThermalAnomaly anomaly : mThermalAnalysis.coldSpots) {
-                    SmartDisplayManager.AnnotatedObject obj =
-                        new SmartDisplayManager.AnnotatedObject(
-                            anomaly.bbox, 1.0f, "Cold Spot");
-                    obj.temperature = anomaly.temperature;
-                    obj.isThermalAnomaly = true;
-                    objects.add(obj);
-                }
-            }
+        textPaint.setColor(Color.WHITE);
+        canvas.drawText(String.format("Frame: %d", mFrameCount), 10, 80, textPaint);
+    }
 
+    /**
+     * Everything on the overlay except the frame counter
+     */
+    private void paintOverlay(Canvas canvas, boolean connected, String mode, FrameDecoder decoder,
+            DisplayScaler scaler, Paint textPaint) {
+        // Use smart display manager for intelligent object rendering
+        List<AnnotatedObject> objects = mAnnotatedObjects;
+        if (mSmartDisplay != null && !objects.isEmpty()) {
             // Let smart display manager handle rendering
             float scaleX = (float) GLASS_WIDTH / BOSON_WIDTH;
             float scaleY = (float) GLASS_HEIGHT / BOSON_HEIGHT;
 
+            // I420/NV12 frames are letterboxed or cropped rather than stretched; follow the image
+            DisplayProjection projection = decoder != null ? decoder.getProjection() : null;
+            if (projection != null) {
+                scaleX = projection.getScale() * decoder.getWidth() / BOSON_WIDTH;
+                scaleY = projection.getScale() * decoder.getHeight() / BOSON_HEIGHT;
+                canvas.save();
+                canvas.translate(projection.getOffsetX(), projection.getOffsetY());
+            } else if (scaler != null) {
+                // Other formats go through the display scaler with the same fit
+                scaleX = scaler.getScale() * scaler.getSourceWidth() / BOSON_WIDTH;
+                scaleY = scaler.getScale() * scaler.getSourceHeight() / BOSON_HEIGHT;
+                canvas.save();
+                canvas.translate(scaler.getOffsetX(), scaler.getOffsetY());
+            }
+
             mSmartDisplay.drawAnnotations(canvas, objects, scaleX, scaleY);
+
+            if (projection != null || scaler != null) {
+                canvas.restore();
+            }
         }
 
         // Draw status info (keep original HUD)
-        Paint textPaint = new Paint();
-        textPaint.setAntiAlias(true);
-        textPaint.setTextSize(20);
-        textPaint.setColor(mConnected ? Color.GREEN : Color.RED);
-
-        canvas.drawText(mConnected ? "Connected" : "Disconnected", 10, 30, textPaint);
+        textPaint.setColor(connected ? Color.GREEN : Color.RED);
+        canvas.drawText(connected ? "Connected" : "Disconnected", 10, 30, textPaint);
 
         textPaint.setColor(Color.WHITE);
-        canvas.drawText(String.format("Mode: %s", mCurrentMode), 10, 55, textPaint);
-        canvas.drawText(String.format("Frame: %d", mFrameCount), 10, 80, textPaint);
+        canvas.drawText(String.format("Mode: %s", mode), 10, 55, textPaint);
     }
     
     // Mode switching methods
@@ -3038,111 +3352,36 @@ public class MainActivity extends Activity implements SurfaceHolder.Callback {
     }
     
     // Data classes
-    static class ThermalData {
-        float centerTemp;
-        float minTemp;
-        float maxTemp;
-        float avgTemp;
-
-        ThermalData(float centerTemp, float minTemp, float maxTemp, float avgTemp) {
-            this.centerTemp = centerTemp;
-            this.minTemp = minTemp;
-            this.maxTemp = maxTemp;
-            this.avgTemp = avgTemp;
-        }
-    }
 
-    static class Detection {
-        float[] bbox;
-        float confidence;
-        String className;
+    // Output of the decode stage, handed to the renderer and reused once it is released
+    static class DecodedFrame {
+        private final AtomicBoolean mInUse = new AtomicBoolean(false);
+        FrameSurfacePool.Surface<Bitmap> surface;  // Leased, null if the frame could not be converted
+        Bitmap bitmap;
+        long sequence;
+        long captureNanos;          // USB transfer completion, System.nanoTime()
 
-        static Detection fromJSON(JSONObject json) throws JSONException {
-            Detection det = new Detection();
-            JSONArray bboxArray = json.getJSONArray("bbox");
-            det.bbox = new float[4];
-            for (int i = 0; i < 4; i++) {
-                det.bbox[i] = (float) bboxArray.getDouble(i);
-            }
-            det.confidence = (float) json.getDouble("confidence");
-            det.className = json.getString("class");
-            return det;
+        // Claims a free handoff (not in use -> in use)
+        boolean tryClaim() {
+            return mInUse.compareAndSet(false, true);
         }
-    }
-    
-    static class ThermalAnomaly {
-        float[] bbox;
-        float temperature;
-        String type;
-        
-        static ThermalAnomaly fromJSON(JSONObject json) throws JSONException {
-            ThermalAnomaly anomaly = new ThermalAnomaly();
-            JSONArray bboxArray = json.getJSONArray("bbox");
-            anomaly.bbox = new float[4];
-            for (int i = 0; i < 4; i++) {
-                anomaly.bbox[i] = (float) bboxArray.getDouble(i);
-            }
-            
-            if (json.has("max_temp")) {
-                anomaly.temperature = (float) json.getDouble("max_temp");
-                anomaly.type = "hot";
-            } else if (json.has("min_temp")) {
-                anomaly.temperature = (float) json.getDouble("min_temp");
-                anomaly.type = "cold";
-            }
-            
-            return anomaly;
-        }
-    }
-    
-    static class ThermalAnalysis {
-        List<ThermalAnomaly> hotSpots = new ArrayList<>();
-        List<ThermalAnomaly> coldSpots = new ArrayList<>();
-        float baselineTemp;
-        
-        static ThermalAnalysis fromJSON(JSONObject json) throws JSONException {
-            ThermalAnalysis analysis = new ThermalAnalysis();
-            
-            if (json.has("hot_spots")) {
-                JSONArray hotArray = json.getJSONArray("hot_spots");
-                for (int i = 0; i < hotArray.length(); i++) {
-                    analysis.hotSpots.add(ThermalAnomaly.fromJSON(hotArray.getJSONObject(i)));
-                }
-            }
-            
-            if (json.has("cold_spots")) {
-                JSONArray coldArray = json.getJSONArray("cold_spots");
-                for (int i = 0; i < coldArray.length(); i++) {
-                    analysis.coldSpots.add(ThermalAnomaly.fromJSON(coldArray.getJSONObject(i)));
-                }
-            }
-            
-            if (json.has("baseline_temp")) {
-                analysis.baselineTemp = (float) json.getDouble("baseline_temp");
-            }
-            
-            return analysis;
+
+        DecodedFrame set(FrameSurfacePool.Surface<Bitmap> surface, long sequence, long captureNanos) {
+            this.surface = surface;
+            this.bitmap = surface != null ? surface.image() : null;
+            this.sequence = sequence;
+            this.captureNanos = captureNanos;
+            return this;
         }
-        
-        static ThermalAnalysis fromElectronicsJSON(JSONArray components) throws JSONException {
-            ThermalAnalysis analysis = new ThermalAnalysis();
-            
-            for (int i = 0; i < components.length(); i++) {
-                JSONObject comp = components.getJSONObject(i);
-                if (comp.getBoolean("is_hot")) {
-                    ThermalAnomaly anomaly = new ThermalAnomaly();
-                    JSONArray bboxArray = comp.getJSONArray("bbox");
-                    anomaly.bbox = new float[4];
-                    for (int j = 0; j < 4; j++) {
-                        anomaly.bbox[j] = (float) bboxArray.getDouble(j);
-                    }
-                    anomaly.temperature = (float) comp.getDouble("max_temp");
-                    anomaly.type = "hot_component";
-                    analysis.hotSpots.add(anomaly);
-                }
+
+        // Returns the surface lease, then the handoff itself
+        void release() {
+            if (surface != null) {
+                surface.release();
             }
-            
-            return analysis;
+            surface = null;
+            bitmap = null;
+            mInUse.set(false);
         }
     }
 }
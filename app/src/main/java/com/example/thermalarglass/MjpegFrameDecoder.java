@@ -0,0 +1,216 @@
+package com.example.thermalarglass;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Motion JPEG frames (variable size, JPEG SOI marker first), decoded by BitmapFactory
+ * The JPEG bytes, decode options and decoded bitmap (inBitmap) are reused, and the frame is
+ * decoded at the largest inSampleSize the display allows; the colormap then goes straight
+ * from the decoded pixels into the reused output array.
+ * NOTE: MJPEG loses radiometric temperature data - use serial port for temp readings
+ */
+final class MjpegFrameDecoder implements FrameDecoder {
+
+    private static final String TAG = "MjpegFrameDecoder";
+
+    static final int SAMPLE_AUTO = 0;
+
+    private final int mDisplayWidth;
+    private final int mDisplayHeight;
+    private volatile int mSampleSetting = SAMPLE_AUTO;  // 1, 2, 4, 8 or auto
+
+    // Decode thread only
+    private final BitmapFactory.Options mOptions = new BitmapFactory.Options();
+    private byte[] mJpegData = null;
+    private Bitmap mBitmap = null;          // inBitmap, reused while the decoded size is unchanged
+    private volatile int mSampleSize = 0;   // 0 until the first frame's size is known
+    private int[] mPixels = new int[0];
+    private int mOutputWidth;
+    private int mOutputHeight;
+    private int mDecodedCount = 0;
+
+    MjpegFrameDecoder(int displayWidth, int displayHeight) {
+        mDisplayWidth = displayWidth;
+        mDisplayHeight = displayHeight;
+    }
+
+    /**
+     * inSampleSize setting, SAMPLE_AUTO picks the largest that still covers the display
+     */
+    void setSampleSetting(int setting) {
+        mSampleSetting = setting;
+        mSampleSize = 0;
+    }
+
+    /**
+     * inSampleSize in use, 0 before the first frame
+     */
+    int getSampleSize() {
+        return mSampleSize;
+    }
+
+    @Override
+    public String getName() {
+        return "MJPEG";
+    }
+
+    @Override
+    public String getFourCC() {
+        return "MJPG";
+    }
+
+    @Override
+    public int getWidth() {
+        return 0;
+    }
+
+    @Override
+    public int getHeight() {
+        return 0;
+    }
+
+    @Override
+    public int[] getFrameSizes() {
+        return new int[0];
+    }
+
+    @Override
+    public boolean matches(ByteBuffer frame, int length) {
+        // JPEG magic bytes: 0xFF 0xD8
+        return length >= 2 && frame.get(0) == (byte) 0xFF && frame.get(1) == (byte) 0xD8;
+    }
+
+    @Override
+    public int getTelemetryOffset(int length) {
+        return -1;
+    }
+
+    @Override
+    public boolean isRadiometric() {
+        return false;
+    }
+
+    @Override
+    public DisplayProjection getProjection() {
+        return null;
+    }
+
+    @Override
+    public void setDisplayFit(DisplayProjection.Fit fit) {
+    }
+
+    @Override
+    public void setExecutor(BandExecutor executor, int bandRows) {
+    }
+
+    @Override
+    public int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats) {
+        // Extract JPEG data from ByteBuffer into the reused array
+        if (mJpegData == null || mJpegData.length < length) {
+            mJpegData = new byte[length + length / 4];  // Headroom, frame sizes vary
+        }
+        byte[] jpegData = mJpegData;
+        frame.rewind();
+        frame.get(jpegData, 0, length);
+        frame.rewind();
+
+        BitmapFactory.Options options = mOptions;
+        if (mSampleSize == 0) {
+            mSampleSize = chooseSampleSize(jpegData, length);
+        }
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inSampleSize = mSampleSize;
+        options.inBitmap = mBitmap;
+        if (options.inTempStorage == null) {
+            options.inTempStorage = new byte[16 * 1024];
+        }
+
+        // Decode into the previous frame's bitmap
+        Bitmap decoded;
+        try {
+            decoded = BitmapFactory.decodeByteArray(jpegData, 0, length, options);
+        } catch (IllegalArgumentException e) {
+            // Frame size changed and no longer fits the reused bitmap: start over
+            Log.w(TAG, "MJPEG frame does not fit the reused bitmap, reallocating");
+            mSampleSize = chooseSampleSize(jpegData, length);
+            options.inSampleSize = mSampleSize;
+            options.inBitmap = null;
+            decoded = BitmapFactory.decodeByteArray(jpegData, 0, length, options);
+        }
+        mBitmap = decoded;
+
+        if (decoded == null) {
+            Log.e(TAG, "✗ MJPEG decode failed - BitmapFactory returned null");
+            Log.e(TAG, "  Frame size: " + length + " bytes");
+            // Log first few bytes for debugging
+            if (length >= 4) {
+                Log.e(TAG, "  First 4 bytes: 0x" +
+                      String.format("%02X %02X %02X %02X",
+                                  jpegData[0], jpegData[1], jpegData[2], jpegData[3]));
+            }
+            return null;
+        }
+
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+
+        // Log successful decode (first 5 frames only)
+        if (++mDecodedCount <= 5) {
+            Log.i(TAG, "✓ MJPEG decoded: " + length + " bytes → " + width + "×" + height + " bitmap" +
+                      " (inSampleSize " + mSampleSize + ", " + decoded.getConfig() + ")");
+        }
+
+        // MJPEG from Boson is grayscale thermal data: colormap from the red channel
+        // (all channels are equal in grayscale), one lookup per pixel
+        if (mPixels.length != width * height) {
+            mPixels = new int[width * height];
+        }
+        int[] pixels = mPixels;
+        decoded.getPixels(pixels, 0, width, 0, 0, width, height);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = table[(pixels[i] >> 16) & 0xFF];
+        }
+        mOutputWidth = width;
+        mOutputHeight = height;
+        return pixels;
+    }
+
+    /**
+     * inSampleSize from the setting or, in auto mode, the largest power of two that still
+     * leaves at least one decoded pixel per display pixel (header-only decode)
+     */
+    private int chooseSampleSize(byte[] jpegData, int length) {
+        if (mSampleSetting != SAMPLE_AUTO) {
+            return Integer.highestOneBit(Math.max(1, mSampleSetting));
+        }
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(jpegData, 0, length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return 1;
+        }
+
+        // Letterboxed on the display: the limiting axis decides
+        float sourcePerDisplay = Math.min((float) bounds.outWidth / mDisplayWidth,
+                (float) bounds.outHeight / mDisplayHeight);
+        int sampleSize = Integer.highestOneBit(Math.max(1, (int) sourcePerDisplay));
+        Log.i(TAG, "MJPEG " + bounds.outWidth + "×" + bounds.outHeight + " → inSampleSize " + sampleSize);
+        return sampleSize;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return mOutputWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return mOutputHeight;
+    }
+}
@@ -7,11 +7,16 @@ import android.hardware.usb.UsbDeviceConnection;
 import android.hardware.usb.UsbEndpoint;
 import android.hardware.usb.UsbInterface;
 import android.hardware.usb.UsbManager;
+import android.os.Build;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -41,28 +46,68 @@ public class NativeUVCCamera {
     private static final int VS_PROBE_CONTROL = 0x01;
     private static final int VS_COMMIT_CONTROL = 0x02;
 
+    // usbfs rejects larger transfers before API 28 (Glass EE2 runs API 27)
+    private static final int MAX_USB_REQUEST_SIZE = 16384;
+
+    // Largest read the transfer size tuner may pick on API 28+, one I420 frame with telemetry
+    private static final int MAX_TUNED_TRANSFER_SIZE = 512 * 1024;
+
+    // Number of UsbRequests kept in flight by the queued streaming loop
+    // 0 or 1 selects the synchronous bulkTransfer loop
+    public static final int DEFAULT_REQUEST_QUEUE_DEPTH = 4;
+    public static final int MAX_REQUEST_QUEUE_DEPTH = 32;
+
+    // Frame accumulation buffer - allocate for largest possible frame
+    // MJPEG: Variable size, typically 150KB-350KB for Boson
+    // Y16 format: 320×256×2 = 163,840 bytes
+    // I420 format: 640×512×1.5 = 491,520 bytes
+    // RGB24 format (largest exact size in FrameDecoders): 640×512×3 = 983,040 bytes
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;  // 1MB buffer for MJPEG or uncompressed
+
     private Context mContext;
     private UsbManager mUsbManager;
     private UsbDevice mDevice;
     private UsbDeviceConnection mConnection;
     private UsbInterface mVideoStreamingInterface;
     private UsbEndpoint mStreamingEndpoint;
+    private UvcTransport mTransport;
+    private File mTraceFile;
 
     private ExecutorService mExecutor;
     private AtomicBoolean mStreaming = new AtomicBoolean(false);
 
     private IFrameCallback mFrameCallback;
 
+    private int mRequestQueueDepth = DEFAULT_REQUEST_QUEUE_DEPTH;
+    private int mFramePoolSize = FrameBufferPool.DEFAULT_POOL_SIZE;
+    private FrameBufferPool mFramePool;
+    private UvcFrameAssembler mFrameAssembler;
+    private FrameDecoders mFrameDecoders;
+    private TransferSizeTuner mTransferSizeTuner;
+    private int mTransferErrorCount = 0;
+    private long mStreamingStartTime = 0;
+    private long mOpenTime = 0;
+    private UvcNegotiationCache mNegotiationCache;
+    private byte[] mCommittedProbe;
+    private UvcDescriptors mDescriptors;
+    private boolean mIsochronous = false;
+
     private int mWidth = 320;
     private int mHeight = 256;
 
+    /**
+     * Receives assembled frames on the streaming thread
+     * The frame is only valid during onFrame(); call frame.retain() to keep it longer and
+     * frame.release() once done. Frames held too long starve capture and get dropped.
+     */
     public interface IFrameCallback {
-        void onFrame(ByteBuffer frame);
+        void onFrame(FrameBufferPool.Frame frame);
     }
 
     public NativeUVCCamera(Context context) {
         mContext = context;
         mUsbManager = (UsbManager) context.getSystemService(Context.USB_SERVICE);
+        mNegotiationCache = new UvcNegotiationCache(context);
     }
 
     /**
@@ -70,6 +115,8 @@ public class NativeUVCCamera {
      */
     public boolean open(UsbDevice device) {
         mDevice = device;
+        mOpenTime = System.currentTimeMillis();
+        mCommittedProbe = null;
 
         try {
             // Open connection to device
@@ -93,12 +140,31 @@ public class NativeUVCCamera {
                 return false;
             }
 
+            mDescriptors = UvcDescriptors.parse(mConnection.getRawDescriptors());
+
             // Find streaming endpoint (usually isochronous or bulk IN)
             mStreamingEndpoint = findStreamingEndpoint(mVideoStreamingInterface);
+            if (mStreamingEndpoint == null) {
+                // Isochronous cameras have no endpoint on alternate setting 0; the alternate
+                // setting is selected from the negotiated bandwidth when streaming starts
+                mStreamingEndpoint = findIsochronousEndpoint(mDevice, mVideoStreamingInterface.getId());
+            }
             if (mStreamingEndpoint == null) {
                 Log.e(TAG, "No streaming endpoint found");
                 return false;
             }
+            mIsochronous = mStreamingEndpoint.getType() == UsbConstants.USB_ENDPOINT_XFER_ISOC;
+
+            // All control and streaming transfers go through the transport
+            mTransport = new UsbDeviceTransport(mConnection, mStreamingEndpoint);
+            if (mTraceFile != null) {
+                try {
+                    mTransport = new TraceRecordingTransport(mTransport, mTraceFile);
+                    Log.i(TAG, "Recording USB trace to " + mTraceFile.getAbsolutePath());
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot record USB trace to " + mTraceFile, e);
+                }
+            }
 
             Log.i(TAG, "Successfully opened UVC camera: " + device.getDeviceName());
             Log.i(TAG, "Endpoint type: " + getEndpointTypeString(mStreamingEndpoint.getType()));
@@ -123,6 +189,14 @@ public class NativeUVCCamera {
         return negotiateFormat(width, height);
     }
 
+    /**
+     * Records every transfer of the next open() to a trace file for TraceReplayTransport
+     * Pass null to disable; only takes effect when the camera is opened.
+     */
+    public void setTraceFile(File traceFile) {
+        mTraceFile = traceFile;
+    }
+
     /**
      * Sets the frame callback to receive video frames
      */
@@ -130,20 +204,104 @@ public class NativeUVCCamera {
         mFrameCallback = callback;
     }
 
+    /**
+     * Sets how many UsbRequests the streaming loop keeps in flight
+     * Takes effect on the next startPreview(); 0 or 1 uses the synchronous loop
+     */
+    public void setRequestQueueDepth(int depth) {
+        mRequestQueueDepth = Math.max(0, Math.min(depth, MAX_REQUEST_QUEUE_DEPTH));
+    }
+
+    public int getRequestQueueDepth() {
+        return mRequestQueueDepth;
+    }
+
+    /**
+     * Sets how many pooled frame buffers are shared between capture and consumers
+     * Takes effect on the next startPreview()
+     */
+    public void setFramePoolSize(int size) {
+        mFramePoolSize = Math.max(FrameBufferPool.MIN_POOL_SIZE, size);
+    }
+
+    public int getFramePoolSize() {
+        return mFramePoolSize;
+    }
+
+    /**
+     * Formats the assembler delimits by size (exact frame sizes and telemetry layouts)
+     * Takes effect on the next startPreview().
+     */
+    public void setFrameDecoders(FrameDecoders decoders) {
+        mFrameDecoders = decoders;
+    }
+
+    /**
+     * Frames lost to USB transfer errors since startPreview(), per minute of streaming
+     */
+    public float getLostFramesPerMinute() {
+        UvcFrameAssembler assembler = mFrameAssembler;
+        long elapsed = System.currentTimeMillis() - mStreamingStartTime;
+        if (assembler == null || elapsed <= 0) {
+            return 0;
+        }
+        return assembler.getDiscardedFrameCount() * 60000f / elapsed;
+    }
+
+    /**
+     * Frames dropped since startPreview() because every pooled buffer was still in use
+     */
+    public int getDroppedFrameCount() {
+        UvcFrameAssembler assembler = mFrameAssembler;
+        return assembler != null ? assembler.getDroppedFrameCount() : 0;
+    }
+
+    /**
+     * Frames the camera's telemetry frame counter shows it sent but that were never delivered
+     * Only counts while the camera sends telemetry rows (320×258 / 640×514).
+     */
+    public long getCameraFrameGapCount() {
+        UvcFrameAssembler assembler = mFrameAssembler;
+        return assembler != null ? assembler.getCameraFrameGapCount() : 0;
+    }
+
+    /**
+     * Current streaming read size in bytes, 0 if not streaming
+     */
+    public int getTransferSize() {
+        TransferSizeTuner tuner = mTransferSizeTuner;
+        return tuner != null ? tuner.getTransferSize() : 0;
+    }
+
+    /**
+     * Streaming reads (JNI/ioctl round trips) per captured frame, smoothed
+     */
+    public float getTransfersPerFrame() {
+        TransferSizeTuner tuner = mTransferSizeTuner;
+        return tuner != null ? tuner.getTransfersPerFrame() : 0;
+    }
+
     /**
      * Starts video streaming
      */
     public boolean startPreview() {
-        if (mConnection == null || mStreamingEndpoint == null) {
+        if (mTransport == null) {
             Log.e(TAG, "Camera not opened");
             return false;
         }
 
         mStreaming.set(true);
+        mStreamingStartTime = System.currentTimeMillis();
 
         // Start streaming thread
         mExecutor = Executors.newSingleThreadExecutor();
-        mExecutor.submit(this::streamingLoop);
+        if (mIsochronous) {
+            mExecutor.submit(this::isochronousStreamingLoop);
+        } else if (mRequestQueueDepth > 1) {
+            mExecutor.submit(this::queuedStreamingLoop);
+        } else {
+            mExecutor.submit(this::streamingLoop);
+        }
 
         Log.i(TAG, "Video streaming started");
         return true;
@@ -157,6 +315,14 @@ public class NativeUVCCamera {
 
         if (mExecutor != null) {
             mExecutor.shutdownNow();
+            try {
+                // Let the loop cancel its queued requests before the connection is closed
+                if (!mExecutor.awaitTermination(500, TimeUnit.MILLISECONDS)) {
+                    Log.w(TAG, "Streaming loop did not stop within 500ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             mExecutor = null;
         }
 
@@ -169,6 +335,11 @@ public class NativeUVCCamera {
     public void close() {
         stopPreview();
 
+        if (mTransport != null) {
+            mTransport.close();
+            mTransport = null;
+        }
+
         if (mConnection != null) {
             if (mVideoStreamingInterface != null) {
                 mConnection.releaseInterface(mVideoStreamingInterface);
@@ -180,6 +351,8 @@ public class NativeUVCCamera {
         mDevice = null;
         mVideoStreamingInterface = null;
         mStreamingEndpoint = null;
+        mDescriptors = null;
+        mIsochronous = false;
 
         Log.i(TAG, "Camera closed");
     }
@@ -220,11 +393,49 @@ public class NativeUVCCamera {
         return null;
     }
 
+    /**
+     * Finds the isochronous IN endpoint with the most bandwidth among the alternate settings
+     * of the given interface (used for logging until an alternate setting is selected)
+     */
+    private UsbEndpoint findIsochronousEndpoint(UsbDevice device, int interfaceId) {
+        UsbEndpoint best = null;
+        for (int i = 0; i < device.getInterfaceCount(); i++) {
+            UsbInterface intf = device.getInterface(i);
+            if (intf.getId() != interfaceId) {
+                continue;
+            }
+            for (int j = 0; j < intf.getEndpointCount(); j++) {
+                UsbEndpoint endpoint = intf.getEndpoint(j);
+                if (endpoint.getDirection() == UsbConstants.USB_DIR_IN &&
+                    endpoint.getType() == UsbConstants.USB_ENDPOINT_XFER_ISOC &&
+                    (best == null || endpoint.getMaxPacketSize() > best.getMaxPacketSize())) {
+                    best = endpoint;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the UsbInterface for an alternate setting of the streaming interface
+     */
+    private UsbInterface findAlternateInterface(int interfaceId, int alternateSetting) {
+        for (int i = 0; i < mDevice.getInterfaceCount(); i++) {
+            UsbInterface intf = mDevice.getInterface(i);
+            if (intf.getId() == interfaceId && intf.getAlternateSetting() == alternateSetting) {
+                return intf;
+            }
+        }
+        return null;
+    }
+
     /**
      * Negotiates video format with camera using UVC probe/commit protocol
+     * The format and frame are picked from the VideoStreaming descriptors; a block that was
+     * committed before for this camera is reused without probing.
      */
     private boolean negotiateFormat(int width, int height) {
-        if (mConnection == null) {
+        if (mTransport == null) {
             Log.e(TAG, "Cannot negotiate format - no USB connection");
             return false;
         }
@@ -243,65 +454,78 @@ public class NativeUVCCamera {
                 return true;  // Allow basic cameras without control interface
             }
 
-            // Build probe control structure with requested parameters
-            byte[] probeData = buildProbeData(width, height);
+            // Fast path: commit the block negotiated on a previous connection, once the camera
+            // confirms it still means the same format (firmware updates can renumber formats)
+            String cacheKey = UvcNegotiationCache.key(mDevice.getVendorId(), mDevice.getProductId(),
+                    mConnection.getSerial(), width, height);
+            byte[] cached = mNegotiationCache.get(cacheKey);
+            if (cached != null) {
+                if (setProbeControl(VS_PROBE_CONTROL, cached) && probeMatchesCached(cached)
+                        && setProbeControl(VS_COMMIT_CONTROL, cached)) {
+                    mCommittedProbe = cached;
+                    Log.i(TAG, "✓ Format committed from cache for " + width + "x" + height +
+                              " (formatIndex=" + (cached[2] & 0xFF) + ", frameIndex=" + (cached[3] & 0xFF) + ")");
+                    return true;
+                }
+                Log.w(TAG, "Cached format rejected or changed by camera - negotiating again");
+                mNegotiationCache.remove(cacheKey);
+            }
+
+            // Build probe control structure from the streaming descriptors
+            byte[] probeData = buildProbeData(mDescriptors, width, height);
+            boolean fromDescriptors = probeData != null;
+            if (!fromDescriptors) {
+                Log.w(TAG, "No " + width + "x" + height + " frame in descriptors - letting camera choose");
+                probeData = buildProbeData(width, height);
+            }
 
             Log.i(TAG, "Negotiating format with camera for " + width + "x" + height);
 
             // Step 1: SET_CUR(PROBE) - Tell camera what we want
-            int result = mConnection.controlTransfer(
-                UsbConstants.USB_DIR_OUT | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE,
-                UVC_SET_CUR,
-                VS_PROBE_CONTROL << 8,
-                mVideoStreamingInterface.getId(),
-                probeData,
-                probeData.length,
-                5000
-            );
-
-            if (result < 0) {
-                Log.e(TAG, "SET_CUR(PROBE) FAILED: " + result);
+            if (!setProbeControl(VS_PROBE_CONTROL, probeData)) {
                 Log.e(TAG, "Camera rejected format negotiation - incompatible format or camera malfunction");
                 return false;  // FAIL HARD - negotiation is critical
             }
-            Log.d(TAG, "SET_CUR(PROBE) sent: " + result + " bytes");
 
             // Step 2: GET_CUR(PROBE) - Read back what camera will actually provide
-            byte[] responseData = new byte[26];
-            result = mConnection.controlTransfer(
-                UsbConstants.USB_DIR_IN | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE,
-                UVC_GET_CUR,
-                VS_PROBE_CONTROL << 8,
-                mVideoStreamingInterface.getId(),
-                responseData,
-                responseData.length,
-                5000
-            );
-
-            if (result > 0) {
+            byte[] responseData = new byte[probeData.length];
+            int result = getProbeControl(responseData);
+
+            if (result >= 26) {
                 Log.d(TAG, "GET_CUR(PROBE) received: " + result + " bytes");
 
                 // Parse and VALIDATE camera's response
                 int formatIndex = responseData[2] & 0xFF;
                 int frameIndex = responseData[3] & 0xFF;
-                int frameSize = ((responseData[21] & 0xFF) << 24) |
-                               ((responseData[20] & 0xFF) << 16) |
-                               ((responseData[19] & 0xFF) << 8) |
-                               (responseData[18] & 0xFF);
+                int frameInterval = readInt32(responseData, 4);
+                int frameSize = readInt32(responseData, 18);
+                int payloadSize = readInt32(responseData, 22);
 
                 Log.i(TAG, "Camera response: formatIndex=" + formatIndex +
                           ", frameIndex=" + frameIndex +
-                          ", frameSize=" + frameSize + " bytes");
-
-                // VALIDATE: Check if frame size makes sense
-                int expectedMinSize = width * height;  // Minimum for any format
-                int expectedMaxSize = width * height * 4;  // Maximum (RGBA)
-
-                if (frameSize < expectedMinSize || frameSize > expectedMaxSize) {
-                    Log.e(TAG, "VALIDATION FAILED: Frame size " + frameSize +
-                              " outside expected range [" + expectedMinSize + "-" + expectedMaxSize + "]");
-                    Log.e(TAG, "Camera may not support requested resolution");
-                    return false;
+                          ", frameInterval=" + frameInterval +
+                          ", frameSize=" + frameSize + " bytes" +
+                          ", maxPayload=" + payloadSize + " bytes");
+
+                if (fromDescriptors) {
+                    // VALIDATE: Camera must accept the exact format and frame we asked for
+                    if (formatIndex != (probeData[2] & 0xFF) || frameIndex != (probeData[3] & 0xFF) || frameSize <= 0) {
+                        Log.e(TAG, "VALIDATION FAILED: camera answered formatIndex=" + formatIndex +
+                                  ", frameIndex=" + frameIndex + " for requested " +
+                                  (probeData[2] & 0xFF) + "/" + (probeData[3] & 0xFF));
+                        return false;
+                    }
+                } else {
+                    // VALIDATE: Check if frame size makes sense
+                    int expectedMinSize = width * height;  // Minimum for any format
+                    int expectedMaxSize = width * height * 4;  // Maximum (RGBA)
+
+                    if (frameSize < expectedMinSize || frameSize > expectedMaxSize) {
+                        Log.e(TAG, "VALIDATION FAILED: Frame size " + frameSize +
+                                  " outside expected range [" + expectedMinSize + "-" + expectedMaxSize + "]");
+                        Log.e(TAG, "Camera may not support requested resolution");
+                        return false;
+                    }
                 }
             } else {
                 Log.e(TAG, "GET_CUR(PROBE) FAILED: " + result);
@@ -309,23 +533,14 @@ public class NativeUVCCamera {
                 return false;
             }
 
-            // Step 3: SET_CUR(COMMIT) - Commit to the negotiated format
-            result = mConnection.controlTransfer(
-                UsbConstants.USB_DIR_OUT | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE,
-                UVC_SET_CUR,
-                VS_COMMIT_CONTROL << 8,
-                mVideoStreamingInterface.getId(),
-                probeData,
-                probeData.length,
-                5000
-            );
-
-            if (result < 0) {
-                Log.e(TAG, "SET_CUR(COMMIT) FAILED: " + result);
+            // Step 3: SET_CUR(COMMIT) - Commit the values the camera returned
+            if (!setProbeControl(VS_COMMIT_CONTROL, responseData)) {
                 Log.e(TAG, "Camera failed to commit format - negotiation incomplete");
                 return false;
             }
-            Log.d(TAG, "SET_CUR(COMMIT) sent: " + result + " bytes");
+
+            mCommittedProbe = responseData;
+            mNegotiationCache.put(cacheKey, responseData);
 
             Log.i(TAG, "✓ Format negotiation COMPLETED SUCCESSFULLY for " + width + "x" + height);
             return true;
@@ -336,6 +551,97 @@ public class NativeUVCCamera {
         }
     }
 
+    /**
+     * GET_CUR on the probe control of the streaming interface, returns the bytes read or < 0
+     */
+    private int getProbeControl(byte[] data) {
+        return mTransport.controlTransfer(
+            UsbConstants.USB_DIR_IN | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE,
+            UVC_GET_CUR,
+            VS_PROBE_CONTROL << 8,
+            mVideoStreamingInterface.getId(),
+            data,
+            data.length,
+            5000
+        );
+    }
+
+    /**
+     * Reads the probe back after a cached SET_CUR(PROBE): format index, frame index and
+     * dwMaxVideoFrameSize must be what was cached
+     */
+    private boolean probeMatchesCached(byte[] cached) {
+        byte[] current = new byte[cached.length];
+        int result = getProbeControl(current);
+        if (result < 26) {
+            Log.w(TAG, "GET_CUR(PROBE) for cached format FAILED: " + result);
+            return false;
+        }
+        if (current[2] != cached[2] || current[3] != cached[3] ||
+                readInt32(current, 18) != readInt32(cached, 18)) {
+            Log.w(TAG, "Camera answered formatIndex=" + (current[2] & 0xFF) + ", frameIndex=" +
+                      (current[3] & 0xFF) + ", frameSize=" + readInt32(current, 18) + " for cached " +
+                      (cached[2] & 0xFF) + "/" + (cached[3] & 0xFF) + "/" + readInt32(cached, 18));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * SET_CUR on the probe or commit control of the streaming interface
+     */
+    private boolean setProbeControl(int control, byte[] data) {
+        String name = control == VS_PROBE_CONTROL ? "PROBE" : "COMMIT";
+        int result = mTransport.controlTransfer(
+            UsbConstants.USB_DIR_OUT | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE,
+            UVC_SET_CUR,
+            control << 8,
+            mVideoStreamingInterface.getId(),
+            data,
+            data.length,
+            5000
+        );
+
+        if (result < 0) {
+            Log.e(TAG, "SET_CUR(" + name + ") FAILED: " + result);
+            return false;
+        }
+        Log.d(TAG, "SET_CUR(" + name + ") sent: " + result + " bytes");
+        return true;
+    }
+
+    /**
+     * FourCC of the committed format ("Y16", "I420", "MJPG", ...), or null if nothing was negotiated
+     */
+    public String getFormatFourCC() {
+        byte[] probe = mCommittedProbe;
+        UvcDescriptors descriptors = mDescriptors;
+        if (probe == null || descriptors == null) {
+            return null;
+        }
+        int formatIndex = probe[2] & 0xFF;
+        for (UvcDescriptors.Format format : descriptors.getFormats()) {
+            if (format.index == formatIndex) {
+                return format.fourCC();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * dwMaxPayloadTransferSize of the committed format, or 0 if nothing was negotiated
+     */
+    public int getMaxPayloadTransferSize() {
+        return mCommittedProbe != null ? readInt32(mCommittedProbe, 22) : 0;
+    }
+
+    private static int readInt32(byte[] data, int offset) {
+        return (data[offset] & 0xFF) |
+               ((data[offset + 1] & 0xFF) << 8) |
+               ((data[offset + 2] & 0xFF) << 16) |
+               ((data[offset + 3] & 0xFF) << 24);
+    }
+
     /**
      * Finds the video control interface
      */
@@ -351,6 +657,43 @@ public class NativeUVCCamera {
         return null;
     }
 
+    /**
+     * Builds probe data for width x height from the streaming descriptors
+     * Prefers Y16, then any other format offering that size, at the frame's shortest
+     * supported interval. Returns null if the descriptors list no such frame.
+     */
+    private byte[] buildProbeData(UvcDescriptors descriptors, int width, int height) {
+        UvcDescriptors.Format format = descriptors.findUncompressed(UvcDescriptors.GUID_Y16, width, height);
+        if (format == null) {
+            format = descriptors.findAny(width, height);
+        }
+        if (format == null) {
+            return null;
+        }
+        UvcDescriptors.Frame frame = format.findFrame(width, height);
+
+        byte[] data = new byte[descriptors.getProbeLength()];
+        data[0] = 0x01;  // bmHint: keep dwFrameInterval fixed
+        data[2] = (byte) format.index;
+        data[3] = (byte) frame.index;
+        writeInt32(data, 4, frame.fastestInterval());
+        writeInt32(data, 18, frame.maxFrameSize);
+        // dwMaxPayloadTransferSize left 0, the camera fills it in
+
+        Log.i(TAG, "Probe data built from descriptors: " + format.fourCC() + " " + width + "x" + height +
+                   " (formatIndex=" + format.index + ", frameIndex=" + frame.index +
+                   ", interval=" + frame.fastestInterval() + ", UVC " +
+                   Integer.toHexString(descriptors.getUvcVersion()) + ")");
+        return data;
+    }
+
+    private static void writeInt32(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value & 0xFF);
+        data[offset + 1] = (byte) ((value >> 8) & 0xFF);
+        data[offset + 2] = (byte) ((value >> 16) & 0xFF);
+        data[offset + 3] = (byte) ((value >> 24) & 0xFF);
+    }
+
     /**
      * Builds UVC probe/commit data structure
      */
@@ -421,242 +764,137 @@ public class NativeUVCCamera {
         return data;
     }
 
+    /**
+     * Creates the frame assembler shared by both streaming loops
+     * Logs the first frames and periodic status, then hands frames to the callback.
+     */
+    private UvcFrameAssembler createFrameAssembler() {
+        // Preallocate the pool once; it is reused across restarts of the same size
+        if (mFramePool == null || mFramePool.getSize() != mFramePoolSize) {
+            mFramePool = new FrameBufferPool(mFramePoolSize, MAX_FRAME_SIZE);
+        }
+
+        Log.i(TAG, "  Max frame size: " + MAX_FRAME_SIZE + " bytes");
+        Log.i(TAG, "  Frame pool: " + mFramePoolSize + " direct buffers");
+        Log.i(TAG, "  Max packet size: " + mTransport.getMaxPacketSize() + " bytes");
+
+        if (mFrameDecoders == null) {
+            // Only the frame sizes matter here, not the display the decoders project onto
+            mFrameDecoders = FrameDecoders.standard(mWidth, mHeight);
+        }
+
+        // Delimit by the negotiated format's sizes only
+        String fourCC = getFormatFourCC();
+        Log.i(TAG, "  Format: " + (fourCC != null ? fourCC : "not negotiated, assuming Boson formats"));
+
+        FrameDecoders formats = mFrameDecoders.forFormat(fourCC);
+        return new UvcFrameAssembler(formats, mFramePool, new UvcFrameAssembler.Listener() {
+            private long mLastLogTime = System.currentTimeMillis();
+            private int mWarningCount = 0;
+            private int mTracedLostCount = 0;
+
+            @Override
+            public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                FrameTracer.instant(FrameTracer.FRAME_ASSEMBLED, frame.sequence(), frame.length());
+                int lost = mFrameAssembler.getDiscardedFrameCount();
+                if (lost != mTracedLostCount) {
+                    FrameTracer.counter(FrameTracer.FRAMES_LOST, lost);
+                    mTracedLostCount = lost;
+                }
+                int frameCount = mFrameAssembler.getFrameCount();
+                if (frameCount == 1) {
+                    Log.i(TAG, "✓ First frame " + (System.currentTimeMillis() - mOpenTime) + " ms after open");
+                }
+                if (frameCount <= 10) {
+                    int size = frame.length();
+                    Log.i(TAG, "✓ Frame #" + frameCount + " delivered: " + size + " bytes" +
+                              mFrameAssembler.describeFrameSize(size));
+                }
+
+                TransferSizeTuner tuner = mTransferSizeTuner;
+                if (tuner != null && tuner.onFrame(frame.length(), frame.sequence(), mFrameAssembler.isHeaderMode(),
+                        mFrameAssembler.getLargestSplitPayload())) {
+                    Log.i(TAG, "✓ Transfer size tuned: " + tuner.describe());
+                }
+
+                if (mFrameCallback != null) {
+                    mFrameCallback.onFrame(frame);
+                }
+
+                // Periodic status logging (every 5 seconds)
+                long now = System.currentTimeMillis();
+                if (now - mLastLogTime > 5000) {
+                    Log.i(TAG, "Streaming status: " + frameCount + " frames, " +
+                              mFrameAssembler.getPacketCount() + " packets, " +
+                              mFrameAssembler.getResyncCount() + " resyncs, " +
+                              mFrameAssembler.getDroppedFrameCount() + " dropped, " +
+                              mFrameAssembler.getDiscardedFrameCount() + " lost, " +
+                              mFrameAssembler.getCameraFrameGapCount() + " camera gaps, " +
+                              mTransferErrorCount + " errors" +
+                              (tuner != null ? ", reads " + tuner.describe() : ""));
+                    mLastLogTime = now;
+                }
+            }
+
+            @Override
+            public void onAssemblyWarning(String message) {
+                // Only log the first few, status line reports the running resync count
+                if (++mWarningCount <= 20) {
+                    Log.w(TAG, message);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates the read size tuner for a bulk streaming loop
+     * Starts from the negotiated payload size when there is one.
+     */
+    private TransferSizeTuner createTransferSizeTuner() {
+        int maxTransferSize = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P ?
+                MAX_TUNED_TRANSFER_SIZE : MAX_USB_REQUEST_SIZE;
+        TransferSizeTuner tuner = new TransferSizeTuner(mTransport.getMaxPacketSize(), maxTransferSize,
+                getMaxPayloadTransferSize());
+        Log.i(TAG, "  Read size: " + tuner.describe() + ", at most " + tuner.getMaxTransferSize() + " bytes");
+        return tuner;
+    }
+
     /**
      * Main streaming loop that reads frames from USB endpoint
+     * Synchronous mode: one blocking bulkTransfer in flight at a time
      */
     private void streamingLoop() {
-        int bufferSize = mStreamingEndpoint.getMaxPacketSize() * 32;  // Buffer for multiple packets
-        byte[] buffer = new byte[bufferSize];
-
-        // Frame accumulation buffer - allocate for largest possible frame
-        // MJPEG: Variable size, typically 150KB-350KB for Boson
-        // Y16 format: 320×256×2 = 163,840 bytes
-        // I420 format: 640×512×1.5 = 491,520 bytes
-        int maxFrameSize = 1024 * 1024;  // 1MB buffer for MJPEG or uncompressed
-        ByteBuffer frameBuffer = ByteBuffer.allocate(maxFrameSize);
-
-        // Expected frame sizes based on negotiation
-        // Y16 format can include 2 telemetry rows (per FLIR Boson SDK)
-        final int Y16_SIZE = mWidth * mHeight * 2;              // 163,840 bytes for 320×256 (no telemetry)
-        final int Y16_SIZE_WITH_TELEM = mWidth * (mHeight + 2) * 2;  // 165,120 bytes for 320×258 (with telemetry)
-        final int I420_SIZE = 640 * 512 * 3 / 2;               // 491,520 bytes
-        final int I420_SIZE_WITH_TELEM = 640 * 514 * 3 / 2;    // 494,592 bytes (with telemetry)
-
-        // MJPEG detection
-        boolean mjpegDetected = false;
-
-        int endpointType = mStreamingEndpoint.getType();
-        String transferType = endpointType == UsbConstants.USB_ENDPOINT_XFER_ISOC ? "isochronous" : "bulk";
-
-        Log.i(TAG, "Streaming loop started");
-        Log.i(TAG, "  Endpoint type: " + transferType);
-        Log.i(TAG, "  Buffer size: " + bufferSize + " bytes");
-        Log.i(TAG, "  Max frame size: " + maxFrameSize + " bytes");
-        Log.i(TAG, "  Expected Y16 sizes: " + Y16_SIZE + " (no telem) or " + Y16_SIZE_WITH_TELEM + " (with telem) bytes");
-        Log.i(TAG, "  Expected I420 sizes: " + I420_SIZE + " (no telem) or " + I420_SIZE_WITH_TELEM + " (with telem) bytes");
-        Log.i(TAG, "  Max packet size: " + mStreamingEndpoint.getMaxPacketSize() + " bytes");
-
-        int frameCount = 0;
-        int errorCount = 0;
-        long lastLogTime = System.currentTimeMillis();
-        long frameStartTime = System.currentTimeMillis();
-        final long FRAME_TIMEOUT_MS = 1000;  // 1 second timeout for frame accumulation
+        Log.i(TAG, "Streaming loop started (synchronous)");
+        Log.i(TAG, "  Endpoint type: " + getEndpointTypeString(mStreamingEndpoint.getType()));
+        TransferSizeTuner tuner = createTransferSizeTuner();
+        byte[] buffer = new byte[tuner.getMaxTransferSize()];
+        ByteBuffer packet = ByteBuffer.wrap(buffer);
+        mTransferSizeTuner = tuner;
+        mFrameAssembler = createFrameAssembler();
+        // Bulk payloads larger than a read arrive in pieces, only the first with a header
+        mFrameAssembler.setPayloadLayout(mTransport.getMaxPacketSize(), getMaxPayloadTransferSize());
+        mTransferErrorCount = 0;
 
         while (mStreaming.get()) {
             try {
                 // Read data from USB endpoint
-                // Note: bulkTransfer works for both bulk and isochronous endpoints on many devices
-                int bytesRead = mConnection.bulkTransfer(
-                    mStreamingEndpoint,
+                int readSize = tuner.getTransferSize();
+                int bytesRead = mTransport.readStream(
                     buffer,
-                    bufferSize,
+                    readSize,
                     100  // 100ms timeout
                 );
+                FrameTracer.instant(FrameTracer.USB_READ, bytesRead, readSize);
+                tuner.onTransfer(bytesRead, readSize);
 
                 if (bytesRead > 0) {
-                    // Check for UVC payload header (first 2-12 bytes)
-                    int headerLength = buffer[0] & 0xFF;
-                    boolean endOfFrame = false;
-
-                    // VALIDATE: UVC spec requires header length 2-12 bytes (or 0 for no header)
-                    // Reject obviously invalid values to prevent data corruption
-                    if (headerLength == 1 || headerLength > 12) {
-                        if (frameCount < 5) {
-                            Log.w(TAG, "Invalid UVC header length: " + headerLength +
-                                      " (expected 0, or 2-12) - camera sends headerless packets");
-                        }
-                        headerLength = 0;  // Treat as no header
-                    }
-
-                    // Extract payload based on whether we have a valid header
-                    int payloadLength;
-                    int payloadOffset;
-
-                    if (headerLength > 0 && headerLength < bytesRead) {
-                        // Has valid UVC header
-                        int bitField = buffer[1] & 0xFF;
-                        endOfFrame = (bitField & 0x02) != 0;
-
-                        // Log header details for first few packets (debugging)
-                        if (frameCount == 0 && frameBuffer.position() < 1000) {
-                            boolean error = (bitField & 0x40) != 0;
-                            Log.d(TAG, "UVC Header: len=" + headerLength +
-                                      ", EOF=" + endOfFrame + ", ERR=" + error +
-                                      ", bits=0x" + String.format("%02X", bitField));
-                        }
-
-                        payloadLength = bytesRead - headerLength;
-                        payloadOffset = headerLength;
-                    } else {
-                        // No header (headerLength == 0) - treat entire packet as payload
-                        payloadLength = bytesRead;
-                        payloadOffset = 0;
-                        endOfFrame = false;  // No header means no EOF bit
-                    }
-
-                    // Accumulate frame data (common for both header and headerless)
-                    if (frameBuffer.remaining() >= payloadLength) {
-                        frameBuffer.put(buffer, payloadOffset, payloadLength);
-                    } else {
-                        Log.w(TAG, "Frame buffer overflow! Remaining: " + frameBuffer.remaining() +
-                                  ", needed: " + payloadLength + " - discarding and starting new frame");
-                        frameBuffer.clear();
-                        mjpegDetected = false;  // Reset format detection for new frame
-                        frameStartTime = System.currentTimeMillis();  // Reset timeout
-
-                        // Only add current payload if it looks like a frame start (JPEG SOI for MJPEG)
-                        if (payloadLength >= 2 &&
-                            buffer[payloadOffset] == (byte)0xFF &&
-                            buffer[payloadOffset + 1] == (byte)0xD8) {
-                            Log.i(TAG, "New frame starts with JPEG SOI - good recovery");
-                            frameBuffer.put(buffer, payloadOffset, payloadLength);
-                        } else {
-                            Log.w(TAG, "Discarding payload - doesn't start with JPEG SOI");
-                            // Don't add anything, wait for next packet
-                        }
-                    }
-
-                    // Frame completion detection (common for both header and headerless)
-                    int accumulated = frameBuffer.position();
-                    boolean frameComplete = false;
-
-                    // MJPEG detection: Check if accumulated data starts with JPEG magic bytes
-                    if (!mjpegDetected && accumulated >= 2) {
-                            // Save current position before checking magic bytes
-                            int savedPosition = frameBuffer.position();
-                            frameBuffer.position(0);
-                            byte firstByte = frameBuffer.get();
-                            byte secondByte = frameBuffer.get();
-                            // Restore position
-                            frameBuffer.position(savedPosition);
-
-                            // JPEG magic bytes: 0xFF 0xD8
-                            if (firstByte == (byte)0xFF && secondByte == (byte)0xD8) {
-                                mjpegDetected = true;
-                                Log.i(TAG, "✓ MJPEG format detected (JPEG magic bytes found)");
-                                Log.i(TAG, "  Boson is sending compressed MJPEG instead of uncompressed Y16/I420");
-                                Log.i(TAG, "  Will use end-of-frame bit and JPEG EOI marker for frame detection");
-                            }
-                        }
-
-                        // MJPEG frame completion: Use end-of-frame bit OR JPEG EOI marker
-                        if (mjpegDetected) {
-                            // Check for JPEG end-of-image marker (0xFF 0xD9) in last 2 bytes of payload
-                            boolean jpegEOI = false;
-                            if (accumulated >= 2) {
-                                int pos = frameBuffer.position();
-                                byte lastByte = frameBuffer.get(pos - 1);
-                                byte secondLastByte = frameBuffer.get(pos - 2);
-                                jpegEOI = (secondLastByte == (byte)0xFF && lastByte == (byte)0xD9);
-                            }
-
-                            // Frame complete if end-of-frame bit is set OR JPEG EOI marker found
-                            if (endOfFrame || jpegEOI) {
-                                frameComplete = true;
-                                if (frameCount < 5) {
-                                    Log.i(TAG, "✓ MJPEG frame complete: " + accumulated + " bytes (EOF=" + endOfFrame + ", EOI=" + jpegEOI + ")");
-                                }
-                            }
-                        }
-                        // Uncompressed frame completion: SIZE-BASED detection
-                        else {
-                            // Diagnostic: Log when we're close to target size
-                            if (frameCount < 5 && accumulated > 160000) {
-                                Log.d(TAG, "Frame accumulation: " + accumulated + " bytes, EOF bit=" + endOfFrame);
-                                Log.d(TAG, "  Valid sizes: Y16=" + Y16_SIZE + ", Y16+telem=" + Y16_SIZE_WITH_TELEM +
-                                          ", I420=" + I420_SIZE + ", I420+telem=" + I420_SIZE_WITH_TELEM);
-                            }
-
-                            // Accept exact frame sizes (with or without telemetry)
-                            if (accumulated == Y16_SIZE) {
-                                frameComplete = true;
-                                if (frameCount < 5) Log.i(TAG, "✓ Y16 frame (320×256, no telemetry)");
-                            } else if (accumulated == Y16_SIZE_WITH_TELEM) {
-                                frameComplete = true;
-                                if (frameCount < 5) Log.i(TAG, "✓ Y16 frame (320×258, WITH 2 telemetry rows)");
-                            } else if (accumulated == I420_SIZE) {
-                                frameComplete = true;
-                                if (frameCount < 5) Log.i(TAG, "✓ I420 frame (640×512, no telemetry)");
-                            } else if (accumulated == I420_SIZE_WITH_TELEM) {
-                                frameComplete = true;
-                                if (frameCount < 5) Log.i(TAG, "✓ I420 frame (640×514, WITH 2 telemetry rows)");
-                            }
-                            // If accumulated exceeds maximum possible size, frame is corrupted - restart
-                            else if (accumulated > I420_SIZE_WITH_TELEM) {
-                                Log.w(TAG, "Frame buffer overflow: " + accumulated + " bytes exceeds maximum " +
-                                          I420_SIZE_WITH_TELEM + " - restarting frame");
-                                frameBuffer.clear();
-                            }
-                        }
-
-                        // Check for frame accumulation timeout
-                        long now = System.currentTimeMillis();
-                        if (!frameComplete && accumulated > 0 && (now - frameStartTime) > FRAME_TIMEOUT_MS) {
-                            Log.w(TAG, "Frame accumulation timeout! " + accumulated +
-                                      " bytes accumulated in " + (now - frameStartTime) + "ms - resetting");
-                            Log.w(TAG, "  Format: " + (mjpegDetected ? "MJPEG" : "uncompressed") +
-                                      ", EOF bit seen: " + endOfFrame);
-                            frameBuffer.clear();
-                            mjpegDetected = false;
-                            frameStartTime = now;
-                        }
-
-                        if (frameComplete && frameBuffer.position() > 0) {
-                            // Frame complete - deliver to callback
-                            frameBuffer.flip();
-
-                            frameCount++;
-                            if (frameCount <= 10) {
-                                String format = " (unknown size)";
-                                int size = frameBuffer.remaining();
-                                if (size == Y16_SIZE) format = " (Y16, 320×256)";
-                                else if (size == Y16_SIZE_WITH_TELEM) format = " (Y16+telem, 320×258)";
-                                else if (size == I420_SIZE) format = " (I420, 640×512)";
-                                else if (size == I420_SIZE_WITH_TELEM) format = " (I420+telem, 640×514)";
-
-                                Log.i(TAG, "✓ Frame #" + frameCount + " delivered: " + size + " bytes" + format);
-                            }
-
-                            if (mFrameCallback != null) {
-                                mFrameCallback.onFrame(frameBuffer);
-                            }
-
-                            // Reset for next frame
-                            frameBuffer.clear();
-                            frameStartTime = System.currentTimeMillis();  // Reset timeout for next frame
-
-                            // Periodic status logging (every 5 seconds)
-                            now = System.currentTimeMillis();
-                            if (now - lastLogTime > 5000) {
-                                Log.i(TAG, "Streaming status: " + frameCount + " frames received, " +
-                                          errorCount + " errors");
-                                lastLogTime = now;
-                            }
-                        }
+                    packet.limit(bytesRead);
+                    packet.position(0);
+                    mFrameAssembler.onPacket(packet);
                 } else if (bytesRead < 0) {
                     // Error occurred
-                    errorCount++;
-                    if (errorCount <= 10) {
+                    mTransferErrorCount++;
+                    if (mTransferErrorCount <= 10) {
                         Log.e(TAG, "Transfer error: " + bytesRead);
                     }
                     Thread.sleep(10);  // Brief pause before retry
@@ -670,6 +908,172 @@ public class NativeUVCCamera {
             }
         }
 
+        mFrameAssembler.close();
+        Log.i(TAG, "Streaming loop ended");
+    }
+
+    /**
+     * Queued streaming loop that keeps several UsbRequests in flight
+     * While one completed request is being assembled the host controller keeps
+     * filling the others, so reading overlaps with frame assembly.
+     */
+    private void queuedStreamingLoop() {
+        int depth = mRequestQueueDepth;
+
+        Log.i(TAG, "Streaming loop started (queued, " + depth + " requests in flight)");
+        Log.i(TAG, "  Endpoint type: " + getEndpointTypeString(mStreamingEndpoint.getType()));
+        TransferSizeTuner tuner = createTransferSizeTuner();
+        mTransferSizeTuner = tuner;
+        mFrameAssembler = createFrameAssembler();
+        // Bulk payloads larger than a read arrive in pieces, only the first with a header
+        mFrameAssembler.setPayloadLayout(mTransport.getMaxPacketSize(), getMaxPayloadTransferSize());
+        mTransferErrorCount = 0;
+
+        try {
+            // Allocate and queue all requests up front, large enough for any tuned size
+            for (int i = 0; i < depth; i++) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(tuner.getMaxTransferSize());
+                buffer.limit(tuner.getTransferSize());
+                if (!mTransport.queueStreamRead(buffer)) {
+                    Log.e(TAG, "Failed to queue UsbRequest " + i);
+                    return;
+                }
+            }
+
+            while (mStreaming.get()) {
+                ByteBuffer buffer;
+                try {
+                    buffer = mTransport.awaitStreamRead(100);  // 100ms timeout
+                } catch (TimeoutException e) {
+                    continue;
+                }
+
+                if (buffer == null) {
+                    // Error occurred
+                    mTransferErrorCount++;
+                    if (mTransferErrorCount <= 10) {
+                        Log.e(TAG, "requestWait error");
+                    }
+                    Thread.sleep(10);  // Brief pause before retry
+                    continue;
+                }
+
+                // Position holds the number of bytes transferred, limit the size requested
+                FrameTracer.instant(FrameTracer.USB_READ, buffer.position(), buffer.limit());
+                tuner.onTransfer(buffer.position(), buffer.limit());
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    mFrameAssembler.onPacket(buffer);
+                }
+
+                // Requeue immediately so the request is back in flight
+                buffer.clear();
+                buffer.limit(tuner.getTransferSize());
+                if (mStreaming.get() && !mTransport.queueStreamRead(buffer)) {
+                    mTransferErrorCount++;
+                    Log.e(TAG, "Failed to requeue UsbRequest");
+                    break;
+                }
+            }
+
+        } catch (Exception e) {
+            if (mStreaming.get()) {
+                Log.e(TAG, "Streaming error", e);
+            }
+        } finally {
+            mTransport.cancelStreamReads();
+            mFrameAssembler.close();
+        }
+
+        Log.i(TAG, "Streaming loop ended");
+    }
+
+    /**
+     * Isochronous streaming loop for cameras that only expose ISO endpoints
+     * Selects the lowest-bandwidth alternate setting that carries the negotiated
+     * dwMaxPayloadTransferSize, keeps several ISO transfers in flight through usbfs and
+     * hands each packet (one payload with its own header) to the assembler.
+     */
+    private void isochronousStreamingLoop() {
+        int interfaceId = mVideoStreamingInterface.getId();
+        int payloadSize = getMaxPayloadTransferSize();
+        UvcDescriptors.AltSetting alt = mDescriptors.selectIsochronous(interfaceId, payloadSize);
+        UsbInterface altInterface = alt != null ? findAlternateInterface(interfaceId, alt.alternateSetting) : null;
+        if (altInterface == null) {
+            Log.e(TAG, "No isochronous alternate setting found for interface " + interfaceId);
+            return;
+        }
+        if (!mConnection.setInterface(altInterface)) {
+            Log.e(TAG, "Failed to select alternate setting " + alt.alternateSetting);
+            return;
+        }
+
+        int depth = Math.max(2, mRequestQueueDepth);
+        int packetSize = alt.bytesPerInterval();
+        if (payloadSize > packetSize) {
+            Log.w(TAG, "No alternate setting carries " + payloadSize + " bytes per interval - using the largest");
+        }
+
+        Log.i(TAG, "Streaming loop started (isochronous, " + depth + " transfers in flight)");
+        Log.i(TAG, "  Alternate setting: " + alt.alternateSetting + ", endpoint 0x" +
+                  Integer.toHexString(alt.endpointAddress) + ", " + packetSize + " bytes/interval" +
+                  " (negotiated payload " + payloadSize + ")");
+        mTransferSizeTuner = null;  // ISO packet sizes are fixed by the alternate setting
+        mFrameAssembler = createFrameAssembler();
+        mTransferErrorCount = 0;
+
+        IsochronousTransport iso = null;
+        try {
+            iso = new IsochronousTransport(mConnection.getFileDescriptor(), alt.endpointAddress, packetSize,
+                    IsochronousTransport.DEFAULT_PACKETS_PER_TRANSFER, depth);
+            iso.submitAll();
+
+            while (mStreaming.get()) {
+                int slot = iso.reap(100);  // 100ms timeout
+                if (slot < 0) {
+                    continue;
+                }
+                FrameTracer.instant(FrameTracer.ISO_REAP, slot, iso.getPacketsPerTransfer());
+
+                ByteBuffer buffer = iso.getBuffer(slot);
+                for (int i = 0; i < iso.getPacketsPerTransfer(); i++) {
+                    int length = iso.getPacketLength(i);
+                    if (length < 0) {
+                        mTransferErrorCount++;
+                        mFrameAssembler.onPacketError();
+                    } else if (length > 0) {
+                        // Packet i sits in its own slot of the transfer buffer
+                        int offset = i * packetSize;
+                        buffer.clear();
+                        buffer.limit(offset + length);
+                        buffer.position(offset);
+                        mFrameAssembler.onPacket(buffer);
+                    }
+                }
+
+                // Resubmit immediately so the transfer is back in flight
+                if (mStreaming.get()) {
+                    iso.submit(slot);
+                }
+            }
+
+        } catch (Exception e) {
+            if (mStreaming.get()) {
+                Log.e(TAG, "Streaming error", e);
+            }
+        } finally {
+            if (iso != null) {
+                iso.close();
+            }
+            mFrameAssembler.close();
+
+            // Back to the zero-bandwidth setting so the bus reservation is released
+            UsbInterface idle = findAlternateInterface(interfaceId, 0);
+            if (idle != null && mConnection != null) {
+                mConnection.setInterface(idle);
+            }
+        }
+
         Log.i(TAG, "Streaming loop ended");
     }
 
@@ -0,0 +1,116 @@
+package com.example.thermalarglass;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HUD and annotation overlay, painted into a cached display-sized layer only when it changes
+ * Anything that alters the overlay (new annotations, a mode switch, connection state) calls
+ * invalidate(); the next draw() repaints the layer once and every later frame only blits it.
+ * After a repaint the layer is scanned for tiles that contain anything, and only those are
+ * blitted, so a HUD line and a few boxes cost a few small copies rather than a full-screen
+ * alpha blend. Render thread only, except invalidate().
+ */
+class OverlayCompositor {
+
+    private static final int TILE_WIDTH = 80;
+    private static final int TILE_HEIGHT = 40;
+
+    interface Painter {
+        void paint(Canvas canvas);
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final Painter mPainter;
+    private final AtomicInteger mVersion = new AtomicInteger(0);
+
+    private final Bitmap mLayer;
+    private final Canvas mLayerCanvas;
+    private final int[] mScan;
+    private final Rect[] mTiles;
+    private final boolean[] mTileUsed;
+    private int mBuiltVersion = -1;
+    private volatile long mRebuildCount = 0;
+
+    OverlayCompositor(int width, int height, Painter painter) {
+        mWidth = width;
+        mHeight = height;
+        mPainter = painter;
+        mLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mLayerCanvas = new Canvas(mLayer);
+        mScan = new int[width * height];
+
+        int columns = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+        int rows = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+        mTiles = new Rect[columns * rows];
+        mTileUsed = new boolean[mTiles.length];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int left = column * TILE_WIDTH;
+                int top = row * TILE_HEIGHT;
+                mTiles[row * columns + column] = new Rect(left, top, Math.min(width, left + TILE_WIDTH),
+                        Math.min(height, top + TILE_HEIGHT));
+            }
+        }
+    }
+
+    /**
+     * Marks the layer stale; it is repainted before the next frame is drawn. Any thread.
+     */
+    void invalidate() {
+        mVersion.incrementAndGet();
+    }
+
+    /**
+     * Draws the layer over the frame, repainting it first if it was invalidated
+     */
+    void draw(Canvas canvas) {
+        int version = mVersion.get();
+        if (version != mBuiltVersion) {
+            mBuiltVersion = version;
+            rebuild();
+        }
+        for (int i = 0; i < mTiles.length; i++) {
+            if (mTileUsed[i]) {
+                canvas.drawBitmap(mLayer, mTiles[i], mTiles[i], null);
+            }
+        }
+    }
+
+    private void rebuild() {
+        mLayer.eraseColor(Color.TRANSPARENT);
+        mPainter.paint(mLayerCanvas);
+
+        // Find the tiles with any non-transparent pixel
+        mLayer.getPixels(mScan, 0, mWidth, 0, 0, mWidth, mHeight);
+        for (int i = 0; i < mTiles.length; i++) {
+            Rect tile = mTiles[i];
+            boolean used = false;
+            for (int y = tile.top; y < tile.bottom && !used; y++) {
+                int row = y * mWidth;
+                for (int x = tile.left; x < tile.right; x++) {
+                    if ((mScan[row + x] >>> 24) != 0) {
+                        used = true;
+                        break;
+                    }
+                }
+            }
+            mTileUsed[i] = used;
+        }
+        mRebuildCount++;
+    }
+
+    // Times the layer was repainted
+    long getRebuildCount() {
+        return mRebuildCount;
+    }
+
+    void recycle() {
+        mLayer.recycle();
+    }
+}
@@ -25,6 +25,7 @@ import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -167,8 +168,10 @@ public class SettingsActivity extends Activity {
      */
     private void setupSpinners(String defaultColormap, int frameRate, String tempUnit,
                                int recordingInterval, int batteryAlert, float detectionConfidence) {
-        // Colormap spinner
-        String[] colormaps = {"iron", "rainbow", "white_hot", "arctic", "grayscale"};
+        // Colormap spinner: built-in maps plus user palettes
+        ColormapRegistry registry = new ColormapRegistry();
+        registry.loadDirectory(new File(getExternalFilesDir(null), ColormapRegistry.PALETTE_DIR));
+        String[] colormaps = registry.getNames();
         setupSpinner(mColormapSpinner, colormaps, findIndex(colormaps, defaultColormap));
 
         // Frame rate spinner
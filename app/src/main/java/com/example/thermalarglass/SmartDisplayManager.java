@@ -7,9 +7,6 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.util.Log;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -31,16 +28,13 @@ public class SmartDisplayManager {
     // Display limits
     private static final int MAX_PRIMARY_OBJECTS = 3;  // Show full details
     private static final int MAX_SECONDARY_OBJECTS = 5;  // Show minimal indicators
-    private static final float MIN_CONFIDENCE_THRESHOLD = 0.5f;
-
-    // Priority weights
-    private static final float WEIGHT_CENTER_DISTANCE = 0.4f;
-    private static final float WEIGHT_CONFIDENCE = 0.3f;
-    private static final float WEIGHT_TEMPERATURE = 0.3f;
 
     // Temperature thresholds for alerts
-    private static final float TEMP_CRITICAL = 80.0f;  // °C
-    private static final float TEMP_WARNING = 60.0f;   // °C
+    private static final float TEMP_CRITICAL = AnnotationPriority.TEMP_CRITICAL;
+    private static final float TEMP_WARNING = AnnotationPriority.TEMP_WARNING;
+
+    // Filtering and ranking, plain Java so it can be benchmarked off-device
+    private final AnnotationPriority mPriority = new AnnotationPriority(GLASS_WIDTH, GLASS_HEIGHT);
 
     private Paint mPrimaryPaint;
     private Paint mSecondaryPaint;
@@ -58,40 +52,6 @@ public class SmartDisplayManager {
 
     private DisplayMode mDisplayMode = DisplayMode.STANDARD;
 
-    public static class AnnotatedObject {
-        public float[] bbox;           // [x1, y1, x2, y2]
-        public float confidence;
-        public String className;
-        public float temperature;      // Optional
-        public boolean isThermalAnomaly;
-        public long detectionTime;
-
-        public AnnotatedObject(float[] bbox, float confidence, String className) {
-            this.bbox = bbox;
-            this.confidence = confidence;
-            this.className = className;
-            this.temperature = Float.NaN;
-            this.isThermalAnomaly = false;
-            this.detectionTime = System.currentTimeMillis();
-        }
-
-        // Calculate center of bounding box
-        public float getCenterX() {
-            return (bbox[0] + bbox[2]) / 2.0f;
-        }
-
-        public float getCenterY() {
-            return (bbox[1] + bbox[3]) / 2.0f;
-        }
-
-        // Calculate distance from screen center
-        public float getDistanceFromCenter(float centerX, float centerY) {
-            float dx = getCenterX() - centerX;
-            float dy = getCenterY() - centerY;
-            return (float) Math.sqrt(dx * dx + dy * dy);
-        }
-    }
-
     public SmartDisplayManager() {
         initPaints();
         initFocusArea();
@@ -160,10 +120,10 @@ public class SmartDisplayManager {
         }
 
         // Filter by confidence
-        List<AnnotatedObject> filtered = filterByConfidence(objects);
+        List<AnnotatedObject> filtered = mPriority.filterByConfidence(objects);
 
         // Prioritize objects
-        List<AnnotatedObject> prioritized = prioritizeObjects(filtered);
+        List<AnnotatedObject> prioritized = mPriority.prioritizeObjects(filtered);
 
         // Draw based on mode
         switch (mDisplayMode) {
@@ -179,83 +139,6 @@ public class SmartDisplayManager {
         }
     }
 
-    /**
-     * Filter objects by confidence threshold
-     */
-    private List<AnnotatedObject> filterByConfidence(List<AnnotatedObject> objects) {
-        List<AnnotatedObject> filtered = new ArrayList<>();
-        for (AnnotatedObject obj : objects) {
-            if (obj.confidence >= MIN_CONFIDENCE_THRESHOLD) {
-                filtered.add(obj);
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * Prioritize objects based on multiple factors:
-     * - Distance from center (what user is looking at)
-     * - Confidence score
-     * - Temperature (thermal anomalies)
-     */
-    private List<AnnotatedObject> prioritizeObjects(List<AnnotatedObject> objects) {
-        float centerX = GLASS_WIDTH / 2.0f;
-        float centerY = GLASS_HEIGHT / 2.0f;
-
-        // Calculate priority score for each object
-        for (AnnotatedObject obj : objects) {
-            float distScore = calculateDistanceScore(obj, centerX, centerY);
-            float confScore = obj.confidence;
-            float tempScore = calculateTemperatureScore(obj);
-
-            obj.detectionTime = (long) (
-                distScore * WEIGHT_CENTER_DISTANCE +
-                confScore * WEIGHT_CONFIDENCE +
-                tempScore * WEIGHT_TEMPERATURE
-            );  // Reusing detectionTime field for priority score
-        }
-
-        // Sort by priority (higher score = higher priority)
-        Collections.sort(objects, new Comparator<AnnotatedObject>() {
-            @Override
-            public int compare(AnnotatedObject o1, AnnotatedObject o2) {
-                return Long.compare(o2.detectionTime, o1.detectionTime);
-            }
-        });
-
-        return objects;
-    }
-
-    /**
-     * Calculate distance score (closer to center = higher score)
-     */
-    private float calculateDistanceScore(AnnotatedObject obj, float centerX, float centerY) {
-        float distance = obj.getDistanceFromCenter(centerX, centerY);
-        float maxDistance = (float) Math.sqrt(centerX * centerX + centerY * centerY);
-        return 1.0f - (distance / maxDistance);  // Normalize: 1.0 at center, 0.0 at corners
-    }
-
-    /**
-     * Calculate temperature score (hotter = higher priority)
-     */
-    private float calculateTemperatureScore(AnnotatedObject obj) {
-        if (Float.isNaN(obj.temperature)) {
-            return 0.0f;
-        }
-
-        // Normalize temperature: 0-100°C → 0.0-1.0
-        float normalized = Math.min(obj.temperature / 100.0f, 1.0f);
-
-        // Boost critical temperatures
-        if (obj.temperature >= TEMP_CRITICAL) {
-            return 1.0f;
-        } else if (obj.temperature >= TEMP_WARNING) {
-            return 0.7f + normalized * 0.3f;
-        }
-
-        return normalized;
-    }
-
     /**
      * Draw minimal annotations (icons + temps only)
      */
@@ -467,7 +350,7 @@ public class SmartDisplayManager {
      * Get primary (high priority) objects for audio alerts
      */
     public List<AnnotatedObject> getPrimaryObjects(List<AnnotatedObject> objects) {
-        List<AnnotatedObject> prioritized = prioritizeObjects(filterByConfidence(objects));
+        List<AnnotatedObject> prioritized = mPriority.prioritizeObjects(mPriority.filterByConfidence(objects));
         return prioritized.subList(0, Math.min(MAX_PRIMARY_OBJECTS, prioritized.size()));
     }
 }
@@ -0,0 +1,137 @@
+package com.example.thermalarglass;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.TextView;
+
+import java.util.Locale;
+
+/**
+ * Publishes UiState to the HUD TextViews from a single main-thread ticker
+ * Replaces a runOnUiThread() post and a format string per frame and readout: the ticker wakes
+ * at a fixed rate and touches a view only when its displayed text would change. The delay
+ * between a tick's due time and when it actually runs is tracked as a measure of how busy the
+ * main thread is (touchpad events queue behind the same looper).
+ */
+class UiStatePublisher {
+
+    static final int DEFAULT_RATE_HZ = 8;
+
+    // Weight of the newest sample in the smoothed lag (1/16), as in FrameStage
+    private static final int LAG_SMOOTHING_SHIFT = 4;
+
+    private final UiState mState;
+    private final TextView mFrameCounter;
+    private final TextView mCenterTemperature;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final long mIntervalMs;
+
+    // Main thread only
+    private boolean mRunning = false;
+    private long mNextTickMs;
+    private long mShownFrameNumber = Long.MIN_VALUE;
+    private int mShownTempTenths = Integer.MIN_VALUE;   // Integer.MAX_VALUE when "--" is shown
+
+    // Statistics, written on the main thread
+    private volatile long mPublishCount = 0;
+    private volatile long mLagNanos = 0;
+    private volatile long mMaxLagNanos = 0;
+
+    private final Runnable mTick = this::tick;
+
+    UiStatePublisher(UiState state, TextView frameCounter, TextView centerTemperature, int rateHz) {
+        mState = state;
+        mFrameCounter = frameCounter;
+        mCenterTemperature = centerTemperature;
+        mIntervalMs = 1000 / Math.max(1, Math.min(rateHz, 60));
+    }
+
+    /**
+     * Starts ticking; any thread
+     */
+    void start() {
+        mHandler.post(() -> {
+            if (!mRunning) {
+                mRunning = true;
+                mNextTickMs = SystemClock.uptimeMillis();
+                mHandler.post(mTick);
+            }
+        });
+    }
+
+    /**
+     * Stops ticking after publishing the last values once more; any thread
+     */
+    void stop() {
+        mHandler.post(() -> {
+            if (mRunning) {
+                mRunning = false;
+                mHandler.removeCallbacks(mTick);
+                publish();
+            }
+        });
+    }
+
+    private void tick() {
+        if (!mRunning) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        recordLag((now - mNextTickMs) * 1000000L);
+        publish();
+
+        // Fixed rate; after a stall skip the missed ticks instead of bunching them up
+        mNextTickMs += mIntervalMs;
+        if (mNextTickMs <= now) {
+            mNextTickMs = now + mIntervalMs;
+        }
+        mHandler.postAtTime(mTick, mNextTickMs);
+    }
+
+    private void publish() {
+        long frameNumber = mState.getFrameNumber();
+        if (frameNumber >= 0 && frameNumber != mShownFrameNumber && mFrameCounter != null) {
+            mShownFrameNumber = frameNumber;
+            mFrameCounter.setText(String.valueOf(frameNumber));
+            mPublishCount++;
+        }
+
+        // Compare what the readout shows (0.1 °C), not the raw float
+        float centerTemp = mState.getCenterTemp();
+        int tenths = Float.isNaN(centerTemp) ? Integer.MAX_VALUE : Math.round(centerTemp * 10);
+        if (frameNumber >= 0 && tenths != mShownTempTenths && mCenterTemperature != null) {
+            mShownTempTenths = tenths;
+            mCenterTemperature.setText(Float.isNaN(centerTemp) ? "--°C"
+                    : String.format(Locale.US, "%.1f°C", tenths / 10f));
+            mPublishCount++;
+        }
+    }
+
+    private void recordLag(long nanos) {
+        nanos = Math.max(0, nanos);
+        long smoothed = mLagNanos;
+        mLagNanos = smoothed == 0 ? nanos : smoothed + ((nanos - smoothed) >> LAG_SMOOTHING_SHIFT);
+        if (nanos > mMaxLagNanos) {
+            mMaxLagNanos = nanos;
+        }
+    }
+
+    float getRateHz() {
+        return 1000f / mIntervalMs;
+    }
+
+    // setText() calls made, at most two per tick
+    long getPublishCount() {
+        return mPublishCount;
+    }
+
+    // Smoothed delay of a tick behind its due time on the main looper
+    float getLagMs() {
+        return mLagNanos / 1e6f;
+    }
+
+    float getMaxLagMs() {
+        return mMaxLagNanos / 1e6f;
+    }
+}
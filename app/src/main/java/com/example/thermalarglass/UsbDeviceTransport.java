@@ -0,0 +1,92 @@
+package com.example.thermalarglass;
+
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbRequest;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * UvcTransport over Android's UsbDeviceConnection
+ * Queued reads use UsbRequest; requests are created on demand and recycled once reaped.
+ */
+class UsbDeviceTransport implements UvcTransport {
+
+    private final UsbDeviceConnection mConnection;
+    private final UsbEndpoint mStreamingEndpoint;
+
+    // All requests created so far, and the ones not currently queued
+    private final List<UsbRequest> mRequests = new ArrayList<>();
+    private final ArrayDeque<UsbRequest> mIdleRequests = new ArrayDeque<>();
+
+    UsbDeviceTransport(UsbDeviceConnection connection, UsbEndpoint streamingEndpoint) {
+        mConnection = connection;
+        mStreamingEndpoint = streamingEndpoint;
+    }
+
+    @Override
+    public int controlTransfer(int requestType, int request, int value, int index,
+                               byte[] buffer, int length, int timeoutMs) {
+        return mConnection.controlTransfer(requestType, request, value, index, buffer, length, timeoutMs);
+    }
+
+    @Override
+    public int readStream(byte[] buffer, int length, int timeoutMs) {
+        // Bulk endpoints only; isochronous cameras stream through IsochronousTransport
+        return mConnection.bulkTransfer(mStreamingEndpoint, buffer, length, timeoutMs);
+    }
+
+    @Override
+    public boolean queueStreamRead(ByteBuffer buffer) {
+        UsbRequest request = mIdleRequests.poll();
+        if (request == null) {
+            request = new UsbRequest();
+            if (!request.initialize(mConnection, mStreamingEndpoint)) {
+                request.close();
+                return false;
+            }
+            mRequests.add(request);
+        }
+
+        request.setClientData(buffer);
+        if (!request.queue(buffer)) {
+            mIdleRequests.add(request);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ByteBuffer awaitStreamRead(long timeoutMs) throws TimeoutException {
+        UsbRequest completed = mConnection.requestWait(timeoutMs);
+        if (completed == null) {
+            return null;
+        }
+        mIdleRequests.add(completed);
+        return (ByteBuffer) completed.getClientData();
+    }
+
+    @Override
+    public void cancelStreamReads() {
+        for (UsbRequest request : mRequests) {
+            request.cancel();
+            request.close();
+        }
+        mRequests.clear();
+        mIdleRequests.clear();
+    }
+
+    @Override
+    public int getMaxPacketSize() {
+        return mStreamingEndpoint.getMaxPacketSize();
+    }
+
+    @Override
+    public void close() {
+        cancelStreamReads();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.thermalarglass;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import java.util.Locale;
+
+/**
+ * Remembers the committed UVC probe/commit block per camera (VID/PID/serial)
+ * On reconnect the block is probed and committed directly, skipping the format and frame
+ * search; one GET_CUR(PROBE) readback still checks the camera agrees on the format index,
+ * frame index and frame size, so a firmware update that renumbers formats falls back to a
+ * full negotiation instead of committing a stale format.
+ */
+class UvcNegotiationCache {
+
+    private static final String PREF_NAME = "UvcNegotiationCache";
+
+    private final SharedPreferences mPrefs;
+
+    UvcNegotiationCache(Context context) {
+        mPrefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    static String key(int vendorId, int productId, String serial, int width, int height) {
+        return String.format(Locale.US, "%04x:%04x:%s:%dx%d",
+                vendorId, productId, serial != null ? serial : "", width, height);
+    }
+
+    byte[] get(String key) {
+        String encoded = mPrefs.getString(key, null);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return Base64.decode(encoded, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    void put(String key, byte[] probe) {
+        mPrefs.edit().putString(key, Base64.encodeToString(probe, Base64.NO_WRAP)).apply();
+    }
+
+    void remove(String key) {
+        mPrefs.edit().remove(key).apply();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.thermalarglass;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Render loop on its own thread, paced by the display's vsync
+ * Decoded frames land in a single-slot FrameMailbox; on each Choreographer frame callback the
+ * loop draws only the newest one. Frames the decoder delivers faster than the display refreshes
+ * are released unseen and counted as skipped, so capture and decode never wait for a buffer
+ * swap and the display never shows a frame that already has a successor. The callback is only
+ * armed while a frame is waiting, so an idle stream costs no wakeups.
+ */
+class VsyncRenderer<T> {
+
+    private static final String TAG = "VsyncRenderer";
+
+    // Weight of the newest sample in the smoothed render time (1/16), as in FrameStage
+    private static final int RENDER_TIME_SMOOTHING_SHIFT = 4;
+    private static final int MAX_LOGGED_ERRORS = 10;
+
+    interface Renderer<T> {
+        void render(T item) throws Exception;
+    }
+
+    private final String mName;
+    private final Renderer<T> mRenderer;
+    private final FrameMailbox<T> mMailbox;
+    private final FrameStage.Releaser<T> mReleaser;
+    private final int mTraceEvent;
+    private final int mSkipTraceEvent;
+    private final AtomicBoolean mArmed = new AtomicBoolean(false);
+
+    private HandlerThread mThread;
+    private volatile Handler mHandler;
+    private Choreographer mChoreographer;    // Render thread only
+    private volatile boolean mRunning = false;
+
+    // Statistics, written on the render thread only
+    private volatile long mRenderedCount = 0;
+    private volatile long mErrorCount = 0;
+    private volatile long mRenderTimeNanos = 0;
+    private volatile long mMaxRenderTimeNanos = 0;
+
+    private final Choreographer.FrameCallback mFrameCallback = this::doFrame;
+    private final Runnable mArmCallback = () -> {
+        if (mRunning) {
+            mChoreographer.postFrameCallback(mFrameCallback);
+        }
+    };
+
+    VsyncRenderer(String name, Renderer<T> renderer, FrameStage.Releaser<T> releaser) {
+        mName = name;
+        mRenderer = renderer;
+        mReleaser = releaser;
+        mMailbox = new FrameMailbox<>(releaser);
+        mTraceEvent = FrameTracer.event(name);
+        mSkipTraceEvent = FrameTracer.event(name + " skip");
+    }
+
+    /**
+     * Starts the render thread and its Choreographer
+     */
+    synchronized void start() {
+        if (mThread != null) {
+            return;
+        }
+        mRunning = true;
+        mThread = new HandlerThread("GlassAR-" + mName);
+        mThread.start();
+        Handler handler = new Handler(mThread.getLooper());
+        // Choreographer.getInstance() belongs to the looper of the calling thread
+        handler.post(() -> mChoreographer = Choreographer.getInstance());
+        mHandler = handler;
+    }
+
+    /**
+     * Stops after the frame being drawn and releases the one waiting, if any
+     */
+    void stop() {
+        HandlerThread thread;
+        synchronized (this) {
+            if (mThread == null) {
+                return;
+            }
+            mRunning = false;
+            thread = mThread;
+            mThread = null;
+        }
+        mMailbox.close();
+
+        Handler handler = mHandler;
+        handler.post(() -> mChoreographer.removeFrameCallback(mFrameCallback));
+        thread.quitSafely();
+        try {
+            thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a frame to the renderer, which now owns it; replaces one not drawn yet
+     */
+    boolean offer(T item) {
+        if (!mRunning) {
+            mReleaser.release(item);
+            return false;
+        }
+        long skipped = mMailbox.getSkippedCount();
+        if (!mMailbox.post(item)) {
+            return false;
+        }
+        if (mMailbox.getSkippedCount() != skipped) {
+            FrameTracer.instant(mSkipTraceEvent, mMailbox.getSkippedCount(), 0);
+        }
+        // Ask for the next vsync unless a callback is already pending
+        Handler handler = mHandler;
+        if (handler != null && mArmed.compareAndSet(false, true)) {
+            handler.post(mArmCallback);
+        }
+        return true;
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        // Disarm before taking: a frame posted from here on arms the next vsync
+        mArmed.set(false);
+        T item = mMailbox.take();
+        if (item == null || !mRunning) {
+            if (item != null) {
+                mReleaser.release(item);
+            }
+            return;
+        }
+
+        long count = mRenderedCount;
+        long start = System.nanoTime();
+        FrameTracer.begin(mTraceEvent, count);
+        try {
+            mRenderer.render(item);
+        } catch (Exception e) {
+            mErrorCount++;
+            if (mErrorCount <= MAX_LOGGED_ERRORS) {
+                Log.e(TAG, "Error in " + mName + " at vsync " + frameTimeNanos, e);
+            }
+        } finally {
+            mReleaser.release(item);
+        }
+        FrameTracer.end(mTraceEvent, count);
+        recordRenderTime(System.nanoTime() - start);
+    }
+
+    private void recordRenderTime(long nanos) {
+        long smoothed = mRenderTimeNanos;
+        mRenderTimeNanos = smoothed == 0 ? nanos :
+                smoothed + ((nanos - smoothed) >> RENDER_TIME_SMOOTHING_SHIFT);
+        if (nanos > mMaxRenderTimeNanos) {
+            mMaxRenderTimeNanos = nanos;
+        }
+        mRenderedCount++;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    // 1 while a frame waits for the next vsync
+    int getPendingCount() {
+        return mMailbox.isEmpty() ? 0 : 1;
+    }
+
+    long getOfferedCount() {
+        return mMailbox.getPostedCount();
+    }
+
+    // Frames replaced by a newer one before a vsync came
+    long getSkippedCount() {
+        return mMailbox.getSkippedCount();
+    }
+
+    long getRenderedCount() {
+        return mRenderedCount;
+    }
+
+    long getErrorCount() {
+        return mErrorCount;
+    }
+
+    // Smoothed time from lockCanvas to unlockCanvasAndPost
+    float getRenderTimeMs() {
+        return mRenderTimeNanos / 1e6f;
+    }
+
+    float getMaxRenderTimeMs() {
+        return mMaxRenderTimeNanos / 1e6f;
+    }
+
+    /**
+     * One-line summary for status logs
+     */
+    String describe() {
+        return String.format(Locale.US, "%s: vsync-paced, %d pending, %d drawn, %d skipped, %.1f ms (max %.1f)",
+                mName, getPendingCount(), getRenderedCount(), getSkippedCount(), getRenderTimeMs(),
+                getMaxRenderTimeMs());
+    }
+}
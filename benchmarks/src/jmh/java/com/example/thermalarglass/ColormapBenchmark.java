@@ -0,0 +1,155 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Colormap lookup tables against the per-pixel colormap function they replaced
+ *
+ * "switch" is the former MainActivity.applyThermalColormap(): a String switch on the
+ * current map, piecewise math and three clamps for every pixel. "lut" is one Colormap table
+ * lookup. Both colorize a whole frame of display values, Y16 (320×256) or I420 luma
+ * (640×512). Setup fails if any table entry differs from the function.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=ColormapBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColormapBenchmark {
+
+    @Param({"iron", "rainbow", "arctic"})
+    public String colormap;
+
+    @Param({"y16", "i420"})
+    public String frame;
+
+    private int[] mValues;
+    private int[] mPixels;
+    private Colormap mColormap;
+
+    @Setup
+    public void setup() {
+        int pixels = frame.equals("i420") ? 640 * 512 : 320 * 256;
+        mValues = new int[pixels];
+        mPixels = new int[pixels];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels; i++) {
+            mValues[i] = random.nextInt(256);
+        }
+
+        mColormap = new ColormapRegistry().get(colormap);
+        for (int value = 0; value < Colormap.SIZE; value++) {
+            if (mColormap.argb(value) != applyThermalColormap(colormap, value)) {
+                throw new IllegalStateException(colormap + " table differs from the function at " + value);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] lookupSwitch() {
+        int[] values = mValues;
+        int[] pixels = mPixels;
+        for (int i = 0; i < values.length; i++) {
+            pixels[i] = applyThermalColormap(colormap, values[i]);
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] lookupTable() {
+        int[] values = mValues;
+        int[] pixels = mPixels;
+        int[] table = mColormap.table();
+        for (int i = 0; i < values.length; i++) {
+            pixels[i] = table[values[i]];
+        }
+        return pixels;
+    }
+
+    // The former MainActivity.applyThermalColormap(), with Color.argb() inlined
+    private static int applyThermalColormap(String colormap, int value) {
+        int r, g, b;
+
+        switch (colormap) {
+            case "iron":
+            default:
+                if (value < 64) {
+                    r = 0;
+                    g = 0;
+                    b = value * 4;
+                } else if (value < 128) {
+                    r = (value - 64) * 4;
+                    g = 0;
+                    b = 255;
+                } else if (value < 192) {
+                    r = 255;
+                    g = 0;
+                    b = 255 - ((value - 128) * 4);
+                } else {
+                    r = 255;
+                    g = (value - 192) * 4;
+                    b = (value - 192) * 2;
+                }
+                break;
+
+            case "rainbow":
+                if (value < 51) {
+                    r = 0;
+                    g = value * 5;
+                    b = 255;
+                } else if (value < 102) {
+                    r = 0;
+                    g = 255;
+                    b = 255 - ((value - 51) * 5);
+                } else if (value < 153) {
+                    r = (value - 102) * 5;
+                    g = 255;
+                    b = 0;
+                } else if (value < 204) {
+                    r = 255;
+                    g = 255 - ((value - 153) * 2);
+                    b = 0;
+                } else {
+                    r = 255;
+                    g = 255 - ((value - 204) * 5);
+                    b = 0;
+                }
+                break;
+
+            case "white_hot":
+            case "grayscale":
+                r = value;
+                g = value;
+                b = value;
+                break;
+
+            case "arctic":
+                if (value < 128) {
+                    r = 0;
+                    g = value * 2;
+                    b = 255;
+                } else {
+                    r = (value - 128) * 2;
+                    g = 255;
+                    b = 255;
+                }
+                break;
+        }
+
+        r = Math.min(255, Math.max(0, r));
+        g = Math.min(255, Math.max(0, g));
+        b = Math.min(255, Math.max(0, b));
+
+        return (255 << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * I420 colorize: whole 640×512 Y plane against DisplayProjection onto the 640×360 display
+ *
+ * "fullFrame" is the previous converter: copy the Y plane, colorize all 327,680 pixels into a
+ * 640×512 buffer (Canvas then scales it down, not measured here). "projected" colorizes only
+ * the pixels that land on screen, into a 640×360 buffer drawn 1:1. Setup fails if a
+ * projected pixel differs from the source pixel it maps to.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=DisplayProjectionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplayProjectionBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 512;
+    private static final int DISPLAY_WIDTH = 640;
+    private static final int DISPLAY_HEIGHT = 360;
+
+    @Param({"letterbox", "crop"})
+    public String fit;
+
+    private ByteBuffer mFrame;
+    private byte[] mLuma;
+    private int[] mFullPixels;
+    private int[] mDisplayPixels;
+    private int[] mColormap;
+    private DisplayProjection mProjection;
+
+    @Setup
+    public void setup() {
+        mFrame = ByteBuffer.allocateDirect(WIDTH * HEIGHT * 3 / 2);
+        Random random = new Random(42);
+        while (mFrame.hasRemaining()) {
+            mFrame.put((byte) random.nextInt(256));
+        }
+        mFrame.flip();
+        mLuma = new byte[WIDTH * HEIGHT];
+        mFullPixels = new int[WIDTH * HEIGHT];
+        mDisplayPixels = new int[DISPLAY_WIDTH * DISPLAY_HEIGHT];
+        mColormap = Colormap.IRON.table();
+        mProjection = new DisplayProjection(WIDTH, HEIGHT, DISPLAY_WIDTH, DISPLAY_HEIGHT,
+                DisplayProjection.Fit.fromName(fit));
+
+        // Every visible display pixel must carry the color of the source pixel under its centre
+        mProjection.project(mFrame, mColormap, mDisplayPixels);
+        float scale = mProjection.getScale();
+        for (int y = 0; y < DISPLAY_HEIGHT; y++) {
+            for (int x = 0; x < DISPLAY_WIDTH; x++) {
+                int sx = (int) ((x + 0.5f - mProjection.getOffsetX()) / scale);
+                int sy = (int) ((y + 0.5f - mProjection.getOffsetY()) / scale);
+                int expected = sx < 0 || sy < 0 || sx >= WIDTH || sy >= HEIGHT || x + 0.5f < mProjection.getOffsetX()
+                        || y + 0.5f < mProjection.getOffsetY()
+                        ? 0xFF000000 : mColormap[mFrame.get(sy * WIDTH + sx) & 0xFF];
+                if (mDisplayPixels[y * DISPLAY_WIDTH + x] != expected) {
+                    throw new IllegalStateException(fit + " projection wrong at " + x + "," + y);
+                }
+            }
+        }
+        System.out.println(mProjection);
+    }
+
+    @Benchmark
+    public int[] fullFrame() {
+        int[] pixels = mFullPixels;
+        int[] colormap = mColormap;
+        byte[] luma = mLuma;
+        mFrame.rewind();
+        mFrame.get(luma);
+        mFrame.rewind();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = colormap[luma[i] & 0xFF];
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] projected() {
+        mProjection.project(mFrame, mColormap, mDisplayPixels);
+        return mDisplayPixels;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Y16 output (320×256 ARGB) onto the 640×360 display: DisplayScaler against a plain stretch
+ *
+ * "stretched" is what Canvas did with the 320×256 bitmap in software: nearest neighbour over
+ * the whole display, aspect ratio ignored. "scaled" is DisplayScaler in the given mode and fit
+ * into its display-sized buffer, which Canvas then draws 1:1. Setup fails if a bilinear pixel
+ * is more than 2 per channel off a floating-point reference, or if a nearest pixel is not the
+ * source pixel under its centre.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=DisplayScalerBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplayScalerBenchmark {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 256;
+    private static final int DISPLAY_WIDTH = 640;
+    private static final int DISPLAY_HEIGHT = 360;
+
+    @Param({"bilinear", "nearest"})
+    public String mode;
+
+    @Param({"letterbox", "crop"})
+    public String fit;
+
+    private int[] mSource;
+    private int[] mStretched;
+    private int[] mStretchColumns;
+    private int[] mStretchRows;
+    private DisplayScaler mScaler;
+
+    @Setup
+    public void setup() {
+        // Smooth gradients plus noise, colorized like the Y16 kernel output
+        int[] colormap = Colormap.IRON.table();
+        mSource = new int[WIDTH * HEIGHT];
+        Random random = new Random(42);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = (x * 255 / WIDTH + y * 255 / HEIGHT) / 2 + random.nextInt(32) - 16;
+                mSource[y * WIDTH + x] = colormap[Math.min(Math.max(value, 0), 255)];
+            }
+        }
+        mStretched = new int[DISPLAY_WIDTH * DISPLAY_HEIGHT];
+        mStretchColumns = new int[DISPLAY_WIDTH];
+        mStretchRows = new int[DISPLAY_HEIGHT];
+        for (int x = 0; x < DISPLAY_WIDTH; x++) {
+            mStretchColumns[x] = x * WIDTH / DISPLAY_WIDTH;
+        }
+        for (int y = 0; y < DISPLAY_HEIGHT; y++) {
+            mStretchRows[y] = y * HEIGHT / DISPLAY_HEIGHT;
+        }
+        mScaler = new DisplayScaler(WIDTH, HEIGHT, DISPLAY_WIDTH, DISPLAY_HEIGHT,
+                DisplayProjection.Fit.fromName(fit), DisplayScaler.Mode.fromName(mode));
+        check(mScaler.scale(mSource));
+        System.out.println(mScaler);
+    }
+
+    private void check(int[] display) {
+        float scale = mScaler.getScale();
+        float left = Math.max(0, mScaler.getOffsetX());
+        float top = Math.max(0, mScaler.getOffsetY());
+        float right = Math.min(DISPLAY_WIDTH, mScaler.getOffsetX() + Math.round(WIDTH * scale));
+        float bottom = Math.min(DISPLAY_HEIGHT, mScaler.getOffsetY() + Math.round(HEIGHT * scale));
+        for (int y = 0; y < DISPLAY_HEIGHT; y++) {
+            for (int x = 0; x < DISPLAY_WIDTH; x++) {
+                int actual = display[y * DISPLAY_WIDTH + x];
+                if (x < left || x >= right || y < top || y >= bottom) {
+                    if (actual != 0xFF000000) {
+                        throw new IllegalStateException(mode + " " + fit + " bar not black at " + x + "," + y);
+                    }
+                    continue;
+                }
+                float sx = (x + 0.5f - mScaler.getOffsetX()) / scale;
+                float sy = (y + 0.5f - mScaler.getOffsetY()) / scale;
+                boolean ok = mScaler.getMode() == DisplayScaler.Mode.NEAREST
+                        ? actual == mSource[clamp((int) sy, HEIGHT) * WIDTH + clamp((int) sx, WIDTH)]
+                        : close(actual, bilinear(sx - 0.5f, sy - 0.5f), 2);
+                if (!ok) {
+                    throw new IllegalStateException(mode + " " + fit + " scaling wrong at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    private int bilinear(float sx, float sy) {
+        sx = Math.min(Math.max(sx, 0), WIDTH - 1);
+        sy = Math.min(Math.max(sy, 0), HEIGHT - 1);
+        int x0 = Math.min((int) sx, WIDTH - 2);
+        int y0 = Math.min((int) sy, HEIGHT - 2);
+        float fx = sx - x0;
+        float fy = sy - y0;
+        int result = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            float top = channel(x0, y0, shift) * (1 - fx) + channel(x0 + 1, y0, shift) * fx;
+            float bottom = channel(x0, y0 + 1, shift) * (1 - fx) + channel(x0 + 1, y0 + 1, shift) * fx;
+            result |= Math.round(top * (1 - fy) + bottom * fy) << shift;
+        }
+        return result;
+    }
+
+    private int channel(int x, int y, int shift) {
+        return (mSource[y * WIDTH + x] >> shift) & 0xFF;
+    }
+
+    private static boolean close(int a, int b, int tolerance) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            if (Math.abs(((a >> shift) & 0xFF) - ((b >> shift) & 0xFF)) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.min(Math.max(value, 0), size - 1);
+    }
+
+    @Benchmark
+    public int[] stretched() {
+        int[] display = mStretched;
+        int[] source = mSource;
+        int[] columns = mStretchColumns;
+        int[] rows = mStretchRows;
+        for (int y = 0; y < DISPLAY_HEIGHT; y++) {
+            int in = rows[y] * WIDTH;
+            int out = y * DISPLAY_WIDTH;
+            for (int x = 0; x < DISPLAY_WIDTH; x++) {
+                display[out + x] = source[in + columns[x]];
+            }
+        }
+        return display;
+    }
+
+    @Benchmark
+    public int[] scaled() {
+        return mScaler.scale(mSource);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SmartDisplayManager's filter and ranking of annotations, run on every overlay draw
+ *
+ * A mix of detections (random boxes and confidences, a third below the threshold) and hot
+ * and cold spots with temperatures, as drawAnnotations builds it from the server's results.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=HotPathAnnotation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathAnnotationBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int objects;
+
+    private final AnnotationPriority mPriority =
+            new AnnotationPriority(HotPathFrames.DISPLAY_WIDTH, HotPathFrames.DISPLAY_HEIGHT);
+    private final List<AnnotatedObject> mObjects = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < objects; i++) {
+            float x = random.nextFloat() * HotPathFrames.Y16_WIDTH;
+            float y = random.nextFloat() * HotPathFrames.Y16_HEIGHT;
+            float[] bbox = {x, y, x + 10 + random.nextFloat() * 60, y + 10 + random.nextFloat() * 60};
+            AnnotatedObject obj;
+            if (i % 4 == 3) {
+                obj = new AnnotatedObject(bbox, 1.0f, random.nextBoolean() ? "Hot Spot" : "Cold Spot");
+                obj.temperature = random.nextFloat() * 120;
+                obj.isThermalAnomaly = true;
+            } else {
+                obj = new AnnotatedObject(bbox, random.nextFloat() * 0.75f + 0.25f, "person");
+            }
+            mObjects.add(obj);
+        }
+    }
+
+    @Benchmark
+    public List<AnnotatedObject> prioritizeObjects() {
+        return mPriority.prioritizeObjects(mPriority.filterByConfidence(mObjects));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame to display pixels, the pixel work of convertThermalToBitmap (formerly convertY16ToBitmap)
+ *
+ * The decoder is resolved from the registry the way the app does it; Y16 goes through the
+ * AGC table and fills the frame statistics, I420 is projected onto the 640×360 display with
+ * the colormap. pixelThreads is the pixel_threads setting: 1 is serial, more splits the frame
+ * into bands on a BandExecutor. MJPEG is decoded by BitmapFactory and is not covered here.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=HotPathConvert
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathConvertBenchmark {
+
+    @Param({"y16", "i420"})
+    public String format;
+
+    @Param({"1", "2", "4"})
+    public int pixelThreads;
+
+    private ByteBuffer mFrame;
+    private int mLength;
+    private int[] mTable;
+    private FrameDecoder mDecoder;
+    private BandExecutor mExecutor;
+    private final FrameStats mStats = new FrameStats();
+
+    @Setup
+    public void setup() {
+        byte[] bytes = HotPathFrames.bytes(format);
+        mFrame = HotPathFrames.direct(bytes);
+        mLength = bytes.length;
+        FrameDecoders decoders = FrameDecoders.standard(HotPathFrames.DISPLAY_WIDTH, HotPathFrames.DISPLAY_HEIGHT);
+        mDecoder = decoders.resolve(null, mFrame, mLength);
+        if (mDecoder == null || !mDecoder.getName().equalsIgnoreCase(format)) {
+            throw new IllegalStateException(format + " frame resolved to " + mDecoder);
+        }
+        mTable = mDecoder.isRadiometric()
+                ? new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON)
+                : Colormap.IRON.table();
+        if (pixelThreads > 1) {
+            mExecutor = new BandExecutor(pixelThreads, "band");
+            mDecoder.setExecutor(mExecutor, BandExecutor.DEFAULT_BAND_ROWS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int[] convert() {
+        return mDecoder.decode(mFrame, mLength, mTable, mStats);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.thermalarglass;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Synthetic Boson frames for the hot-path benchmarks, identical run to run
+ * "y16" is 320×256 with the two telemetry rows, "i420" is 640×512 (display-resolution Boson
+ * output) and "mjpeg" is a 320×256 grayscale JPEG of a smooth scene with noise, roughly the
+ * size the Boson's MJPEG stream produces.
+ */
+final class HotPathFrames {
+
+    static final int Y16_WIDTH = 320;
+    static final int Y16_HEIGHT = 256;
+    static final int I420_WIDTH = 640;
+    static final int I420_HEIGHT = 512;
+    static final int DISPLAY_WIDTH = 640;
+    static final int DISPLAY_HEIGHT = 360;
+
+    private HotPathFrames() {
+    }
+
+    static byte[] bytes(String format) {
+        switch (format) {
+            case "y16": return y16();
+            case "i420": return i420();
+            case "mjpeg": return mjpeg();
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    /**
+     * The frame as the capture pool delivers it: position 0, limit at the frame length
+     */
+    static FrameBufferPool.Frame pooled(byte[] bytes) {
+        FrameBufferPool.Frame frame = new FrameBufferPool(FrameBufferPool.MIN_POOL_SIZE, bytes.length).tryAcquire();
+        frame.buffer().put(bytes).flip();
+        frame.stamp(1, System.nanoTime());
+        return frame;
+    }
+
+    static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    // Raw counts around 8192 (20 °C) with a warm blob, little-endian, telemetry rows included
+    private static byte[] y16() {
+        byte[] frame = new byte[Y16_WIDTH * (Y16_HEIGHT + 2) * 2];
+        Random random = new Random(42);
+        for (int y = 0; y < Y16_HEIGHT + 2; y++) {
+            for (int x = 0; x < Y16_WIDTH; x++) {
+                int value = 8192 + scene(x, y, Y16_WIDTH, Y16_HEIGHT) * 8 + random.nextInt(64);
+                int i = (y * Y16_WIDTH + x) * 2;
+                frame[i] = (byte) value;
+                frame[i + 1] = (byte) (value >> 8);
+            }
+        }
+        return frame;
+    }
+
+    private static byte[] i420() {
+        byte[] frame = new byte[I420_WIDTH * I420_HEIGHT * 3 / 2];
+        Random random = new Random(42);
+        for (int y = 0; y < I420_HEIGHT; y++) {
+            for (int x = 0; x < I420_WIDTH; x++) {
+                frame[y * I420_WIDTH + x] = (byte) Math.min(255, scene(x, y, I420_WIDTH, I420_HEIGHT) + random.nextInt(16));
+            }
+        }
+        for (int i = I420_WIDTH * I420_HEIGHT; i < frame.length; i++) {
+            frame[i] = (byte) 128;  // Gray chroma
+        }
+        return frame;
+    }
+
+    private static byte[] mjpeg() {
+        BufferedImage image = new BufferedImage(Y16_WIDTH, Y16_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Random random = new Random(42);
+        for (int y = 0; y < Y16_HEIGHT; y++) {
+            for (int x = 0; x < Y16_WIDTH; x++) {
+                int value = Math.min(255, scene(x, y, Y16_WIDTH, Y16_HEIGHT) + random.nextInt(16));
+                image.getRaster().setSample(x, y, 0, value);
+            }
+        }
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpeg", jpeg);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return jpeg.toByteArray();
+    }
+
+    // 0-239: a horizontal gradient with a hot spot left of center
+    private static int scene(int x, int y, int width, int height) {
+        float dx = (x - width * 0.4f) / width;
+        float dy = (y - height * 0.5f) / height;
+        float blob = (float) Math.exp(-(dx * dx + dy * dy) * 40);
+        return (int) (x * 80f / width + blob * 159);
+    }
+}
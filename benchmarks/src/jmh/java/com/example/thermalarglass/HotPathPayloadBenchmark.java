@@ -0,0 +1,55 @@
+package com.example.thermalarglass;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "thermal_frame" upload: base64 of the raw frame in a JSON payload, serialized
+ *
+ * The network stage sends every frame it is handed, so the cost scales with the frame size:
+ * ~165 KB for Y16 with telemetry, ~480 KB for I420, a few KB for MJPEG. "build" stops at the
+ * JSONObject, "serialize" adds the toString() the socket does before sending.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=HotPathPayload
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathPayloadBenchmark {
+
+    @Param({"y16", "i420", "mjpeg"})
+    public String format;
+
+    private FrameBufferPool.Frame mFrame;
+    private FrameDecoder mDecoder;
+    private final ThermalData mThermalData = new ThermalData(31.5f, 18.2f, 64.9f, 24.1f);
+
+    @Setup
+    public void setup() {
+        byte[] bytes = HotPathFrames.bytes(format);
+        mFrame = HotPathFrames.pooled(bytes);
+        // MJPEG is decoded in the app only; the payload needs nothing but its name
+        mDecoder = FrameDecoders.standard(HotPathFrames.DISPLAY_WIDTH, HotPathFrames.DISPLAY_HEIGHT)
+                .resolve(null, ByteBuffer.wrap(bytes), bytes.length);
+    }
+
+    @Benchmark
+    public Object build() throws JSONException {
+        return ThermalFramePayload.build(mFrame, "thermal_only", mDecoder, mThermalData);
+    }
+
+    @Benchmark
+    public String serialize() throws JSONException {
+        return ThermalFramePayload.build(mFrame, "thermal_only", mDecoder, mThermalData).toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.thermalarglass;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Center/min/max/average temperatures of a 320×256 Y16 frame, the two ways the analytics stage gets them
+ *
+ * "extractTemperatures" is the fallback when the decode stage left no statistics: copy the
+ * frame into a reused array and scan every sample. "fromStats" converts the statistics the
+ * Y16 kernel already gathered. Only Y16 is radiometric; I420 and MJPEG frames have no
+ * temperatures. Setup fails if the two disagree on min and max.
+ *
+ * Usage: gradlew :benchmarks:jmh -PjmhIncludes=HotPathTemperature
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathTemperatureBenchmark {
+
+    private ByteBuffer mFrame;
+    private byte[] mFrameData;
+    private final FrameStats mStats = new FrameStats();
+
+    @Setup
+    public void setup() {
+        byte[] bytes = HotPathFrames.bytes("y16");
+        mFrame = HotPathFrames.direct(bytes);
+        mFrameData = new byte[HotPathFrames.Y16_WIDTH * HotPathFrames.Y16_HEIGHT * 2];
+
+        Y16Kernel kernel = new Y16Kernel(HotPathFrames.Y16_WIDTH, HotPathFrames.Y16_HEIGHT);
+        kernel.setTable(new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON));
+        kernel.process(mFrame, mStats);
+
+        ThermalData scanned = extractTemperatures();
+        ThermalData fromStats = fromStats();
+        if (scanned.minTemp != fromStats.minTemp || scanned.maxTemp != fromStats.maxTemp) {
+            throw new IllegalStateException("Scan and statistics disagree: " + scanned.minTemp + ".."
+                    + scanned.maxTemp + " against " + fromStats.minTemp + ".." + fromStats.maxTemp);
+        }
+    }
+
+    @Benchmark
+    public ThermalData extractTemperatures() {
+        mFrame.duplicate().get(mFrameData);
+        return BosonCalibration.extractTemperatures(mFrameData, HotPathFrames.Y16_WIDTH, HotPathFrames.Y16_HEIGHT);
+    }
+
+    @Benchmark
+    public ThermalData fromStats() {
+        return BosonCalibration.fromStats(mStats);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Frame assembly throughput and correctness over recorded packet traces
+ *
+ * Replays each trace through TraceReplayTransport and the real UvcFrameAssembler at full
+ * speed, the same way NativeUVCCamera's queued loop drives them. The first pass over each
+ * trace counts recovered frames; further passes until --seconds measure throughput.
+ * Without --trace the synthetic traces are used (Y16 with headers, headerless Y16, MJPEG,
+ * a corrupted Y16 stream and Y16 sent as one payload per frame). Traces with payloads larger
+ * than an API 27 usbfs request are replayed as 16 KB bulk reads, so only the first read of
+ * each payload carries its header, as on Glass. --check exits non-zero if a clean trace
+ * loses frames.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.AssemblyReplayBenchmark
+ *            --args="--seconds=5 --check"
+ *        gradlew ... --args="--trace=/path/boson_20240101_120000.uvct"
+ */
+public class AssemblyReplayBenchmark {
+
+    private static final int QUEUE_DEPTH = 4;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final int MAX_USB_REQUEST_SIZE = 16384;  // usbfs limit before API 28
+    private static final int BULK_PACKET_SIZE = 512;        // High-speed bulk wMaxPacketSize
+
+    private double mSeconds = 3;
+    private int mFrames = 120;
+    private boolean mCheck = false;
+    private final List<File> mTraceFiles = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        AssemblyReplayBenchmark benchmark = new AssemblyReplayBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                case "frames": mFrames = Integer.parseInt(kv[1]); break;
+                case "trace":
+                    for (String path : kv[1].split(",")) {
+                        mTraceFiles.add(new File(path.trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() throws IOException {
+        List<SyntheticTraces.Trace> traces = new ArrayList<>();
+        if (mTraceFiles.isEmpty()) {
+            File dir = Files.createTempDirectory("uvc-traces").toFile();
+            dir.deleteOnExit();
+            SyntheticTraces synthetic = new SyntheticTraces(dir);
+            traces.add(synthetic.y16WithHeaders(mFrames));
+            traces.add(synthetic.y16Headerless(mFrames));
+            traces.add(synthetic.mjpeg(mFrames));
+            traces.add(synthetic.y16Corrupted(mFrames));
+            traces.add(synthetic.y16WithPayloadSize(mFrames,
+                    SyntheticTraces.WIDTH * SyntheticTraces.HEIGHT * 2 + SyntheticTraces.HEADER_LENGTH));
+            for (SyntheticTraces.Trace trace : traces) {
+                trace.file.deleteOnExit();
+            }
+        } else {
+            for (File file : mTraceFiles) {
+                traces.add(new SyntheticTraces.Trace(file.getName(), file, -1, -1));
+            }
+        }
+
+        System.out.println(String.format(Locale.US, "Assembly replay: %d requests queued, %.0f s per trace",
+            QUEUE_DEPTH, mSeconds));
+        System.out.println(String.format(Locale.US, "%-20s %8s %8s %8s %8s %9s %10s %10s",
+            "trace", "sent", "damaged", "frames", "lost", "resyncs", "MB/s", "frames/s"));
+
+        boolean ok = true;
+        for (SyntheticTraces.Trace trace : traces) {
+            TraceReplayTransport transport = new TraceReplayTransport(trace.file, false);
+
+            // First pass: correctness
+            Replay first = replay(transport, Long.MAX_VALUE);
+            int lost = trace.framesSent >= 0 ? trace.framesSent - first.frames : -1;
+
+            // Further passes: throughput
+            TraceReplayTransport looping = new TraceReplayTransport(trace.file, true);
+            Replay timed = replay(looping, (long) (mSeconds * 1e9));
+
+            System.out.println(String.format(Locale.US, "%-20s %8s %8s %8d %8s %9d %10.1f %10.0f",
+                trace.name,
+                trace.framesSent >= 0 ? String.valueOf(trace.framesSent) : "?",
+                trace.damagedFrames >= 0 ? String.valueOf(trace.damagedFrames) : "?",
+                first.frames,
+                lost >= 0 ? String.valueOf(lost) : "?",
+                first.resyncs,
+                timed.bytes / 1e6 / (timed.nanos / 1e9),
+                timed.frames / (timed.nanos / 1e9)));
+
+            if (mCheck && trace.damagedFrames == 0 && lost != 0) {
+                System.out.println("  FAILED: clean trace " + trace.name + " lost " + lost + " frames");
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Drives the assembler from the transport like NativeUVCCamera.queuedStreamingLoop()
+     */
+    private Replay replay(TraceReplayTransport transport, long maxNanos) {
+        final Replay result = new Replay();
+        FrameBufferPool pool = new FrameBufferPool(FrameBufferPool.DEFAULT_POOL_SIZE, MAX_FRAME_SIZE);
+        FrameDecoders decoders = FrameDecoders.standard(SyntheticTraces.WIDTH, SyntheticTraces.HEIGHT).forFormat(null);
+        UvcFrameAssembler assembler = new UvcFrameAssembler(decoders, pool,
+                new UvcFrameAssembler.Listener() {
+                    @Override
+                    public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                        result.frames++;
+                    }
+
+                    @Override
+                    public void onAssemblyWarning(String message) {
+                    }
+                });
+
+        // Payloads larger than one request arrive in several bulk reads; the largest recorded
+        // transfer stands in for the negotiated dwMaxPayloadTransferSize
+        int bufferSize = Math.max(transport.getMaxPacketSize(), 1);
+        if (bufferSize > MAX_USB_REQUEST_SIZE) {
+            transport.setBulkPacketSize(BULK_PACKET_SIZE);
+            assembler.setPayloadLayout(BULK_PACKET_SIZE, bufferSize);
+            bufferSize = MAX_USB_REQUEST_SIZE;
+        }
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            transport.queueStreamRead(ByteBuffer.allocateDirect(bufferSize));
+        }
+
+        long start = System.nanoTime();
+        while (!transport.isExhausted() && System.nanoTime() - start < maxNanos) {
+            ByteBuffer buffer;
+            try {
+                buffer = transport.awaitStreamRead(100);
+            } catch (TimeoutException e) {
+                break;
+            }
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                assembler.onPacket(buffer);
+            }
+            buffer.clear();
+            transport.queueStreamRead(buffer);
+        }
+
+        result.nanos = System.nanoTime() - start;
+        result.bytes = transport.getBytesReplayed();
+        result.resyncs = assembler.getResyncCount();
+        assembler.close();
+        return result;
+    }
+
+    private static class Replay {
+        int frames;
+        int resyncs;
+        long bytes;
+        long nanos;
+    }
+}
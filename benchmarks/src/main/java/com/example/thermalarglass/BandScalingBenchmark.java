@@ -0,0 +1,185 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Scaling of the banded pixel kernels from 1 to N threads
+ *
+ * Runs Y16Kernel on 320×256 and 640×512 Y16 frames and the I420 DisplayProjection
+ * (letterbox) on 640×512 frames, serial and on a BandExecutor of 2..N threads. It prints
+ * time per frame and the speedup over serial. --check fails if any banded result (pixels,
+ * min/max and their positions, sum, histogram) differs from the serial pass. The curve
+ * flattens at the number of cores the machine actually has.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.BandScalingBenchmark
+ *            --args="--threads=4 --band-rows=64 --seconds=2 --check"
+ */
+public class BandScalingBenchmark {
+
+    private static final int FRAMES = 4;
+
+    private double mSeconds = 2;
+    private int mMaxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private int mBandRows = BandExecutor.DEFAULT_BAND_ROWS;
+    private boolean mCheck = false;
+
+    public static void main(String[] args) {
+        BandScalingBenchmark benchmark = new BandScalingBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                case "threads": mMaxThreads = Integer.parseInt(kv[1]); break;
+                case "band-rows": mBandRows = Integer.parseInt(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() {
+        System.out.println(String.format(Locale.US, "%d cores, bands of %d rows",
+                Runtime.getRuntime().availableProcessors(), mBandRows));
+        System.out.println(String.format(Locale.US, "%-22s %8s %10s %8s", "kernel", "threads", "ms/frame", "speedup"));
+        boolean ok = true;
+        ok &= runY16(320, 256);
+        ok &= runY16(640, 512);
+        ok &= runI420(640, 512);
+        return ok;
+    }
+
+    private boolean runY16(int width, int height) {
+        ByteBuffer[] frames = new ByteBuffer[FRAMES];
+        Random random = new Random(42);
+        for (int f = 0; f < FRAMES; f++) {
+            frames[f] = ByteBuffer.allocateDirect(width * (height + 2) * 2);
+            while (frames[f].hasRemaining()) {
+                int value = 8192 + random.nextInt(2048);
+                frames[f].put((byte) value).put((byte) (value >> 8));
+            }
+            frames[f].flip();
+        }
+        Y16Kernel kernel = new Y16Kernel(width, height);
+        kernel.setTable(new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON));
+        FrameStats stats = new FrameStats();
+
+        // Serial reference for --check
+        kernel.process(frames[0], stats);
+        int[] pixels = kernel.getPixels().clone();
+        int[] histogram = stats.getHistogram().clone();
+        String summary = summary(stats);
+
+        String name = String.format(Locale.US, "y16 %d×%d", width, height);
+        boolean ok = true;
+        double serialMs = 0;
+        for (int threads = 1; threads <= mMaxThreads; threads++) {
+            BandExecutor executor = new BandExecutor(threads, "band");
+            kernel.setExecutor(threads == 1 ? null : executor, mBandRows);
+            if (mCheck) {
+                kernel.process(frames[0], stats);
+                if (!Arrays.equals(pixels, kernel.getPixels()) || !Arrays.equals(histogram, stats.getHistogram())
+                        || !summary.equals(summary(stats))) {
+                    System.out.println("  FAILED: " + name + " with " + threads + " threads differs from serial");
+                    ok = false;
+                }
+            }
+            double ms = time(() -> {
+                for (ByteBuffer frame : frames) {
+                    kernel.process(frame, stats);
+                }
+            }, FRAMES);
+            executor.shutdown();
+            if (threads == 1) {
+                serialMs = ms;
+            }
+            print(name, threads, ms, serialMs);
+        }
+        return ok;
+    }
+
+    private boolean runI420(int width, int height) {
+        ByteBuffer[] frames = new ByteBuffer[FRAMES];
+        Random random = new Random(42);
+        for (int f = 0; f < FRAMES; f++) {
+            frames[f] = ByteBuffer.allocateDirect(width * height * 3 / 2);
+            while (frames[f].hasRemaining()) {
+                frames[f].put((byte) random.nextInt(256));
+            }
+            frames[f].flip();
+        }
+        DisplayProjection projection = new DisplayProjection(width, height, 640, 360, DisplayProjection.Fit.LETTERBOX);
+        int[] colormap = Colormap.IRON.table();
+        int[] display = new int[640 * 360];
+        projection.project(frames[0], colormap, display);
+        int[] reference = display.clone();
+
+        String name = String.format(Locale.US, "i420 %d×%d letterbox", width, height);
+        boolean ok = true;
+        double serialMs = 0;
+        for (int threads = 1; threads <= mMaxThreads; threads++) {
+            BandExecutor executor = new BandExecutor(threads, "band");
+            projection.setExecutor(threads == 1 ? null : executor, mBandRows);
+            if (mCheck) {
+                Arrays.fill(display, 0);
+                projection.project(frames[0], colormap, display);
+                if (!Arrays.equals(reference, display)) {
+                    System.out.println("  FAILED: " + name + " with " + threads + " threads differs from serial");
+                    ok = false;
+                }
+            }
+            double ms = time(() -> {
+                for (ByteBuffer frame : frames) {
+                    projection.project(frame, colormap, display);
+                }
+            }, FRAMES);
+            executor.shutdown();
+            if (threads == 1) {
+                serialMs = ms;
+            }
+            print(name, threads, ms, serialMs);
+        }
+        return ok;
+    }
+
+    /**
+     * Warms up for a quarter of the time, then returns ms per frame
+     */
+    private double time(Runnable batch, int framesPerBatch) {
+        long warmupEnd = System.nanoTime() + (long) (mSeconds * 1e9 / 4);
+        while (System.nanoTime() < warmupEnd) {
+            batch.run();
+        }
+        long start = System.nanoTime();
+        long end = start + (long) (mSeconds * 1e9);
+        long batches = 0;
+        while (System.nanoTime() < end) {
+            batch.run();
+            batches++;
+        }
+        return (System.nanoTime() - start) / 1e6 / (batches * framesPerBatch);
+    }
+
+    private static void print(String name, int threads, double ms, double serialMs) {
+        System.out.println(String.format(Locale.US, "%-22s %8d %10.3f %7.2fx", name, threads, ms, serialMs / ms));
+    }
+
+    private static String summary(FrameStats stats) {
+        return String.format(Locale.US, "%d@%d,%d %d@%d,%d %.4f", stats.getMin(), stats.getMinX(), stats.getMinY(),
+                stats.getMax(), stats.getMaxX(), stats.getMaxY(), stats.getMean());
+    }
+}
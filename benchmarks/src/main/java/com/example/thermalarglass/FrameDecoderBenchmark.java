@@ -0,0 +1,232 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Decode time of every registered FrameDecoder, and Y16 through the registry against Y16Kernel
+ *
+ * Each decoder gets synthetic frames of its exact size and is resolved the way the app does it,
+ * once, with the FourCC of its format; the timed loop then calls only that decoder. --check
+ * fails if a frame resolves to the wrong decoder (with the FourCC, and by size alone for sizes
+ * no other format shares), if the telemetry offsets or per-format size tables of the registry
+ * are wrong, or if pixels differ from a straightforward reference: Y16 from Y16Kernel, I420
+ * and NV12 from DisplayProjection on the luma plane, YUYV from every other byte, RGB24 from
+ * packed bytes.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.FrameDecoderBenchmark
+ *            --args="--seconds=2 --check"
+ */
+public class FrameDecoderBenchmark {
+
+    private static final int DISPLAY_WIDTH = 640;
+    private static final int DISPLAY_HEIGHT = 360;
+    private static final int FRAMES = 4;
+
+    private double mSeconds = 2;
+    private boolean mCheck = false;
+
+    private final FrameDecoders mDecoders = FrameDecoders.standard(DISPLAY_WIDTH, DISPLAY_HEIGHT);
+    private final int[] mAgcTable = new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON);
+    private final int[] mColormap = Colormap.IRON.table();
+    private final FrameStats mStats = new FrameStats();
+
+    public static void main(String[] args) {
+        FrameDecoderBenchmark benchmark = new FrameDecoderBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() {
+        boolean ok = !mCheck || checkLayouts();
+        System.out.println(String.format(Locale.US, "%-8s %-10s %10s %10s %10s", "format", "source", "bytes",
+                "output", "ms/frame"));
+        for (FrameDecoder decoder : mDecoders.getDecoders()) {
+            ok &= runDecoder(decoder);
+        }
+        ok &= runY16Direct();
+        return ok;
+    }
+
+    private boolean runDecoder(FrameDecoder decoder) {
+        int size = decoder.getFrameSizes()[0];
+        ByteBuffer[] frames = frames(size, decoder.isRadiometric());
+        int[] table = decoder.isRadiometric() ? mAgcTable : mColormap;
+        boolean ok = true;
+
+        FrameDecoder resolved = mDecoders.resolve(decoder.getFourCC(), frames[0], size);
+        if (resolved != decoder) {
+            System.out.println("  FAILED: " + describe(decoder) + " with FourCC " + decoder.getFourCC()
+                    + " resolved to " + (resolved != null ? describe(resolved) : "nothing"));
+            ok = false;
+        }
+        if (mCheck) {
+            ok &= checkPixels(decoder, frames[0], size, table);
+        }
+
+        double ms = time(() -> {
+            for (ByteBuffer frame : frames) {
+                resolved.decode(frame, size, table, mStats);
+            }
+        });
+        System.out.println(String.format(Locale.US, "%-8s %-10s %10d %10s %10.3f", decoder.getName(),
+                decoder.getWidth() + "×" + decoder.getHeight(), size,
+                decoder.getOutputWidth() + "×" + decoder.getOutputHeight(), ms));
+        return ok;
+    }
+
+    // The previous direct call, for the cost of going through the interface
+    private boolean runY16Direct() {
+        Y16Kernel kernel = new Y16Kernel(320, 256);
+        kernel.setTable(mAgcTable);
+        ByteBuffer[] frames = frames(320 * 256 * 2, true);
+        double ms = time(() -> {
+            for (ByteBuffer frame : frames) {
+                kernel.process(frame, mStats);
+            }
+        });
+        System.out.println(String.format(Locale.US, "%-8s %-10s %10d %10s %10.3f", "(kernel)", "320×256",
+                320 * 256 * 2, "320×256", ms));
+        return true;
+    }
+
+    private boolean checkLayouts() {
+        boolean ok = true;
+        ok &= expect("Y16 telemetry offset", mDecoders.getTelemetryOffset(320 * 258 * 2), 320 * 256 * 2);
+        ok &= expect("I420 telemetry offset", mDecoders.getTelemetryOffset(640 * 514 * 3 / 2), 640 * 512);
+        ok &= expect("Y16 without telemetry", mDecoders.getTelemetryOffset(320 * 256 * 2), -1);
+        ok &= expect("max frame size", mDecoders.getMaxFrameSize(), 640 * 512 * 3);
+
+        // The assembler only delimits by the sizes of the stream's format
+        ok &= expect("YUY2 max frame size", mDecoders.forFormat("YUY2").getMaxFrameSize(), 640 * 512 * 2);
+        ok &= expect("Boson max frame size", mDecoders.forFormat(null).getMaxFrameSize(), 640 * 514 * 3 / 2);
+        if (mDecoders.forFormat(null).isFrameSize(256 * 192 * 2)) {
+            System.out.println("  FAILED: YUYV 256×192 frames are delimited without their FourCC");
+            ok = false;
+        }
+
+        // Without a FourCC, shared sizes go to the Boson formats, the others to their own decoder
+        ok &= expectResolved(null, 320 * 256 * 2, "Y16");
+        ok &= expectResolved(null, 640 * 512 * 3 / 2, "I420");
+        ok &= expectResolved(null, 256 * 192 * 2, "YUYV");
+        ok &= expectResolved(null, 640 * 512 * 3, "RGB24");
+        ok &= expectResolved("YUY2", 320 * 256 * 2, "YUYV");
+        ok &= expectResolved("NV12", 640 * 512 * 3 / 2, "NV12");
+        ok &= expectResolved("YUY2", 320 * 258 * 2, "Y16");   // No YUYV frame has this size
+        ok &= expectResolved(null, 12345, null);
+        return ok;
+    }
+
+    private boolean checkPixels(FrameDecoder decoder, ByteBuffer frame, int size, int[] table) {
+        int[] pixels = decoder.decode(frame, size, table, mStats);
+        if (pixels == null) {
+            System.out.println("  FAILED: " + describe(decoder) + " did not decode");
+            return false;
+        }
+        pixels = Arrays.copyOf(pixels, decoder.getOutputWidth() * decoder.getOutputHeight());
+        int width = decoder.getWidth();
+        int height = decoder.getHeight();
+        int[] expected;
+        if (decoder.isRadiometric()) {
+            Y16Kernel kernel = new Y16Kernel(width, height);
+            kernel.setTable(table);
+            kernel.process(frame, new FrameStats());
+            expected = kernel.getPixels();
+        } else if (decoder.getProjection() != null) {
+            expected = new int[DISPLAY_WIDTH * DISPLAY_HEIGHT];
+            new DisplayProjection(width, height, DISPLAY_WIDTH, DISPLAY_HEIGHT, DisplayProjection.Fit.LETTERBOX)
+                    .project(frame, table, expected);
+        } else if (decoder.getFourCC().equals("YUY2")) {
+            expected = new int[width * height];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = table[frame.get(i * 2) & 0xFF];
+            }
+        } else {
+            expected = new int[width * height];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = 0xFF000000 | (frame.get(i * 3) & 0xFF) << 16 | (frame.get(i * 3 + 1) & 0xFF) << 8
+                        | (frame.get(i * 3 + 2) & 0xFF);
+            }
+        }
+        if (!Arrays.equals(expected, pixels)) {
+            System.out.println("  FAILED: " + describe(decoder) + " pixels differ from the reference");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean expect(String what, int actual, int expected) {
+        if (actual != expected) {
+            System.out.println("  FAILED: " + what + " is " + actual + ", expected " + expected);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean expectResolved(String fourCC, int size, String expected) {
+        FrameDecoder decoder = mDecoders.resolve(fourCC, ByteBuffer.allocateDirect(size), size);
+        String name = decoder != null ? decoder.getName() : null;
+        if (expected == null ? name != null : !expected.equals(name)) {
+            System.out.println("  FAILED: " + size + " bytes with FourCC " + fourCC + " resolved to " + name
+                    + ", expected " + expected);
+            return false;
+        }
+        return true;
+    }
+
+    private static ByteBuffer[] frames(int size, boolean y16) {
+        ByteBuffer[] frames = new ByteBuffer[FRAMES];
+        Random random = new Random(42);
+        for (int f = 0; f < FRAMES; f++) {
+            frames[f] = ByteBuffer.allocateDirect(size);
+            while (frames[f].remaining() >= 2) {
+                int value = y16 ? 8192 + random.nextInt(2048) : random.nextInt(65536);
+                frames[f].put((byte) value).put((byte) (value >> 8));
+            }
+            frames[f].clear();
+        }
+        return frames;
+    }
+
+    private static String describe(FrameDecoder decoder) {
+        return decoder.getName() + " " + decoder.getWidth() + "×" + decoder.getHeight();
+    }
+
+    /**
+     * Warms up for a quarter of the time, then returns ms per frame
+     */
+    private double time(Runnable batch) {
+        long warmupEnd = System.nanoTime() + (long) (mSeconds * 1e9 / 4);
+        while (System.nanoTime() < warmupEnd) {
+            batch.run();
+        }
+        long start = System.nanoTime();
+        long end = start + (long) (mSeconds * 1e9);
+        long batches = 0;
+        while (System.nanoTime() < end) {
+            batch.run();
+            batches++;
+        }
+        return (System.nanoTime() - start) / 1e6 / (batches * FRAMES);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.thermalarglass;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Frame pipeline isolation benchmark
+ *
+ * Feeds pooled frames at camera rate into the same layout MainActivity uses (decode ->
+ * {render, network, analytics}) and compares the render rate against the old serial callback,
+ * where every consumer ran back to back on the capture thread. Render takes the newest frame
+ * from a FrameMailbox on every display refresh (--display-hz), like VsyncRenderer; frames it
+ * never got to are counted as skipped, and capture-to-draw latency is averaged over the
+ * frames drawn. Work is modelled with sleeps, so the numbers reflect scheduling rather than
+ * CPU speed.
+ *
+ * --trace=file enables FrameTracer and dumps it at the end (convert with TraceToChromeJson).
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.FramePipelineBenchmark
+ *            --args="--network-ms=20,60,120 --display-hz=60 --seconds=5"
+ */
+public class FramePipelineBenchmark {
+
+    private static final int FRAME_SIZE = 320 * 256 * 2;
+
+    // Model parameters (override with --name=value)
+    private int[] mNetworkMs = {5, 20, 60, 120};   // Base64 + emit on a slow Wi-Fi link
+    private double mSeconds = 5;
+    private double mCameraFps = 60;
+    private double mDecodeMs = 3;
+    private double mRenderMs = 6;
+    private double mAnalyticsMs = 1;
+    private double mDisplayHz = 60;
+    private int mPoolSize = 8;
+    private String mTraceFile = null;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        FramePipelineBenchmark benchmark = new FramePipelineBenchmark();
+        benchmark.parseArgs(args);
+        FrameTracer.setEnabled(benchmark.mTraceFile != null);
+
+        System.out.println(String.format(Locale.US,
+            "Frame pipeline: camera %.0f fps, display %.0f Hz, decode %.1f ms, render %.1f ms, analytics %.1f ms, "
+                + "pool %d, %.0f s",
+            benchmark.mCameraFps, benchmark.mDisplayHz, benchmark.mDecodeMs, benchmark.mRenderMs,
+            benchmark.mAnalyticsMs, benchmark.mPoolSize, benchmark.mSeconds));
+        System.out.println(String.format(Locale.US, "%-11s %12s %14s %14s %14s %14s %14s",
+            "network ms", "serial fps", "pipeline fps", "skipped/s", "latency ms", "network fps", "capture drops"));
+
+        for (int networkMs : benchmark.mNetworkMs) {
+            double serialFps = benchmark.runSerial(networkMs);
+            double[] pipeline = benchmark.runPipeline(networkMs);
+            System.out.println(String.format(Locale.US, "%-11d %12.1f %14.1f %14.1f %14.1f %14.1f %14.0f",
+                networkMs, serialFps, pipeline[0], pipeline[1], pipeline[2], pipeline[3], pipeline[4]));
+        }
+
+        if (benchmark.mTraceFile != null) {
+            try (OutputStream out = new FileOutputStream(benchmark.mTraceFile)) {
+                FrameTracer.dump(out);
+            }
+            System.out.println("Trace written to " + benchmark.mTraceFile);
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "network-ms":
+                    String[] parts = kv[1].split(",");
+                    mNetworkMs = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        mNetworkMs[i] = Integer.parseInt(parts[i].trim());
+                    }
+                    break;
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                case "fps": mCameraFps = Double.parseDouble(kv[1]); break;
+                case "decode-ms": mDecodeMs = Double.parseDouble(kv[1]); break;
+                case "render-ms": mRenderMs = Double.parseDouble(kv[1]); break;
+                case "display-hz": mDisplayHz = Double.parseDouble(kv[1]); break;
+                case "analytics-ms": mAnalyticsMs = Double.parseDouble(kv[1]); break;
+                case "pool-size": mPoolSize = Integer.parseInt(kv[1]); break;
+                case "trace": mTraceFile = kv[1]; break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    /**
+     * Old behaviour: everything runs on the capture thread, frames arriving meanwhile are lost
+     */
+    private double runSerial(int networkMs) throws InterruptedException {
+        long frameIntervalNs = (long) (1e9 / mCameraFps);
+        long start = System.nanoTime();
+        long end = start + (long) (mSeconds * 1e9);
+        long nextFrame = start;
+        int rendered = 0;
+
+        while (System.nanoTime() < end) {
+            sleepUntil(nextFrame);
+            work(mDecodeMs + mAnalyticsMs + networkMs + mRenderMs);
+            rendered++;
+
+            // The camera does not wait; skip to the next frame boundary
+            long now = System.nanoTime();
+            nextFrame += frameIntervalNs * Math.max(1, (now - nextFrame) / frameIntervalNs + 1);
+        }
+        return rendered / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * New behaviour: returns {render fps, skipped/s, mean capture-to-draw ms, network fps,
+     * frames dropped at capture}
+     */
+    private double[] runPipeline(final int networkMs) throws InterruptedException {
+        FrameBufferPool pool = new FrameBufferPool(mPoolSize, FRAME_SIZE);
+
+        final FrameMailbox<FrameBufferPool.Frame> render = new FrameMailbox<>(FrameBufferPool.Frame::release);
+        final long[] drawn = new long[2];   // frames, summed capture-to-draw nanos; render thread only
+        final long vsyncIntervalNs = (long) (1e9 / mDisplayHz);
+        Thread vsync = new Thread(() -> {
+            long nextVsync = System.nanoTime();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sleepUntil(nextVsync);
+                    FrameBufferPool.Frame frame = render.take();
+                    if (frame != null) {
+                        work(mRenderMs);
+                        drawn[0]++;
+                        drawn[1] += System.nanoTime() - frame.timestampNanos();
+                        frame.release();
+                    }
+                    // A draw that overruns the refresh waits for the next one
+                    long now = System.nanoTime();
+                    nextVsync += vsyncIntervalNs * Math.max(1, (now - nextVsync) / vsyncIntervalNs + 1);
+                }
+            } catch (InterruptedException e) {
+                // Stopped
+            }
+        }, "vsync");
+        final FrameStage<FrameBufferPool.Frame> network = new FrameStage<>("network", 1,
+                FrameStage.Policy.DROP_OLDEST, frame -> work(networkMs), FrameBufferPool.Frame::release);
+        final FrameStage<FrameBufferPool.Frame> analytics = new FrameStage<>("analytics", 1,
+                FrameStage.Policy.DROP_OLDEST, frame -> work(mAnalyticsMs), FrameBufferPool.Frame::release);
+        FrameStage<FrameBufferPool.Frame> decode = new FrameStage<>("decode", 1,
+                FrameStage.Policy.DROP_OLDEST, frame -> {
+                    work(mDecodeMs);
+                    render.post(frame.retain());
+                    network.offer(frame.retain());
+                    analytics.offer(frame.retain());
+                }, FrameBufferPool.Frame::release);
+
+        vsync.start();
+        network.start();
+        analytics.start();
+        decode.start();
+
+        long frameIntervalNs = (long) (1e9 / mCameraFps);
+        long start = System.nanoTime();
+        long end = start + (long) (mSeconds * 1e9);
+        long nextFrame = start;
+        int captureDrops = 0;
+        long sequence = 0;
+
+        // Capture thread: acquire, "fill", hand off, release (as UvcFrameAssembler does)
+        while (nextFrame < end) {
+            sleepUntil(nextFrame);
+            FrameBufferPool.Frame frame = pool.tryAcquire();
+            if (frame == null) {
+                captureDrops++;
+            } else {
+                frame.buffer().limit(FRAME_SIZE);
+                frame.stamp(sequence++, System.nanoTime());
+                decode.offer(frame.retain());
+                frame.release();
+            }
+            nextFrame += frameIntervalNs;
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        decode.stop();
+        vsync.interrupt();
+        vsync.join();   // Also publishes the render thread's counts
+        render.close();
+
+        double[] result = {
+            drawn[0] / elapsed,
+            render.getSkippedCount() / elapsed,
+            drawn[0] > 0 ? drawn[1] / 1e6 / drawn[0] : 0,
+            network.getProcessedCount() / elapsed,
+            captureDrops
+        };
+
+        network.stop();
+        analytics.stop();
+        return result;
+    }
+
+    private static void work(double ms) throws InterruptedException {
+        long nanos = (long) (ms * 1e6);
+        Thread.sleep(nanos / 1000000, (int) (nanos % 1000000));
+    }
+
+    private static void sleepUntil(long deadlineNs) throws InterruptedException {
+        long remaining = deadlineNs - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(remaining / 1000000, (int) (remaining % 1000000));
+        }
+    }
+}
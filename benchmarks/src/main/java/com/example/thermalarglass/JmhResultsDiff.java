@@ -0,0 +1,164 @@
+package com.example.thermalarglass;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file against the committed baseline
+ *
+ * Matches results by benchmark, parameters and mode, and prints the score and the allocation
+ * per operation (gc profiler) of both with the change. A benchmark regresses when its score
+ * is worse by more than the threshold (slower for avgt/sample/ss, fewer ops for thrpt) or it
+ * allocates that much more per operation (ignoring changes under 64 bytes). Exits 1 on any
+ * regression, so a release check can fail on it. Compare results from the same machine only.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.JmhResultsDiff
+ *            --args="--baseline=baseline/jmh-hot-path.json --results=build/results/jmh/results.json
+ *                    --threshold=10"
+ */
+public class JmhResultsDiff {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOC_NOISE_BYTES = 64;
+
+    private String mBaseline = "baseline/jmh-hot-path.json";
+    private String mResults = "build/results/jmh/results.json";
+    private double mThresholdPercent = 10;
+
+    /**
+     * One benchmark/params/mode row of a result file
+     */
+    private static final class Result {
+        final double score;
+        final String unit;
+        final double allocBytes;  // NaN without the gc profiler
+
+        Result(double score, String unit, double allocBytes) {
+            this.score = score;
+            this.unit = unit;
+            this.allocBytes = allocBytes;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        JmhResultsDiff diff = new JmhResultsDiff();
+        diff.parseArgs(args);
+        System.exit(diff.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "baseline": mBaseline = kv[1]; break;
+                case "results": mResults = kv[1]; break;
+                case "threshold": mThresholdPercent = Double.parseDouble(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() throws IOException {
+        Map<String, Result> baseline = load(mBaseline);
+        Map<String, Result> results = load(mResults);
+
+        System.out.println(String.format(Locale.US, "%-64s %12s %12s %8s %10s %10s %8s", "benchmark", "baseline",
+                "current", "change", "B/op base", "B/op now", "change"));
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            String key = entry.getKey();
+            Result current = entry.getValue();
+            Result base = baseline.get(key);
+            if (base == null) {
+                System.out.println(String.format(Locale.US, "%-64s %12s %12.3f %8s", key, "-", current.score, "new"));
+                continue;
+            }
+
+            // Positive change is always worse
+            boolean higherIsBetter = key.endsWith(" thrpt");
+            double change = percent(base.score, current.score) * (higherIsBetter ? -1 : 1);
+            double allocChange = percent(base.allocBytes, current.allocBytes);
+            boolean slower = change > mThresholdPercent;
+            boolean allocates = allocChange > mThresholdPercent
+                    && current.allocBytes - base.allocBytes > ALLOC_NOISE_BYTES;
+            System.out.println(String.format(Locale.US, "%-64s %12.3f %12.3f %+7.1f%% %10.0f %10.0f %+7.1f%%%s",
+                    key, base.score, current.score, change, base.allocBytes, current.allocBytes, allocChange,
+                    slower || allocates ? "  REGRESSION" : ""));
+            if (slower) {
+                regressions.add(String.format(Locale.US, "%s: %.3f -> %.3f %s", key, base.score, current.score,
+                        current.unit));
+            }
+            if (allocates) {
+                regressions.add(String.format(Locale.US, "%s: %.0f -> %.0f B/op", key, base.allocBytes,
+                        current.allocBytes));
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.println(String.format(Locale.US, "%-64s %12.3f %12s %8s", key, baseline.get(key).score,
+                        "-", "not run"));
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " regression(s) over " + mThresholdPercent + "%:");
+            for (String regression : regressions) {
+                System.out.println("  " + regression);
+            }
+        }
+        return regressions.isEmpty();
+    }
+
+    private static Map<String, Result> load(String file) throws IOException {
+        JSONArray runs = new JSONArray(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (int i = 0; i < runs.length(); i++) {
+            JSONObject run = runs.getJSONObject(i);
+            JSONObject primary = run.getJSONObject("primaryMetric");
+            JSONObject secondary = run.optJSONObject("secondaryMetrics");
+            JSONObject alloc = secondary != null ? secondary.optJSONObject(ALLOC_METRIC) : null;
+            results.put(key(run), new Result(primary.getDouble("score"), primary.getString("scoreUnit"),
+                    alloc != null ? alloc.getDouble("score") : Double.NaN));
+        }
+        return results;
+    }
+
+    // "HotPathConvertBenchmark.convert format=y16,pixelThreads=2 avgt", threads included when not 1
+    private static String key(JSONObject run) {
+        StringBuilder key = new StringBuilder(run.getString("benchmark").replaceFirst("^.*\\.(\\w+\\.\\w+)$", "$1"));
+        JSONObject params = run.optJSONObject("params");
+        if (params != null) {
+            Map<String, Object> sorted = new TreeMap<>(params.toMap());
+            String separator = " ";
+            for (Map.Entry<String, Object> param : sorted.entrySet()) {
+                key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+                separator = ",";
+            }
+        }
+        int threads = run.optInt("threads", 1);
+        if (threads != 1) {
+            key.append(" t").append(threads);
+        }
+        return key.append(' ').append(run.getString("mode")).toString();
+    }
+
+    private static double percent(double base, double current) {
+        return base == 0 || Double.isNaN(base) || Double.isNaN(current) ? 0 : (current - base) / base * 100;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.thermalarglass;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Heap allocation of the display conversion path, per-frame bitmaps against FrameSurfacePool
+ *
+ * Runs the decode-stage conversion the way MainActivity does: Y16 through Y16Kernel, I420
+ * luma through the colormap into a pixel array, then "setPixels" into an image. The image is
+ * an int[] standing in for the Bitmap. Consumers are simulated too: render holds each frame
+ * until the next one, the latest frame stays retained for snapshots and every third frame is
+ * queued for recording a few frames long. "allocate" creates the image and pixel array per
+ * frame as the converters used to; "pooled" leases them. Allocated bytes are the decode
+ * thread's own counter (HotSpot ThreadMXBean). --check fails unless the pooled path allocates
+ * nothing once warm.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.SurfacePoolBenchmark
+ *            --args="--seconds=3 --check"
+ */
+public class SurfacePoolBenchmark {
+
+    private static final int Y16_WIDTH = 320;
+    private static final int Y16_HEIGHT = 256;
+    private static final int I420_WIDTH = 640;
+    private static final int I420_HEIGHT = 512;
+    private static final int FRAMES = 4;
+    private static final int RECORD_INTERVAL = 3;
+    private static final int RECORD_DELAY = 4;     // Frames a recording lease stays queued
+    private static final String ARGB_8888 = "ARGB_8888";
+
+    private double mSeconds = 3;
+    private boolean mCheck = false;
+
+    private final FrameSurfacePool<String, int[]> mPool =
+            new FrameSurfacePool<>(FrameSurfacePool.DEFAULT_POOL_SIZE, (width, height, config) -> new int[width * height]);
+    private final Y16Kernel mKernel = new Y16Kernel(Y16_WIDTH, Y16_HEIGHT);
+    private final FrameStats mStats = new FrameStats();
+    private final byte[] mLuma = new byte[I420_WIDTH * I420_HEIGHT];
+
+    // Simulated consumers
+    private FrameSurfacePool.Surface<int[]> mRendering;
+    private FrameSurfacePool.Surface<int[]> mLatest;
+    private final FrameSurfacePool.Surface<?>[] mRecordQueue = new FrameSurfacePool.Surface<?>[RECORD_DELAY];
+    private int[] mLastImage;   // Keeps the allocate path's output reachable
+    private long mFrame = 0;
+
+    public static void main(String[] args) {
+        SurfacePoolBenchmark benchmark = new SurfacePoolBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation counter not supported by this JVM");
+            return !mCheck;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ByteBuffer[] y16 = new ByteBuffer[FRAMES];
+        ByteBuffer[] i420 = new ByteBuffer[FRAMES];
+        Random random = new Random(42);
+        for (int f = 0; f < FRAMES; f++) {
+            y16[f] = ByteBuffer.allocateDirect(Y16_WIDTH * (Y16_HEIGHT + 2) * 2);
+            while (y16[f].hasRemaining()) {
+                int value = 8192 + random.nextInt(2048);
+                y16[f].put((byte) value).put((byte) (value >> 8));
+            }
+            y16[f].flip();
+            i420[f] = ByteBuffer.allocateDirect(I420_WIDTH * I420_HEIGHT * 3 / 2);
+            while (i420[f].hasRemaining()) {
+                i420[f].put((byte) random.nextInt(256));
+            }
+            i420[f].flip();
+        }
+        mKernel.setTable(new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON));
+
+        long nanosPerPhase = (long) (mSeconds * 1e9 / 4);
+        System.out.println(String.format(Locale.US, "%-16s %10s %14s %12s %8s",
+                "path", "ms/frame", "bytes/frame", "pool allocs", "misses"));
+        boolean ok = true;
+        for (String format : new String[] {"y16", "i420"}) {
+            ByteBuffer[] frames = format.equals("y16") ? y16 : i420;
+            for (boolean pooled : new boolean[] {false, true}) {
+                // Warm up (JIT, pool fill), then measure
+                time(threads, format, frames, pooled, nanosPerPhase / 4);
+                int allocationsBefore = mPool.getAllocationCount();
+                int missesBefore = mPool.getMissCount();
+                double[] result = time(threads, format, frames, pooled, nanosPerPhase);
+                int allocations = mPool.getAllocationCount() - allocationsBefore;
+                int misses = mPool.getMissCount() - missesBefore;
+                System.out.println(String.format(Locale.US, "%-16s %10.3f %14.1f %12d %8d",
+                        format + (pooled ? ", pooled" : ", allocate"), result[0], result[1], allocations, misses));
+                if (mCheck && pooled && (result[1] >= 1 || allocations != 0)) {
+                    System.out.println("  FAILED: " + format + " pooled path still allocates");
+                    ok = false;
+                }
+            }
+            drainConsumers();
+        }
+        System.out.println(String.format(Locale.US, "Pool: %d of %d surfaces, %d leases",
+                mPool.getSize(), mPool.getMaxSize(), mPool.getLeaseCount()));
+        return ok;
+    }
+
+    /**
+     * Returns {ms per frame, bytes allocated per frame} on this thread
+     */
+    private double[] time(com.sun.management.ThreadMXBean threads, String format, ByteBuffer[] frames,
+                          boolean pooled, long nanos) {
+        long thread = Thread.currentThread().getId();
+        long startBytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long end = start + nanos;
+        long count = 0;
+        while (System.nanoTime() < end) {
+            ByteBuffer frame = frames[(int) (count % FRAMES)];
+            if (format.equals("y16")) {
+                convertY16(frame, pooled);
+            } else {
+                convertI420(frame, pooled);
+            }
+            count++;
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - startBytes;
+        return new double[] {elapsed / 1e6 / count, (double) bytes / count};
+    }
+
+    private void convertY16(ByteBuffer frame, boolean pooled) {
+        mKernel.process(frame, mStats);
+        int count = Y16_WIDTH * Y16_HEIGHT;
+        if (pooled) {
+            FrameSurfacePool.Surface<int[]> surface = mPool.acquire(Y16_WIDTH, Y16_HEIGHT, ARGB_8888);
+            System.arraycopy(mKernel.getPixels(), 0, surface.image(), 0, count);
+            consume(surface);
+        } else {
+            int[] image = new int[count];
+            System.arraycopy(mKernel.getPixels(), 0, image, 0, count);
+            mLastImage = image;
+        }
+    }
+
+    private void convertI420(ByteBuffer frame, boolean pooled) {
+        int count = I420_WIDTH * I420_HEIGHT;
+        int[] colormap = Colormap.IRON.table();
+        if (pooled) {
+            frame.rewind();
+            frame.get(mLuma, 0, count);
+            frame.rewind();
+            FrameSurfacePool.Surface<int[]> surface = mPool.acquire(I420_WIDTH, I420_HEIGHT, ARGB_8888);
+            int[] pixels = surface.pixels();
+            for (int i = 0; i < count; i++) {
+                pixels[i] = colormap[mLuma[i] & 0xFF];
+            }
+            System.arraycopy(pixels, 0, surface.image(), 0, count);
+            consume(surface);
+        } else {
+            // The former converter: frame copy, pixel array and bitmap per frame
+            byte[] frameCopy = new byte[count];
+            frame.rewind();
+            frame.get(frameCopy);
+            frame.rewind();
+            int[] pixels = new int[count];
+            for (int i = 0; i < count; i++) {
+                pixels[i] = colormap[frameCopy[i] & 0xFF];
+            }
+            int[] image = new int[count];
+            System.arraycopy(pixels, 0, image, 0, count);
+            mLastImage = image;
+        }
+    }
+
+    /**
+     * What MainActivity.decodeThermalFrame and the consumers do with a converted surface
+     */
+    private void consume(FrameSurfacePool.Surface<int[]> surface) {
+        FrameSurfacePool.Surface<int[]> previousLatest = mLatest;
+        mLatest = surface.retain();
+        if (previousLatest != null) {
+            previousLatest.release();
+        }
+
+        int slot = (int) (mFrame % RECORD_DELAY);
+        if (mRecordQueue[slot] != null) {
+            mRecordQueue[slot].release();
+            mRecordQueue[slot] = null;
+        }
+        if (mFrame % RECORD_INTERVAL == 0) {
+            mRecordQueue[slot] = surface.retain();
+        }
+        mFrame++;
+
+        // Render draws the previous frame while this one is converted, then takes over the lease
+        if (mRendering != null) {
+            mRendering.release();
+        }
+        mRendering = surface;
+    }
+
+    private void drainConsumers() {
+        for (int i = 0; i < mRecordQueue.length; i++) {
+            if (mRecordQueue[i] != null) {
+                mRecordQueue[i].release();
+                mRecordQueue[i] = null;
+            }
+        }
+        if (mRendering != null) {
+            mRendering.release();
+            mRendering = null;
+        }
+        if (mLatest != null) {
+            mLatest.release();
+            mLatest = null;
+        }
+    }
+}
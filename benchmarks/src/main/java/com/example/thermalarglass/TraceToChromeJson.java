@@ -0,0 +1,41 @@
+package com.example.thermalarglass;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts a FrameTracer dump (.gtrc) to Chrome trace JSON
+ *
+ * Pull a dump from the device (adb pull /sdcard/Android/data/com.example.thermalarglass/files/traces)
+ * or save the one sent with the "frame_trace" socket event, convert it and open the JSON in
+ * chrome://tracing or ui.perfetto.dev. Writes next to the input with a .json suffix unless an
+ * output file is given.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.TraceToChromeJson
+ *            --args="frametrace_20250101_120000.gtrc [out.json]"
+ */
+public class TraceToChromeJson {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: TraceToChromeJson <trace.gtrc> [out.json]");
+            System.exit(2);
+        }
+        String input = args[0];
+        String output = args.length == 2 ? args[1] : input.replaceFirst("\\.gtrc$", "") + ".json";
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(input));
+             Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output),
+                     StandardCharsets.UTF_8))) {
+            FrameTracer.toChromeJson(in, out);
+        }
+        System.out.println("Chrome trace written to " + output);
+    }
+}
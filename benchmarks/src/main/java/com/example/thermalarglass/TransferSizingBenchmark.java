@@ -0,0 +1,219 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transfer size tuner convergence over replayed traces
+ *
+ * Replays synthetic traces with bulk read semantics (reads fill up across recorded
+ * transfers until a short packet, long transfers continue in the next read) through the
+ * same loop as NativeUVCCamera.queuedStreamingLoop(), starting from the old fixed read size
+ * with no negotiated payload size, so the tuner has to learn everything from the stream.
+ * Each trace runs against the API 27 usbfs limit (16 KB) and the API 28+ limit.
+ * Reports the read size the tuner settles on, reads per frame before and after, and frames
+ * lost after the size was locked. --check fails if a tuner does not lock within
+ * --max-frames or loses frames after locking. A payload larger than the host limit is split
+ * across reads, and the tuner has to lock at the host limit; any other payload has to fit
+ * in one read.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.TransferSizingBenchmark
+ *            --args="--check"
+ */
+public class TransferSizingBenchmark {
+
+    private static final int PACKET_SIZE = 512;     // High-speed bulk wMaxPacketSize
+    private static final int QUEUE_DEPTH = 4;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final int API27_LIMIT = 16384;
+    private static final int API28_LIMIT = 512 * 1024;
+
+    private int mFrames = 30;          // Frames per trace (looped)
+    private int mMaxFrames = 40;       // Frames the tuner may take to lock
+    private int mFramesAfterLock = 60;
+    private boolean mCheck = false;
+
+    public static void main(String[] args) throws IOException {
+        TransferSizingBenchmark benchmark = new TransferSizingBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "frames": mFrames = Integer.parseInt(kv[1]); break;
+                case "max-frames": mMaxFrames = Integer.parseInt(kv[1]); break;
+                case "frames-after-lock": mFramesAfterLock = Integer.parseInt(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() throws IOException {
+        File dir = Files.createTempDirectory("uvc-traces").toFile();
+        dir.deleteOnExit();
+        SyntheticTraces synthetic = new SyntheticTraces(dir);
+
+        // Largest payload of each trace, header included (0 = no payload structure)
+        List<SyntheticTraces.Trace> traces = new ArrayList<>();
+        List<Integer> payloads = new ArrayList<>();
+        traces.add(synthetic.y16WithPayloadSize(mFrames, 4000));
+        payloads.add(4000);
+        traces.add(synthetic.y16WithHeaders(mFrames));
+        payloads.add(SyntheticTraces.TRANSFER_SIZE);
+        int fullFrame = SyntheticTraces.WIDTH * SyntheticTraces.HEIGHT * 2 + SyntheticTraces.HEADER_LENGTH;
+        traces.add(synthetic.y16WithPayloadSize(mFrames, fullFrame));
+        payloads.add(fullFrame);
+        traces.add(synthetic.y16Headerless(mFrames));
+        payloads.add(0);
+        traces.add(synthetic.mjpeg(mFrames));
+        payloads.add(SyntheticTraces.TRANSFER_SIZE);
+        for (SyntheticTraces.Trace trace : traces) {
+            trace.file.deleteOnExit();
+        }
+
+        System.out.println(String.format(Locale.US,
+            "Transfer sizing: %d-byte packets, %d reads queued, start at %d bytes",
+            PACKET_SIZE, QUEUE_DEPTH, Math.min(PACKET_SIZE * 32, API27_LIMIT)));
+        System.out.println(String.format(Locale.US, "%-20s %8s %9s %9s %10s %10s %8s  %s",
+            "trace", "limit", "locked@", "size", "reads/f 0", "reads/f", "lost", "reason"));
+
+        boolean ok = true;
+        for (int i = 0; i < traces.size(); i++) {
+            for (int limit : new int[] {API27_LIMIT, API28_LIMIT}) {
+                SyntheticTraces.Trace trace = traces.get(i);
+                Result result = replay(trace, limit);
+                System.out.println(String.format(Locale.US, "%-20s %8d %9s %9d %10.1f %10.1f %8s  %s",
+                    trace.name, limit,
+                    result.lockedAtFrame >= 0 ? String.valueOf(result.lockedAtFrame) : "-",
+                    result.transferSize, result.initialTransfersPerFrame, result.transfersPerFrame,
+                    result.lockedAtFrame >= 0 ? String.valueOf(result.lostAfterLock) : "-",
+                    result.reason));
+
+                if (mCheck && (result.lockedAtFrame < 0 || result.lostAfterLock > 0)) {
+                    System.out.println("  FAILED: " + trace.name + " at " + limit + " bytes " +
+                        (result.lockedAtFrame < 0 ? "did not lock" : "lost " + result.lostAfterLock + " frames"));
+                    ok = false;
+                } else if (mCheck && payloads.get(i) > limit && result.transferSize != limit) {
+                    System.out.println("  FAILED: " + trace.name + " at " + limit + " bytes locked at " +
+                        result.transferSize + ", expected the host limit");
+                    ok = false;
+                } else if (mCheck && payloads.get(i) <= limit && result.transferSize < payloads.get(i)) {
+                    System.out.println("  FAILED: " + trace.name + " at " + limit + " bytes locked at " +
+                        result.transferSize + ", smaller than its " + payloads.get(i) + "-byte payloads");
+                    ok = false;
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Drives tuner and assembler from a looping bulk replay like the queued streaming loop
+     */
+    private Result replay(SyntheticTraces.Trace trace, int limit) throws IOException {
+        final Result result = new Result();
+        final TransferSizeTuner tuner = new TransferSizeTuner(PACKET_SIZE, limit, 0);
+        final UvcFrameAssembler[] assembler = new UvcFrameAssembler[1];
+        final long[] framesBeforeLock = {0};
+        final long[] transfers = {0};
+
+        FrameBufferPool pool = new FrameBufferPool(FrameBufferPool.DEFAULT_POOL_SIZE, MAX_FRAME_SIZE);
+        FrameDecoders decoders = FrameDecoders.standard(SyntheticTraces.WIDTH, SyntheticTraces.HEIGHT).forFormat(null);
+        assembler[0] = new UvcFrameAssembler(decoders, pool,
+                new UvcFrameAssembler.Listener() {
+                    @Override
+                    public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                        result.frames++;
+                        if (tuner.onFrame(frame.length(), frame.sequence(), assembler[0].isHeaderMode(),
+                                assembler[0].getLargestSplitPayload())) {
+                            // Frames the camera sent so far, delivered or not
+                            result.discardedAtLock = assembler[0].getDiscardedFrameCount();
+                            result.lockedAtFrame = result.frames + result.discardedAtLock;
+                            result.initialTransfersPerFrame = transfers[0] / (float) result.lockedAtFrame;
+                            framesBeforeLock[0] = result.frames;
+                        }
+                    }
+
+                    @Override
+                    public void onAssemblyWarning(String message) {
+                    }
+                });
+
+        // Bulk reads like the streaming loops, with no negotiated payload size either
+        assembler[0].setPayloadLayout(PACKET_SIZE, 0);
+        TraceReplayTransport transport = new TraceReplayTransport(trace.file, true);
+        transport.setBulkPacketSize(PACKET_SIZE);
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(tuner.getMaxTransferSize());
+            buffer.limit(tuner.getTransferSize());
+            transport.queueStreamRead(buffer);
+        }
+
+        // Give up after the tuner had its chance and the locked size had time to prove itself
+        long maxTransfers = (long) (mMaxFrames + mFramesAfterLock) *
+                (SyntheticTraces.WIDTH * SyntheticTraces.HEIGHT * 4 / 1000 + 1);
+        while (transfers[0] < maxTransfers) {
+            if (tuner.isLocked() && result.frames - framesBeforeLock[0] >= mFramesAfterLock) {
+                break;
+            }
+            if (!tuner.isLocked() && assembler[0].getFrameCount() + assembler[0].getDiscardedFrameCount() > mMaxFrames) {
+                break;
+            }
+
+            ByteBuffer buffer;
+            try {
+                buffer = transport.awaitStreamRead(100);
+            } catch (TimeoutException e) {
+                break;
+            }
+            transfers[0]++;
+            tuner.onTransfer(buffer.position(), buffer.limit());
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                assembler[0].onPacket(buffer);
+            }
+            buffer.clear();
+            buffer.limit(tuner.getTransferSize());
+            transport.queueStreamRead(buffer);
+        }
+
+        if (tuner.isLocked()) {
+            result.lostAfterLock = assembler[0].getDiscardedFrameCount() - result.discardedAtLock;
+        } else {
+            result.lockedAtFrame = -1;
+        }
+        result.transferSize = tuner.getTransferSize();
+        result.transfersPerFrame = tuner.getTransfersPerFrame();
+        result.reason = tuner.describe();
+        assembler[0].close();
+        return result;
+    }
+
+    private static final class Result {
+        long frames;
+        long lockedAtFrame = -1;
+        int discardedAtLock;
+        int lostAfterLock;
+        int transferSize;
+        float initialTransfersPerFrame;
+        float transfersPerFrame;
+        String reason;
+    }
+}
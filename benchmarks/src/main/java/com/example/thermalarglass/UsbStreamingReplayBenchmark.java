@@ -0,0 +1,275 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Replay benchmark for the NativeUVCCamera streaming loops
+ *
+ * Replays a synthetic Boson Y16 packet trace against a simulated bulk endpoint on a
+ * virtual clock. Depth 1 is the synchronous bulkTransfer loop (one read in flight);
+ * higher depths model the queued UsbRequest loop. Frame assembly runs through the real
+ * UvcFrameAssembler and its measured CPU time advances the virtual clock, as does the
+ * per-frame consumer time spent inside IFrameCallback.onFrame.
+ *
+ * The camera keeps streaming whether or not a read is pending; packets that arrive while
+ * its small internal FIFO is full are lost, which is what caps the synchronous loop.
+ *
+ * Usage: gradlew :benchmarks:run --args="--depths=1,2,4,8 --seconds=10 --consumer-ms=14"
+ */
+public class UsbStreamingReplayBenchmark {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 256;
+    private static final int HEADER_LENGTH = 12;
+
+    // Model parameters (override with --name=value)
+    private int[] mDepths = {1, 2, 4, 8};
+    private double mSeconds = 10;
+    private double mCameraFps = 60;
+    private int mTransferSize = 16384;
+    private double mBusMBps = 35;         // Effective USB 2.0 high-speed bulk throughput
+    private int mDeviceFifoPackets = 1;   // Camera-side buffering while no read is pending
+    private double mSubmitUs = 25;        // JNI + ioctl to submit a transfer
+    private double mReapUs = 35;          // JNI + ioctl to reap a completed transfer
+    private double mConsumerMs = 14;      // Synchronous onFrame work (render, network, ...)
+
+    // Trace: one frame's worth of packets for each FID value
+    private ByteBuffer[][] mFramePackets;
+
+    public static void main(String[] args) {
+        UsbStreamingReplayBenchmark benchmark = new UsbStreamingReplayBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.buildTrace();
+
+        System.out.println(String.format(Locale.US,
+            "USB streaming replay: %dx%d Y16 @ %.0f fps, %d B transfers, %.0f MB/s bus, " +
+            "FIFO %d packets, submit %.0f us, reap %.0f us, consumer %.1f ms/frame, %.0f s",
+            WIDTH, HEIGHT, benchmark.mCameraFps, benchmark.mTransferSize, benchmark.mBusMBps,
+            benchmark.mDeviceFifoPackets, benchmark.mSubmitUs, benchmark.mReapUs,
+            benchmark.mConsumerMs, benchmark.mSeconds));
+
+        // Warm up the assembler so JIT compilation does not count against depth 1
+        benchmark.run(benchmark.mDepths[benchmark.mDepths.length - 1], 2);
+
+        System.out.println(String.format(Locale.US, "%-7s %12s %12s %10s %10s %9s %8s",
+            "depth", "packets/s", "dropped/s", "frames/s", "camera fps", "resyncs", "gain"));
+
+        double baselineFps = 0;
+        for (int depth : benchmark.mDepths) {
+            Result result = benchmark.run(depth, benchmark.mSeconds);
+            if (baselineFps == 0) {
+                baselineFps = result.framesPerSecond();
+            }
+            System.out.println(String.format(Locale.US, "%-7s %12.0f %12.1f %10.1f %10.1f %9d %7.2fx",
+                depth == 1 ? "1 (sync)" : String.valueOf(depth),
+                result.packetsPerSecond(), result.droppedPerSecond(), result.framesPerSecond(),
+                benchmark.mCameraFps, result.resyncs,
+                baselineFps > 0 ? result.framesPerSecond() / baselineFps : 0));
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "depths":
+                    String[] parts = kv[1].split(",");
+                    mDepths = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        mDepths[i] = Math.max(1, Integer.parseInt(parts[i].trim()));
+                    }
+                    break;
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                case "fps": mCameraFps = Double.parseDouble(kv[1]); break;
+                case "transfer-size": mTransferSize = Integer.parseInt(kv[1]); break;
+                case "bus-mbps": mBusMBps = Double.parseDouble(kv[1]); break;
+                case "fifo-packets": mDeviceFifoPackets = Integer.parseInt(kv[1]); break;
+                case "submit-us": mSubmitUs = Double.parseDouble(kv[1]); break;
+                case "reap-us": mReapUs = Double.parseDouble(kv[1]); break;
+                case "consumer-ms": mConsumerMs = Double.parseDouble(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    /**
+     * Splits a synthetic Y16 frame into UVC transfers with 12-byte payload headers
+     */
+    private void buildTrace() {
+        byte[] frame = new byte[WIDTH * HEIGHT * 2];
+        for (int i = 0; i < frame.length; i += 2) {
+            int value = 7000 + (i / 2) % 3000;  // Typical Boson count range
+            frame[i] = (byte) value;
+            frame[i + 1] = (byte) (value >> 8);
+        }
+
+        int payloadSize = mTransferSize - HEADER_LENGTH;
+        int packetsPerFrame = (frame.length + payloadSize - 1) / payloadSize;
+        mFramePackets = new ByteBuffer[2][packetsPerFrame];
+
+        for (int fid = 0; fid < 2; fid++) {
+            for (int p = 0; p < packetsPerFrame; p++) {
+                int offset = p * payloadSize;
+                int length = Math.min(payloadSize, frame.length - offset);
+                boolean last = p == packetsPerFrame - 1;
+
+                ByteBuffer packet = ByteBuffer.allocate(HEADER_LENGTH + length);
+                packet.put((byte) HEADER_LENGTH);
+                packet.put((byte) (0x80 | (last ? 0x02 : 0) | fid));  // EOH, EOF, FID
+                packet.put(new byte[HEADER_LENGTH - 2]);
+                packet.put(frame, offset, length);
+                packet.flip();
+                mFramePackets[fid][p] = packet;
+            }
+        }
+    }
+
+    /**
+     * Replays the trace for the given number of virtual seconds with depth reads in flight
+     */
+    private Result run(int depth, double seconds) {
+        Simulation sim = new Simulation(depth);
+        long endNs = (long) (seconds * 1e9);
+
+        // Queue all requests up front, exactly like queuedStreamingLoop()
+        for (int i = 0; i < depth; i++) {
+            sim.submit();
+        }
+
+        while (sim.mNow < endNs) {
+            // requestWait(): block until a request completes, then pay the reap cost
+            if (sim.mCompleted.isEmpty()) {
+                sim.mNow = Math.max(sim.mNow, sim.arrivalTime(sim.mNextPacket));
+                sim.advance(sim.mNow);
+            }
+            sim.spend((long) (mReapUs * 1000));
+            long packetIndex = sim.mCompleted.poll();
+            sim.mPacketsRead++;
+
+            // Assemble on the real code path; measured CPU time advances the clock
+            ByteBuffer packet = packetFor(packetIndex);
+            packet.rewind();
+            int framesBefore = sim.mAssembler.getFrameCount();
+            long start = System.nanoTime();
+            sim.mAssembler.onPacket(packet);
+            long cost = System.nanoTime() - start;
+            if (sim.mAssembler.getFrameCount() != framesBefore) {
+                cost += (long) (mConsumerMs * 1e6);
+            }
+            sim.spend(cost);
+
+            // Requeue the request
+            sim.submit();
+        }
+
+        Result result = new Result();
+        result.seconds = sim.mNow / 1e9;
+        result.packets = sim.mPacketsRead;
+        result.dropped = sim.mDropped;
+        result.frames = sim.mAssembler.getFrameCount();
+        result.resyncs = sim.mAssembler.getResyncCount();
+        return result;
+    }
+
+    private ByteBuffer packetFor(long packetIndex) {
+        int packetsPerFrame = mFramePackets[0].length;
+        long frame = packetIndex / packetsPerFrame;
+        return mFramePackets[(int) (frame & 1)][(int) (packetIndex % packetsPerFrame)];
+    }
+
+    /**
+     * Virtual-clock model of the camera, its FIFO and the host's pending reads
+     */
+    private class Simulation {
+        final UvcFrameAssembler mAssembler;
+        final ArrayDeque<Long> mDeviceFifo = new ArrayDeque<>();
+        final ArrayDeque<Long> mCompleted = new ArrayDeque<>();
+        final long mFrameIntervalNs;
+        final long mPacketIntervalNs;
+        final int mPacketsPerFrame;
+
+        long mNow = 0;
+        long mNextPacket = 0;
+        int mInFlight = 0;
+        long mPacketsRead = 0;
+        long mDropped = 0;
+
+        Simulation(int depth) {
+            FrameBufferPool pool = new FrameBufferPool(FrameBufferPool.DEFAULT_POOL_SIZE, 1024 * 1024);
+            FrameDecoders decoders = FrameDecoders.standard(WIDTH, HEIGHT).forFormat(null);
+            mAssembler = new UvcFrameAssembler(decoders, pool, new UvcFrameAssembler.Listener() {
+                @Override
+                public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                }
+
+                @Override
+                public void onAssemblyWarning(String message) {
+                }
+            });
+            mFrameIntervalNs = (long) (1e9 / mCameraFps);
+            mPacketIntervalNs = (long) (mTransferSize / (mBusMBps * 1e6) * 1e9);
+            mPacketsPerFrame = mFramePackets[0].length;
+        }
+
+        long arrivalTime(long packetIndex) {
+            return (packetIndex / mPacketsPerFrame) * mFrameIntervalNs +
+                   (packetIndex % mPacketsPerFrame) * mPacketIntervalNs;
+        }
+
+        // Delivers every packet the camera sent up to time t
+        void advance(long t) {
+            while (arrivalTime(mNextPacket) <= t) {
+                long packet = mNextPacket++;
+                if (mInFlight > 0) {
+                    mInFlight--;
+                    mCompleted.add(packet);
+                } else if (mDeviceFifo.size() < mDeviceFifoPackets) {
+                    mDeviceFifo.add(packet);
+                } else {
+                    mDropped++;
+                }
+            }
+        }
+
+        void spend(long ns) {
+            mNow += ns;
+            advance(mNow);
+        }
+
+        // The request is in flight once the submit cost has been paid
+        void submit() {
+            spend((long) (mSubmitUs * 1000));
+            if (!mDeviceFifo.isEmpty()) {
+                mCompleted.add(mDeviceFifo.poll());
+            } else {
+                mInFlight++;
+            }
+        }
+    }
+
+    private static class Result {
+        double seconds;
+        long packets;
+        long dropped;
+        int frames;
+        int resyncs;
+
+        double packetsPerSecond() {
+            return packets / seconds;
+        }
+
+        double droppedPerSecond() {
+            return dropped / seconds;
+        }
+
+        double framesPerSecond() {
+            return frames / seconds;
+        }
+    }
+}
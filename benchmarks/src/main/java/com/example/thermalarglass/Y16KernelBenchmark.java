@@ -0,0 +1,244 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fused Y16 kernel against the previous multi-pass decode
+ *
+ * The previous path copied every Y16 frame into a byte[] for analytics, walked it once for
+ * min/max/mean (calibrating every pixel), copied it again for display and walked it a second
+ * time computing the iron colormap per pixel. Y16Kernel reads the pooled direct buffer once,
+ * producing the ARGB pixels, the statistics and a histogram. Both run over the same synthetic
+ * 320×258 frames (with telemetry rows). --check fails if pixels or statistics differ.
+ * The "agc" rows add AutoGainControl (table rebuild every few frames) and report how many
+ * distinct colors of the 256-entry map the scene uses with each mapping.
+ *
+ * Usage: gradlew :benchmarks:run -PmainClass=com.example.thermalarglass.Y16KernelBenchmark
+ *            --args="--seconds=3 --check"
+ */
+public class Y16KernelBenchmark {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 256;
+    private static final int FRAME_SIZE = WIDTH * (HEIGHT + 2) * 2;  // With telemetry rows
+    private static final int FRAMES = 8;
+
+    private double mSeconds = 3;
+    private boolean mCheck = false;
+
+    // Legacy outputs, kept as fields so the JIT cannot drop the work
+    private float mLegacyMin;
+    private float mLegacyMax;
+    private float mLegacyMean;
+    private float mLegacyCenter;
+    private final int[] mLegacyPixels = new int[WIDTH * HEIGHT];
+
+    public static void main(String[] args) {
+        Y16KernelBenchmark benchmark = new Y16KernelBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--check")) {
+                mCheck = true;
+                continue;
+            }
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (kv[0]) {
+                case "seconds": mSeconds = Double.parseDouble(kv[1]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+    }
+
+    private boolean run() {
+        ByteBuffer[] frames = new ByteBuffer[FRAMES];
+        Random random = new Random(42);
+        for (int f = 0; f < FRAMES; f++) {
+            frames[f] = ByteBuffer.allocateDirect(FRAME_SIZE);
+            for (int i = 0; i < WIDTH * (HEIGHT + 2); i++) {
+                // Scene around 20 °C with a warm gradient and sensor noise
+                int value = 8192 + (i % WIDTH) * 4 + random.nextInt(64);
+                frames[f].put((byte) value).put((byte) (value >> 8));
+            }
+            frames[f].flip();
+        }
+
+        Y16Kernel kernel = new Y16Kernel(WIDTH, HEIGHT);
+        kernel.setTable(new AutoGainControl(AutoGainControl.Mode.OFF, 1, 1).getTable(Colormap.IRON));
+        FrameStats stats = new FrameStats();
+
+        boolean ok = true;
+        if (mCheck) {
+            for (ByteBuffer frame : frames) {
+                legacy(frame);
+                kernel.process(frame, stats);
+                ok &= compare(kernel, stats);
+            }
+        }
+
+        // Warm up both paths before timing
+        long nanosPerPhase = (long) (mSeconds * 1e9 / 2);
+        AutoGainControl linear = new AutoGainControl(AutoGainControl.Mode.LINEAR,
+                AutoGainControl.DEFAULT_INTERVAL_FRAMES, AutoGainControl.DEFAULT_SMOOTHING);
+        AutoGainControl plateau = new AutoGainControl(AutoGainControl.Mode.PLATEAU,
+                AutoGainControl.DEFAULT_INTERVAL_FRAMES, AutoGainControl.DEFAULT_SMOOTHING);
+        time(frames, kernel, stats, null, false, nanosPerPhase / 4);
+        time(frames, kernel, stats, null, true, nanosPerPhase / 4);
+        double legacyMs = time(frames, kernel, stats, null, false, nanosPerPhase);
+        int legacyColors = distinctColors(mLegacyPixels);
+        double fusedMs = time(frames, kernel, stats, null, true, nanosPerPhase);
+        double linearMs = time(frames, kernel, stats, linear, true, nanosPerPhase);
+        int linearColors = distinctColors(kernel.getPixels());
+        double plateauMs = time(frames, kernel, stats, plateau, true, nanosPerPhase);
+        int plateauColors = distinctColors(kernel.getPixels());
+
+        System.out.println(String.format(Locale.US, "Y16 decode, %d×%d frame with telemetry rows", WIDTH, HEIGHT));
+        System.out.println(String.format(Locale.US, "%-20s %10s %10s %8s", "path", "ms/frame", "fps cap", "colors"));
+        System.out.println(String.format(Locale.US, "%-20s %10.3f %10.0f %8d", "multi-pass", legacyMs, 1000 / legacyMs, legacyColors));
+        System.out.println(String.format(Locale.US, "%-20s %10.3f %10.0f %8d", "fused", fusedMs, 1000 / fusedMs, legacyColors));
+        System.out.println(String.format(Locale.US, "%-20s %10.3f %10.0f %8d", "fused, linear agc", linearMs, 1000 / linearMs, linearColors));
+        System.out.println(String.format(Locale.US, "%-20s %10.3f %10.0f %8d", "fused, plateau agc", plateauMs, 1000 / plateauMs, plateauColors));
+        System.out.println(String.format(Locale.US, "Speedup: %.2fx", legacyMs / fusedMs));
+        if (mCheck && plateauColors <= legacyColors * 4) {
+            System.out.println("  FAILED: plateau AGC uses " + plateauColors + " colors, fixed mapping " + legacyColors);
+            ok = false;
+        }
+        return ok;
+    }
+
+    /**
+     * Times one path; with agc the table is refreshed the way convertY16ToBitmap does
+     */
+    private double time(ByteBuffer[] frames, Y16Kernel kernel, FrameStats stats, AutoGainControl agc,
+                        boolean fused, long nanos) {
+        long start = System.nanoTime();
+        long end = start + nanos;
+        long count = 0;
+        while (System.nanoTime() < end) {
+            ByteBuffer frame = frames[(int) (count % FRAMES)];
+            if (!fused) {
+                legacy(frame);
+            } else if (agc != null) {
+                kernel.setTable(agc.getTable(Colormap.IRON));
+                kernel.process(frame, stats);
+                agc.onFrame(stats);
+            } else {
+                kernel.process(frame, stats);
+            }
+            count++;
+        }
+        return (System.nanoTime() - start) / 1e6 / count;
+    }
+
+    private static int distinctColors(int[] pixels) {
+        Set<Integer> colors = new HashSet<>();
+        for (int pixel : pixels) {
+            colors.add(pixel);
+        }
+        return colors.size();
+    }
+
+    /**
+     * The previous analytics + display path (extractTemperatures and convertY16ToBitmap)
+     */
+    private void legacy(ByteBuffer frame) {
+        // Analytics: whole frame copied, every sample calibrated
+        byte[] thermalFrame = new byte[frame.limit()];
+        frame.duplicate().get(thermalFrame);
+        int centerOffset = ((HEIGHT / 2) * WIDTH + WIDTH / 2) * 2;
+        mLegacyCenter = calibrate((thermalFrame[centerOffset] & 0xFF) | ((thermalFrame[centerOffset + 1] & 0xFF) << 8));
+        float minTemp = Float.MAX_VALUE;
+        float maxTemp = -Float.MAX_VALUE;
+        float sum = 0;
+        int count = 0;
+        for (int i = 0; i < WIDTH * HEIGHT * 2; i += 2) {
+            float temp = calibrate((thermalFrame[i] & 0xFF) | ((thermalFrame[i + 1] & 0xFF) << 8));
+            minTemp = Math.min(minTemp, temp);
+            maxTemp = Math.max(maxTemp, temp);
+            sum += temp;
+            count++;
+        }
+        mLegacyMin = minTemp;
+        mLegacyMax = maxTemp;
+        mLegacyMean = sum / count;
+
+        // Display: image rows copied again, colormap computed per pixel
+        byte[] frameCopy = new byte[WIDTH * HEIGHT * 2];
+        frame.duplicate().get(frameCopy);
+        int byteIndex = 0;
+        for (int i = 0; i < mLegacyPixels.length; i++) {
+            int y16Value = ((frameCopy[byteIndex + 1] & 0xFF) << 8) | (frameCopy[byteIndex] & 0xFF);
+            byteIndex += 2;
+            mLegacyPixels[i] = colormap("iron", y16Value >> 8);
+        }
+    }
+
+    private boolean compare(Y16Kernel kernel, FrameStats stats) {
+        int[] pixels = kernel.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            if (pixels[i] != mLegacyPixels[i]) {
+                System.out.println("  FAILED: pixel " + i + " differs");
+                return false;
+            }
+        }
+        boolean ok = calibrate(stats.getMin()) == mLegacyMin && calibrate(stats.getMax()) == mLegacyMax &&
+                calibrate(stats.getCenter()) == mLegacyCenter &&
+                Math.abs(calibrate(stats.getMean()) - mLegacyMean) < 0.01f;
+        if (!ok) {
+            System.out.println(String.format(Locale.US,
+                "  FAILED: stats %.2f/%.2f/%.2f/%.2f, previous path %.2f/%.2f/%.2f/%.2f",
+                calibrate(stats.getMin()), calibrate(stats.getMax()), calibrate(stats.getCenter()),
+                calibrate(stats.getMean()), mLegacyMin, mLegacyMax, mLegacyCenter, mLegacyMean));
+        }
+        return ok;
+    }
+
+    private static float calibrate(float pixelValue) {
+        return (pixelValue - 8192) * 0.01f + 20.0f;
+    }
+
+    private static int colormap(String name, int value) {
+        switch (name) {
+            case "iron":
+            default:
+                return iron(value);
+        }
+    }
+
+    // Iron colormap of the former MainActivity.applyThermalColormap(), packed like Color.argb()
+    private static int iron(int value) {
+        int r, g, b;
+        if (value < 64) {
+            r = 0;
+            g = 0;
+            b = value * 4;
+        } else if (value < 128) {
+            r = (value - 64) * 4;
+            g = 0;
+            b = 255;
+        } else if (value < 192) {
+            r = 255;
+            g = 0;
+            b = 255 - ((value - 128) * 4);
+        } else {
+            r = 255;
+            g = (value - 192) * 4;
+            b = (value - 192) * 2;
+        }
+        r = Math.min(255, Math.max(0, r));
+        g = Math.min(255, Math.max(0, g));
+        b = Math.min(255, Math.max(0, b));
+        return (255 << 24) | (r << 16) | (g << 8) | b;
+    }
+}
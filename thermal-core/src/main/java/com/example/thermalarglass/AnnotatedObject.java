@@ -0,0 +1,38 @@
+package com.example.thermalarglass;
+
+/**
+ * A detection or thermal anomaly to annotate on the Glass display
+ */
+public class AnnotatedObject {
+    public float[] bbox;           // [x1, y1, x2, y2]
+    public float confidence;
+    public String className;
+    public float temperature;      // Optional
+    public boolean isThermalAnomaly;
+    public long detectionTime;
+
+    public AnnotatedObject(float[] bbox, float confidence, String className) {
+        this.bbox = bbox;
+        this.confidence = confidence;
+        this.className = className;
+        this.temperature = Float.NaN;
+        this.isThermalAnomaly = false;
+        this.detectionTime = System.currentTimeMillis();
+    }
+
+    // Calculate center of bounding box
+    public float getCenterX() {
+        return (bbox[0] + bbox[2]) / 2.0f;
+    }
+
+    public float getCenterY() {
+        return (bbox[1] + bbox[3]) / 2.0f;
+    }
+
+    // Calculate distance from screen center
+    public float getDistanceFromCenter(float centerX, float centerY) {
+        float dx = getCenterX() - centerX;
+        float dy = getCenterY() - centerY;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.thermalarglass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Which annotations SmartDisplayManager draws first on a display of the given size
+ * Objects are filtered by confidence, then ranked by distance from the display center,
+ * confidence and temperature.
+ */
+final class AnnotationPriority {
+
+    static final float MIN_CONFIDENCE_THRESHOLD = 0.5f;
+
+    // Priority weights
+    static final float WEIGHT_CENTER_DISTANCE = 0.4f;
+    static final float WEIGHT_CONFIDENCE = 0.3f;
+    static final float WEIGHT_TEMPERATURE = 0.3f;
+
+    // Temperature thresholds for alerts
+    static final float TEMP_CRITICAL = 80.0f;  // °C
+    static final float TEMP_WARNING = 60.0f;   // °C
+
+    private final float mCenterX;
+    private final float mCenterY;
+
+    AnnotationPriority(int displayWidth, int displayHeight) {
+        mCenterX = displayWidth / 2.0f;
+        mCenterY = displayHeight / 2.0f;
+    }
+
+    /**
+     * Filter objects by confidence threshold
+     */
+    List<AnnotatedObject> filterByConfidence(List<AnnotatedObject> objects) {
+        List<AnnotatedObject> filtered = new ArrayList<>();
+        for (AnnotatedObject obj : objects) {
+            if (obj.confidence >= MIN_CONFIDENCE_THRESHOLD) {
+                filtered.add(obj);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Prioritize objects based on multiple factors:
+     * - Distance from center (what user is looking at)
+     * - Confidence score
+     * - Temperature (thermal anomalies)
+     * Sorts the list in place and returns it.
+     */
+    List<AnnotatedObject> prioritizeObjects(List<AnnotatedObject> objects) {
+        // Calculate priority score for each object
+        for (AnnotatedObject obj : objects) {
+            float distScore = calculateDistanceScore(obj, mCenterX, mCenterY);
+            float confScore = obj.confidence;
+            float tempScore = calculateTemperatureScore(obj);
+
+            obj.detectionTime = (long) (
+                distScore * WEIGHT_CENTER_DISTANCE +
+                confScore * WEIGHT_CONFIDENCE +
+                tempScore * WEIGHT_TEMPERATURE
+            );  // Reusing detectionTime field for priority score
+        }
+
+        // Sort by priority (higher score = higher priority)
+        Collections.sort(objects, new Comparator<AnnotatedObject>() {
+            @Override
+            public int compare(AnnotatedObject o1, AnnotatedObject o2) {
+                return Long.compare(o2.detectionTime, o1.detectionTime);
+            }
+        });
+
+        return objects;
+    }
+
+    /**
+     * Calculate distance score (closer to center = higher score)
+     */
+    private static float calculateDistanceScore(AnnotatedObject obj, float centerX, float centerY) {
+        float distance = obj.getDistanceFromCenter(centerX, centerY);
+        float maxDistance = (float) Math.sqrt(centerX * centerX + centerY * centerY);
+        return 1.0f - (distance / maxDistance);  // Normalize: 1.0 at center, 0.0 at corners
+    }
+
+    /**
+     * Calculate temperature score (hotter = higher priority)
+     */
+    private static float calculateTemperatureScore(AnnotatedObject obj) {
+        if (Float.isNaN(obj.temperature)) {
+            return 0.0f;
+        }
+
+        // Normalize temperature: 0-100°C → 0.0-1.0
+        float normalized = Math.min(obj.temperature / 100.0f, 1.0f);
+
+        // Boost critical temperatures
+        if (obj.temperature >= TEMP_CRITICAL) {
+            return 1.0f;
+        } else if (obj.temperature >= TEMP_WARNING) {
+            return 0.7f + normalized * 0.3f;
+        }
+
+        return normalized;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.thermalarglass;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Automatic gain control for Y16 display: maps 16-bit counts to colormap entries
+ * A fixed value >> 8 squeezes a typical Boson scene (~7000-10000 counts) into a dozen
+ * colors. Instead, every few frames the histogram from FrameStats is turned into a mapping
+ * curve (linear between percentiles, or plateau-clipped histogram equalization), optionally
+ * smoothed over time so the picture does not pump, and baked into a 65536-entry ARGB table
+ * for the active colormap. Y16Kernel then spends one histogram increment and one table lookup
+ * per pixel. With AGC off (or before the first update) the table holds the fixed mapping.
+ * Decode thread only, except setMode().
+ */
+final class AutoGainControl {
+
+    enum Mode {
+        OFF,        // Fixed high byte, as before
+        LINEAR,     // Linear stretch between the 1st and 99th percentile
+        PLATEAU;    // Plateau histogram equalization
+
+        static Mode fromName(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return PLATEAU;
+        }
+    }
+
+    static final int DEFAULT_INTERVAL_FRAMES = 4;
+    static final int DEFAULT_SMOOTHING = 4;
+
+    // Fraction of pixels cut off at each end by the linear stretch
+    private static final float LINEAR_PERCENTILE = 0.01f;
+
+    // Most pixels one histogram bin may contribute to equalization (fraction of the frame)
+    private static final float PLATEAU_FRACTION = 0.02f;
+
+    // Display levels per raw count at most (0.5: 256 levels span at least ~5 °C), so a
+    // uniform scene shows as a flat image instead of amplified sensor noise
+    private static final float MAX_GAIN = 0.5f;
+
+    private static final int BINS = FrameStats.HISTOGRAM_BINS;
+    private static final int BIN_WIDTH = 1 << FrameStats.HISTOGRAM_SHIFT;
+    private static final float MAX_LEVEL = Colormap.SIZE - 1;
+
+    // Settings may change from any thread; the curve state below is decode thread only
+    private volatile Mode mMode;
+    private volatile int mIntervalFrames;
+    private volatile int mSmoothing;
+
+    // Display level at the lower edge of each histogram bin (plus the top edge)
+    private final float[] mLevels = new float[BINS + 1];
+    private final float[] mTarget = new float[BINS + 1];
+    private final float[] mIncrements = new float[BINS];
+    private boolean mHasLevels = false;
+
+    private final int[] mTable = new int[65536];
+    private Colormap mTableColormap = null;
+    private boolean mTableFixed = false;
+    private boolean mTableDirty = true;
+
+    private long mFrames = 0;
+    private int mLowBin = 0;
+    private int mHighBin = BINS - 1;
+
+    /**
+     * @param intervalFrames frames between curve updates
+     * @param smoothing 1 to jump to each new curve, n to move 1/n of the way per update
+     */
+    AutoGainControl(Mode mode, int intervalFrames, int smoothing) {
+        mMode = mode;
+        setUpdateRate(intervalFrames, smoothing);
+    }
+
+    /**
+     * Frames between curve updates and smoothing, as in the constructor; takes effect on the
+     * next frame
+     */
+    void setUpdateRate(int intervalFrames, int smoothing) {
+        mIntervalFrames = Math.max(1, intervalFrames);
+        mSmoothing = Math.max(1, smoothing);
+    }
+
+    void setMode(Mode mode) {
+        mMode = mode;
+    }
+
+    Mode getMode() {
+        return mMode;
+    }
+
+    /**
+     * Table for the next frame: ARGB color per 16-bit count
+     * Rebuilt after a curve update, a mode or a colormap change; the array is reused.
+     */
+    int[] getTable(Colormap colormap) {
+        boolean fixed = mMode == Mode.OFF || !mHasLevels;
+        if (colormap != mTableColormap || fixed != mTableFixed || (mTableDirty && !fixed)) {
+            buildTable(colormap, fixed);
+        }
+        return mTable;
+    }
+
+    /**
+     * Feeds the statistics of a processed frame; updates the curve every intervalFrames
+     */
+    void onFrame(FrameStats stats) {
+        Mode mode = mMode;
+        if (mode == Mode.OFF || !stats.isValid()) {
+            return;
+        }
+        if (mHasLevels && ++mFrames % mIntervalFrames != 0) {
+            return;
+        }
+
+        int smoothing = mSmoothing;
+        if (mode == Mode.LINEAR) {
+            computeLinear(stats);
+        } else {
+            computePlateau(stats);
+        }
+
+        if (!mHasLevels || smoothing == 1) {
+            System.arraycopy(mTarget, 0, mLevels, 0, mLevels.length);
+            mHasLevels = true;
+        } else {
+            for (int i = 0; i < mLevels.length; i++) {
+                mLevels[i] += (mTarget[i] - mLevels[i]) / smoothing;
+            }
+        }
+        mTableDirty = true;
+    }
+
+    /**
+     * One-line summary for status logs
+     */
+    String describe() {
+        return String.format(Locale.US, "%s, range %d-%d counts", mMode.name().toLowerCase(Locale.US),
+                mLowBin * BIN_WIDTH, (mHighBin + 1) * BIN_WIDTH);
+    }
+
+    private void computeLinear(FrameStats stats) {
+        int[] histogram = stats.getHistogram();
+        int cut = (int) (stats.getPixelCount() * LINEAR_PERCENTILE);
+        mLowBin = percentileBin(histogram, cut, false);
+        mHighBin = percentileBin(histogram, cut, true);
+        Arrays.fill(mIncrements, 0);
+        for (int bin = mLowBin; bin <= mHighBin; bin++) {
+            mIncrements[bin] = 1;
+        }
+        toLevels();
+    }
+
+    private void computePlateau(FrameStats stats) {
+        int[] histogram = stats.getHistogram();
+        int plateau = Math.max(1, (int) (stats.getPixelCount() * PLATEAU_FRACTION));
+        mLowBin = stats.getMin() >> FrameStats.HISTOGRAM_SHIFT;
+        mHighBin = stats.getMax() >> FrameStats.HISTOGRAM_SHIFT;
+        Arrays.fill(mIncrements, 0);
+        for (int bin = mLowBin; bin <= mHighBin; bin++) {
+            mIncrements[bin] = Math.min(histogram[bin], plateau);
+        }
+        toLevels();
+    }
+
+    // First bin (from the bottom or the top) where more than `cut` pixels have been passed
+    private static int percentileBin(int[] histogram, int cut, boolean fromTop) {
+        int seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            int bin = fromTop ? BINS - 1 - i : i;
+            seen += histogram[bin];
+            if (seen > cut) {
+                return bin;
+            }
+        }
+        return fromTop ? BINS - 1 : 0;
+    }
+
+    /**
+     * Turns per-bin weights into cumulative display levels, limited to MAX_GAIN and centered
+     */
+    private void toLevels() {
+        float total = 0;
+        for (float weight : mIncrements) {
+            total += weight;
+        }
+        if (total <= 0) {
+            return;
+        }
+
+        float scale = MAX_LEVEL / total;
+        float maxPerBin = MAX_GAIN * BIN_WIDTH;
+        float used = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            mIncrements[bin] = Math.min(mIncrements[bin] * scale, maxPerBin);
+            used += mIncrements[bin];
+        }
+
+        // Levels the gain limit left unused are split evenly below and above the scene
+        float level = (MAX_LEVEL - used) / 2;
+        for (int bin = 0; bin < BINS; bin++) {
+            mTarget[bin] = level;
+            level += mIncrements[bin];
+        }
+        mTarget[BINS] = level;
+    }
+
+    private void buildTable(Colormap colormap, boolean fixed) {
+        int[] colors = colormap.table();
+        mTableColormap = colormap;
+        mTableFixed = fixed;
+        if (fixed) {
+            for (int value = 0; value < mTable.length; value++) {
+                mTable[value] = colors[value >>> 8];
+            }
+            return;
+        }
+
+        for (int bin = 0; bin < BINS; bin++) {
+            float from = mLevels[bin];
+            float step = (mLevels[bin + 1] - from) / BIN_WIDTH;
+            int value = bin * BIN_WIDTH;
+            if (step == 0) {
+                Arrays.fill(mTable, value, value + BIN_WIDTH, colors[clamp(from)]);
+                continue;
+            }
+            for (int i = 0; i < BIN_WIDTH; i++) {
+                mTable[value + i] = colors[clamp(from + step * i)];
+            }
+        }
+        mTableDirty = false;
+    }
+
+    private static int clamp(float level) {
+        int rounded = (int) (level + 0.5f);
+        return rounded < 0 ? 0 : Math.min(rounded, Colormap.SIZE - 1);
+    }
+}
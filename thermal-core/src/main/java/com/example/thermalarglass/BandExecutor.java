@@ -0,0 +1,178 @@
+package com.example.thermalarglass;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed pool of pre-started threads that split per-frame pixel work into row bands
+ * run() hands one task to the workers and the calling thread, which all claim bands from a
+ * shared counter until none are left, and returns once every band is done. Bands are claimed
+ * dynamically so a core that is busy elsewhere simply takes fewer of them. Nothing is allocated
+ * per call. One caller at a time (the decode stage); a pool of one thread runs bands inline.
+ */
+final class BandExecutor {
+
+    interface BandTask {
+        /**
+         * Processes rows [fromRow, toRow) as band number `band`; bands may run concurrently
+         */
+        void run(int band, int fromRow, int toRow);
+    }
+
+    static final int DEFAULT_BAND_ROWS = 64;
+    static final int MAX_THREADS = 8;
+
+    private final Thread[] mWorkers;
+    private final int mThreads;
+
+    // Current job, published under the lock by bumping mGeneration
+    private BandTask mTask;
+    private int mRows;
+    private int mBandRows;
+    private int mBands;
+    private int mGeneration = 0;
+    private boolean mShutdown = false;
+
+    // Next band to claim, tagged with the generation (high word) so a worker that wakes up
+    // late can never claim a band of a newer job with the parameters of an old one
+    private final AtomicLong mClaim = new AtomicLong();
+    private final AtomicInteger mDoneBands = new AtomicInteger();
+    private RuntimeException mFailure;      // First band failure of the current job, under the lock
+
+    /**
+     * @param threads threads working on each frame, the caller included
+     */
+    BandExecutor(int threads, String name) {
+        mThreads = Math.max(1, Math.min(threads, MAX_THREADS));
+        mWorkers = new Thread[mThreads - 1];
+        for (int i = 0; i < mWorkers.length; i++) {
+            mWorkers[i] = new Thread(this::work, name + "-" + (i + 1));
+            mWorkers[i].setDaemon(true);
+            mWorkers[i].start();
+        }
+    }
+
+    int getThreads() {
+        return mThreads;
+    }
+
+    /**
+     * Runs task over rows [0, rows) in bands of bandRows, returns when all bands are done
+     */
+    void run(int rows, int bandRows, BandTask task) {
+        int bands = (rows + bandRows - 1) / bandRows;
+        if (mWorkers.length == 0 || bands <= 1) {
+            for (int band = 0; band < bands; band++) {
+                task.run(band, band * bandRows, Math.min(rows, (band + 1) * bandRows));
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (mShutdown) {
+                throw new IllegalStateException("Band executor shut down");
+            }
+            mTask = task;
+            mRows = rows;
+            mBandRows = bandRows;
+            mBands = bands;
+            mFailure = null;
+            mGeneration++;
+            mDoneBands.set(0);
+            mClaim.set((long) mGeneration << 32);
+            notifyAll();
+        }
+
+        runBands(mGeneration, task, rows, bandRows, bands);
+
+        // Wait for bands still running on workers
+        synchronized (this) {
+            while (mDoneBands.get() < bands) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for bands", e);
+                }
+            }
+            mTask = null;
+            if (mFailure != null) {
+                throw mFailure;
+            }
+        }
+    }
+
+    private void runBands(int generation, BandTask task, int rows, int bandRows, int bands) {
+        int band;
+        while ((band = claim(generation, bands)) >= 0) {
+            try {
+                task.run(band, band * bandRows, Math.min(rows, (band + 1) * bandRows));
+            } catch (RuntimeException e) {
+                // Rethrown by run() on the calling thread; workers must survive
+                synchronized (this) {
+                    if (mFailure == null) {
+                        mFailure = e;
+                    }
+                }
+            } finally {
+                if (mDoneBands.incrementAndGet() == bands) {
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    // Next unclaimed band of this generation's job, or -1 if none is left
+    private int claim(int generation, int bands) {
+        while (true) {
+            long claim = mClaim.get();
+            int band = (int) claim;
+            if ((int) (claim >>> 32) != generation || band >= bands) {
+                return -1;
+            }
+            if (mClaim.compareAndSet(claim, claim + 1)) {
+                return band;
+            }
+        }
+    }
+
+    private void work() {
+        int seen = 0;
+        while (true) {
+            BandTask task;
+            int rows;
+            int bandRows;
+            int bands;
+            synchronized (this) {
+                while (!mShutdown && (mGeneration == seen || mTask == null)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (mShutdown) {
+                    return;
+                }
+                seen = mGeneration;
+                task = mTask;
+                rows = mRows;
+                bandRows = mBandRows;
+                bands = mBands;
+            }
+            runBands(seen, task, rows, bandRows, bands);
+        }
+    }
+
+    /**
+     * Stops the workers; run() must not be called afterwards
+     */
+    void shutdown() {
+        synchronized (this) {
+            mShutdown = true;
+            notifyAll();
+        }
+    }
+}
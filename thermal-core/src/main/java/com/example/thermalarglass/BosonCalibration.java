@@ -0,0 +1,62 @@
+package com.example.thermalarglass;
+
+/**
+ * Boson 320 raw counts to temperatures (Celsius)
+ * Calibration formula: T = (pixel - 8192) * 0.01 + 20.0. This is a simplified calibration -
+ * actual Boson calibration may vary. Raw values typically range from ~7000-10000 for normal
+ * temperature ranges.
+ */
+final class BosonCalibration {
+
+    private BosonCalibration() {
+    }
+
+    static float toCelsius(float pixelValue) {
+        return (pixelValue - 8192) * 0.01f + 20.0f;
+    }
+
+    /**
+     * Temperatures from the statistics the Y16 kernel filled in during decode
+     */
+    static ThermalData fromStats(FrameStats stats) {
+        return new ThermalData(toCelsius(stats.getCenter()), toCelsius(stats.getMin()),
+                toCelsius(stats.getMax()), toCelsius(stats.getMean()));
+    }
+
+    /**
+     * Temperatures from a copied little-endian 16-bit frame, or null if it is shorter than width * height samples
+     * Every 16-bit word of the array is included in min/max/average.
+     */
+    static ThermalData extractTemperatures(byte[] thermalFrame, int width, int height) {
+        if (thermalFrame == null || thermalFrame.length < width * height * 2) {
+            return null;
+        }
+
+        // Center pixel of the image
+        int centerOffset = ((height / 2) * width + width / 2) * 2;
+        int centerPixel = (thermalFrame[centerOffset] & 0xFF) | ((thermalFrame[centerOffset + 1] & 0xFF) << 8);
+        float centerTemp = toCelsius(centerPixel);
+
+        // Calculate min, max, and average temperatures
+        float minTemp = Float.MAX_VALUE;
+        float maxTemp = Float.MIN_VALUE;
+        float sum = 0;
+        int count = 0;
+
+        // Iterate through all pixels (2 bytes per pixel)
+        for (int i = 0; i < thermalFrame.length - 1; i += 2) {
+            int pixel = (thermalFrame[i] & 0xFF) | ((thermalFrame[i + 1] & 0xFF) << 8);
+            float temp = toCelsius(pixel);
+
+            minTemp = Math.min(minTemp, temp);
+            maxTemp = Math.max(maxTemp, temp);
+            sum += temp;
+            count++;
+        }
+
+        // Prevent division by zero
+        float avgTemp = count > 0 ? sum / count : 0;
+
+        return new ThermalData(centerTemp, minTemp, maxTemp, avgTemp);
+    }
+}
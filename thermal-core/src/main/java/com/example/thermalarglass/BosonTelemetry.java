@@ -0,0 +1,131 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Boson telemetry decoded from the two extra rows of a 320×258 (Y16) or 640×514 (I420) frame
+ * Each pooled frame owns one instance that is overwritten in place when the frame is
+ * delivered, so decoding allocates nothing. Values are only meaningful while isValid().
+ */
+public final class BosonTelemetry {
+
+    // FFC status, same values as FLR_BOSON_FFCSTATUS_E
+    public static final int FFC_NOT_PERFORMED = 0;
+    public static final int FFC_IMMINENT = 1;
+    public static final int FFC_IN_PROGRESS = 2;
+    public static final int FFC_COMPLETE = 3;
+
+    // Gain mode, same values as FLR_BOSON_GAINMODE_E
+    public static final int GAIN_HIGH = 0;
+    public static final int GAIN_LOW = 1;
+    public static final int GAIN_AUTO = 2;
+    public static final int GAIN_DUAL = 3;
+    public static final int GAIN_MANUAL = 4;
+
+    private static final int ROW_BYTES = 320 * 2;  // Words decoded from the first telemetry row
+
+    // 16-bit word offsets in the first telemetry row (Boson IDD telemetry line table)
+    // 32-bit values span two words, most significant word first
+    private static final int WORD_REVISION = 0;
+    private static final int WORD_FRAME_COUNTER = 42;
+    private static final int WORD_FPA_TEMP_KX10 = 48;
+    private static final int WORD_GAIN_MODE = 136;
+    private static final int WORD_TIMESTAMP_MS = 140;
+    private static final int WORD_FFC_STATUS = 149;
+
+    private boolean mValid = false;
+    private int mRevision;
+    private long mFrameCounter;
+    private long mTimestampMs;
+    private float mFpaTempCelsius;
+    private int mFfcStatus;
+    private int mGainMode;
+
+    /**
+     * Decodes the telemetry rows of a frame (position 0, limit = frame length)
+     * offset is where the first telemetry row starts, as the format's FrameDecoder lays it
+     * out; -1 (no telemetry rows) leaves the struct invalid. Uses absolute reads only, the
+     * buffer's position and limit are untouched.
+     */
+    void decode(ByteBuffer frame, int offset) {
+        if (offset < 0 || offset + ROW_BYTES > frame.limit()) {
+            mValid = false;
+            return;
+        }
+
+        mRevision = word(frame, offset, WORD_REVISION);
+        mFrameCounter = dword(frame, offset, WORD_FRAME_COUNTER);
+        mTimestampMs = dword(frame, offset, WORD_TIMESTAMP_MS);
+        mFpaTempCelsius = word(frame, offset, WORD_FPA_TEMP_KX10) / 10f - 273.15f;
+        mFfcStatus = word(frame, offset, WORD_FFC_STATUS);
+        mGainMode = word(frame, offset, WORD_GAIN_MODE);
+        mValid = true;
+    }
+
+    void invalidate() {
+        mValid = false;
+    }
+
+    // Words are little-endian on the wire, like Y16 pixels
+    private static int word(ByteBuffer frame, int rowOffset, int index) {
+        int at = rowOffset + index * 2;
+        return (frame.get(at) & 0xFF) | ((frame.get(at + 1) & 0xFF) << 8);
+    }
+
+    private static long dword(ByteBuffer frame, int rowOffset, int index) {
+        return ((long) word(frame, rowOffset, index) << 16) | word(frame, rowOffset, index + 1);
+    }
+
+    /**
+     * True if the frame carried telemetry rows and they were decoded
+     */
+    public boolean isValid() {
+        return mValid;
+    }
+
+    public int getRevision() {
+        return mRevision;
+    }
+
+    // Camera frame counter (uint32); gaps mean the camera produced frames we never received
+    public long getFrameCounter() {
+        return mFrameCounter;
+    }
+
+    // Camera uptime in milliseconds (uint32)
+    public long getTimestampMs() {
+        return mTimestampMs;
+    }
+
+    public float getFpaTempCelsius() {
+        return mFpaTempCelsius;
+    }
+
+    public int getFfcStatus() {
+        return mFfcStatus;
+    }
+
+    public int getGainMode() {
+        return mGainMode;
+    }
+
+    /**
+     * True while the shutter is closed for flat-field correction; the image is frozen
+     */
+    public boolean isFfcInProgress() {
+        return mValid && mFfcStatus == FFC_IN_PROGRESS;
+    }
+
+    /**
+     * Copies the decoded values (for consumers that outlive the frame)
+     */
+    public void copyFrom(BosonTelemetry other) {
+        mValid = other.mValid;
+        mRevision = other.mRevision;
+        mFrameCounter = other.mFrameCounter;
+        mTimestampMs = other.mTimestampMs;
+        mFpaTempCelsius = other.mFpaTempCelsius;
+        mFfcStatus = other.mFfcStatus;
+        mGainMode = other.mGainMode;
+    }
+}
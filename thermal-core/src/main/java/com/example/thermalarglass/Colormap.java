@@ -0,0 +1,232 @@
+package com.example.thermalarglass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable 256-entry ARGB lookup table for display values 0-255
+ * The built-in maps are computed once from the piecewise formulas MainActivity used to
+ * evaluate per pixel; user palettes are read from text files (see parse()). Tables are
+ * shared between threads and never modified after construction.
+ */
+final class Colormap {
+
+    static final int SIZE = 256;
+
+    static final Colormap IRON = builtin("iron");
+    static final Colormap RAINBOW = builtin("rainbow");
+    static final Colormap WHITE_HOT = builtin("white_hot");
+    static final Colormap ARCTIC = builtin("arctic");
+    static final Colormap GRAYSCALE = builtin("grayscale");
+
+    // Order used for cycling and settings lists
+    static final List<Colormap> BUILTINS = Collections.unmodifiableList(
+            Arrays.asList(IRON, RAINBOW, WHITE_HOT, ARCTIC, GRAYSCALE));
+
+    private final String mName;
+    private final int[] mTable;
+
+    private Colormap(String name, int[] table) {
+        mName = name;
+        mTable = table;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    /**
+     * ARGB color of a display value (only the low 8 bits are used)
+     */
+    int argb(int value) {
+        return mTable[value & 0xFF];
+    }
+
+    /**
+     * The lookup table itself, for hot loops; callers must not modify it
+     */
+    int[] table() {
+        return mTable;
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+
+    /**
+     * Builds a map by linear interpolation between evenly spaced RGB stops
+     */
+    static Colormap fromStops(String name, int[] stops) {
+        if (stops.length < 2 || stops.length > SIZE) {
+            throw new IllegalArgumentException("Palette needs 2 to " + SIZE + " colors, got " + stops.length);
+        }
+        int[] table = new int[SIZE];
+        int segments = stops.length - 1;
+        for (int i = 0; i < SIZE; i++) {
+            // Position of entry i along the stops, in 1/255ths of a segment
+            int position = i * segments;
+            int stop = Math.min(position / (SIZE - 1), segments - 1);
+            int fraction = position - stop * (SIZE - 1);
+            int from = stops[stop];
+            int to = stops[stop + 1];
+            table[i] = argb(lerp(from >> 16, to >> 16, fraction), lerp(from >> 8, to >> 8, fraction),
+                    lerp(from, to, fraction));
+        }
+        return new Colormap(name, table);
+    }
+
+    private static int lerp(int from, int to, int fraction) {
+        from &= 0xFF;
+        to &= 0xFF;
+        return from + ((to - from) * fraction + (SIZE - 1) / 2) / (SIZE - 1);
+    }
+
+    /**
+     * Reads a user palette: one color per line, "R G B" (0-255, GIMP .gpl style, anything
+     * after the third number is ignored) or "#RRGGBB"
+     * Blank lines, "#" comments and the GIMP header lines (GIMP Palette, Name:, Columns:)
+     * are skipped. 256 colors are used as they are, fewer are interpolated as evenly
+     * spaced stops from cold to hot.
+     */
+    static Colormap parse(String name, Reader source) throws IOException {
+        List<Integer> colors = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("GIMP") || line.startsWith("Name:") ||
+                line.startsWith("Columns:")) {
+                continue;
+            }
+            if (line.startsWith("#")) {
+                if (line.length() == 7 && line.substring(1).matches("[0-9A-Fa-f]{6}")) {
+                    colors.add(Integer.parseInt(line.substring(1), 16));
+                }
+                continue;
+            }
+
+            String[] parts = line.split("[\\s,]+");
+            if (parts.length < 3) {
+                throw new IOException(name + ":" + lineNumber + ": expected \"R G B\" or \"#RRGGBB\"");
+            }
+            int rgb = 0;
+            for (int i = 0; i < 3; i++) {
+                int channel;
+                try {
+                    channel = Integer.parseInt(parts[i]);
+                } catch (NumberFormatException e) {
+                    throw new IOException(name + ":" + lineNumber + ": not a number: " + parts[i]);
+                }
+                if (channel < 0 || channel > 255) {
+                    throw new IOException(name + ":" + lineNumber + ": channel out of range: " + channel);
+                }
+                rgb = (rgb << 8) | channel;
+            }
+            colors.add(rgb);
+        }
+
+        if (colors.size() < 2 || colors.size() > SIZE) {
+            throw new IOException(name + ": palette needs 2 to " + SIZE + " colors, found " + colors.size());
+        }
+        int[] stops = new int[colors.size()];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = colors.get(i);
+        }
+        return fromStops(name, stops);
+    }
+
+    private static int argb(int r, int g, int b) {
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static Colormap builtin(String name) {
+        int[] table = new int[SIZE];
+        for (int value = 0; value < SIZE; value++) {
+            int r, g, b;
+            switch (name) {
+                case "iron":
+                default:
+                    // Iron/Hot colormap: Black -> Blue -> Purple -> Red -> Yellow -> White
+                    if (value < 64) {
+                        r = 0;
+                        g = 0;
+                        b = value * 4;
+                    } else if (value < 128) {
+                        r = (value - 64) * 4;
+                        g = 0;
+                        b = 255;
+                    } else if (value < 192) {
+                        r = 255;
+                        g = 0;
+                        b = 255 - ((value - 128) * 4);
+                    } else {
+                        r = 255;
+                        g = (value - 192) * 4;
+                        b = (value - 192) * 2;
+                    }
+                    break;
+
+                case "rainbow":
+                    // Rainbow colormap: Blue -> Cyan -> Green -> Yellow -> Red
+                    if (value < 51) {
+                        r = 0;
+                        g = value * 5;
+                        b = 255;
+                    } else if (value < 102) {
+                        r = 0;
+                        g = 255;
+                        b = 255 - ((value - 51) * 5);
+                    } else if (value < 153) {
+                        r = (value - 102) * 5;
+                        g = 255;
+                        b = 0;
+                    } else if (value < 204) {
+                        r = 255;
+                        g = 255 - ((value - 153) * 2);
+                        b = 0;
+                    } else {
+                        r = 255;
+                        g = 255 - ((value - 204) * 5);
+                        b = 0;
+                    }
+                    break;
+
+                case "arctic":
+                    // Arctic colormap: Blue -> Cyan -> White
+                    if (value < 128) {
+                        r = 0;
+                        g = value * 2;
+                        b = 255;
+                    } else {
+                        r = (value - 128) * 2;
+                        g = 255;
+                        b = 255;
+                    }
+                    break;
+
+                case "white_hot":
+                case "grayscale":
+                    // Black -> Gray -> White
+                    r = value;
+                    g = value;
+                    b = value;
+                    break;
+            }
+
+            table[value] = argb(clamp(r), clamp(g), clamp(b));
+        }
+        return new Colormap(name, table);
+    }
+
+    private static int clamp(int channel) {
+        return Math.min(255, Math.max(0, channel));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Built-in and user colormaps plus the one currently on screen
+ * The active map is a single volatile reference to an immutable Colormap, so a change
+ * from the UI or socket thread is picked up atomically by the decode thread at the next
+ * frame; a frame is never drawn with half of one table and half of another.
+ */
+final class ColormapRegistry {
+
+    // User palettes live in <external files>/colormaps
+    static final String PALETTE_DIR = "colormaps";
+    static final String[] PALETTE_EXTENSIONS = {".gpl", ".pal", ".txt"};
+
+    private final List<Colormap> mColormaps = new ArrayList<>(Colormap.BUILTINS);
+    private volatile Colormap mActive = Colormap.IRON;
+
+    /**
+     * Loads every palette file in a directory, replacing user palettes of the same name
+     * Files that fail to parse are skipped; their errors are returned for logging.
+     */
+    List<String> loadDirectory(File dir) {
+        List<String> errors = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return errors;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = paletteName(file);
+            if (name == null) {
+                continue;
+            }
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                add(Colormap.parse(name, reader));
+            } catch (IOException | IllegalArgumentException e) {
+                errors.add(file.getName() + ": " + e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    // Palette name from the file name, null for files that are not palettes
+    private static String paletteName(File file) {
+        String fileName = file.getName();
+        for (String extension : PALETTE_EXTENSIONS) {
+            if (file.isFile() && fileName.endsWith(extension) && fileName.length() > extension.length()) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a user palette; built-in maps cannot be replaced
+     */
+    synchronized boolean add(Colormap colormap) {
+        for (int i = 0; i < mColormaps.size(); i++) {
+            Colormap existing = mColormaps.get(i);
+            if (existing.getName().equals(colormap.getName())) {
+                if (Colormap.BUILTINS.contains(existing)) {
+                    return false;
+                }
+                mColormaps.set(i, colormap);
+                if (mActive == existing) {
+                    mActive = colormap;
+                }
+                return true;
+            }
+        }
+        mColormaps.add(colormap);
+        return true;
+    }
+
+    /**
+     * Returns the named map, or null if there is none
+     */
+    synchronized Colormap get(String name) {
+        for (Colormap colormap : mColormaps) {
+            if (colormap.getName().equals(name)) {
+                return colormap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names of all maps, built-ins first
+     */
+    synchronized String[] getNames() {
+        String[] names = new String[mColormaps.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = mColormaps.get(i).getName();
+        }
+        return names;
+    }
+
+    Colormap getActive() {
+        return mActive;
+    }
+
+    /**
+     * Makes the named map active; returns false (active map unchanged) if it is unknown
+     */
+    boolean setActive(String name) {
+        Colormap colormap = get(name);
+        if (colormap == null) {
+            return false;
+        }
+        mActive = colormap;
+        return true;
+    }
+
+    /**
+     * Activates the map after the active one, wrapping around; returns it
+     */
+    synchronized Colormap activateNext() {
+        int index = mColormaps.indexOf(mActive);
+        Colormap next = mColormaps.get((index + 1) % mColormaps.size());
+        mActive = next;
+        return next;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.thermalarglass;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Object detection received from the server, bbox as {x1, y1, x2, y2} in frame pixels
+ */
+class Detection {
+    float[] bbox;
+    float confidence;
+    String className;
+
+    static Detection fromJSON(JSONObject json) throws JSONException {
+        Detection det = new Detection();
+        JSONArray bboxArray = json.getJSONArray("bbox");
+        det.bbox = new float[4];
+        for (int i = 0; i < 4; i++) {
+            det.bbox[i] = (float) bboxArray.getDouble(i);
+        }
+        det.confidence = (float) json.getDouble("confidence");
+        det.className = json.getString("class");
+        return det;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Maps an 8-bit source plane onto the display, computed once per source size and fit
+ * Colorizing a 640×512 I420 luma plane and letting Canvas squash it into 640×360 does LUT
+ * work for rows that are thrown away and distorts the aspect ratio. The projection keeps the
+ * aspect ratio (letterbox: whole scene with black bars, crop: fills the screen, cuts top and
+ * bottom) and precomputes which source row and column every visible display pixel samples
+ * (nearest neighbour). project() then colorizes only those pixels, straight into a
+ * display-sized buffer that is drawn 1:1. With a BandExecutor the visible rows are split
+ * into bands colorized in parallel. The mapping is immutable; project() is decode thread only.
+ */
+final class DisplayProjection {
+
+    enum Fit {
+        LETTERBOX,  // Whole frame visible, black bars
+        CROP;       // Fills the display, edges cut off
+
+        static Fit fromName(String name) {
+            for (Fit fit : values()) {
+                if (fit.name().equalsIgnoreCase(name)) {
+                    return fit;
+                }
+            }
+            return LETTERBOX;
+        }
+    }
+
+    /**
+     * Where a source image lands on the display for a fit, shared with DisplayScaler
+     * Every decoder places the image (and the overlay maps annotations onto it) with this one
+     * geometry, so projected and scaled frames always agree.
+     */
+    static final class Geometry {
+        // Display pixels per source pixel, and where the source origin lands (negative when cropped)
+        final float scale;
+        final float offsetX;
+        final float offsetY;
+
+        // Visible part of the image on the display, [left, right) × [top, bottom)
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+
+        Geometry(int sourceWidth, int sourceHeight, int displayWidth, int displayHeight, Fit fit) {
+            float scaleX = (float) displayWidth / sourceWidth;
+            float scaleY = (float) displayHeight / sourceHeight;
+            scale = fit == Fit.LETTERBOX ? Math.min(scaleX, scaleY) : Math.max(scaleX, scaleY);
+            int imageWidth = Math.round(sourceWidth * scale);
+            int imageHeight = Math.round(sourceHeight * scale);
+            offsetX = (displayWidth - imageWidth) / 2;
+            offsetY = (displayHeight - imageHeight) / 2;
+
+            left = Math.max(0, (int) offsetX);
+            top = Math.max(0, (int) offsetY);
+            right = Math.min(displayWidth, (int) offsetX + imageWidth);
+            bottom = Math.min(displayHeight, (int) offsetY + imageHeight);
+        }
+    }
+
+    private static final int BLACK = 0xFF000000;
+
+    private final int mSourceWidth;
+    private final int mSourceHeight;
+    private final int mDisplayWidth;
+    private final int mDisplayHeight;
+    private final Fit mFit;
+
+    private final Geometry mGeometry;
+    private final int[] mSourceColumns;     // Source x for each visible display column
+    private final int[] mSourceRows;        // Source y for each visible display row
+    private final int mFirstColumn;         // Source x of the first visible column
+    private final boolean mColumnsContiguous;  // 1:1 horizontally, no column lookup needed
+    private final boolean mBlock;           // 1:1 full-width rows: one copy, one flat loop
+
+    private final byte[] mRow;              // One source row (the whole visible block if mBlock), decode thread only
+
+    // Banded mode (decode thread only): the bands read the plane with absolute gets
+    private BandExecutor mExecutor;
+    private int mBandRows = BandExecutor.DEFAULT_BAND_ROWS;
+    private final BandExecutor.BandTask mBandTask = this::projectBand;
+    private ByteBuffer mPlane;
+    private int[] mColormap;
+    private int[] mDisplay;
+
+    DisplayProjection(int sourceWidth, int sourceHeight, int displayWidth, int displayHeight, Fit fit) {
+        mSourceWidth = sourceWidth;
+        mSourceHeight = sourceHeight;
+        mDisplayWidth = displayWidth;
+        mDisplayHeight = displayHeight;
+        mFit = fit;
+
+        mGeometry = new Geometry(sourceWidth, sourceHeight, displayWidth, displayHeight, fit);
+        mSourceColumns = samples(mGeometry.left, mGeometry.right, mGeometry.offsetX, sourceWidth);
+        mSourceRows = samples(mGeometry.top, mGeometry.bottom, mGeometry.offsetY, sourceHeight);
+        mFirstColumn = mSourceColumns.length > 0 ? mSourceColumns[0] : 0;
+        boolean contiguous = true;
+        for (int x = 0; x < mSourceColumns.length; x++) {
+            contiguous &= mSourceColumns[x] == mFirstColumn + x;
+        }
+        mColumnsContiguous = contiguous;
+        boolean block = contiguous && mSourceColumns.length == sourceWidth && displayWidth == sourceWidth;
+        for (int y = 0; y < mSourceRows.length; y++) {
+            block &= mSourceRows[y] == mSourceRows[0] + y;
+        }
+        mBlock = block;
+        mRow = new byte[block ? sourceWidth * mSourceRows.length : sourceWidth];
+    }
+
+    // Source coordinate sampled by each display coordinate in [from, to), pixel centres
+    private int[] samples(int from, int to, float offset, int sourceSize) {
+        int[] samples = new int[to - from];
+        for (int i = 0; i < samples.length; i++) {
+            int source = (int) ((from + i + 0.5f - offset) / mGeometry.scale);
+            samples[i] = Math.min(Math.max(source, 0), sourceSize - 1);
+        }
+        return samples;
+    }
+
+    Fit getFit() {
+        return mFit;
+    }
+
+    float getScale() {
+        return mGeometry.scale;
+    }
+
+    float getOffsetX() {
+        return mGeometry.offsetX;
+    }
+
+    float getOffsetY() {
+        return mGeometry.offsetY;
+    }
+
+    /**
+     * Source pixels colorized per frame, for comparison with sourceWidth * sourceHeight
+     */
+    int getSampledPixels() {
+        return mSourceColumns.length * mSourceRows.length;
+    }
+
+    /**
+     * Splits project() into bands of bandRows display rows on the executor; null for serial
+     */
+    void setExecutor(BandExecutor executor, int bandRows) {
+        mExecutor = executor;
+        mBandRows = Math.max(1, bandRows);
+    }
+
+    /**
+     * Colorizes the visible part of an 8-bit plane (row stride = source width) into display pixels
+     * Reads only the source rows that are shown; bars are painted black every frame since the
+     * output buffer is pooled. The plane's position is restored afterwards.
+     */
+    void project(ByteBuffer plane, int[] colormap, int[] display) {
+        int width = mDisplayWidth;
+        int[] columns = mSourceColumns;
+        int[] rows = mSourceRows;
+        byte[] row = mRow;
+        int right = mGeometry.left + columns.length;
+
+        Arrays.fill(display, 0, mGeometry.top * width, BLACK);
+        Arrays.fill(display, (mGeometry.top + rows.length) * width, mDisplayHeight * width, BLACK);
+
+        BandExecutor executor = mExecutor;
+        if (executor != null && executor.getThreads() > 1) {
+            mPlane = plane;
+            mColormap = colormap;
+            mDisplay = display;
+            try {
+                executor.run(rows.length, mBandRows, mBandTask);
+            } finally {
+                mPlane = null;
+                mColormap = null;
+                mDisplay = null;
+            }
+            return;
+        }
+
+        int position = plane.position();
+        if (mBlock) {
+            // Cropped vertically only: the visible rows are one contiguous run in both buffers
+            int count = row.length;
+            int out = mGeometry.top * width;
+            plane.position(rows.length > 0 ? rows[0] * mSourceWidth : 0);
+            plane.get(row, 0, count);
+            for (int i = 0; i < count; i++) {
+                display[out + i] = colormap[row[i] & 0xFF];
+            }
+            plane.position(position);
+            return;
+        }
+
+        int loadedRow = -1;
+        for (int y = 0; y < rows.length; y++) {
+            if (rows[y] != loadedRow) {
+                loadedRow = rows[y];
+                plane.position(loadedRow * mSourceWidth);
+                plane.get(row, 0, mSourceWidth);
+            }
+
+            int out = (mGeometry.top + y) * width;
+            Arrays.fill(display, out, out + mGeometry.left, BLACK);
+            Arrays.fill(display, out + right, out + width, BLACK);
+            out += mGeometry.left;
+            if (mColumnsContiguous) {
+                int first = mFirstColumn;
+                for (int x = 0; x < columns.length; x++) {
+                    display[out + x] = colormap[row[first + x] & 0xFF];
+                }
+            } else {
+                for (int x = 0; x < columns.length; x++) {
+                    display[out + x] = colormap[row[columns[x]] & 0xFF];
+                }
+            }
+        }
+        plane.position(position);
+    }
+
+    // Visible rows [fromRow, toRow) of a band, read with absolute gets so bands can share the plane
+    private void projectBand(int band, int fromRow, int toRow) {
+        ByteBuffer plane = mPlane;
+        int[] colormap = mColormap;
+        int[] display = mDisplay;
+        int width = mDisplayWidth;
+        int[] columns = mSourceColumns;
+        int right = mGeometry.left + columns.length;
+        for (int y = fromRow; y < toRow; y++) {
+            int source = mSourceRows[y] * mSourceWidth;
+            int out = (mGeometry.top + y) * width;
+            Arrays.fill(display, out, out + mGeometry.left, BLACK);
+            Arrays.fill(display, out + right, out + width, BLACK);
+            out += mGeometry.left;
+            if (mColumnsContiguous) {
+                source += mFirstColumn;
+                for (int x = 0; x < columns.length; x++) {
+                    display[out + x] = colormap[plane.get(source + x) & 0xFF];
+                }
+            } else {
+                for (int x = 0; x < columns.length; x++) {
+                    display[out + x] = colormap[plane.get(source + columns[x]) & 0xFF];
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %d×%d -> %d×%d at %.3fx, %d of %d pixels sampled",
+                mFit.name().toLowerCase(Locale.US), mSourceWidth, mSourceHeight, mDisplayWidth, mDisplayHeight,
+                mGeometry.scale, getSampledPixels(), mSourceWidth * mSourceHeight);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.thermalarglass;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Scales decoded ARGB pixels onto the display, with tables computed once per source size and fit
+ * Stretching a 320×256 bitmap to 640×360 with Canvas samples nearest-neighbour and squashes
+ * the 5:4 sensor into 16:9. The scaler keeps the aspect ratio with DisplayProjection's own
+ * Geometry (letterbox or crop) and precomputes, for every visible display column and
+ * row, the source index and an 8-bit fixed-point weight. BILINEAR blends the four neighbours,
+ * red/blue and green packed two channels per multiply; each source row is interpolated
+ * horizontally once and reused by the display rows between it and the next. NEAREST is a
+ * table lookup with repeated rows copied. The output is a display-sized buffer owned by the
+ * scaler, so bars are painted once and the bitmap is drawn 1:1. Decode thread only.
+ */
+final class DisplayScaler {
+
+    enum Mode {
+        BILINEAR,   // Smooth, 4 taps per pixel
+        NEAREST;    // Blocky, one lookup per pixel
+
+        static Mode fromName(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return BILINEAR;
+        }
+    }
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    private final int mSourceWidth;
+    private final int mSourceHeight;
+    private final int mDisplayWidth;
+    private final int mDisplayHeight;
+    private final DisplayProjection.Fit mFit;
+    private final Mode mMode;
+
+    private final DisplayProjection.Geometry mGeometry;
+    private final int[] mColumns;           // Source x (left tap) for each visible display column
+    private final int[] mColumnWeights;     // Weight of the right tap, 0..256
+    private final int[] mRows;              // Source y (upper tap) for each visible display row
+    private final int[] mRowWeights;        // Weight of the lower tap, 0..256
+
+    private final int[] mDisplay;           // Output, bars painted once
+    private int[] mUpper;                   // Source rows interpolated horizontally (bilinear)
+    private int[] mLower;
+    private int mUpperRow = -1;
+    private int mLowerRow = -1;
+
+    DisplayScaler(int sourceWidth, int sourceHeight, int displayWidth, int displayHeight,
+            DisplayProjection.Fit fit, Mode mode) {
+        if (sourceWidth < 2 || sourceHeight < 2) {
+            throw new IllegalArgumentException("Source too small to scale: " + sourceWidth + "×" + sourceHeight);
+        }
+        mSourceWidth = sourceWidth;
+        mSourceHeight = sourceHeight;
+        mDisplayWidth = displayWidth;
+        mDisplayHeight = displayHeight;
+        mFit = fit;
+        mMode = mode;
+
+        mGeometry = new DisplayProjection.Geometry(sourceWidth, sourceHeight, displayWidth, displayHeight, fit);
+        mColumns = new int[mGeometry.right - mGeometry.left];
+        mColumnWeights = new int[mColumns.length];
+        mRows = new int[mGeometry.bottom - mGeometry.top];
+        mRowWeights = new int[mRows.length];
+        taps(mGeometry.left, mGeometry.offsetX, sourceWidth, mColumns, mColumnWeights);
+        taps(mGeometry.top, mGeometry.offsetY, sourceHeight, mRows, mRowWeights);
+
+        mDisplay = new int[displayWidth * displayHeight];
+        Arrays.fill(mDisplay, BLACK);
+        if (mode == Mode.BILINEAR) {
+            mUpper = new int[mColumns.length];
+            mLower = new int[mColumns.length];
+        }
+    }
+
+    // Source taps for each display coordinate from 'from' on, pixel centres mapped to pixel centres
+    private void taps(int from, float offset, int sourceSize, int[] indices, int[] weights) {
+        for (int i = 0; i < indices.length; i++) {
+            float centre = (from + i + 0.5f - offset) / mGeometry.scale;
+            if (mMode == Mode.NEAREST) {
+                indices[i] = Math.min(Math.max((int) centre, 0), sourceSize - 1);
+                continue;
+            }
+            int position = Math.max(0, Math.round((centre - 0.5f) * WEIGHT_ONE));
+            int index = position >> WEIGHT_BITS;
+            int weight = position & (WEIGHT_ONE - 1);
+            if (index >= sourceSize - 1) {
+                // Past the last centre: all of the last pixel, still two valid taps
+                index = sourceSize - 2;
+                weight = WEIGHT_ONE;
+            }
+            indices[i] = index;
+            weights[i] = weight;
+        }
+    }
+
+    boolean matches(int sourceWidth, int sourceHeight, DisplayProjection.Fit fit, Mode mode) {
+        return sourceWidth == mSourceWidth && sourceHeight == mSourceHeight && fit == mFit && mode == mMode;
+    }
+
+    Mode getMode() {
+        return mMode;
+    }
+
+    int getSourceWidth() {
+        return mSourceWidth;
+    }
+
+    int getSourceHeight() {
+        return mSourceHeight;
+    }
+
+    float getScale() {
+        return mGeometry.scale;
+    }
+
+    float getOffsetX() {
+        return mGeometry.offsetX;
+    }
+
+    float getOffsetY() {
+        return mGeometry.offsetY;
+    }
+
+    /**
+     * Scales source pixels (row stride = source width) and returns the display-sized buffer
+     * The buffer is the same on every call; it is only valid until the next one.
+     */
+    int[] scale(int[] source) {
+        if (mMode == Mode.NEAREST) {
+            scaleNearest(source);
+        } else {
+            scaleBilinear(source);
+        }
+        return mDisplay;
+    }
+
+    private void scaleNearest(int[] source) {
+        int[] display = mDisplay;
+        int[] columns = mColumns;
+        int[] rows = mRows;
+        int width = mDisplayWidth;
+        int visible = columns.length;
+        for (int y = 0; y < rows.length; y++) {
+            int out = (mGeometry.top + y) * width + mGeometry.left;
+            if (y > 0 && rows[y] == rows[y - 1]) {
+                System.arraycopy(display, out - width, display, out, visible);
+                continue;
+            }
+            int in = rows[y] * mSourceWidth;
+            for (int x = 0; x < visible; x++) {
+                display[out + x] = source[in + columns[x]];
+            }
+        }
+    }
+
+    private void scaleBilinear(int[] source) {
+        int[] display = mDisplay;
+        int[] rows = mRows;
+        int[] rowWeights = mRowWeights;
+        int width = mDisplayWidth;
+        int visible = mColumns.length;
+        mUpperRow = -1;
+        mLowerRow = -1;
+        for (int y = 0; y < rows.length; y++) {
+            int row = rows[y];
+            int weight = rowWeights[y];
+            loadRows(source, row, weight != 0);
+
+            int out = (mGeometry.top + y) * width + mGeometry.left;
+            int[] upper = mUpper;
+            if (weight == 0) {
+                System.arraycopy(upper, 0, display, out, visible);
+                continue;
+            }
+            int[] lower = mLower;
+            for (int x = 0; x < visible; x++) {
+                display[out + x] = blend(upper[x], lower[x], weight);
+            }
+        }
+    }
+
+    // Makes mUpper source row 'row' and, if needed, mLower the row below, reusing what is loaded
+    private void loadRows(int[] source, int row, boolean needLower) {
+        if (mUpperRow != row) {
+            if (mLowerRow == row) {
+                int[] swap = mUpper;
+                mUpper = mLower;
+                mLower = swap;
+                mUpperRow = row;
+                mLowerRow = -1;
+            } else {
+                interpolateRow(source, row, mUpper);
+                mUpperRow = row;
+            }
+        }
+        if (needLower && mLowerRow != row + 1) {
+            interpolateRow(source, row + 1, mLower);
+            mLowerRow = row + 1;
+        }
+    }
+
+    private void interpolateRow(int[] source, int row, int[] out) {
+        int[] columns = mColumns;
+        int[] weights = mColumnWeights;
+        int in = row * mSourceWidth;
+        for (int x = 0; x < out.length; x++) {
+            int left = in + columns[x];
+            out[x] = blend(source[left], source[left + 1], weights[x]);
+        }
+    }
+
+    // a + (b - a) * weight / 256; red and blue share one multiply, a borrow between them only
+    // reaches the bits masked off. Alpha is opaque.
+    private static int blend(int a, int b, int weight) {
+        int redBlue = a & 0xFF00FF;
+        int green = a & 0xFF00;
+        redBlue += ((b & 0xFF00FF) - redBlue) * weight >> WEIGHT_BITS;
+        green += ((b & 0xFF00) - green) * weight >> WEIGHT_BITS;
+        return BLACK | (redBlue & 0xFF00FF) | (green & 0xFF00);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %s %d×%d -> %d×%d at %.3fx, %d×%d visible",
+                mMode.name().toLowerCase(Locale.US), mFit.name().toLowerCase(Locale.US), mSourceWidth,
+                mSourceHeight, mDisplayWidth, mDisplayHeight, mGeometry.scale, mColumns.length, mRows.length);
+    }
+}
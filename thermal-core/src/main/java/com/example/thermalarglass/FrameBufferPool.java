@@ -0,0 +1,154 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed pool of preallocated direct frame buffers shared by USB capture and its consumers
+ * Buffers are reference counted: capture owns one while assembling, hands it to the frame
+ * callback, and it returns to the pool once every retain() has been matched by a release().
+ * Acquiring never blocks or allocates; when every buffer is busy capture drops the frame.
+ */
+public class FrameBufferPool {
+
+    // Triple buffering: one being captured, one being consumed, one spare
+    public static final int DEFAULT_POOL_SIZE = 3;
+    public static final int MIN_POOL_SIZE = 2;
+
+    private final Frame[] mFrames;
+    private final int mCapacity;
+
+    /**
+     * A pooled frame buffer
+     * The buffer's position is 0 and its limit is the frame length when it is delivered.
+     * Consumers that share a frame across threads should use absolute reads or duplicate().
+     */
+    public static final class Frame {
+        private final ByteBuffer mBuffer;
+        private final AtomicInteger mRefCount = new AtomicInteger(0);
+        private final BosonTelemetry mTelemetry = new BosonTelemetry();
+        private final FrameStats mStats = new FrameStats();
+
+        private long mSequence;
+        private long mTimestampNanos;
+        private long mPts = -1;
+
+        private Frame(int capacity) {
+            mBuffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        public ByteBuffer buffer() {
+            return mBuffer;
+        }
+
+        public int length() {
+            return mBuffer.limit();
+        }
+
+        // Capture sequence number, counts dropped frames too
+        public long sequence() {
+            return mSequence;
+        }
+
+        // System.nanoTime() when the last payload of this frame arrived
+        public long timestampNanos() {
+            return mTimestampNanos;
+        }
+
+        // Presentation time stamp from the UVC payload header (device clock), -1 if none
+        public long pts() {
+            return mPts;
+        }
+
+        // Telemetry rows of this frame, invalid if the camera sent none
+        public BosonTelemetry telemetry() {
+            return mTelemetry;
+        }
+
+        // Y16 statistics, filled by the decode stage; invalid until then
+        public FrameStats stats() {
+            return mStats;
+        }
+
+        /**
+         * Keeps the frame past the callback; must be paired with release()
+         */
+        public Frame retain() {
+            if (mRefCount.getAndIncrement() <= 0) {
+                mRefCount.decrementAndGet();
+                throw new IllegalStateException("Frame already returned to pool");
+            }
+            return this;
+        }
+
+        /**
+         * Drops one reference; the buffer returns to the pool when the last one is released
+         */
+        public void release() {
+            int refs = mRefCount.decrementAndGet();
+            if (refs < 0) {
+                mRefCount.incrementAndGet();
+                throw new IllegalStateException("Frame released more times than retained");
+            }
+        }
+
+        // Claims a free buffer for capture (refcount 0 -> 1)
+        private boolean tryClaim() {
+            return mRefCount.compareAndSet(0, 1);
+        }
+
+        void stamp(long sequence, long timestampNanos) {
+            mSequence = sequence;
+            mTimestampNanos = timestampNanos;
+        }
+
+        void setPts(long pts) {
+            mPts = pts;
+        }
+    }
+
+    public FrameBufferPool(int size, int capacity) {
+        if (size < MIN_POOL_SIZE) {
+            throw new IllegalArgumentException("Frame pool needs at least " + MIN_POOL_SIZE + " buffers");
+        }
+        mCapacity = capacity;
+        mFrames = new Frame[size];
+        for (int i = 0; i < size; i++) {
+            mFrames[i] = new Frame(capacity);
+        }
+    }
+
+    /**
+     * Returns a free buffer owned by the caller (cleared), or null if every buffer is busy
+     */
+    Frame tryAcquire() {
+        for (Frame frame : mFrames) {
+            if (frame.tryClaim()) {
+                frame.mBuffer.clear();
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    public int getSize() {
+        return mFrames.length;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Number of buffers not held by capture or any consumer (racy snapshot, for metrics)
+     */
+    public int getFreeCount() {
+        int free = 0;
+        for (Frame frame : mFrames) {
+            if (frame.mRefCount.get() == 0) {
+                free++;
+            }
+        }
+        return free;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts one raw frame of a single UVC pixel format into ARGB display pixels
+ * Each decoder describes its format (FourCC, exact frame sizes, detection signature and
+ * where the telemetry rows are) so FrameDecoders can pick the right one when a stream starts;
+ * the pipeline then calls that one decoder for every frame of the stream. Decoders own their
+ * output pixels and reuse them across frames. decode() is decode thread only.
+ */
+interface FrameDecoder {
+
+    /**
+     * Short format name reported to the server ("Y16", "I420", ...)
+     */
+    String getName();
+
+    /**
+     * FourCC of the UVC format this decoder handles, as UvcDescriptors.Format.fourCC() reports it
+     */
+    String getFourCC();
+
+    /**
+     * Image width and height in pixels, telemetry rows excluded; 0 if carried by the stream (MJPEG)
+     */
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Exact frame sizes in bytes, with and without telemetry; empty for variable-size formats
+     */
+    int[] getFrameSizes();
+
+    /**
+     * Detection signature: whether a frame of this length (position 0) is in this format
+     * Uses absolute reads only.
+     */
+    boolean matches(ByteBuffer frame, int length);
+
+    /**
+     * Byte offset of the first telemetry row in a frame of this length, or -1 if it has none
+     */
+    int getTelemetryOffset(int length);
+
+    /**
+     * True if pixels are 16-bit counts (decode() then takes a 65536-entry AGC table and fills stats)
+     */
+    boolean isRadiometric();
+
+    /**
+     * Projection of the output onto the display, or null if the output is at source resolution
+     */
+    DisplayProjection getProjection();
+
+    /**
+     * Aspect handling for decoders that project onto the display; ignored by the others
+     */
+    void setDisplayFit(DisplayProjection.Fit fit);
+
+    /**
+     * Splits pixel work into bands of bandRows on the executor where supported; null for serial
+     */
+    void setExecutor(BandExecutor executor, int bandRows);
+
+    /**
+     * Decodes a frame (position 0, length bytes) into this decoder's ARGB pixels
+     * table maps samples to colors: the AGC table for radiometric formats, a 256-entry colormap
+     * otherwise (unused by color formats). Returns the pixels, getOutputWidth() by
+     * getOutputHeight(), or null if the frame could not be decoded.
+     */
+    int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats);
+
+    /**
+     * Size of the pixels returned by the last decode()
+     */
+    int getOutputWidth();
+
+    int getOutputHeight();
+}
@@ -0,0 +1,195 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Registry of the frame decoders, in detection priority order
+ * resolve() picks the decoder for a stream from its first frame: the negotiated FourCC
+ * settles formats that share a frame size (YUYV and Y16 at 320×256, NV12 and I420), then the
+ * first decoder whose signature matches wins. The exact frame sizes of the decoders, with the
+ * decoder and telemetry offset of each, are flattened into sorted tables so the assembler
+ * can delimit and check frames without knowing any format. The assembler gets forFormat():
+ * only the sizes of the negotiated format, since a smaller size of another format would cut
+ * a frame short, or the Boson formats when the format is unknown. Immutable.
+ */
+final class FrameDecoders {
+
+    private final List<FrameDecoder> mDecoders;
+    private final List<FrameDecoder> mFallback;   // Formats assumed when the negotiated one is unknown
+
+    // Exact frame sizes, ascending, with the first decoder declaring each
+    private final int[] mSizes;
+    private final FrameDecoder[] mSizeDecoders;
+    private final int[] mTelemetryOffsets;
+
+    FrameDecoders(List<FrameDecoder> decoders, List<FrameDecoder> fallback) {
+        mDecoders = Collections.unmodifiableList(new ArrayList<>(decoders));
+        mFallback = Collections.unmodifiableList(new ArrayList<>(fallback));
+
+        int count = 0;
+        for (FrameDecoder decoder : mDecoders) {
+            count += decoder.getFrameSizes().length;
+        }
+        int[] sizes = new int[count];
+        int n = 0;
+        for (FrameDecoder decoder : mDecoders) {
+            for (int size : decoder.getFrameSizes()) {
+                sizes[n++] = size;
+            }
+        }
+        Arrays.sort(sizes);
+        int unique = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (unique == 0 || sizes[unique - 1] != sizes[i]) {
+                sizes[unique++] = sizes[i];
+            }
+        }
+        mSizes = Arrays.copyOf(sizes, unique);
+        mSizeDecoders = new FrameDecoder[unique];
+        mTelemetryOffsets = new int[unique];
+        for (int i = 0; i < unique; i++) {
+            for (FrameDecoder decoder : mDecoders) {
+                if (declares(decoder, mSizes[i])) {
+                    mSizeDecoders[i] = decoder;
+                    mTelemetryOffsets[i] = decoder.getTelemetryOffset(mSizes[i]);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean declares(FrameDecoder decoder, int size) {
+        for (int frameSize : decoder.getFrameSizes()) {
+            if (frameSize == size) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decoders for the formats Boson and other UVC thermal cores send, after any given first
+     * (MJPEG needs the platform decoder, so the app passes it in)
+     */
+    static FrameDecoders standard(int displayWidth, int displayHeight, FrameDecoder... first) {
+        List<FrameDecoder> decoders = new ArrayList<>(Arrays.asList(first));
+        decoders.add(new Y16FrameDecoder(320, 256));
+        decoders.add(LumaPlaneFrameDecoder.i420(640, 512, displayWidth, displayHeight));
+        List<FrameDecoder> boson = new ArrayList<>(decoders);
+        decoders.add(new YuyvFrameDecoder(256, 192));
+        decoders.add(new YuyvFrameDecoder(320, 256));
+        decoders.add(new YuyvFrameDecoder(640, 512));
+        decoders.add(LumaPlaneFrameDecoder.nv12(640, 512, displayWidth, displayHeight));
+        decoders.add(new Rgb24FrameDecoder(320, 256));
+        decoders.add(new Rgb24FrameDecoder(640, 512));
+        return new FrameDecoders(decoders, boson);
+    }
+
+    /**
+     * Decoders of one stream's format (FourCC from the negotiation), or the fallback formats
+     * if the FourCC is null or not registered
+     */
+    FrameDecoders forFormat(String fourCC) {
+        List<FrameDecoder> decoders = new ArrayList<>();
+        for (FrameDecoder decoder : mDecoders) {
+            if (decoder.getFourCC().equals(fourCC)) {
+                decoders.add(decoder);
+            }
+        }
+        if (decoders.isEmpty()) {
+            decoders = mFallback;
+        }
+        return new FrameDecoders(decoders, decoders);
+    }
+
+    List<FrameDecoder> getDecoders() {
+        return mDecoders;
+    }
+
+    /**
+     * Decoder for a stream, from its negotiated FourCC (null if unknown) and first frame; null if none matches
+     */
+    FrameDecoder resolve(String fourCC, ByteBuffer frame, int length) {
+        if (fourCC != null) {
+            for (FrameDecoder decoder : mDecoders) {
+                if (decoder.getFourCC().equals(fourCC) && decoder.matches(frame, length)) {
+                    return decoder;
+                }
+            }
+        }
+        for (FrameDecoder decoder : mDecoders) {
+            if (decoder.matches(frame, length)) {
+                return decoder;
+            }
+        }
+        return null;
+    }
+
+    void setDisplayFit(DisplayProjection.Fit fit) {
+        for (FrameDecoder decoder : mDecoders) {
+            decoder.setDisplayFit(fit);
+        }
+    }
+
+    /**
+     * True if some decoder takes frames of exactly this many bytes
+     */
+    boolean isFrameSize(int size) {
+        return Arrays.binarySearch(mSizes, size) >= 0;
+    }
+
+    /**
+     * Largest exact frame size; anything longer without a JPEG signature is corrupt
+     */
+    int getMaxFrameSize() {
+        return mSizes.length > 0 ? mSizes[mSizes.length - 1] : 0;
+    }
+
+    /**
+     * Telemetry row offset for a frame of this size, or -1 if frames of this size carry none
+     */
+    int getTelemetryOffset(int size) {
+        int index = Arrays.binarySearch(mSizes, size);
+        return index >= 0 ? mTelemetryOffsets[index] : -1;
+    }
+
+    /**
+     * Log suffix naming the format of an exact frame size, e.g. " (Y16+telem, 320×258)"
+     */
+    String describeFrameSize(int size) {
+        int index = Arrays.binarySearch(mSizes, size);
+        if (index < 0) {
+            return null;
+        }
+        FrameDecoder decoder = mSizeDecoders[index];
+        boolean telemetry = mTelemetryOffsets[index] >= 0;
+        return String.format(Locale.US, " (%s%s, %d×%d)", decoder.getName(), telemetry ? "+telem" : "",
+                decoder.getWidth(), decoder.getHeight() + (telemetry ? 2 : 0));
+    }
+
+    /**
+     * Expected sizes of all formats, for "unknown format" logs
+     */
+    String describeFormats() {
+        StringBuilder builder = new StringBuilder();
+        for (FrameDecoder decoder : mDecoders) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(decoder.getName());
+            int[] sizes = decoder.getFrameSizes();
+            if (sizes.length == 0) {
+                builder.append(" (variable)");
+            } else {
+                builder.append(' ').append(decoder.getWidth()).append('×').append(decoder.getHeight())
+                        .append(' ').append(Arrays.toString(sizes));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.thermalarglass;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-slot handoff that always holds the newest item
+ * The producer never waits: posting replaces an item the consumer has not taken yet, which is
+ * then released and counted as skipped. Neither side takes a lock. Every posted item is either
+ * taken or released exactly once, also when it arrives after close().
+ */
+class FrameMailbox<T> {
+
+    private final AtomicReference<T> mSlot = new AtomicReference<>();
+    private final FrameStage.Releaser<T> mReleaser;
+    private volatile boolean mOpen = true;
+
+    // Single writer each: the producer counts posts and skips, the consumer takes
+    private volatile long mPostedCount = 0;
+    private volatile long mSkippedCount = 0;
+    private volatile long mTakenCount = 0;
+
+    FrameMailbox(FrameStage.Releaser<T> releaser) {
+        mReleaser = releaser;
+    }
+
+    /**
+     * Hands an item to the mailbox, which now owns it
+     * Returns false if the mailbox is closed and the item was released.
+     */
+    boolean post(T item) {
+        if (!mOpen) {
+            mReleaser.release(item);
+            return false;
+        }
+        mPostedCount++;
+        T stale = mSlot.getAndSet(item);
+        if (stale != null) {
+            mSkippedCount++;
+            mReleaser.release(stale);
+        }
+        // Lost a race with close(): nobody will take it
+        if (!mOpen) {
+            drain();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The newest item, now owned by the caller, or null if nothing arrived since the last take
+     */
+    T take() {
+        T item = mSlot.getAndSet(null);
+        if (item != null) {
+            mTakenCount++;
+        }
+        return item;
+    }
+
+    boolean isEmpty() {
+        return mSlot.get() == null;
+    }
+
+    /**
+     * Releases the pending item; later posts are released straight away
+     */
+    void close() {
+        mOpen = false;
+        drain();
+    }
+
+    private void drain() {
+        T item = mSlot.getAndSet(null);
+        if (item != null) {
+            mReleaser.release(item);
+        }
+    }
+
+    long getPostedCount() {
+        return mPostedCount;
+    }
+
+    // Items replaced by a newer one before the consumer got to them
+    long getSkippedCount() {
+        return mSkippedCount;
+    }
+
+    long getTakenCount() {
+        return mTakenCount;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.thermalarglass;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * One stage of the frame-processing pipeline: a worker thread fed by a bounded queue
+ * The producer never waits on a DROP_OLDEST stage, the oldest queued item is discarded
+ * instead. LOSSLESS stages make the producer wait for space so no item is lost.
+ * Every item handed to the stage is passed to the releaser exactly once, whether it was
+ * processed or dropped, so pooled frames always find their way back.
+ */
+class FrameStage<T> {
+
+    enum Policy {
+        DROP_OLDEST,    // Latest data wins (render, network)
+        LOSSLESS        // Producer waits for space (recording)
+    }
+
+    interface Handler<T> {
+        void process(T item) throws Exception;
+    }
+
+    interface Releaser<T> {
+        void release(T item);
+    }
+
+    interface ErrorListener {
+        void onStageError(FrameStage<?> stage, Exception e);
+    }
+
+    // Weight of the newest sample in the smoothed service time (1/16)
+    private static final int SERVICE_TIME_SMOOTHING_SHIFT = 4;
+
+    private final String mName;
+    private final int mCapacity;
+    private final Policy mPolicy;
+    private final Handler<T> mHandler;
+    private final Releaser<T> mReleaser;
+
+    private final ArrayDeque<T> mQueue;
+    private final int mTraceEvent;
+    private final int mDropTraceEvent;
+    private volatile ErrorListener mErrorListener;
+    private Thread mThread;
+    private boolean mRunning = false;
+
+    // Statistics, guarded by the queue lock except where volatile
+    private long mOfferedCount = 0;
+    private long mDroppedCount = 0;
+    private int mPeakQueueDepth = 0;
+    private volatile long mProcessedCount = 0;
+    private volatile long mErrorCount = 0;
+    private volatile long mServiceTimeNanos = 0;
+    private volatile long mMaxServiceTimeNanos = 0;
+
+    FrameStage(String name, int capacity, Policy policy, Handler<T> handler, Releaser<T> releaser) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Stage capacity must be at least 1");
+        }
+        mName = name;
+        mCapacity = capacity;
+        mPolicy = policy;
+        mHandler = handler;
+        mReleaser = releaser;
+        mQueue = new ArrayDeque<>(capacity);
+        mTraceEvent = FrameTracer.event(name);
+        mDropTraceEvent = FrameTracer.event(name + " drop");
+    }
+
+    /**
+     * Receives exceptions thrown by the handler, on the stage thread
+     */
+    void setErrorListener(ErrorListener listener) {
+        mErrorListener = listener;
+    }
+
+    /**
+     * Starts the worker thread
+     */
+    synchronized void start() {
+        if (mThread != null) {
+            return;
+        }
+        mRunning = true;
+        mThread = new Thread(this::run, "GlassAR-" + mName);
+        mThread.start();
+    }
+
+    /**
+     * Stops the worker after the item in progress and releases everything still queued
+     */
+    void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (mThread == null) {
+                return;
+            }
+            mRunning = false;
+            thread = mThread;
+            mThread = null;
+            notifyAll();
+        }
+
+        try {
+            thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            while (!mQueue.isEmpty()) {
+                mReleaser.release(mQueue.poll());
+            }
+        }
+    }
+
+    /**
+     * Hands an item to the stage, which now owns it
+     * Returns false if the item was not queued (stage stopped or producer interrupted).
+     */
+    boolean offer(T item) {
+        T dropped = null;
+        synchronized (this) {
+            if (!mRunning) {
+                mReleaser.release(item);
+                return false;
+            }
+            mOfferedCount++;
+
+            if (mQueue.size() >= mCapacity) {
+                if (mPolicy == Policy.DROP_OLDEST) {
+                    dropped = mQueue.poll();
+                    mDroppedCount++;
+                } else {
+                    while (mRunning && mQueue.size() >= mCapacity) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            mDroppedCount++;
+                            mReleaser.release(item);
+                            return false;
+                        }
+                    }
+                    if (!mRunning) {
+                        mReleaser.release(item);
+                        return false;
+                    }
+                }
+            }
+
+            mQueue.add(item);
+            mPeakQueueDepth = Math.max(mPeakQueueDepth, mQueue.size());
+            notifyAll();
+        }
+
+        // Release outside the lock, the releaser may be arbitrary user code
+        if (dropped != null) {
+            FrameTracer.instant(mDropTraceEvent, mDroppedCount, 0);
+            mReleaser.release(dropped);
+        }
+        return true;
+    }
+
+    /**
+     * Hands an item to the stage unless its queue is full; never waits, whatever the policy
+     * A refused item is released and counted as dropped. Returns false if it was not queued.
+     */
+    boolean tryOffer(T item) {
+        long dropped = -1;
+        synchronized (this) {
+            if (mRunning) {
+                mOfferedCount++;
+                if (mQueue.size() < mCapacity) {
+                    mQueue.add(item);
+                    mPeakQueueDepth = Math.max(mPeakQueueDepth, mQueue.size());
+                    notifyAll();
+                    return true;
+                }
+                dropped = ++mDroppedCount;
+            }
+        }
+
+        // Release outside the lock, the releaser may be arbitrary user code
+        if (dropped >= 0) {
+            FrameTracer.instant(mDropTraceEvent, dropped, 0);
+        }
+        mReleaser.release(item);
+        return false;
+    }
+
+    private void run() {
+        while (true) {
+            T item;
+            synchronized (this) {
+                while (mRunning && mQueue.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        mRunning = false;
+                    }
+                }
+                if (!mRunning) {
+                    return;
+                }
+                item = mQueue.poll();
+                // Wake a LOSSLESS producer waiting for space
+                notifyAll();
+            }
+
+            long count = mProcessedCount;
+            long start = System.nanoTime();
+            FrameTracer.begin(mTraceEvent, count);
+            try {
+                mHandler.process(item);
+            } catch (Exception e) {
+                mErrorCount++;
+                ErrorListener listener = mErrorListener;
+                if (listener != null) {
+                    listener.onStageError(this, e);
+                }
+            } finally {
+                mReleaser.release(item);
+            }
+            FrameTracer.end(mTraceEvent, count);
+            recordServiceTime(System.nanoTime() - start);
+        }
+    }
+
+    private void recordServiceTime(long nanos) {
+        long smoothed = mServiceTimeNanos;
+        mServiceTimeNanos = smoothed == 0 ? nanos :
+                smoothed + ((nanos - smoothed) >> SERVICE_TIME_SMOOTHING_SHIFT);
+        if (nanos > mMaxServiceTimeNanos) {
+            mMaxServiceTimeNanos = nanos;
+        }
+        mProcessedCount++;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    Policy getPolicy() {
+        return mPolicy;
+    }
+
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    synchronized int getQueueDepth() {
+        return mQueue.size();
+    }
+
+    synchronized int getPeakQueueDepth() {
+        return mPeakQueueDepth;
+    }
+
+    synchronized long getOfferedCount() {
+        return mOfferedCount;
+    }
+
+    synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    long getProcessedCount() {
+        return mProcessedCount;
+    }
+
+    long getErrorCount() {
+        return mErrorCount;
+    }
+
+    // Smoothed time spent in the handler per item
+    float getServiceTimeMs() {
+        return mServiceTimeNanos / 1e6f;
+    }
+
+    float getMaxServiceTimeMs() {
+        return mMaxServiceTimeNanos / 1e6f;
+    }
+
+    /**
+     * One-line summary for status logs
+     */
+    String describe() {
+        return String.format(Locale.US, "%s: depth %d/%d (peak %d), %d done, %d dropped, %.1f ms (max %.1f)",
+                mName, getQueueDepth(), mCapacity, getPeakQueueDepth(), getProcessedCount(),
+                getDroppedCount(), getServiceTimeMs(), getMaxServiceTimeMs());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.thermalarglass;
+
+import java.util.Arrays;
+
+/**
+ * Radiometric statistics of one Y16 frame, in raw sensor counts
+ * Filled by Y16Kernel in the same pass that colorizes the frame. Each pooled frame owns one
+ * instance that is overwritten in place, like its telemetry. Values are only meaningful while
+ * isValid(); telemetry rows are not included.
+ */
+public final class FrameStats {
+
+    // Histogram resolution: 16 raw counts per bin over the full 16-bit range
+    public static final int HISTOGRAM_SHIFT = 4;
+    public static final int HISTOGRAM_BINS = 65536 >> HISTOGRAM_SHIFT;
+
+    private final int[] mHistogram = new int[HISTOGRAM_BINS];
+
+    private boolean mValid = false;
+    private int mWidth;
+    private int mMin;
+    private int mMax;
+    private int mMinIndex;
+    private int mMaxIndex;
+    private int mCenter;
+    private long mSum;
+    private int mCount;
+
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Clears the histogram before a new frame is accumulated
+     */
+    int[] resetHistogram() {
+        Arrays.fill(mHistogram, 0);
+        return mHistogram;
+    }
+
+    void set(int width, int min, int minIndex, int max, int maxIndex, int center, long sum, int count) {
+        mWidth = width;
+        mMin = min;
+        mMinIndex = minIndex;
+        mMax = max;
+        mMaxIndex = maxIndex;
+        mCenter = center;
+        mSum = sum;
+        mCount = count;
+        mValid = count > 0;
+    }
+
+    public boolean isValid() {
+        return mValid;
+    }
+
+    public int getMin() {
+        return mMin;
+    }
+
+    public int getMax() {
+        return mMax;
+    }
+
+    public int getCenter() {
+        return mCenter;
+    }
+
+    public float getMean() {
+        return mCount > 0 ? mSum / (float) mCount : 0;
+    }
+
+    public int getPixelCount() {
+        return mCount;
+    }
+
+    // Pixel coordinates of the coldest and hottest pixel (first one on ties)
+    public int getMinX() {
+        return mMinIndex % mWidth;
+    }
+
+    public int getMinY() {
+        return mMinIndex / mWidth;
+    }
+
+    public int getMaxX() {
+        return mMaxIndex % mWidth;
+    }
+
+    public int getMaxY() {
+        return mMaxIndex / mWidth;
+    }
+
+    /**
+     * Pixel counts per HISTOGRAM_BINS bin (raw >> HISTOGRAM_SHIFT); owned by this instance
+     */
+    public int[] getHistogram() {
+        return mHistogram;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.thermalarglass;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of reusable frame surfaces (an image plus its ARGB pixel array) keyed by size and config
+ * Converters lease a surface per frame instead of creating a Bitmap and an int[] each time;
+ * render, snapshot and recording retain() it while they use it and release() when done, just
+ * like FrameBufferPool frames. Once the pipeline has seen every consumer hold a surface the pool
+ * stops allocating. When all pooled surfaces are busy the lease is a throwaway surface that is
+ * not kept, and counted as a miss, so a stalled consumer costs garbage rather than a frame.
+ * An idle surface replaced by one of another size is handed to the Recycler, if any.
+ *
+ * @param <C> image config (Bitmap.Config on the device)
+ * @param <B> image type (Bitmap on the device)
+ */
+final class FrameSurfacePool<C, B> {
+
+    interface Factory<C, B> {
+        B create(int width, int height, C config);
+    }
+
+    interface Recycler<B> {
+        void recycle(B image);
+    }
+
+    static final int DEFAULT_POOL_SIZE = 8;
+
+    /**
+     * A leased surface; the image and pixels belong to the holder until the last release()
+     */
+    static final class Surface<B> {
+        private final FrameSurfacePool<?, ?> mPool;
+        private final int mWidth;
+        private final int mHeight;
+        private final Object mConfig;
+        private final B mImage;
+        private final AtomicInteger mRefCount = new AtomicInteger(0);
+        private int[] mPixels;
+
+        private Surface(FrameSurfacePool<?, ?> pool, int width, int height, Object config, B image) {
+            mPool = pool;
+            mWidth = width;
+            mHeight = height;
+            mConfig = config;
+            mImage = image;
+        }
+
+        int getWidth() {
+            return mWidth;
+        }
+
+        int getHeight() {
+            return mHeight;
+        }
+
+        B image() {
+            return mImage;
+        }
+
+        /**
+         * Pixel array of width * height, allocated on first use and kept with the surface
+         */
+        int[] pixels() {
+            if (mPixels == null) {
+                mPixels = new int[mWidth * mHeight];
+                mPool.mAllocations.incrementAndGet();
+            }
+            return mPixels;
+        }
+
+        /**
+         * Keeps the surface for another consumer; must be paired with release()
+         */
+        Surface<B> retain() {
+            if (mRefCount.getAndIncrement() <= 0) {
+                mRefCount.decrementAndGet();
+                throw new IllegalStateException("Surface already returned to pool");
+            }
+            return this;
+        }
+
+        /**
+         * Drops one reference; the surface can be leased again once the last one is released
+         */
+        void release() {
+            int refs = mRefCount.decrementAndGet();
+            if (refs < 0) {
+                mRefCount.incrementAndGet();
+                throw new IllegalStateException("Surface released more times than retained");
+            }
+        }
+
+        private boolean matches(int width, int height, Object config) {
+            return mWidth == width && mHeight == height && mConfig.equals(config);
+        }
+
+        // Claims a free surface (refcount 0 -> 1)
+        private boolean tryClaim() {
+            return mRefCount.compareAndSet(0, 1);
+        }
+    }
+
+    private final Factory<C, B> mFactory;
+    private final Recycler<B> mRecycler;
+    private final int mMaxSurfaces;
+
+    // Grows copy-on-write up to mMaxSurfaces; the array is scanned without locking or iterators
+    private volatile Surface<B>[] mSurfaces;
+
+    private final AtomicInteger mAllocations = new AtomicInteger(0);
+    private final AtomicInteger mMisses = new AtomicInteger(0);
+    private final AtomicLong mLeases = new AtomicLong(0);
+
+    FrameSurfacePool(int maxSurfaces, Factory<C, B> factory) {
+        this(maxSurfaces, factory, null);
+    }
+
+    /**
+     * @param recycler frees the image of an evicted surface (Bitmap.recycle() on the device),
+     *                 null leaves it to the garbage collector
+     */
+    FrameSurfacePool(int maxSurfaces, Factory<C, B> factory, Recycler<B> recycler) {
+        if (maxSurfaces < 1) {
+            throw new IllegalArgumentException("Surface pool needs at least one surface");
+        }
+        mMaxSurfaces = maxSurfaces;
+        mFactory = factory;
+        mRecycler = recycler;
+        mSurfaces = newSurfaceArray(0);
+    }
+
+    /**
+     * Leases a surface of the given size and config, owned by the caller (refcount 1)
+     * Contents are whatever the previous holder left; converters overwrite every pixel.
+     */
+    Surface<B> acquire(int width, int height, C config) {
+        mLeases.incrementAndGet();
+        Surface<B>[] surfaces = mSurfaces;
+        for (Surface<B> surface : surfaces) {
+            if (surface.matches(width, height, config) && surface.tryClaim()) {
+                return surface;
+            }
+        }
+        return allocate(width, height, config);
+    }
+
+    private synchronized Surface<B> allocate(int width, int height, C config) {
+        Surface<B>[] surfaces = mSurfaces;
+        int slot = surfaces.length;
+        Surface<B> evicted = null;
+        if (slot >= mMaxSurfaces) {
+            // Full: replace an idle surface of another size (format change), else a throwaway
+            slot = -1;
+            for (int i = 0; i < surfaces.length; i++) {
+                if (!surfaces[i].matches(width, height, config) && surfaces[i].tryClaim()) {
+                    // Stays claimed, so nobody leases it while it is being replaced
+                    slot = i;
+                    evicted = surfaces[i];
+                    break;
+                }
+            }
+            if (slot < 0) {
+                mMisses.incrementAndGet();
+                mAllocations.incrementAndGet();
+                Surface<B> extra = new Surface<>(this, width, height, config,
+                        mFactory.create(width, height, config));
+                extra.tryClaim();
+                return extra;
+            }
+        }
+
+        Surface<B> surface = new Surface<>(this, width, height, config,
+                mFactory.create(width, height, config));
+        surface.tryClaim();
+        mAllocations.incrementAndGet();
+
+        Surface<B>[] grown = newSurfaceArray(Math.max(surfaces.length, slot + 1));
+        System.arraycopy(surfaces, 0, grown, 0, surfaces.length);
+        grown[slot] = surface;
+        mSurfaces = grown;
+
+        if (evicted != null && mRecycler != null) {
+            mRecycler.recycle(evicted.mImage);
+        }
+        return surface;
+    }
+
+    private static <B> Surface<B>[] newSurfaceArray(int length) {
+        @SuppressWarnings("unchecked")
+        Surface<B>[] surfaces = (Surface<B>[]) new Surface<?>[length];
+        return surfaces;
+    }
+
+    /**
+     * Images and pixel arrays created so far; flat in steady state
+     */
+    int getAllocationCount() {
+        return mAllocations.get();
+    }
+
+    /**
+     * Leases served by a throwaway surface because every pooled one was busy
+     */
+    int getMissCount() {
+        return mMisses.get();
+    }
+
+    long getLeaseCount() {
+        return mLeases.get();
+    }
+
+    int getSize() {
+        return mSurfaces.length;
+    }
+
+    int getMaxSize() {
+        return mMaxSurfaces;
+    }
+
+    /**
+     * Pooled surfaces held by a converter or consumer (racy snapshot, for metrics)
+     */
+    int getInUseCount() {
+        int busy = 0;
+        for (Surface<B> surface : mSurfaces) {
+            if (surface.mRefCount.get() > 0) {
+                busy++;
+            }
+        }
+        return busy;
+    }
+}
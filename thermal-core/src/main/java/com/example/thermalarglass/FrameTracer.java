@@ -0,0 +1,337 @@
+package com.example.thermalarglass;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Low-overhead event tracer for the capture and render hot paths
+ * Every thread records fixed-size binary events (event id and phase, System.nanoTime(), two
+ * longs) into its own preallocated ring, so recording takes no lock, allocates nothing and
+ * never touches logcat. When a ring is full the oldest events are overwritten; a dump holds
+ * the last ringCapacity events of every thread. Dumps use the binary format written by
+ * dump() and can be turned into Chrome trace JSON (chrome://tracing, Perfetto) with
+ * toChromeJson().
+ */
+final class FrameTracer {
+
+    // Event phases, as in the Chrome trace event format
+    static final int PHASE_BEGIN = 0;
+    static final int PHASE_END = 1;
+    static final int PHASE_INSTANT = 2;
+    static final int PHASE_COUNTER = 3;
+
+    static final int DEFAULT_RING_CAPACITY = 8192;  // Events per thread, ~256 KB
+
+    // Rings of finished threads kept for the next dump (stages restart on every reconnect)
+    private static final int MAX_FINISHED_RINGS = 8;
+
+    private static final int MAGIC = 0x47545243;    // "GTRC"
+    private static final int VERSION = 1;
+    private static final int WORDS_PER_EVENT = 4;
+
+    private static final List<String> sEventNames = new ArrayList<>();
+    private static final CopyOnWriteArrayList<Ring> sRings = new CopyOnWriteArrayList<>();
+    private static volatile boolean sEnabled = false;
+    private static volatile int sRingCapacity = DEFAULT_RING_CAPACITY;
+
+    private static final ThreadLocal<Ring> sLocalRing = new ThreadLocal<Ring>() {
+        @Override
+        protected Ring initialValue() {
+            Ring ring = new Ring(Thread.currentThread(), sRingCapacity);
+            pruneFinishedRings();
+            sRings.add(ring);
+            return ring;
+        }
+    };
+
+    // Capture
+    static final int USB_READ = event("usb read");                 // a = bytes, b = requested
+    static final int ISO_REAP = event("iso reap");                 // a = slot, b = packets
+    static final int FRAME_ASSEMBLED = event("frame assembled");   // a = sequence, b = length
+    static final int FRAMES_LOST = event("frames lost");           // Counter of discarded frames
+
+    // Decode and render (a = sequence); pipeline stages add their own events
+    static final int CONVERT = event("convert to bitmap");
+    static final int DRAW = event("draw");
+
+    private FrameTracer() {
+    }
+
+    /**
+     * Returns the id of a named event, registering it on first use
+     * Meant for static initializers and setup code, not the hot path.
+     */
+    static int event(String name) {
+        synchronized (sEventNames) {
+            int id = sEventNames.indexOf(name);
+            if (id < 0) {
+                id = sEventNames.size();
+                sEventNames.add(name);
+            }
+            return id;
+        }
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Events kept per thread; applies to threads that record their first event afterwards
+     * Rounded up to a power of two.
+     */
+    static void setRingCapacity(int events) {
+        sRingCapacity = Math.max(16, events);
+    }
+
+    static void begin(int id, long a) {
+        if (sEnabled) {
+            sLocalRing.get().record(id, PHASE_BEGIN, a, 0);
+        }
+    }
+
+    static void end(int id, long a) {
+        if (sEnabled) {
+            sLocalRing.get().record(id, PHASE_END, a, 0);
+        }
+    }
+
+    static void instant(int id, long a, long b) {
+        if (sEnabled) {
+            sLocalRing.get().record(id, PHASE_INSTANT, a, b);
+        }
+    }
+
+    static void counter(int id, long value) {
+        if (sEnabled) {
+            sLocalRing.get().record(id, PHASE_COUNTER, value, 0);
+        }
+    }
+
+    /**
+     * Drops the oldest rings of threads that have exited beyond MAX_FINISHED_RINGS
+     */
+    private static synchronized void pruneFinishedRings() {
+        int finished = 0;
+        for (Ring ring : sRings) {
+            if (ring.isFinished()) {
+                finished++;
+            }
+        }
+        for (Ring ring : sRings) {
+            if (finished <= MAX_FINISHED_RINGS) {
+                break;
+            }
+            if (ring.isFinished()) {
+                sRings.remove(ring);
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Forgets every recorded event; rings stay allocated
+     */
+    static void clear() {
+        for (Ring ring : sRings) {
+            ring.mClearedAt = ring.mWritten;
+        }
+    }
+
+    /**
+     * Writes the events of every thread in the binary trace format
+     * Threads keep recording while the dump runs; events they overwrite during the copy
+     * are left out rather than written torn.
+     */
+    static void dump(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        List<String> names;
+        synchronized (sEventNames) {
+            names = new ArrayList<>(sEventNames);
+        }
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+
+        List<Ring> rings = new ArrayList<>(sRings);
+        out.writeInt(rings.size());
+        for (Ring ring : rings) {
+            ring.dump(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Converts a binary dump to Chrome trace JSON
+     * Timestamps are microseconds from the earliest event in the dump.
+     */
+    static void toChromeJson(InputStream stream, Writer out) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a frame trace dump");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported frame trace version " + version);
+        }
+
+        int nameCount = in.readInt();
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            names[i] = in.readUTF();
+        }
+
+        int ringCount = in.readInt();
+        String[] threadNames = new String[ringCount];
+        long[] threadIds = new long[ringCount];
+        long[][] events = new long[ringCount][];
+        long origin = Long.MAX_VALUE;
+        for (int r = 0; r < ringCount; r++) {
+            threadNames[r] = in.readUTF();
+            threadIds[r] = in.readLong();
+            int count = in.readInt();
+            events[r] = new long[count * WORDS_PER_EVENT];
+            for (int i = 0; i < events[r].length; i++) {
+                events[r][i] = in.readLong();
+            }
+            if (count > 0) {
+                origin = Math.min(origin, events[r][1]);
+            }
+        }
+
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (int r = 0; r < ringCount; r++) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write(String.format(Locale.US,
+                "{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":%s}}",
+                threadIds[r], quote(threadNames[r])));
+
+            long[] data = events[r];
+            for (int i = 0; i < data.length; i += WORDS_PER_EVENT) {
+                int id = (int) data[i];
+                int phase = (int) (data[i] >>> 32);
+                String name = id >= 0 && id < names.length ? names[id] : "event " + id;
+                double ts = (data[i + 1] - origin) / 1000.0;
+                out.write(",\n");
+                switch (phase) {
+                    case PHASE_BEGIN:
+                    case PHASE_END:
+                        out.write(String.format(Locale.US,
+                            "{\"ph\":\"%s\",\"name\":%s,\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"args\":{\"a\":%d}}",
+                            phase == PHASE_BEGIN ? "B" : "E", quote(name), threadIds[r], ts, data[i + 2]));
+                        break;
+                    case PHASE_COUNTER:
+                        out.write(String.format(Locale.US,
+                            "{\"ph\":\"C\",\"name\":%s,\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"args\":{\"value\":%d}}",
+                            quote(name), threadIds[r], ts, data[i + 2]));
+                        break;
+                    default:
+                        out.write(String.format(Locale.US,
+                            "{\"ph\":\"i\",\"s\":\"t\",\"name\":%s,\"pid\":1,\"tid\":%d,\"ts\":%.3f," +
+                            "\"args\":{\"a\":%d,\"b\":%d}}",
+                            quote(name), threadIds[r], ts, data[i + 2], data[i + 3]));
+                        break;
+                }
+            }
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Single-writer ring of one thread; readers copy it without stopping the writer
+     */
+    private static final class Ring {
+        final WeakReference<Thread> mThread;
+        final String mThreadName;
+        final long mThreadId;
+        final long[] mData;
+        final int mMask;
+
+        // Events ever written; the volatile store publishes the event words before it
+        volatile long mWritten = 0;
+        volatile long mClearedAt = 0;
+
+        Ring(Thread thread, int capacity) {
+            mThread = new WeakReference<>(thread);
+            mThreadName = thread.getName();
+            mThreadId = thread.getId();
+            int size = Integer.highestOneBit(capacity - 1) << 1;
+            mData = new long[size * WORDS_PER_EVENT];
+            mMask = size - 1;
+        }
+
+        boolean isFinished() {
+            Thread thread = mThread.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        void record(int id, int phase, long a, long b) {
+            long written = mWritten;
+            int at = (int) (written & mMask) * WORDS_PER_EVENT;
+            mData[at] = ((long) phase << 32) | id;
+            mData[at + 1] = System.nanoTime();
+            mData[at + 2] = a;
+            mData[at + 3] = b;
+            mWritten = written + 1;
+        }
+
+        void dump(DataOutputStream out) throws IOException {
+            int capacity = mMask + 1;
+            long end = mWritten;
+            long start = Math.max(mClearedAt, end - capacity);
+            long[] copy = new long[(int) (end - start) * WORDS_PER_EVENT];
+            for (long i = start; i < end; i++) {
+                System.arraycopy(mData, (int) (i & mMask) * WORDS_PER_EVENT,
+                        copy, (int) (i - start) * WORDS_PER_EVENT, WORDS_PER_EVENT);
+            }
+
+            // Slots the writer reached again while copying may be torn, including the one
+            // it is writing right now
+            long firstIntact = mWritten - capacity + 1;
+            int skip = (int) Math.max(0, Math.min(end - start, firstIntact - start));
+
+            out.writeUTF(mThreadName);
+            out.writeLong(mThreadId);
+            out.writeInt((int) (end - start) - skip);
+            for (int i = skip * WORDS_PER_EVENT; i < copy.length; i++) {
+                out.writeLong(copy[i]);
+            }
+        }
+    }
+}
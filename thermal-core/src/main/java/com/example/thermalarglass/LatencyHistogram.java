@@ -0,0 +1,165 @@
+package com.example.thermalarglass;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram with about 12% resolution from 1 µs to 16 s
+ * Buckets are exact below 8 µs, then 8 per power of two, so recording is a few shifts and one
+ * uncontended atomic increment and nothing is allocated. Percentiles report the upper edge of
+ * the bucket they fall in, never less than the true value. Meant for one writer thread and
+ * never cleared: readers that want recent samples only keep a Window of their own, so no
+ * reader can drop samples another reader has not seen yet. Reads may come from any thread
+ * and can miss samples recorded at the same moment.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 8;      // 0..7 µs, one each
+    private static final int SUB_BUCKETS = 8;         // Per power of two above that
+    private static final int MAX_MAGNITUDE = 23;      // 2^24 µs ≈ 16.8 s, larger values clamp
+    static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_MAGNITUDE - 2) * SUB_BUCKETS;
+
+    private final String mName;
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+    private volatile long mMaxMicros = 0;
+
+    LatencyHistogram(String name) {
+        mName = name;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        mCounts.incrementAndGet(bucketOf(micros));
+        if (micros > mMaxMicros) {
+            mMaxMicros = micros;
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);   // >= 3
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - 3;
+        return LINEAR_BUCKETS + shift * SUB_BUCKETS + (int) (micros >> shift) - SUB_BUCKETS;
+    }
+
+    // Exclusive upper edge of a bucket in µs
+    static long upperMicros(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket + 1;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << shift;
+    }
+
+    long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += mCounts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in ms, 0 if nothing was recorded
+     */
+    float percentileMs(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mCounts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperMicros(i), mMaxMicros) / 1000f;
+            }
+        }
+        return mMaxMicros / 1000f;
+    }
+
+    float getMaxMs() {
+        return mMaxMicros / 1000f;
+    }
+
+    /**
+     * Samples recorded since the window was last restarted, for one reader thread
+     * update() takes the counts as they are now; restart() starts the next window from there,
+     * so samples recorded in between count towards the next window and none are lost.
+     * Nothing is allocated after construction.
+     */
+    static final class Window {
+
+        private final LatencyHistogram mHistogram;
+        private final long[] mStart = new long[BUCKET_COUNT];
+        private final long[] mLatest = new long[BUCKET_COUNT];
+        private long mCount = 0;
+        private int mHighestBucket = -1;
+
+        Window(LatencyHistogram histogram) {
+            mHistogram = histogram;
+        }
+
+        String getName() {
+            return mHistogram.getName();
+        }
+
+        void update() {
+            mCount = 0;
+            mHighestBucket = -1;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                mLatest[i] = mHistogram.mCounts.get(i);
+                long count = mLatest[i] - mStart[i];
+                mCount += count;
+                if (count > 0) {
+                    mHighestBucket = i;
+                }
+            }
+        }
+
+        void restart() {
+            System.arraycopy(mLatest, 0, mStart, 0, BUCKET_COUNT);
+            mCount = 0;
+            mHighestBucket = -1;
+        }
+
+        long getCount() {
+            return mCount;
+        }
+
+        /**
+         * Latency at the given percentile (0-100) in ms as of the last update(), 0 if empty
+         */
+        float percentileMs(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(mCount * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mLatest[i] - mStart[i];
+                if (seen >= rank) {
+                    return Math.min(upperMicros(i), mHistogram.mMaxMicros) / 1000f;
+                }
+            }
+            return getMaxMs();
+        }
+
+        // Upper edge of the highest bucket in the window, capped by the all-time maximum
+        float getMaxMs() {
+            if (mHighestBucket < 0) {
+                return 0;
+            }
+            return Math.min(upperMicros(mHighestBucket), mHistogram.mMaxMicros) / 1000f;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 4:2:0 frames whose full-resolution Y plane comes first: I420 (planar U, V) and NV12 (interleaved UV)
+ * Thermal cores put the scene in the luma plane, so only the Y rows that land on screen are
+ * colorized (see DisplayProjection) and the chroma is never read; the output is display-sized
+ * and drawn 1:1. Telemetry rows, where the format has them, follow the image rows of the
+ * luma plane. The projection is rebuilt when the display fit changes.
+ */
+final class LumaPlaneFrameDecoder implements FrameDecoder {
+
+    private static final int TELEMETRY_ROWS = 2;
+
+    private final String mName;
+    private final String mFourCC;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mDisplayWidth;
+    private final int mDisplayHeight;
+    private final int mImageSize;
+    private final int mSizeWithTelemetry;   // -1 if the format never carries telemetry rows
+    private volatile DisplayProjection mProjection;
+    private int[] mPixels;
+
+    LumaPlaneFrameDecoder(String name, String fourCC, int width, int height, boolean telemetry,
+                          int displayWidth, int displayHeight) {
+        mName = name;
+        mFourCC = fourCC;
+        mWidth = width;
+        mHeight = height;
+        mDisplayWidth = displayWidth;
+        mDisplayHeight = displayHeight;
+        mImageSize = width * height * 3 / 2;
+        mSizeWithTelemetry = telemetry ? width * (height + TELEMETRY_ROWS) * 3 / 2 : -1;
+        mProjection = new DisplayProjection(width, height, displayWidth, displayHeight,
+                DisplayProjection.Fit.LETTERBOX);
+    }
+
+    static LumaPlaneFrameDecoder i420(int width, int height, int displayWidth, int displayHeight) {
+        return new LumaPlaneFrameDecoder("I420", "I420", width, height, true, displayWidth, displayHeight);
+    }
+
+    static LumaPlaneFrameDecoder nv12(int width, int height, int displayWidth, int displayHeight) {
+        return new LumaPlaneFrameDecoder("NV12", "NV12", width, height, false, displayWidth, displayHeight);
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    @Override
+    public String getFourCC() {
+        return mFourCC;
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public int[] getFrameSizes() {
+        return mSizeWithTelemetry > 0 ? new int[] {mImageSize, mSizeWithTelemetry} : new int[] {mImageSize};
+    }
+
+    @Override
+    public boolean matches(ByteBuffer frame, int length) {
+        return length == mImageSize || length == mSizeWithTelemetry;
+    }
+
+    @Override
+    public int getTelemetryOffset(int length) {
+        return length == mSizeWithTelemetry ? mWidth * mHeight : -1;
+    }
+
+    @Override
+    public boolean isRadiometric() {
+        return false;
+    }
+
+    @Override
+    public DisplayProjection getProjection() {
+        return mProjection;
+    }
+
+    @Override
+    public void setDisplayFit(DisplayProjection.Fit fit) {
+        if (mProjection.getFit() != fit) {
+            mProjection = new DisplayProjection(mWidth, mHeight, mDisplayWidth, mDisplayHeight, fit);
+        }
+    }
+
+    @Override
+    public void setExecutor(BandExecutor executor, int bandRows) {
+        mProjection.setExecutor(executor, bandRows);
+    }
+
+    @Override
+    public int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats) {
+        if (length < mImageSize) {
+            return null;
+        }
+        if (mPixels == null) {
+            mPixels = new int[mDisplayWidth * mDisplayHeight];
+        }
+        frame.rewind();
+        mProjection.project(frame, table, mPixels);
+        return mPixels;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return mDisplayWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return mDisplayHeight;
+    }
+}
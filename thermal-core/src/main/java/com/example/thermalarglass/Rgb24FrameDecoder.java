@@ -0,0 +1,112 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packed 24-bit RGB frames (R, G, B per pixel, top row first), already colorized by the core
+ * Copied to ARGB at source resolution one row at a time; the colormap does not apply. There is
+ * no FourCC-based UVC GUID for RGB24, so unless the camera reports "RGB3" the decoder is
+ * found by frame size alone.
+ */
+final class Rgb24FrameDecoder implements FrameDecoder {
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mFrameSize;
+    private byte[] mRow;
+    private int[] mPixels;
+
+    Rgb24FrameDecoder(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mFrameSize = width * height * 3;
+    }
+
+    @Override
+    public String getName() {
+        return "RGB24";
+    }
+
+    @Override
+    public String getFourCC() {
+        return "RGB3";
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public int[] getFrameSizes() {
+        return new int[] {mFrameSize};
+    }
+
+    @Override
+    public boolean matches(ByteBuffer frame, int length) {
+        return length == mFrameSize;
+    }
+
+    @Override
+    public int getTelemetryOffset(int length) {
+        return -1;
+    }
+
+    @Override
+    public boolean isRadiometric() {
+        return false;
+    }
+
+    @Override
+    public DisplayProjection getProjection() {
+        return null;
+    }
+
+    @Override
+    public void setDisplayFit(DisplayProjection.Fit fit) {
+    }
+
+    @Override
+    public void setExecutor(BandExecutor executor, int bandRows) {
+    }
+
+    @Override
+    public int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats) {
+        if (length < mFrameSize) {
+            return null;
+        }
+        if (mPixels == null) {
+            mRow = new byte[mWidth * 3];
+            mPixels = new int[mWidth * mHeight];
+        }
+        byte[] row = mRow;
+        int[] pixels = mPixels;
+        int width = mWidth;
+        int position = frame.position();
+        frame.position(0);
+        for (int y = 0; y < mHeight; y++) {
+            frame.get(row, 0, row.length);
+            int out = y * width;
+            for (int x = 0, i = 0; x < width; x++, i += 3) {
+                pixels[out + x] = 0xFF000000 | (row[i] & 0xFF) << 16 | (row[i + 1] & 0xFF) << 8 | (row[i + 2] & 0xFF);
+            }
+        }
+        frame.position(position);
+        return pixels;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return mHeight;
+    }
+}
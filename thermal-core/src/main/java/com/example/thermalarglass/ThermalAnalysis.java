@@ -0,0 +1,62 @@
+package com.example.thermalarglass;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hot and cold spots of the latest server analysis (general or electronics mode)
+ */
+class ThermalAnalysis {
+    List<ThermalAnomaly> hotSpots = new ArrayList<>();
+    List<ThermalAnomaly> coldSpots = new ArrayList<>();
+    float baselineTemp;
+
+    static ThermalAnalysis fromJSON(JSONObject json) throws JSONException {
+        ThermalAnalysis analysis = new ThermalAnalysis();
+
+        if (json.has("hot_spots")) {
+            JSONArray hotArray = json.getJSONArray("hot_spots");
+            for (int i = 0; i < hotArray.length(); i++) {
+                analysis.hotSpots.add(ThermalAnomaly.fromJSON(hotArray.getJSONObject(i)));
+            }
+        }
+
+        if (json.has("cold_spots")) {
+            JSONArray coldArray = json.getJSONArray("cold_spots");
+            for (int i = 0; i < coldArray.length(); i++) {
+                analysis.coldSpots.add(ThermalAnomaly.fromJSON(coldArray.getJSONObject(i)));
+            }
+        }
+
+        if (json.has("baseline_temp")) {
+            analysis.baselineTemp = (float) json.getDouble("baseline_temp");
+        }
+
+        return analysis;
+    }
+
+    static ThermalAnalysis fromElectronicsJSON(JSONArray components) throws JSONException {
+        ThermalAnalysis analysis = new ThermalAnalysis();
+
+        for (int i = 0; i < components.length(); i++) {
+            JSONObject comp = components.getJSONObject(i);
+            if (comp.getBoolean("is_hot")) {
+                ThermalAnomaly anomaly = new ThermalAnomaly();
+                JSONArray bboxArray = comp.getJSONArray("bbox");
+                anomaly.bbox = new float[4];
+                for (int j = 0; j < 4; j++) {
+                    anomaly.bbox[j] = (float) bboxArray.getDouble(j);
+                }
+                anomaly.temperature = (float) comp.getDouble("max_temp");
+                anomaly.type = "hot_component";
+                analysis.hotSpots.add(anomaly);
+            }
+        }
+
+        return analysis;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.thermalarglass;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Hot or cold region found by the server's thermal analysis, bbox as {x1, y1, x2, y2}
+ */
+class ThermalAnomaly {
+    float[] bbox;
+    float temperature;
+    String type;
+
+    static ThermalAnomaly fromJSON(JSONObject json) throws JSONException {
+        ThermalAnomaly anomaly = new ThermalAnomaly();
+        JSONArray bboxArray = json.getJSONArray("bbox");
+        anomaly.bbox = new float[4];
+        for (int i = 0; i < 4; i++) {
+            anomaly.bbox[i] = (float) bboxArray.getDouble(i);
+        }
+
+        if (json.has("max_temp")) {
+            anomaly.temperature = (float) json.getDouble("max_temp");
+            anomaly.type = "hot";
+        } else if (json.has("min_temp")) {
+            anomaly.temperature = (float) json.getDouble("min_temp");
+            anomaly.type = "cold";
+        }
+
+        return anomaly;
+    }
+}
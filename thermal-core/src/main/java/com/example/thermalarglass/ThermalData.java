@@ -0,0 +1,18 @@
+package com.example.thermalarglass;
+
+/**
+ * Temperatures of one frame in degrees Celsius, sent to the companion app and shown on the HUD
+ */
+class ThermalData {
+    float centerTemp;
+    float minTemp;
+    float maxTemp;
+    float avgTemp;
+
+    ThermalData(float centerTemp, float minTemp, float maxTemp, float avgTemp) {
+        this.centerTemp = centerTemp;
+        this.minTemp = minTemp;
+        this.maxTemp = maxTemp;
+        this.avgTemp = avgTemp;
+    }
+}
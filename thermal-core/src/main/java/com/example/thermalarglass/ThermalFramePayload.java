@@ -0,0 +1,55 @@
+package com.example.thermalarglass;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Base64;
+
+/**
+ * The "thermal_frame" event sent to the companion server: the raw frame as base64 plus
+ * format metadata and the latest temperatures
+ * java.util.Base64 (API 26+) encodes the same as android.util.Base64 with NO_WRAP.
+ */
+final class ThermalFramePayload {
+
+    private ThermalFramePayload() {
+    }
+
+    /**
+     * decoder and thermalData may be null before the first frame is decoded and analyzed
+     */
+    static JSONObject build(FrameBufferPool.Frame frame, String mode, FrameDecoder decoder,
+            ThermalData thermalData) throws JSONException {
+        // Convert frame to byte array
+        byte[] frameData = new byte[frame.length()];
+        frame.buffer().duplicate().get(frameData);
+
+        // Encode to base64 for JSON transmission
+        String frameBase64 = Base64.getEncoder().encodeToString(frameData);
+
+        // Create JSON payload with temperature data
+        JSONObject payload = new JSONObject();
+        payload.put("frame", frameBase64);  // Now base64 encoded
+        payload.put("mode", mode);
+        payload.put("frame_number", frame.sequence());
+        payload.put("timestamp", System.currentTimeMillis());
+
+        // Include format metadata for server syncing
+        if (decoder != null) {
+            payload.put("format", decoder.getName());  // "MJPEG", "Y16", "I420", "YUYV", "NV12" or "RGB24"
+            payload.put("has_temperature", decoder.isRadiometric());  // Only Y16 is radiometric
+        } else {
+            payload.put("format", "unknown");
+            payload.put("has_temperature", false);
+        }
+
+        // Include temperature measurements
+        if (thermalData != null) {
+            payload.put("center_temp", thermalData.centerTemp);
+            payload.put("min_temp", thermalData.minTemp);
+            payload.put("max_temp", thermalData.maxTemp);
+            payload.put("avg_temp", thermalData.avgTemp);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * UvcTransport decorator that records every completed stream read and IN control
+ * response to a UvcTraceFile, for later replay with TraceReplayTransport
+ * Recording stops (but streaming continues) on the first write error.
+ */
+class TraceRecordingTransport implements UvcTransport {
+
+    private final UvcTransport mDelegate;
+    private UvcTraceFile.Writer mWriter;
+    private IOException mError;
+
+    TraceRecordingTransport(UvcTransport delegate, File traceFile) throws IOException {
+        mDelegate = delegate;
+        mWriter = new UvcTraceFile.Writer(traceFile);
+    }
+
+    @Override
+    public int controlTransfer(int requestType, int request, int value, int index,
+                               byte[] buffer, int length, int timeoutMs) {
+        int result = mDelegate.controlTransfer(requestType, request, value, index, buffer, length, timeoutMs);
+        if ((requestType & 0x80) != 0 && result > 0 && mWriter != null) {
+            try {
+                mWriter.writeControl(buffer, 0, result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int readStream(byte[] buffer, int length, int timeoutMs) {
+        int result = mDelegate.readStream(buffer, length, timeoutMs);
+        if (result > 0 && mWriter != null) {
+            try {
+                mWriter.writeStream(buffer, 0, result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean queueStreamRead(ByteBuffer buffer) {
+        return mDelegate.queueStreamRead(buffer);
+    }
+
+    @Override
+    public ByteBuffer awaitStreamRead(long timeoutMs) throws TimeoutException {
+        ByteBuffer buffer = mDelegate.awaitStreamRead(timeoutMs);
+        if (buffer != null && buffer.position() > 0 && mWriter != null) {
+            // Position holds the number of bytes transferred
+            ByteBuffer received = buffer.duplicate();
+            received.flip();
+            try {
+                mWriter.writeStream(received);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return buffer;
+    }
+
+    @Override
+    public void cancelStreamReads() {
+        mDelegate.cancelStreamReads();
+    }
+
+    @Override
+    public int getMaxPacketSize() {
+        return mDelegate.getMaxPacketSize();
+    }
+
+    @Override
+    public void close() {
+        mDelegate.close();
+        stopRecording(null);
+    }
+
+    /**
+     * First write error, if recording stopped early
+     */
+    IOException getError() {
+        return mError;
+    }
+
+    private void stopRecording(IOException error) {
+        if (error != null && mError == null) {
+            mError = error;
+        }
+        if (mWriter != null) {
+            try {
+                mWriter.close();
+            } catch (IOException e) {
+                if (mError == null) {
+                    mError = e;
+                }
+            }
+            mWriter = null;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * UvcTransport that replays a recorded UvcTraceFile at full speed
+ * Every stream read returns the next recorded transfer; OUT control transfers are
+ * accepted and IN control transfers return the recorded responses in order. With a bulk
+ * packet size set, reads behave like bulk IN transfers instead: they fill up across
+ * recorded transfers until one ends in a short packet, and a recorded transfer larger than
+ * the read continues in the next one, so traces can be replayed with other read sizes.
+ * No USB hardware or Android classes are needed, so assembly can be benchmarked and
+ * checked against known traces on a workstation.
+ */
+class TraceReplayTransport implements UvcTransport {
+
+    private final byte[][] mPackets;
+    private final byte[][] mControlResponses;
+    private final boolean mLoop;
+    private final int mMaxPacketSize;
+
+    private final ArrayDeque<ByteBuffer> mQueuedReads = new ArrayDeque<>();
+    private int mBulkPacketSize = 0;
+    private byte[] mPartialPacket;      // Bulk mode: transfer cut short by the previous read
+    private int mPartialOffset;
+    private int mNextPacket = 0;
+    private int mNextControl = 0;
+    private long mPacketsReplayed = 0;
+    private long mBytesReplayed = 0;
+
+    TraceReplayTransport(File trace, boolean loop) throws IOException {
+        this(UvcTraceFile.read(trace), loop);
+    }
+
+    TraceReplayTransport(List<UvcTraceFile.Record> records, boolean loop) {
+        List<byte[]> packets = new ArrayList<>();
+        List<byte[]> control = new ArrayList<>();
+        int maxPacketSize = 0;
+        for (UvcTraceFile.Record record : records) {
+            if (record.type == UvcTraceFile.RECORD_STREAM) {
+                packets.add(record.data);
+                maxPacketSize = Math.max(maxPacketSize, record.data.length);
+            } else if (record.type == UvcTraceFile.RECORD_CONTROL) {
+                control.add(record.data);
+            }
+        }
+        mPackets = packets.toArray(new byte[0][]);
+        mControlResponses = control.toArray(new byte[0][]);
+        mLoop = loop;
+        mMaxPacketSize = maxPacketSize;
+    }
+
+    @Override
+    public int controlTransfer(int requestType, int request, int value, int index,
+                               byte[] buffer, int length, int timeoutMs) {
+        // Direction bit 0x80 set means device to host
+        if ((requestType & 0x80) == 0) {
+            return length;
+        }
+        if (mNextControl >= mControlResponses.length) {
+            return -1;
+        }
+        byte[] response = mControlResponses[mNextControl++];
+        int count = Math.min(length, response.length);
+        System.arraycopy(response, 0, buffer, 0, count);
+        return count;
+    }
+
+    /**
+     * Emulates bulk transfer boundaries with the given wMaxPacketSize, 0 replays record by record
+     */
+    void setBulkPacketSize(int packetSize) {
+        mBulkPacketSize = packetSize;
+        mPartialPacket = null;
+    }
+
+    @Override
+    public int readStream(byte[] buffer, int length, int timeoutMs) {
+        if (mBulkPacketSize > 0) {
+            return readBulk(ByteBuffer.wrap(buffer, 0, length));
+        }
+        byte[] packet = nextPacket();
+        if (packet == null) {
+            return -1;
+        }
+        int count = Math.min(length, packet.length);
+        System.arraycopy(packet, 0, buffer, 0, count);
+        return count;
+    }
+
+    @Override
+    public boolean queueStreamRead(ByteBuffer buffer) {
+        mQueuedReads.add(buffer);
+        return true;
+    }
+
+    @Override
+    public ByteBuffer awaitStreamRead(long timeoutMs) throws TimeoutException {
+        if (mQueuedReads.isEmpty() || isExhausted()) {
+            // Like a camera that has stopped sending
+            throw new TimeoutException();
+        }
+        ByteBuffer buffer = mQueuedReads.poll();
+        if (mBulkPacketSize > 0) {
+            readBulk(buffer);
+            return buffer;
+        }
+        byte[] packet = nextPacket();
+        buffer.put(packet, 0, Math.min(buffer.remaining(), packet.length));
+        return buffer;
+    }
+
+    /**
+     * Fills the buffer like a bulk IN read: up to its limit, ending early after a short packet
+     */
+    private int readBulk(ByteBuffer buffer) {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            byte[] packet = mPartialPacket;
+            int offset = mPartialOffset;
+            if (packet == null) {
+                packet = nextPacket();
+                offset = 0;
+                if (packet == null) {
+                    break;
+                }
+            }
+
+            int count = Math.min(buffer.remaining(), packet.length - offset);
+            buffer.put(packet, offset, count);
+            if (offset + count < packet.length) {
+                mPartialPacket = packet;
+                mPartialOffset = offset + count;
+                break;
+            }
+            mPartialPacket = null;
+
+            // A recorded transfer that ended in a short packet ends this read too
+            if (packet.length % mBulkPacketSize != 0) {
+                break;
+            }
+        }
+        int count = buffer.position() - start;
+        return count > 0 ? count : -1;
+    }
+
+    @Override
+    public void cancelStreamReads() {
+        mQueuedReads.clear();
+    }
+
+    @Override
+    public int getMaxPacketSize() {
+        return mMaxPacketSize;
+    }
+
+    @Override
+    public void close() {
+        cancelStreamReads();
+    }
+
+    /**
+     * True once every packet has been replayed, including the rest of a bulk transfer cut
+     * short by a read (never when looping)
+     */
+    boolean isExhausted() {
+        return !mLoop && mNextPacket >= mPackets.length && mPartialPacket == null;
+    }
+
+    /**
+     * Restarts the trace from its first packet and control response
+     */
+    void rewind() {
+        mNextPacket = 0;
+        mPartialPacket = null;
+        mNextControl = 0;
+    }
+
+    int getPacketCount() {
+        return mPackets.length;
+    }
+
+    long getPacketsReplayed() {
+        return mPacketsReplayed;
+    }
+
+    long getBytesReplayed() {
+        return mBytesReplayed;
+    }
+
+    private byte[] nextPacket() {
+        if (mNextPacket >= mPackets.length) {
+            if (!mLoop || mPackets.length == 0) {
+                return null;
+            }
+            mNextPacket = 0;
+        }
+        byte[] packet = mPackets[mNextPacket++];
+        mPacketsReplayed++;
+        mBytesReplayed += packet.length;
+        return packet;
+    }
+}
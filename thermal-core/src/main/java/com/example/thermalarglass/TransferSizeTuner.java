@@ -0,0 +1,214 @@
+package com.example.thermalarglass;
+
+import java.util.Locale;
+
+/**
+ * Picks the streaming read size from what the camera actually sends
+ * With a negotiated dwMaxPayloadTransferSize every read is exactly one payload, as the
+ * Linux uvcvideo driver does. Otherwise the first frames are watched: with payload headers
+ * the read is sized to the largest payload seen, including payloads the assembler had to put
+ * together from several reads (bulk reads end at a payload's short packet, so a larger read
+ * never returns more), without headers it grows to the largest multiple of
+ * the packet size that divides the frame evenly, up to a whole frame. Reads that keep filling
+ * up before the first frame arrives mean a payload is larger than the read, so the size
+ * doubles until frames come through. Sizes never exceed what the host controller accepts.
+ */
+class TransferSizeTuner {
+
+    // Frames observed at one read size before it is locked in
+    static final int LEARNING_FRAMES = 8;
+
+    // Data in full reads without a single frame before the read size is doubled (~3 Y16 frames)
+    static final int GROW_AFTER_FULL_BYTES = 512 * 1024;
+
+    // Weight of the newest sample in the smoothed transfers per frame (1/8)
+    private static final int SMOOTHING = 8;
+
+    private final int mPacketSize;
+    private final int mMaxTransferSize;
+
+    private volatile int mTransferSize;
+    private boolean mLocked = false;
+    private String mReason;
+    private int mRetuneCount = 0;
+
+    // Learning state at the current read size
+    private int mLargestTransfer = 0;
+    private int mFramesAtSize = 0;
+    private long mFullBytesSinceFrame = 0;
+    private int mFrameSize = -1;
+    private int mStableFrames = 0;
+
+    // Metrics
+    private long mTransferCount = 0;
+    private long mTransfersAtLastFrame = 0;
+    private long mLastSequence = -1;
+    private volatile float mTransfersPerFrame = 0;
+
+    /**
+     * @param packetSize wMaxPacketSize of the streaming endpoint
+     * @param maxTransferSize largest read the host stack accepts
+     * @param negotiatedPayloadSize committed dwMaxPayloadTransferSize, 0 if unknown
+     */
+    TransferSizeTuner(int packetSize, int maxTransferSize, int negotiatedPayloadSize) {
+        mPacketSize = Math.max(1, packetSize);
+        mMaxTransferSize = Math.max(mPacketSize, maxTransferSize / mPacketSize * mPacketSize);
+
+        if (negotiatedPayloadSize > 0 && negotiatedPayloadSize <= mMaxTransferSize) {
+            mTransferSize = negotiatedPayloadSize;
+            mLocked = true;
+            mReason = "negotiated payload";
+        } else if (negotiatedPayloadSize > mMaxTransferSize) {
+            // Payloads will be split across reads; nothing larger is possible
+            mTransferSize = mMaxTransferSize;
+            mLocked = true;
+            mReason = "host limit (payload " + negotiatedPayloadSize + ")";
+        } else {
+            // Previous fixed size until the stream has been observed
+            mTransferSize = Math.min(mPacketSize * 32, mMaxTransferSize);
+            mReason = "learning";
+        }
+    }
+
+    /**
+     * Read size to request next
+     */
+    int getTransferSize() {
+        return mTransferSize;
+    }
+
+    /**
+     * Largest read size this tuner will ever request (for buffer allocation)
+     */
+    int getMaxTransferSize() {
+        return mMaxTransferSize;
+    }
+
+    boolean isLocked() {
+        return mLocked;
+    }
+
+    int getRetuneCount() {
+        return mRetuneCount;
+    }
+
+    // Smoothed reads (JNI/ioctl round trips) per captured frame
+    float getTransfersPerFrame() {
+        return mTransfersPerFrame;
+    }
+
+    /**
+     * Records one completed read of the given requested size
+     */
+    void onTransfer(int bytes, int requested) {
+        mTransferCount++;
+        if (bytes <= 0 || mLocked) {
+            return;
+        }
+        // Reads queued before the last change still complete with the old size
+        if (requested != mTransferSize) {
+            return;
+        }
+
+        mLargestTransfer = Math.max(mLargestTransfer, bytes);
+        if (bytes < requested) {
+            return;
+        }
+        mFullBytesSinceFrame += bytes;
+        if (mFullBytesSinceFrame >= GROW_AFTER_FULL_BYTES && mFramesAtSize == 0 &&
+            mTransferSize < mMaxTransferSize) {
+            retune(Math.min(mTransferSize * 2, mMaxTransferSize), "growing");
+        }
+    }
+
+    /**
+     * Records a delivered frame; sequence counts dropped frames too
+     * splitPayload is the largest payload that spanned several reads, 0 if none did.
+     * Returns true when this frame locked in the read size.
+     */
+    boolean onFrame(int frameSize, long sequence, boolean headerMode, int splitPayload) {
+        if (mLastSequence >= 0 && sequence > mLastSequence) {
+            float sample = (mTransferCount - mTransfersAtLastFrame) / (float) (sequence - mLastSequence);
+            float smoothed = mTransfersPerFrame;
+            mTransfersPerFrame = smoothed == 0 ? sample : smoothed + (sample - smoothed) / SMOOTHING;
+        }
+        mLastSequence = sequence;
+        mTransfersAtLastFrame = mTransferCount;
+
+        if (mLocked) {
+            return false;
+        }
+        mFramesAtSize++;
+        mFullBytesSinceFrame = 0;
+        if (frameSize == mFrameSize) {
+            mStableFrames++;
+        } else {
+            mFrameSize = frameSize;
+            mStableFrames = 1;
+        }
+
+        if (headerMode) {
+            // MJPEG sizes vary, only the payload layout has to be stable
+            if (mFramesAtSize < LEARNING_FRAMES) {
+                return false;
+            }
+            if (splitPayload > mTransferSize || mLargestTransfer < mTransferSize) {
+                // Whole payloads fit in one read of this size, up to the host limit
+                int payload = Math.max(mLargestTransfer, splitPayload);
+                lock(Math.min(roundUp(payload), mMaxTransferSize), "payload " + payload);
+            } else {
+                // Payloads fill the reads exactly; a larger read could merge two of them
+                lock(mTransferSize, "payload " + mTransferSize);
+            }
+        } else {
+            if (mStableFrames < LEARNING_FRAMES) {
+                return false;
+            }
+            lock(largestDivisor(frameSize), "frame " + frameSize);
+        }
+        return true;
+    }
+
+    /**
+     * One-line summary for status logs
+     */
+    String describe() {
+        return String.format(Locale.US, "%d bytes (%s%s), %.1f transfers/frame",
+                mTransferSize, mReason, mLocked ? "" : ", not locked", mTransfersPerFrame);
+    }
+
+    private void lock(int size, String reason) {
+        if (size != mTransferSize) {
+            mRetuneCount++;
+        }
+        mTransferSize = size;
+        mLocked = true;
+        mReason = reason;
+    }
+
+    private void retune(int size, String reason) {
+        mTransferSize = size;
+        mReason = reason;
+        mRetuneCount++;
+        mLargestTransfer = 0;
+        mFramesAtSize = 0;
+        mFullBytesSinceFrame = 0;
+        mStableFrames = 0;
+    }
+
+    private int roundUp(int bytes) {
+        return (bytes + mPacketSize - 1) / mPacketSize * mPacketSize;
+    }
+
+    /**
+     * Largest packet multiple within the host limit that splits the frame into whole reads
+     */
+    private int largestDivisor(int frameSize) {
+        for (int size = mMaxTransferSize; size >= mPacketSize; size -= mPacketSize) {
+            if (frameSize % size == 0) {
+                return size;
+            }
+        }
+        return mTransferSize;
+    }
+}
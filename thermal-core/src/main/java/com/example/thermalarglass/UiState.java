@@ -0,0 +1,33 @@
+package com.example.thermalarglass;
+
+/**
+ * Latest values for the on-screen readouts, written by the pipeline without locks
+ * Each field is an independent volatile primitive: the pipeline overwrites them on
+ * every frame, and the UI reads whatever is newest when it next refreshes. Readers never see
+ * a torn value, only possibly one field a frame ahead of another, which the readouts do not
+ * care about.
+ */
+final class UiState {
+
+    private volatile long mFrameNumber = -1;            // Frames received, -1 until the first
+    private volatile float mCenterTemp = Float.NaN;     // °C, NaN when the frame had no valid data
+
+    void setFrameNumber(long frameNumber) {
+        mFrameNumber = frameNumber;
+    }
+
+    long getFrameNumber() {
+        return mFrameNumber;
+    }
+
+    /**
+     * Center temperature in °C, or NaN to show it as unknown
+     */
+    void setCenterTemp(float celsius) {
+        mCenterTemp = celsius;
+    }
+
+    float getCenterTemp() {
+        return mCenterTemp;
+    }
+}
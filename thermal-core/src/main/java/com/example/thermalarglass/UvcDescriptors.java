@@ -0,0 +1,370 @@
+package com.example.thermalarglass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser for the UVC class-specific descriptors in a raw configuration descriptor
+ * Collects the VideoStreaming formats and frames (uncompressed, MJPEG, frame-based),
+ * the bcdUVC version from the VideoControl header and every alternate setting of the
+ * VideoStreaming interface with its IN endpoint. Input is what
+ * UsbDeviceConnection.getRawDescriptors() returns; no Android dependencies.
+ */
+class UvcDescriptors {
+
+    // Standard descriptor types
+    private static final int DESC_INTERFACE = 0x04;
+    private static final int DESC_ENDPOINT = 0x05;
+    private static final int DESC_CS_INTERFACE = 0x24;
+
+    private static final int CC_VIDEO = 0x0E;
+    private static final int SC_VIDEOCONTROL = 0x01;
+    private static final int SC_VIDEOSTREAMING = 0x02;
+
+    // Class-specific descriptor subtypes
+    private static final int VC_HEADER = 0x01;
+    private static final int VS_FORMAT_UNCOMPRESSED = 0x04;
+    private static final int VS_FRAME_UNCOMPRESSED = 0x05;
+    private static final int VS_FORMAT_MJPEG = 0x06;
+    private static final int VS_FRAME_MJPEG = 0x07;
+    private static final int VS_FORMAT_FRAME_BASED = 0x10;
+    private static final int VS_FRAME_FRAME_BASED = 0x11;
+
+    // Uncompressed format GUIDs: FourCC followed by the common UVC suffix
+    static final byte[] GUID_Y16 = guid('Y', '1', '6', ' ');
+    static final byte[] GUID_I420 = guid('I', '4', '2', '0');
+    static final byte[] GUID_YUY2 = guid('Y', 'U', 'Y', '2');
+    static final byte[] GUID_NV12 = guid('N', 'V', '1', '2');
+
+    enum FormatType {
+        UNCOMPRESSED,
+        MJPEG,
+        FRAME_BASED
+    }
+
+    /**
+     * VS_FORMAT_* descriptor with its frames
+     */
+    static final class Format {
+        final int interfaceNumber;
+        final int index;
+        final FormatType type;
+        final byte[] guid;          // null for MJPEG
+        final int bitsPerPixel;     // 0 for MJPEG
+        final List<Frame> frames = new ArrayList<>();
+
+        Format(int interfaceNumber, int index, FormatType type, byte[] guid, int bitsPerPixel) {
+            this.interfaceNumber = interfaceNumber;
+            this.index = index;
+            this.type = type;
+            this.guid = guid;
+            this.bitsPerPixel = bitsPerPixel;
+        }
+
+        boolean hasGuid(byte[] other) {
+            return guid != null && Arrays.equals(guid, other);
+        }
+
+        Frame findFrame(int width, int height) {
+            for (Frame frame : frames) {
+                if (frame.width == width && frame.height == height) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        // FourCC of uncompressed/frame-based formats, "MJPG" otherwise
+        String fourCC() {
+            if (guid == null) {
+                return "MJPG";
+            }
+            return new String(new char[] {(char) guid[0], (char) guid[1], (char) guid[2], (char) guid[3]}).trim();
+        }
+    }
+
+    /**
+     * VS_FRAME_* descriptor
+     * Intervals are in 100 ns units; continuous ranges are expanded to their min and max.
+     */
+    static final class Frame {
+        final int index;
+        final int width;
+        final int height;
+        final int maxFrameSize;
+        final int defaultInterval;
+        final int[] intervals;
+
+        Frame(int index, int width, int height, int maxFrameSize, int defaultInterval, int[] intervals) {
+            this.index = index;
+            this.width = width;
+            this.height = height;
+            this.maxFrameSize = maxFrameSize;
+            this.defaultInterval = defaultInterval;
+            this.intervals = intervals;
+        }
+
+        // Shortest supported frame interval, i.e. the highest frame rate
+        int fastestInterval() {
+            int fastest = defaultInterval;
+            for (int interval : intervals) {
+                if (interval > 0 && (fastest <= 0 || interval < fastest)) {
+                    fastest = interval;
+                }
+            }
+            return fastest;
+        }
+    }
+
+    /**
+     * One alternate setting of the VideoStreaming interface and its IN endpoint (if any)
+     */
+    static final class AltSetting {
+        final int interfaceNumber;
+        final int alternateSetting;
+        int endpointAddress = -1;
+        int endpointAttributes;
+        int wMaxPacketSize;
+
+        AltSetting(int interfaceNumber, int alternateSetting) {
+            this.interfaceNumber = interfaceNumber;
+            this.alternateSetting = alternateSetting;
+        }
+
+        boolean isIsochronous() {
+            return endpointAddress >= 0 && (endpointAttributes & 0x03) == 0x01;
+        }
+
+        /**
+         * Bytes per (micro)frame: packet size times high-bandwidth transactions per microframe
+         */
+        int bytesPerInterval() {
+            int packetSize = wMaxPacketSize & 0x7FF;
+            int transactions = ((wMaxPacketSize >> 11) & 0x03) + 1;
+            return packetSize * transactions;
+        }
+    }
+
+    private final List<Format> mFormats = new ArrayList<>();
+    private final List<AltSetting> mAltSettings = new ArrayList<>();
+    private int mUvcVersion = 0;
+
+    private UvcDescriptors() {
+    }
+
+    /**
+     * Parses a raw descriptor blob; unknown or truncated descriptors are skipped
+     */
+    static UvcDescriptors parse(byte[] raw) {
+        UvcDescriptors result = new UvcDescriptors();
+        if (raw == null) {
+            return result;
+        }
+
+        int interfaceClass = -1;
+        int interfaceSubclass = -1;
+        int interfaceNumber = -1;
+        AltSetting currentAlt = null;
+        Format currentFormat = null;
+
+        int offset = 0;
+        while (offset + 2 <= raw.length) {
+            int length = raw[offset] & 0xFF;
+            if (length < 2 || offset + length > raw.length) {
+                break;  // Truncated or corrupt, keep what was parsed so far
+            }
+            int type = raw[offset + 1] & 0xFF;
+
+            if (type == DESC_INTERFACE && length >= 9) {
+                interfaceNumber = raw[offset + 2] & 0xFF;
+                int alternate = raw[offset + 3] & 0xFF;
+                interfaceClass = raw[offset + 5] & 0xFF;
+                interfaceSubclass = raw[offset + 6] & 0xFF;
+                currentAlt = null;
+                if (interfaceClass == CC_VIDEO && interfaceSubclass == SC_VIDEOSTREAMING) {
+                    currentAlt = new AltSetting(interfaceNumber, alternate);
+                    result.mAltSettings.add(currentAlt);
+                }
+            } else if (type == DESC_ENDPOINT && length >= 7 && currentAlt != null) {
+                int address = raw[offset + 2] & 0xFF;
+                if ((address & 0x80) != 0 && currentAlt.endpointAddress < 0) {
+                    currentAlt.endpointAddress = address;
+                    currentAlt.endpointAttributes = raw[offset + 3] & 0xFF;
+                    currentAlt.wMaxPacketSize = u16(raw, offset + 4);
+                }
+            } else if (type == DESC_CS_INTERFACE && length >= 3 && interfaceClass == CC_VIDEO) {
+                int subtype = raw[offset + 2] & 0xFF;
+                if (interfaceSubclass == SC_VIDEOCONTROL && subtype == VC_HEADER && length >= 5) {
+                    result.mUvcVersion = u16(raw, offset + 3);
+                } else if (interfaceSubclass == SC_VIDEOSTREAMING) {
+                    currentFormat = result.parseStreaming(raw, offset, length, subtype,
+                            interfaceNumber, currentFormat);
+                }
+            }
+
+            offset += length;
+        }
+        return result;
+    }
+
+    private Format parseStreaming(byte[] raw, int offset, int length, int subtype,
+                                  int interfaceNumber, Format currentFormat) {
+        switch (subtype) {
+            case VS_FORMAT_UNCOMPRESSED:
+            case VS_FORMAT_FRAME_BASED:
+                if (length < 22) {
+                    return null;
+                }
+                Format format = new Format(interfaceNumber, raw[offset + 3] & 0xFF,
+                        subtype == VS_FORMAT_UNCOMPRESSED ? FormatType.UNCOMPRESSED : FormatType.FRAME_BASED,
+                        Arrays.copyOfRange(raw, offset + 5, offset + 21), raw[offset + 21] & 0xFF);
+                mFormats.add(format);
+                return format;
+
+            case VS_FORMAT_MJPEG:
+                if (length < 11) {
+                    return null;
+                }
+                Format mjpeg = new Format(interfaceNumber, raw[offset + 3] & 0xFF, FormatType.MJPEG, null, 0);
+                mFormats.add(mjpeg);
+                return mjpeg;
+
+            case VS_FRAME_UNCOMPRESSED:
+            case VS_FRAME_MJPEG:
+            case VS_FRAME_FRAME_BASED:
+                if (currentFormat != null) {
+                    Frame frame = parseFrame(raw, offset, length, subtype, currentFormat);
+                    if (frame != null) {
+                        currentFormat.frames.add(frame);
+                    }
+                }
+                return currentFormat;
+
+            default:
+                return currentFormat;
+        }
+    }
+
+    private static Frame parseFrame(byte[] raw, int offset, int length, int subtype, Format format) {
+        boolean frameBased = subtype == VS_FRAME_FRAME_BASED;
+        // Frame-based frames have no dwMaxVideoFrameBufferSize, so the interval fields start earlier
+        int intervalTypeOffset = frameBased ? 21 : 25;
+        if (length < intervalTypeOffset + 1) {
+            return null;
+        }
+
+        int index = raw[offset + 3] & 0xFF;
+        int width = u16(raw, offset + 5);
+        int height = u16(raw, offset + 7);
+        int defaultInterval = u32(raw, offset + intervalTypeOffset - 4);
+        int maxFrameSize = frameBased ?
+                width * height * Math.max(format.bitsPerPixel, 8) / 8 :
+                u32(raw, offset + 17);
+
+        int intervalType = raw[offset + intervalTypeOffset] & 0xFF;
+        int first = offset + intervalTypeOffset + (frameBased ? 5 : 1);  // Skip dwBytesPerLine
+        int[] intervals;
+        if (intervalType == 0) {
+            // Continuous: min, max, step
+            intervals = first + 8 <= offset + length ?
+                    new int[] {u32(raw, first), u32(raw, first + 4)} : new int[0];
+        } else {
+            int count = Math.max(0, Math.min(intervalType, (offset + length - first) / 4));
+            intervals = new int[count];
+            for (int i = 0; i < count; i++) {
+                intervals[i] = u32(raw, first + i * 4);
+            }
+        }
+        return new Frame(index, width, height, maxFrameSize, defaultInterval, intervals);
+    }
+
+    List<Format> getFormats() {
+        return Collections.unmodifiableList(mFormats);
+    }
+
+    List<AltSetting> getAltSettings() {
+        return Collections.unmodifiableList(mAltSettings);
+    }
+
+    // bcdUVC from the VideoControl header, e.g. 0x0110 for UVC 1.1 (0 if absent)
+    int getUvcVersion() {
+        return mUvcVersion;
+    }
+
+    /**
+     * Size of the probe/commit control block for this device's UVC version
+     */
+    int getProbeLength() {
+        if (mUvcVersion >= 0x0150) {
+            return 48;
+        } else if (mUvcVersion >= 0x0110) {
+            return 34;
+        }
+        return 26;
+    }
+
+    /**
+     * First uncompressed format with the given GUID offering width x height, or null
+     */
+    Format findUncompressed(byte[] guid, int width, int height) {
+        for (Format format : mFormats) {
+            if (format.type == FormatType.UNCOMPRESSED && format.hasGuid(guid) &&
+                format.findFrame(width, height) != null) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * First format of any type offering width x height, or null
+     */
+    Format findAny(int width, int height) {
+        for (Format format : mFormats) {
+            if (format.findFrame(width, height) != null) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lowest-bandwidth isochronous alternate setting of the interface whose bytes per
+     * interval cover payloadSize; the highest-bandwidth one if none does (or payloadSize
+     * is unknown), null if the interface has no isochronous endpoint
+     */
+    AltSetting selectIsochronous(int interfaceNumber, int payloadSize) {
+        AltSetting best = null;
+        AltSetting largest = null;
+        for (AltSetting alt : mAltSettings) {
+            if (alt.interfaceNumber != interfaceNumber || !alt.isIsochronous()) {
+                continue;
+            }
+            int bandwidth = alt.bytesPerInterval();
+            if (largest == null || bandwidth > largest.bytesPerInterval()) {
+                largest = alt;
+            }
+            if (payloadSize > 0 && bandwidth >= payloadSize &&
+                (best == null || bandwidth < best.bytesPerInterval())) {
+                best = alt;
+            }
+        }
+        return best != null ? best : largest;
+    }
+
+    private static byte[] guid(char a, char b, char c, char d) {
+        return new byte[] {(byte) a, (byte) b, (byte) c, (byte) d,
+                0x00, 0x00, 0x10, 0x00, (byte) 0x80, 0x00, 0x00, (byte) 0xAA, 0x00, 0x38, (byte) 0x9B, 0x71};
+    }
+
+    private static int u16(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int u32(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) |
+               ((data[offset + 2] & 0xFF) << 16) | ((data[offset + 3] & 0xFF) << 24);
+    }
+}
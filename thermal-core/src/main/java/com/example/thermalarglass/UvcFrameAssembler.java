@@ -0,0 +1,637 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Assembles UVC payload packets into complete video frames
+ * Shared by the synchronous and queued streaming loops in NativeUVCCamera.
+ * Has no Android dependencies so it can also be driven by the replay benchmarks.
+ */
+class UvcFrameAssembler {
+
+    // 1 second timeout for frame accumulation (headerless cameras only)
+    static final long FRAME_TIMEOUT_MS = 1000;
+
+    // UVC payload header bmHeaderInfo bits
+    private static final int HEADER_FID = 0x01;
+    private static final int HEADER_EOF = 0x02;
+    private static final int HEADER_PTS = 0x04;
+    private static final int HEADER_SCR = 0x08;
+    private static final int HEADER_RES = 0x10;
+    private static final int HEADER_ERR = 0x40;
+    private static final int HEADER_EOH = 0x80;
+
+    // Give up on header mode after this many packets in a row without a valid header
+    private static final int MAX_CONSECUTIVE_BAD_HEADERS = 8;
+
+    // Where the next read stands in the current payload
+    private static final int PAYLOAD_START = 0;      // Starts a new payload (with its header)
+    private static final int PAYLOAD_CONTINUES = 1;  // Continues the payload, no header
+    private static final int PAYLOAD_MAYBE = 2;      // Previous read was full and the payload size is unknown
+
+    /**
+     * Receives assembled frames and diagnostics, on the thread that feeds packets
+     */
+    interface Listener {
+        // The frame is only valid during the call unless the listener retains it
+        void onFrameAssembled(FrameBufferPool.Frame frame);
+        void onAssemblyWarning(String message);
+    }
+
+    private final Listener mListener;
+    private final FrameBufferPool mPool;
+
+    // Pooled buffer currently being filled, owned by the assembler
+    private FrameBufferPool.Frame mCurrentFrame;
+    private ByteBuffer mFrameBuffer;
+
+    // Exact uncompressed frame sizes and telemetry layouts of every registered format
+    private final FrameDecoders mDecoders;
+    private final int mMaxFrameSize;
+
+    private boolean mMjpegDetected = false;
+    private long mFrameStartTime;
+
+    // Header-driven delimiting state
+    private boolean mHeaderMode = false;
+    private boolean mFidToggleSeen = false;
+    private boolean mEofSeen = false;
+    private int mFrameFid = -1;         // FID of the frame being accumulated, -1 before its first packet
+    private long mFramePts = -1;
+    private boolean mFrameDamaged = false;
+    private int mLastFid = -1;
+    private int mBadHeaderCount = 0;
+    private int mHeaderlessFrameSize = 0;  // Size of the last uncompressed headerless frame
+
+    // Bulk payloads larger than one read: only the first read carries the header
+    private int mPacketSize = 0;        // wMaxPacketSize, 0 = every read is one payload
+    private int mMaxPayloadSize = 0;    // dwMaxPayloadTransferSize, 0 if not negotiated
+    private int mPayloadState = PAYLOAD_START;
+    private int mPayloadBytes = 0;      // Bytes of the current payload so far, header included
+    private int mLargestPayload = 0;    // Largest payload seen spread over reads
+    private boolean mPayloadSkipped = false;  // Rest of the current payload is discarded
+    private boolean mPayloadEof = false;      // Current payload has EOF set, frame ends with it
+    private int mHeaderLength = 0;      // Header length and fixed bits of the stream's headers,
+    private int mHeaderShape = 0;       // to tell a header from payload data after a full read
+
+    // Statistics
+    private int mFrameCount = 0;
+    private long mPacketCount = 0;
+    private long mPacketErrorCount = 0;
+    private int mResyncCount = 0;
+    private long mSequence = 0;
+    private int mDroppedFrameCount = 0;
+    private int mDiscardedFrameCount = 0;
+    private long mCameraFrameGapCount = 0;
+    private long mLastCameraFrameCounter = -1;
+
+    UvcFrameAssembler(FrameDecoders decoders, FrameBufferPool pool, Listener listener) {
+        mListener = listener;
+        mPool = pool;
+        mCurrentFrame = pool.tryAcquire();
+        if (mCurrentFrame == null) {
+            throw new IllegalStateException("No free buffer in frame pool");
+        }
+        mFrameBuffer = mCurrentFrame.buffer();
+
+        mDecoders = decoders;
+        mMaxFrameSize = decoders.getMaxFrameSize();
+
+        mFrameStartTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Bulk streams: wMaxPacketSize of the endpoint and the committed dwMaxPayloadTransferSize
+     * (0 if unknown), so that a payload spread over several reads is put back together
+     * A read ends a payload when it ends in a short packet or completes dwMaxPayloadTransferSize
+     * bytes. Without the payload size a full read is ambiguous; the next read then starts a
+     * payload only if it begins with a header shaped like the stream's previous headers.
+     * Isochronous streams leave this unset: every packet is one payload.
+     */
+    void setPayloadLayout(int packetSize, int maxPayloadSize) {
+        mPacketSize = Math.max(0, packetSize);
+        mMaxPayloadSize = Math.max(0, maxPayloadSize);
+        mPayloadState = PAYLOAD_START;
+        mPayloadBytes = 0;
+    }
+
+    /**
+     * Consumes one USB transfer worth of data (buffer position to limit)
+     * The packet buffer's position is advanced past the consumed bytes.
+     */
+    void onPacket(ByteBuffer packet) {
+        if (packet.remaining() <= 0) {
+            return;
+        }
+        mPacketCount++;
+        onRead(packet);
+    }
+
+    private void onRead(ByteBuffer packet) {
+        int start = packet.position();
+        int bytesRead = packet.remaining();
+
+        // A payload of exactly dwMaxPayloadTransferSize ends without a short packet, so the
+        // next payload can start in the same read: split the read there
+        if (mMaxPayloadSize > 0) {
+            int due = mMaxPayloadSize - (mPayloadState == PAYLOAD_CONTINUES ? mPayloadBytes : 0);
+            if (bytesRead > due) {
+                int limit = packet.limit();
+                packet.limit(start + due);
+                onRead(packet);
+                packet.limit(limit);
+                packet.position(start + due);
+                onRead(packet);
+                return;
+            }
+        }
+
+        // Check for UVC payload header (first 2-12 bytes)
+        // VALIDATE: UVC spec requires header length 2-12 bytes (or 0 for no header)
+        int headerLength = packet.get(start) & 0xFF;
+        boolean validHeader = headerLength >= 2 && headerLength <= 12 && headerLength <= bytesRead;
+
+        // Only a read at a payload boundary carries a header, the others are payload data
+        boolean continuation = mPayloadState == PAYLOAD_CONTINUES || (mPayloadState == PAYLOAD_MAYBE
+                && !(validHeader && matchesStreamHeader(packet, start, headerLength)));
+        if (!continuation && mPayloadEof) {
+            // The EOF payload turned out to have ended with the previous read
+            finishHeaderFrame("EOF");
+        }
+        mPayloadBytes = (continuation ? mPayloadBytes : 0) + bytesRead;
+        mPayloadState = nextPayloadState(bytesRead);
+        if (continuation) {
+            mLargestPayload = Math.max(mLargestPayload, mPayloadBytes);
+            onPayloadContinuation(packet);
+            return;
+        }
+        mPayloadSkipped = false;
+
+        if (!mHeaderMode) {
+            // Switch to header-driven delimiting once the camera sends a complete header (EOH set)
+            if (validHeader && (packet.get(start + 1) & HEADER_EOH) != 0) {
+                mHeaderMode = true;
+                mListener.onAssemblyWarning("UVC payload headers detected - delimiting frames by FID/EOF/PTS");
+                reset();
+            } else {
+                onHeaderlessPacket(packet, validHeader && headerLength < bytesRead ? headerLength : 0);
+                return;
+            }
+        }
+
+        if (!validHeader) {
+            // Corrupt header: the payload cannot be trusted and neither can this frame
+            packet.position(packet.limit());
+            mPayloadSkipped = true;
+            mFrameDamaged = mFrameFid >= 0;
+            if (++mBadHeaderCount >= MAX_CONSECUTIVE_BAD_HEADERS) {
+                mListener.onAssemblyWarning(mBadHeaderCount + " packets without a valid header - " +
+                        "falling back to size-based delimiting");
+                mHeaderMode = false;
+                mBadHeaderCount = 0;
+                reset();
+            }
+            return;
+        }
+        mBadHeaderCount = 0;
+        mHeaderLength = headerLength;
+        mHeaderShape = packet.get(start + 1) & (HEADER_EOH | HEADER_RES | HEADER_PTS | HEADER_SCR);
+        onHeaderPacket(packet, start, headerLength, bytesRead);
+    }
+
+    // Where the read after this one stands, from how this one ended
+    private int nextPayloadState(int bytesRead) {
+        if (mPacketSize <= 0 || bytesRead % mPacketSize != 0) {
+            return PAYLOAD_START;       // Short packet (or no bulk layout): the payload ended
+        }
+        if (mMaxPayloadSize > 0) {
+            return mPayloadBytes >= mMaxPayloadSize ? PAYLOAD_START : PAYLOAD_CONTINUES;
+        }
+        return PAYLOAD_MAYBE;
+    }
+
+    // Same length and fixed bits as the stream's last header (before header mode: EOH set)
+    private boolean matchesStreamHeader(ByteBuffer packet, int start, int headerLength) {
+        int info = packet.get(start + 1) & 0xFF;
+        if (mHeaderLength == 0) {
+            return (info & HEADER_EOH) != 0;
+        }
+        return headerLength == mHeaderLength
+                && (info & (HEADER_EOH | HEADER_RES | HEADER_PTS | HEADER_SCR)) == mHeaderShape;
+    }
+
+    /**
+     * A read in the middle of a payload: all of it is data for the payload's frame
+     */
+    private void onPayloadContinuation(ByteBuffer packet) {
+        if (!mHeaderMode) {
+            onHeaderlessPacket(packet, 0);
+            return;
+        }
+        if (mPayloadSkipped || mFrameFid < 0) {
+            // Trailing data, or a payload already known to be bad
+            packet.position(packet.limit());
+        } else if (mFrameBuffer.remaining() >= packet.remaining()) {
+            mFrameBuffer.put(packet);
+        } else {
+            mFrameDamaged = true;
+            mPayloadSkipped = true;
+            packet.position(packet.limit());
+        }
+        checkFrameEnd();
+    }
+
+    /**
+     * Reports a payload lost in transfer (an isochronous packet with an error status)
+     * The frame it belonged to cannot be complete, so it is discarded at its boundary.
+     */
+    void onPacketError() {
+        mPacketErrorCount++;
+        if (mHeaderMode) {
+            mFrameDamaged = true;
+        } else if (mFrameBuffer.position() > 0) {
+            restartFrame();
+        }
+    }
+
+    /**
+     * Header-driven delimiting: a frame ends at its EOF bit, or when the FID bit toggles or
+     * the PTS changes. Damaged frames are discarded at that boundary so the next frame
+     * starts clean on the following packet instead of after a timeout.
+     */
+    private void onHeaderPacket(ByteBuffer packet, int start, int headerLength, int bytesRead) {
+        int info = packet.get(start + 1) & 0xFF;
+        int fid = info & HEADER_FID;
+        boolean endOfFrame = (info & HEADER_EOF) != 0;
+        long pts = -1;
+        if ((info & HEADER_PTS) != 0 && headerLength >= 6) {
+            pts = (packet.get(start + 2) & 0xFFL) |
+                  ((packet.get(start + 3) & 0xFFL) << 8) |
+                  ((packet.get(start + 4) & 0xFFL) << 16) |
+                  ((packet.get(start + 5) & 0xFFL) << 24);
+        }
+        int payloadLength = bytesRead - headerLength;
+
+        if (mFrameFid >= 0) {
+            if (fid != mFrameFid) {
+                // FID toggled: the previous frame ended without its EOF packet
+                mFidToggleSeen = true;
+                finishHeaderFrame("FID toggle");
+            } else if (pts >= 0 && mFramePts >= 0 && pts != mFramePts) {
+                // Same FID but a new presentation time: camera does not toggle FID
+                finishHeaderFrame("PTS change");
+            }
+        } else if (fid == mLastFid && mFidToggleSeen && payloadLength > 0) {
+            // Trailing data of a frame that already completed, wait for the FID to toggle
+            packet.position(packet.limit());
+            mPayloadSkipped = true;
+            return;
+        }
+
+        if (payloadLength > 0) {
+            if (mFrameFid < 0) {
+                // First packet of a new frame
+                mFrameFid = fid;
+                mFramePts = pts;
+                mFrameStartTime = System.currentTimeMillis();
+            }
+
+            packet.position(start + headerLength);
+            if ((info & HEADER_ERR) != 0) {
+                mFrameDamaged = true;
+                mPayloadSkipped = true;
+                packet.position(packet.limit());
+            } else if (mFrameBuffer.remaining() >= payloadLength) {
+                mFrameBuffer.put(packet);
+            } else {
+                mFrameDamaged = true;
+                mPayloadSkipped = true;
+                packet.position(packet.limit());
+            }
+        } else {
+            packet.position(packet.limit());
+        }
+
+        // MJPEG detection: Check if accumulated data starts with JPEG magic bytes (0xFF 0xD8)
+        int accumulated = mFrameBuffer.position();
+        if (!mMjpegDetected && accumulated >= 2 &&
+            mFrameBuffer.get(0) == (byte)0xFF && mFrameBuffer.get(1) == (byte)0xD8) {
+            mMjpegDetected = true;
+        }
+
+        if (endOfFrame) {
+            mEofSeen = true;
+            if (mFrameFid < 0) {
+                mFrameFid = fid;  // Header-only EOF for an empty frame
+            }
+            mPayloadEof = true;
+        }
+        checkFrameEnd();
+    }
+
+    /**
+     * Ends the frame once the rest of its EOF payload has been read, or for cameras that never
+     * set EOF, at the exact uncompressed size as before
+     */
+    private void checkFrameEnd() {
+        int accumulated = mFrameBuffer.position();
+        if (mPayloadEof) {
+            // After a full read of unknown payload size, a complete-looking frame ends here
+            boolean complete = mMjpegDetected
+                    ? accumulated >= 2 && mFrameBuffer.get(accumulated - 2) == (byte)0xFF
+                            && mFrameBuffer.get(accumulated - 1) == (byte)0xD9
+                    : isExpectedSize(accumulated);
+            if (mPayloadState == PAYLOAD_START || (mPayloadState == PAYLOAD_MAYBE && complete)) {
+                finishHeaderFrame("EOF");
+            }
+        } else if (!mEofSeen && !mMjpegDetected && mFrameFid >= 0 && isExpectedSize(accumulated)) {
+            finishHeaderFrame("size");
+        }
+    }
+
+    /**
+     * Ends the frame being accumulated in header mode, delivering it only if it is intact
+     */
+    private void finishHeaderFrame(String boundary) {
+        int accumulated = mFrameBuffer.position();
+        boolean intact;
+        if (mMjpegDetected) {
+            intact = accumulated >= 2 && mFrameBuffer.get(0) == (byte)0xFF && mFrameBuffer.get(1) == (byte)0xD8;
+        } else {
+            intact = isExpectedSize(accumulated);
+        }
+
+        if (accumulated == 0) {
+            // Nothing accumulated (header-only packets), not a lost frame
+        } else if (intact && !mFrameDamaged) {
+            deliverFrame();
+        } else {
+            discardFrame("Discarding damaged frame at " + boundary + ": " + accumulated + " bytes" +
+                    (mFrameDamaged ? " (packet error)" : " (unexpected size)"));
+        }
+
+        mLastFid = mFrameFid;
+        mFrameFid = -1;
+        mFramePts = -1;
+        mFrameDamaged = false;
+        mPayloadEof = false;
+    }
+
+    /**
+     * Size-based delimiting for cameras that send no payload headers
+     */
+    private void onHeaderlessPacket(ByteBuffer packet, int headerLength) {
+        // A read larger than a frame can hold the end of one frame and the start of the next:
+        // split it at the frame size seen so far so the following frame stays aligned
+        if (headerLength == 0 && !mMjpegDetected && mHeaderlessFrameSize > 0) {
+            int needed = mHeaderlessFrameSize - mFrameBuffer.position();
+            if (needed > 0 && packet.remaining() > needed) {
+                int limit = packet.limit();
+                packet.limit(packet.position() + needed);
+                onHeaderlessPacket(packet, 0);
+                packet.limit(limit);
+                onHeaderlessPacket(packet, 0);
+                return;
+            }
+        }
+
+        int start = packet.position();
+        int bytesRead = packet.remaining();
+        boolean endOfFrame = false;
+
+        // Extract payload based on whether we have a valid header
+        int payloadLength;
+        int payloadOffset;
+
+        if (headerLength > 0) {
+            // Has valid UVC header
+            int bitField = packet.get(start + 1) & 0xFF;
+            endOfFrame = (bitField & HEADER_EOF) != 0;
+
+            payloadLength = bytesRead - headerLength;
+            payloadOffset = start + headerLength;
+        } else {
+            // No header (headerLength == 0) - treat entire packet as payload
+            payloadLength = bytesRead;
+            payloadOffset = start;
+        }
+
+        // Accumulate frame data
+        packet.position(payloadOffset);
+        if (mFrameBuffer.remaining() >= payloadLength) {
+            mFrameBuffer.put(packet);
+        } else {
+            mListener.onAssemblyWarning("Frame buffer overflow! Remaining: " + mFrameBuffer.remaining() +
+                    ", needed: " + payloadLength + " - discarding and starting new frame");
+            restartFrame();
+
+            // Only add current payload if it looks like a frame start (JPEG SOI for MJPEG)
+            if (payloadLength >= 2 &&
+                packet.get(payloadOffset) == (byte)0xFF &&
+                packet.get(payloadOffset + 1) == (byte)0xD8) {
+                mFrameBuffer.put(packet);
+            } else {
+                // Don't add anything, wait for next packet
+                packet.position(packet.limit());
+            }
+        }
+
+        // Frame completion detection
+        int accumulated = mFrameBuffer.position();
+        boolean frameComplete = false;
+
+        // MJPEG detection: Check if accumulated data starts with JPEG magic bytes (0xFF 0xD8)
+        if (!mMjpegDetected && accumulated >= 2 &&
+            mFrameBuffer.get(0) == (byte)0xFF && mFrameBuffer.get(1) == (byte)0xD8) {
+            mMjpegDetected = true;
+        }
+
+        if (mMjpegDetected) {
+            // MJPEG frame completion: end-of-frame bit OR JPEG EOI marker (0xFF 0xD9) in last 2 bytes
+            boolean jpegEOI = accumulated >= 2 &&
+                    mFrameBuffer.get(accumulated - 2) == (byte)0xFF &&
+                    mFrameBuffer.get(accumulated - 1) == (byte)0xD9;
+            frameComplete = endOfFrame || jpegEOI;
+        } else {
+            // Uncompressed frame completion: SIZE-BASED detection
+            // Accept exact frame sizes (with or without telemetry)
+            if (isExpectedSize(accumulated)) {
+                frameComplete = true;
+            } else if (accumulated > mMaxFrameSize) {
+                // Exceeds maximum possible size, frame is corrupted - restart
+                mListener.onAssemblyWarning("Frame buffer overflow: " + accumulated + " bytes exceeds maximum " +
+                        mMaxFrameSize + " - restarting frame");
+                mFrameBuffer.clear();
+                mResyncCount++;
+                mDiscardedFrameCount++;
+            }
+        }
+
+        // Check for frame accumulation timeout
+        long now = System.currentTimeMillis();
+        if (!frameComplete && accumulated > 0 && (now - mFrameStartTime) > FRAME_TIMEOUT_MS) {
+            mListener.onAssemblyWarning("Frame accumulation timeout! " + accumulated +
+                    " bytes accumulated in " + (now - mFrameStartTime) + "ms - resetting (format: " +
+                    (mMjpegDetected ? "MJPEG" : "uncompressed") + ", EOF bit seen: " + endOfFrame + ")");
+            restartFrame();
+            mFrameStartTime = now;
+        }
+
+        if (frameComplete && mFrameBuffer.position() > 0) {
+            if (!mMjpegDetected) {
+                mHeaderlessFrameSize = mFrameBuffer.position();
+            }
+            deliverFrame();
+        }
+    }
+
+    // Exact uncompressed frame sizes (with or without telemetry)
+    private boolean isExpectedSize(int size) {
+        return mDecoders.isFrameSize(size);
+    }
+
+    private void discardFrame(String message) {
+        mListener.onAssemblyWarning(message);
+        mFrameBuffer.clear();
+        mResyncCount++;
+        mDiscardedFrameCount++;
+    }
+
+    /**
+     * Hands the completed frame to the listener and switches to a free pooled buffer
+     * If every buffer is still held by consumers the frame is dropped and its buffer reused,
+     * so capture never waits on a slow consumer.
+     */
+    private void deliverFrame() {
+        mSequence++;
+        FrameBufferPool.Frame next = mPool.tryAcquire();
+
+        if (next == null) {
+            mDroppedFrameCount++;
+            mFrameBuffer.clear();
+            mFrameStartTime = System.currentTimeMillis();
+            return;
+        }
+
+        FrameBufferPool.Frame completed = mCurrentFrame;
+        mCurrentFrame = next;
+        mFrameBuffer = next.buffer();
+        mFrameStartTime = System.currentTimeMillis();
+
+        // Frame complete - deliver to listener, then drop the assembler's reference
+        ByteBuffer data = completed.buffer();
+        data.flip();
+        completed.stamp(mSequence, System.nanoTime());
+        completed.setPts(mFramePts);
+        completed.stats().invalidate();
+        decodeTelemetry(completed);
+        mFrameCount++;
+        try {
+            mListener.onFrameAssembled(completed);
+        } finally {
+            completed.release();
+        }
+    }
+
+    /**
+     * Decodes the frame's telemetry rows in place and counts gaps in the camera frame counter
+     */
+    private void decodeTelemetry(FrameBufferPool.Frame frame) {
+        BosonTelemetry telemetry = frame.telemetry();
+        telemetry.decode(frame.buffer(), mMjpegDetected ? -1 : mDecoders.getTelemetryOffset(frame.length()));
+        if (!telemetry.isValid()) {
+            return;
+        }
+
+        long counter = telemetry.getFrameCounter();
+        if (mLastCameraFrameCounter >= 0 && counter > mLastCameraFrameCounter + 1) {
+            mCameraFrameGapCount += counter - mLastCameraFrameCounter - 1;
+        }
+        mLastCameraFrameCounter = counter;  // Also resyncs after a counter wrap or camera reset
+    }
+
+    /**
+     * Discards any partially accumulated frame
+     */
+    void reset() {
+        mFrameBuffer.clear();
+        mMjpegDetected = false;
+        mFrameFid = -1;
+        mFramePts = -1;
+        mFrameDamaged = false;
+        mPayloadEof = false;
+        mLastFid = -1;
+        mFrameStartTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the buffer being filled to the pool; the assembler cannot be used afterwards
+     */
+    void close() {
+        if (mCurrentFrame != null) {
+            mCurrentFrame.release();
+            mCurrentFrame = null;
+        }
+    }
+
+    private void restartFrame() {
+        reset();
+        mResyncCount++;
+        mDiscardedFrameCount++;
+    }
+
+    boolean isMjpegDetected() {
+        return mMjpegDetected;
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    long getPacketCount() {
+        return mPacketCount;
+    }
+
+    // Payloads reported lost by the transport
+    long getPacketErrorCount() {
+        return mPacketErrorCount;
+    }
+
+    int getResyncCount() {
+        return mResyncCount;
+    }
+
+    // Frames discarded because no pooled buffer was free
+    int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    // Frames the camera's telemetry frame counter says it sent but were never delivered
+    long getCameraFrameGapCount() {
+        return mCameraFrameGapCount;
+    }
+
+    // Frames lost to transfer errors (missing/corrupt packets, wrong size)
+    int getDiscardedFrameCount() {
+        return mDiscardedFrameCount;
+    }
+
+    // Largest payload seen that took more than one read, 0 if every payload fit its read
+    int getLargestSplitPayload() {
+        return mLargestPayload;
+    }
+
+    // True once the camera's payload headers drive frame boundaries
+    boolean isHeaderMode() {
+        return mHeaderMode;
+    }
+
+    // Expected uncompressed sizes, used for logging only
+    String describeFrameSize(int size) {
+        String description = mMjpegDetected ? null : mDecoders.describeFrameSize(size);
+        if (description != null) {
+            return description;
+        }
+        return mMjpegDetected ? " (MJPEG)" : " (unknown size)";
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.thermalarglass;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary packet trace of a UVC streaming session
+ *
+ * Layout (big-endian): "UVCT", int version, then records of
+ * byte type, long timestampNanos, int length, length bytes.
+ * Stream records hold one completed streaming transfer exactly as the host received it,
+ * UVC payload header included; control records hold the data returned by an IN control
+ * transfer so negotiation can be replayed too.
+ */
+class UvcTraceFile {
+
+    static final int MAGIC = 0x55564354;   // "UVCT"
+    static final int VERSION = 1;
+
+    static final byte RECORD_STREAM = 0;
+    static final byte RECORD_CONTROL = 1;
+
+    /**
+     * One recorded transfer
+     */
+    static final class Record {
+        final byte type;
+        final long timestampNanos;
+        final byte[] data;
+
+        Record(byte type, long timestampNanos, byte[] data) {
+            this.type = type;
+            this.timestampNanos = timestampNanos;
+            this.data = data;
+        }
+    }
+
+    private UvcTraceFile() {
+    }
+
+    /**
+     * Loads a whole trace into memory so it can be replayed at full speed
+     */
+    static List<Record> read(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    static List<Record> read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a UVC trace (bad magic)");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported UVC trace version " + version);
+        }
+
+        List<Record> records = new ArrayList<>();
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                break;
+            }
+            long timestamp = in.readLong();
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Corrupt UVC trace: negative record length");
+            }
+            byte[] data = new byte[length];
+            in.readFully(data);
+            records.add(new Record(type, timestamp, data));
+        }
+        return records;
+    }
+
+    /**
+     * Appends records to a trace; not thread-safe
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream mOut;
+        private final long mStartNanos = System.nanoTime();
+        private byte[] mScratch = new byte[16384];
+
+        Writer(File file) throws IOException {
+            this(new FileOutputStream(file));
+        }
+
+        Writer(OutputStream stream) throws IOException {
+            mOut = new DataOutputStream(new BufferedOutputStream(stream, 256 * 1024));
+            mOut.writeInt(MAGIC);
+            mOut.writeInt(VERSION);
+        }
+
+        void writeStream(byte[] data, int offset, int length) throws IOException {
+            writeRecord(RECORD_STREAM, data, offset, length);
+        }
+
+        // Writes position..limit without moving the buffer's position
+        void writeStream(ByteBuffer data) throws IOException {
+            int length = data.remaining();
+            if (mScratch.length < length) {
+                mScratch = new byte[length];
+            }
+            data.duplicate().get(mScratch, 0, length);
+            writeRecord(RECORD_STREAM, mScratch, 0, length);
+        }
+
+        void writeControl(byte[] data, int offset, int length) throws IOException {
+            writeRecord(RECORD_CONTROL, data, offset, length);
+        }
+
+        private void writeRecord(byte type, byte[] data, int offset, int length) throws IOException {
+            mOut.writeByte(type);
+            mOut.writeLong(System.nanoTime() - mStartNanos);
+            mOut.writeInt(length);
+            mOut.write(data, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            mOut.close();
+        }
+    }
+}
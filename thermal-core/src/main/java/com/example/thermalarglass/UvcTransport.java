@@ -0,0 +1,46 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Control and streaming transfers to a UVC camera
+ * NativeUVCCamera talks to the camera only through this interface so the capture path can
+ * run against a UsbDeviceConnection on Glass or a recorded packet trace on a plain JVM.
+ */
+interface UvcTransport {
+
+    /**
+     * Control transfer on endpoint 0, same contract as UsbDeviceConnection.controlTransfer
+     */
+    int controlTransfer(int requestType, int request, int value, int index,
+                        byte[] buffer, int length, int timeoutMs);
+
+    /**
+     * Blocking read from the streaming endpoint; bytes read, or negative on error/timeout
+     */
+    int readStream(byte[] buffer, int length, int timeoutMs);
+
+    /**
+     * Queues an asynchronous read into a direct buffer (position to limit)
+     */
+    boolean queueStreamRead(ByteBuffer buffer);
+
+    /**
+     * Waits for the next queued read to complete
+     * Returns its buffer with position set to the number of bytes read, or null on error.
+     */
+    ByteBuffer awaitStreamRead(long timeoutMs) throws TimeoutException;
+
+    /**
+     * Cancels every queued read; their buffers are not returned
+     */
+    void cancelStreamReads();
+
+    int getMaxPacketSize();
+
+    /**
+     * Releases transfer resources; the caller still owns the underlying device
+     */
+    void close();
+}
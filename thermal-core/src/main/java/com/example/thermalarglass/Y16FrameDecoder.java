@@ -0,0 +1,111 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 16-bit radiometric frames (Boson Y16), optionally followed by two telemetry rows
+ * Colorized at source resolution through the AGC table by Y16Kernel, which also fills the
+ * frame statistics. The kernel is created on the first frame, so registering the decoder
+ * costs nothing for streams in other formats.
+ */
+final class Y16FrameDecoder implements FrameDecoder {
+
+    private static final int TELEMETRY_ROWS = 2;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mImageSize;
+    private final int mSizeWithTelemetry;
+    private Y16Kernel mKernel;
+    private BandExecutor mExecutor;
+    private int mBandRows = BandExecutor.DEFAULT_BAND_ROWS;
+
+    Y16FrameDecoder(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mImageSize = width * height * 2;
+        mSizeWithTelemetry = width * (height + TELEMETRY_ROWS) * 2;
+    }
+
+    @Override
+    public String getName() {
+        return "Y16";
+    }
+
+    @Override
+    public String getFourCC() {
+        return "Y16";
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public int[] getFrameSizes() {
+        return new int[] {mImageSize, mSizeWithTelemetry};
+    }
+
+    @Override
+    public boolean matches(ByteBuffer frame, int length) {
+        return length == mImageSize || length == mSizeWithTelemetry;
+    }
+
+    @Override
+    public int getTelemetryOffset(int length) {
+        return length == mSizeWithTelemetry ? mImageSize : -1;
+    }
+
+    @Override
+    public boolean isRadiometric() {
+        return true;
+    }
+
+    @Override
+    public DisplayProjection getProjection() {
+        return null;
+    }
+
+    @Override
+    public void setDisplayFit(DisplayProjection.Fit fit) {
+    }
+
+    @Override
+    public void setExecutor(BandExecutor executor, int bandRows) {
+        mExecutor = executor;
+        mBandRows = bandRows;
+        if (mKernel != null) {
+            mKernel.setExecutor(executor, bandRows);
+        }
+    }
+
+    @Override
+    public int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats) {
+        if (length < mImageSize) {
+            stats.invalidate();
+            return null;
+        }
+        if (mKernel == null) {
+            mKernel = new Y16Kernel(mWidth, mHeight);
+            mKernel.setExecutor(mExecutor, mBandRows);
+        }
+        mKernel.setTable(table);
+        return mKernel.process(frame, stats) ? mKernel.getPixels() : null;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return mHeight;
+    }
+}
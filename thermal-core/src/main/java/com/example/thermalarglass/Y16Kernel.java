@@ -0,0 +1,204 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Single-pass Y16 frame kernel: gain, colormap and statistics in one read of the frame
+ * Every pixel is read once straight from the (pooled, direct) frame buffer; the same pass
+ * writes the ARGB pixel, updates min/max/sum and the histogram, so nothing is copied into
+ * intermediate arrays and nothing is allocated per frame. With a BandExecutor the rows are
+ * split into bands processed in parallel, each with its own min/max/sum/histogram that are
+ * merged afterwards; the result is identical to the serial pass. Not thread-safe, one
+ * instance per decode thread.
+ */
+final class Y16Kernel {
+
+    // Statistics of one band (or the whole frame when serial)
+    private static final class Partial {
+        int min;
+        int max;
+        int minIndex;
+        int maxIndex;
+        long sum;
+        int[] histogram;
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int[] mPixels;
+    private int[] mTable;
+
+    // Banded mode: null executor (or one thread) runs the serial pass
+    private BandExecutor mExecutor;
+    private int mBandRows = BandExecutor.DEFAULT_BAND_ROWS;
+    private Partial[] mPartials = new Partial[0];
+    private final Partial mSerial = new Partial();
+    private final BandExecutor.BandTask mBandTask = this::processBand;
+    private ByteBuffer mFrame;              // Frame being processed by the bands
+    private boolean mSwap;
+
+    Y16Kernel(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mPixels = new int[width * height];
+    }
+
+    /**
+     * Sets the ARGB color of every 16-bit count for the next frames (see AutoGainControl)
+     */
+    void setTable(int[] table) {
+        if (table.length != 65536) {
+            throw new IllegalArgumentException("Y16 table needs 65536 entries");
+        }
+        mTable = table;
+    }
+
+    /**
+     * ARGB output of the last process() call, width * height, reused for every frame
+     */
+    int[] getPixels() {
+        return mPixels;
+    }
+
+    /**
+     * Splits frames into bands of bandRows rows on the executor; null for the serial pass
+     */
+    void setExecutor(BandExecutor executor, int bandRows) {
+        mExecutor = executor;
+        mBandRows = Math.max(1, bandRows);
+        int bands = (mHeight + mBandRows - 1) / mBandRows;
+        if (executor != null && mPartials.length < bands) {
+            Partial[] partials = Arrays.copyOf(mPartials, bands);
+            for (int i = mPartials.length; i < bands; i++) {
+                partials[i] = new Partial();
+                partials[i].histogram = new int[FrameStats.HISTOGRAM_BINS];
+            }
+            mPartials = partials;
+        }
+    }
+
+    int getWidth() {
+        return mWidth;
+    }
+
+    int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Colorizes one little-endian Y16 frame and fills its statistics
+     * Reads the first width * height samples; telemetry rows after them are ignored. Uses
+     * absolute reads in whatever order the buffer has (swapping bytes unless it is already
+     * little-endian), so its position, limit and order are untouched and no view is created.
+     * Returns false (stats invalidated) if the frame is too short.
+     */
+    boolean process(ByteBuffer frame, FrameStats stats) {
+        int count = mWidth * mHeight;
+        if (frame.limit() < count * 2) {
+            stats.invalidate();
+            return false;
+        }
+
+        boolean swap = frame.order() != ByteOrder.LITTLE_ENDIAN;
+        int min;
+        int max;
+        int minIndex;
+        int maxIndex;
+        long sum;
+        BandExecutor executor = mExecutor;
+        if (executor == null || executor.getThreads() == 1) {
+            Partial all = mSerial;
+            all.histogram = stats.resetHistogram();
+            processRows(frame, swap, 0, mHeight, all);
+            min = all.min;
+            max = all.max;
+            minIndex = all.minIndex;
+            maxIndex = all.maxIndex;
+            sum = all.sum;
+        } else {
+            mFrame = frame;
+            mSwap = swap;
+            try {
+                executor.run(mHeight, mBandRows, mBandTask);
+            } finally {
+                mFrame = null;
+            }
+
+            // Merge bands in row order so ties resolve to the first pixel, as in the serial pass
+            int[] histogram = stats.resetHistogram();
+            int bands = (mHeight + mBandRows - 1) / mBandRows;
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            minIndex = 0;
+            maxIndex = 0;
+            sum = 0;
+            for (int band = 0; band < bands; band++) {
+                Partial partial = mPartials[band];
+                if (partial.min < min) {
+                    min = partial.min;
+                    minIndex = partial.minIndex;
+                }
+                if (partial.max > max) {
+                    max = partial.max;
+                    maxIndex = partial.maxIndex;
+                }
+                sum += partial.sum;
+                int[] bandHistogram = partial.histogram;
+                for (int bin = 0; bin < histogram.length; bin++) {
+                    histogram[bin] += bandHistogram[bin];
+                }
+            }
+        }
+
+        int centerIndex = (mHeight / 2) * mWidth + mWidth / 2;
+        short centerSample = frame.getShort(centerIndex << 1);
+        int center = (swap ? Short.reverseBytes(centerSample) : centerSample) & 0xFFFF;
+        stats.set(mWidth, min, minIndex, max, maxIndex, center, sum, count);
+        return true;
+    }
+
+    private void processBand(int band, int fromRow, int toRow) {
+        Partial partial = mPartials[band];
+        Arrays.fill(partial.histogram, 0);
+        processRows(mFrame, mSwap, fromRow, toRow, partial);
+    }
+
+    /**
+     * Colorizes rows [fromRow, toRow) and accumulates their statistics into partial
+     */
+    private void processRows(ByteBuffer frame, boolean swap, int fromRow, int toRow, Partial partial) {
+        int[] pixels = mPixels;
+        int[] table = mTable;
+        int[] histogram = partial.histogram;
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int minIndex = 0;
+        int maxIndex = 0;
+        long sum = 0;
+        int end = toRow * mWidth;
+        for (int i = fromRow * mWidth; i < end; i++) {
+            short sample = frame.getShort(i << 1);
+            int value = (swap ? Short.reverseBytes(sample) : sample) & 0xFFFF;
+            pixels[i] = table[value];
+            histogram[value >>> FrameStats.HISTOGRAM_SHIFT]++;
+            sum += value;
+            if (value < min) {
+                min = value;
+                minIndex = i;
+            }
+            if (value > max) {
+                max = value;
+                maxIndex = i;
+            }
+        }
+
+        partial.min = min;
+        partial.max = max;
+        partial.minIndex = minIndex;
+        partial.maxIndex = maxIndex;
+        partial.sum = sum;
+    }
+}
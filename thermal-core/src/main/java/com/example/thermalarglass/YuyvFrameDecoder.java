@@ -0,0 +1,112 @@
+package com.example.thermalarglass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packed 4:2:2 frames (YUY2: Y0 U Y1 V), as sent by several small UVC thermal cores
+ * The scene is in the luma bytes; each row is read once into a reused array and every other
+ * byte colorized at source resolution, chroma skipped. Serial: these cores are at most
+ * 640×512 and the row loop is cheaper than splitting it.
+ */
+final class YuyvFrameDecoder implements FrameDecoder {
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mFrameSize;
+    private byte[] mRow;
+    private int[] mPixels;
+
+    YuyvFrameDecoder(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mFrameSize = width * height * 2;
+    }
+
+    @Override
+    public String getName() {
+        return "YUYV";
+    }
+
+    @Override
+    public String getFourCC() {
+        return "YUY2";
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public int[] getFrameSizes() {
+        return new int[] {mFrameSize};
+    }
+
+    @Override
+    public boolean matches(ByteBuffer frame, int length) {
+        return length == mFrameSize;
+    }
+
+    @Override
+    public int getTelemetryOffset(int length) {
+        return -1;
+    }
+
+    @Override
+    public boolean isRadiometric() {
+        return false;
+    }
+
+    @Override
+    public DisplayProjection getProjection() {
+        return null;
+    }
+
+    @Override
+    public void setDisplayFit(DisplayProjection.Fit fit) {
+    }
+
+    @Override
+    public void setExecutor(BandExecutor executor, int bandRows) {
+    }
+
+    @Override
+    public int[] decode(ByteBuffer frame, int length, int[] table, FrameStats stats) {
+        if (length < mFrameSize) {
+            return null;
+        }
+        if (mPixels == null) {
+            mRow = new byte[mWidth * 2];
+            mPixels = new int[mWidth * mHeight];
+        }
+        byte[] row = mRow;
+        int[] pixels = mPixels;
+        int width = mWidth;
+        int position = frame.position();
+        frame.position(0);
+        for (int y = 0; y < mHeight; y++) {
+            frame.get(row, 0, row.length);
+            int out = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[out + x] = table[row[x << 1] & 0xFF];
+            }
+        }
+        frame.position(position);
+        return pixels;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return mHeight;
+    }
+}
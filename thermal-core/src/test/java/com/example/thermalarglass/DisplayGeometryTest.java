@@ -0,0 +1,53 @@
+package com.example.thermalarglass;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Projected (I420) and scaled (Y16, RGB, MJPEG) frames must land in the same place
+ */
+public class DisplayGeometryTest {
+
+    private static final int DISPLAY_WIDTH = 640;
+    private static final int DISPLAY_HEIGHT = 360;
+
+    @Test
+    public void letterboxedBosonFitsTheDisplayHeight() {
+        DisplayProjection.Geometry geometry = new DisplayProjection.Geometry(320, 256,
+                DISPLAY_WIDTH, DISPLAY_HEIGHT, DisplayProjection.Fit.LETTERBOX);
+        assertEquals(95, geometry.left);
+        assertEquals(0, geometry.top);
+        assertEquals(545, geometry.right);
+        assertEquals(DISPLAY_HEIGHT, geometry.bottom);
+    }
+
+    @Test
+    public void croppedBosonFillsTheDisplay() {
+        DisplayProjection.Geometry geometry = new DisplayProjection.Geometry(320, 256,
+                DISPLAY_WIDTH, DISPLAY_HEIGHT, DisplayProjection.Fit.CROP);
+        assertEquals(0, geometry.left);
+        assertEquals(0, geometry.top);
+        assertEquals(DISPLAY_WIDTH, geometry.right);
+        assertEquals(DISPLAY_HEIGHT, geometry.bottom);
+        assertEquals(-76, geometry.offsetY, 0);
+    }
+
+    @Test
+    public void projectionAndScalerAgree() {
+        int[][] sizes = { {320, 256}, {640, 512}, {160, 120} };
+        for (int[] size : sizes) {
+            for (DisplayProjection.Fit fit : DisplayProjection.Fit.values()) {
+                DisplayProjection projection = new DisplayProjection(size[0], size[1],
+                        DISPLAY_WIDTH, DISPLAY_HEIGHT, fit);
+                for (DisplayScaler.Mode mode : DisplayScaler.Mode.values()) {
+                    DisplayScaler scaler = new DisplayScaler(size[0], size[1],
+                            DISPLAY_WIDTH, DISPLAY_HEIGHT, fit, mode);
+                    assertEquals(projection.getScale(), scaler.getScale(), 0);
+                    assertEquals(projection.getOffsetX(), scaler.getOffsetX(), 0);
+                    assertEquals(projection.getOffsetY(), scaler.getOffsetY(), 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.thermalarglass;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Transfer size tuner convergence over the synthetic traces, replayed with bulk read
+ * semantics through the same loop as NativeUVCCamera.queuedStreamingLoop() and with no
+ * negotiated payload size, at the API 27 usbfs limit and the API 28+ limit
+ */
+public class TransferSizeTunerTest {
+
+    private static final int PACKET_SIZE = 512;     // High-speed bulk wMaxPacketSize
+    private static final int QUEUE_DEPTH = 4;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final int API27_LIMIT = 16384;
+    private static final int API28_LIMIT = 512 * 1024;
+
+    private static final int FRAMES = 30;           // Frames per trace (looped)
+    private static final int MAX_FRAMES = 40;       // Frames the tuner may take to lock
+    private static final int FRAMES_AFTER_LOCK = 60; // Lets the smoothed reads per frame settle
+    private static final int Y16_FRAME_SIZE = SyntheticTraces.WIDTH * SyntheticTraces.HEIGHT * 2;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private SyntheticTraces mTraces;
+
+    @Before
+    public void setUp() {
+        mTraces = new SyntheticTraces(mFolder.getRoot());
+    }
+
+    @Test
+    public void negotiatedPayloadIsLockedImmediately() {
+        TransferSizeTuner tuner = new TransferSizeTuner(PACKET_SIZE, API27_LIMIT, 3072);
+        assertTrue(tuner.isLocked());
+        assertEquals(3072, tuner.getTransferSize());
+        assertEquals(API27_LIMIT, tuner.getMaxTransferSize());
+    }
+
+    @Test
+    public void negotiatedPayloadAboveHostLimitLocksAtTheLimit() {
+        TransferSizeTuner tuner = new TransferSizeTuner(PACKET_SIZE, API27_LIMIT, Y16_FRAME_SIZE + 12);
+        assertTrue(tuner.isLocked());
+        assertEquals(API27_LIMIT, tuner.getTransferSize());
+    }
+
+    @Test
+    public void unknownPayloadStartsLearningAtTheOldFixedSize() {
+        TransferSizeTuner tuner = new TransferSizeTuner(PACKET_SIZE, API28_LIMIT, 0);
+        assertFalse(tuner.isLocked());
+        assertEquals(PACKET_SIZE * 32, tuner.getTransferSize());
+        assertEquals(API28_LIMIT, tuner.getMaxTransferSize());
+    }
+
+    @Test
+    public void smallPayloadsLockAtOnePayloadPerRead() throws IOException {
+        for (int limit : new int[] {API27_LIMIT, API28_LIMIT}) {
+            Result result = replay(mTraces.y16WithPayloadSize(FRAMES, 4000), limit);
+            assertLocked(result, 4096, 42.0f);
+        }
+    }
+
+    @Test
+    public void packetMultiplePayloadsKeepTheirSize() throws IOException {
+        for (int limit : new int[] {API27_LIMIT, API28_LIMIT}) {
+            Result result = replay(mTraces.y16WithHeaders(FRAMES), limit);
+            assertLocked(result, SyntheticTraces.TRANSFER_SIZE, 11.0f);
+        }
+    }
+
+    @Test
+    public void framePayloadsLockAtTheHostLimitOrOneReadPerFrame() throws IOException {
+        int payload = Y16_FRAME_SIZE + SyntheticTraces.HEADER_LENGTH;
+        assertLocked(replay(mTraces.y16WithPayloadSize(FRAMES, payload), API27_LIMIT), API27_LIMIT, 11.0f);
+        assertLocked(replay(mTraces.y16WithPayloadSize(FRAMES, payload), API28_LIMIT),
+                (payload + PACKET_SIZE - 1) / PACKET_SIZE * PACKET_SIZE, 1.0f);
+    }
+
+    @Test
+    public void headerlessLocksAtTheLargestFrameDivisor() throws IOException {
+        assertLocked(replay(mTraces.y16Headerless(FRAMES), API27_LIMIT), API27_LIMIT, 10.0f);
+        assertLocked(replay(mTraces.y16Headerless(FRAMES), API28_LIMIT), Y16_FRAME_SIZE, 1.0f);
+    }
+
+    @Test
+    public void mjpegLocksAtItsPayloadSize() throws IOException {
+        for (int limit : new int[] {API27_LIMIT, API28_LIMIT}) {
+            Result result = replay(mTraces.mjpeg(FRAMES), limit);
+            assertTrue("locked", result.locked);
+            assertEquals(0, result.lostAfterLock);
+            assertEquals(SyntheticTraces.TRANSFER_SIZE, result.transferSize);
+        }
+    }
+
+    private static void assertLocked(Result result, int transferSize, float transfersPerFrame) {
+        assertTrue("locked", result.locked);
+        assertEquals("frames lost after locking", 0, result.lostAfterLock);
+        assertEquals("transfer size", transferSize, result.transferSize);
+        assertEquals("transfers per frame", transfersPerFrame, result.transfersPerFrame, 0.05f);
+    }
+
+    /**
+     * Drives tuner and assembler from a looping bulk replay like the queued streaming loop
+     */
+    private static Result replay(SyntheticTraces.Trace trace, int limit) throws IOException {
+        final Result result = new Result();
+        final TransferSizeTuner tuner = new TransferSizeTuner(PACKET_SIZE, limit, 0);
+        final UvcFrameAssembler[] assembler = new UvcFrameAssembler[1];
+        final long[] framesAtLock = {0};
+
+        FrameBufferPool pool = new FrameBufferPool(FrameBufferPool.DEFAULT_POOL_SIZE, MAX_FRAME_SIZE);
+        FrameDecoders decoders = FrameDecoders.standard(SyntheticTraces.WIDTH, SyntheticTraces.HEIGHT).forFormat(null);
+        assembler[0] = new UvcFrameAssembler(decoders, pool,
+                new UvcFrameAssembler.Listener() {
+                    @Override
+                    public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                        result.frames++;
+                        if (tuner.onFrame(frame.length(), frame.sequence(), assembler[0].isHeaderMode(),
+                                assembler[0].getLargestSplitPayload())) {
+                            result.discardedAtLock = assembler[0].getDiscardedFrameCount();
+                            framesAtLock[0] = result.frames;
+                        }
+                    }
+
+                    @Override
+                    public void onAssemblyWarning(String message) {
+                    }
+                });
+
+        // Bulk reads like the streaming loops, with no negotiated payload size either
+        assembler[0].setPayloadLayout(PACKET_SIZE, 0);
+        TraceReplayTransport transport = new TraceReplayTransport(trace.file, true);
+        transport.setBulkPacketSize(PACKET_SIZE);
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(tuner.getMaxTransferSize());
+            buffer.limit(tuner.getTransferSize());
+            transport.queueStreamRead(buffer);
+        }
+
+        while (true) {
+            if (tuner.isLocked() && result.frames - framesAtLock[0] >= FRAMES_AFTER_LOCK) {
+                break;
+            }
+            if (!tuner.isLocked() && assembler[0].getFrameCount() + assembler[0].getDiscardedFrameCount() > MAX_FRAMES) {
+                break;
+            }
+
+            ByteBuffer buffer;
+            try {
+                buffer = transport.awaitStreamRead(100);
+            } catch (TimeoutException e) {
+                break;
+            }
+            tuner.onTransfer(buffer.position(), buffer.limit());
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                assembler[0].onPacket(buffer);
+            }
+            buffer.clear();
+            buffer.limit(tuner.getTransferSize());
+            transport.queueStreamRead(buffer);
+        }
+
+        result.locked = tuner.isLocked();
+        result.lostAfterLock = assembler[0].getDiscardedFrameCount() - result.discardedAtLock;
+        result.transferSize = tuner.getTransferSize();
+        result.transfersPerFrame = tuner.getTransfersPerFrame();
+        assembler[0].close();
+        return result;
+    }
+
+    private static final class Result {
+        long frames;
+        boolean locked;
+        int discardedAtLock;
+        int lostAfterLock;
+        int transferSize;
+        float transfersPerFrame;
+    }
+}
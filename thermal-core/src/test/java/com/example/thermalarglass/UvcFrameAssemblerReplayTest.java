@@ -0,0 +1,180 @@
+package com.example.thermalarglass;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Replays the synthetic traces through UvcFrameAssembler the way NativeUVCCamera's queued
+ * loop drives it, and checks frames recovered, lost and resyncs
+ */
+public class UvcFrameAssemblerReplayTest {
+
+    private static final int FRAMES = 30;
+    private static final int QUEUE_DEPTH = 4;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final int BULK_PACKET_SIZE = 512;
+    private static final int MAX_USB_REQUEST_SIZE = 16384;
+    private static final int Y16_FRAME_SIZE = SyntheticTraces.WIDTH * SyntheticTraces.HEIGHT * 2;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private SyntheticTraces mTraces;
+
+    @Before
+    public void setUp() {
+        mTraces = new SyntheticTraces(mFolder.getRoot());
+    }
+
+    @Test
+    public void y16WithHeadersRecoversEveryFrame() throws IOException {
+        Replay replay = replay(mTraces.y16WithHeaders(FRAMES), SyntheticTraces.TRANSFER_SIZE, 0, 0);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.minFrameSize);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+    }
+
+    @Test
+    public void y16HeaderlessRecoversEveryFrame() throws IOException {
+        Replay replay = replay(mTraces.y16Headerless(FRAMES), SyntheticTraces.TRANSFER_SIZE, 0, 0);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+    }
+
+    @Test
+    public void mjpegRecoversEveryFrame() throws IOException {
+        Replay replay = replay(mTraces.mjpeg(FRAMES), SyntheticTraces.TRANSFER_SIZE, 0, 0);
+        assertClean(replay, FRAMES);
+        assertTrue(replay.minFrameSize < replay.maxFrameSize);
+    }
+
+    @Test
+    public void corruptedY16LosesOnlyDamagedFrames() throws IOException {
+        SyntheticTraces.Trace trace = mTraces.y16Corrupted(FRAMES);
+        assertTrue(trace.damagedFrames > 0);
+
+        Replay replay = replay(trace, SyntheticTraces.TRANSFER_SIZE, 0, 0);
+        assertEquals(trace.framesSent - trace.damagedFrames, replay.frames);
+        assertEquals(trace.damagedFrames, replay.resyncs);
+        assertEquals(Y16_FRAME_SIZE, replay.minFrameSize);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+    }
+
+    @Test
+    public void payloadSpanningReadsWithNegotiatedSize() throws IOException {
+        int payload = Y16_FRAME_SIZE + SyntheticTraces.HEADER_LENGTH;
+        Replay replay = replay(mTraces.y16WithPayloadSize(FRAMES, payload),
+                MAX_USB_REQUEST_SIZE, BULK_PACKET_SIZE, payload);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+        assertEquals(payload, replay.largestSplitPayload);
+    }
+
+    @Test
+    public void payloadSpanningReadsWithoutNegotiatedSize() throws IOException {
+        int payload = Y16_FRAME_SIZE + SyntheticTraces.HEADER_LENGTH;
+        Replay replay = replay(mTraces.y16WithPayloadSize(FRAMES, payload),
+                MAX_USB_REQUEST_SIZE, BULK_PACKET_SIZE, 0);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+        assertEquals(payload, replay.largestSplitPayload);
+    }
+
+    @Test
+    public void payloadsOfWholePacketsMergedInOneRead() throws IOException {
+        // 16 KB payloads end without a short packet, so 64 KB reads carry several of them
+        Replay replay = replay(mTraces.y16WithHeaders(FRAMES), 4 * SyntheticTraces.TRANSFER_SIZE,
+                BULK_PACKET_SIZE, SyntheticTraces.TRANSFER_SIZE);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+    }
+
+    @Test
+    public void fullReadsWithoutNegotiatedSize() throws IOException {
+        // Every read is full, so only the header shape tells payloads from continuations
+        Replay replay = replay(mTraces.y16WithHeaders(FRAMES), SyntheticTraces.TRANSFER_SIZE,
+                BULK_PACKET_SIZE, 0);
+        assertClean(replay, FRAMES);
+        assertEquals(Y16_FRAME_SIZE, replay.maxFrameSize);
+        assertEquals(0, replay.largestSplitPayload);
+    }
+
+    private static void assertClean(Replay replay, int frames) {
+        assertEquals("frames recovered", frames, replay.frames);
+        assertEquals("resyncs", 0, replay.resyncs);
+        assertEquals("frames discarded", 0, replay.discarded);
+    }
+
+    /**
+     * Replays a trace once with reads of the given size
+     * A bulk packet size of 0 replays record by record; otherwise reads behave like bulk IN
+     * transfers and the assembler is told the packet size and negotiated payload size.
+     */
+    private static Replay replay(SyntheticTraces.Trace trace, int readSize, int bulkPacketSize,
+                                 int maxPayloadSize) throws IOException {
+        final Replay result = new Replay();
+        FrameBufferPool pool = new FrameBufferPool(FrameBufferPool.DEFAULT_POOL_SIZE, MAX_FRAME_SIZE);
+        FrameDecoders decoders = FrameDecoders.standard(SyntheticTraces.WIDTH, SyntheticTraces.HEIGHT).forFormat(null);
+        UvcFrameAssembler assembler = new UvcFrameAssembler(decoders, pool,
+                new UvcFrameAssembler.Listener() {
+                    @Override
+                    public void onFrameAssembled(FrameBufferPool.Frame frame) {
+                        result.frames++;
+                        result.minFrameSize = Math.min(result.minFrameSize, frame.length());
+                        result.maxFrameSize = Math.max(result.maxFrameSize, frame.length());
+                    }
+
+                    @Override
+                    public void onAssemblyWarning(String message) {
+                    }
+                });
+
+        TraceReplayTransport transport = new TraceReplayTransport(trace.file, false);
+        if (bulkPacketSize > 0) {
+            transport.setBulkPacketSize(bulkPacketSize);
+            assembler.setPayloadLayout(bulkPacketSize, maxPayloadSize);
+        }
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            transport.queueStreamRead(ByteBuffer.allocateDirect(readSize));
+        }
+
+        while (!transport.isExhausted()) {
+            ByteBuffer buffer;
+            try {
+                buffer = transport.awaitStreamRead(100);
+            } catch (TimeoutException e) {
+                break;
+            }
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                assembler.onPacket(buffer);
+            }
+            buffer.clear();
+            transport.queueStreamRead(buffer);
+        }
+
+        result.resyncs = assembler.getResyncCount();
+        result.discarded = assembler.getDiscardedFrameCount();
+        result.largestSplitPayload = assembler.getLargestSplitPayload();
+        assembler.close();
+        return result;
+    }
+
+    private static final class Replay {
+        int frames;
+        int resyncs;
+        int discarded;
+        int largestSplitPayload;
+        int minFrameSize = Integer.MAX_VALUE;
+        int maxFrameSize = 0;
+    }
+}
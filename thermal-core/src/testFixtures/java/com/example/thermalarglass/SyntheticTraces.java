@@ -0,0 +1,175 @@
+package com.example.thermalarglass;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates synthetic Boson packet traces in UvcTraceFile format
+ * Stand-ins for captured traces so replay tests and benchmarks need neither Glass nor a camera.
+ */
+class SyntheticTraces {
+
+    static final int WIDTH = 320;
+    static final int HEIGHT = 256;
+    static final int TRANSFER_SIZE = 16384;
+    static final int HEADER_LENGTH = 12;
+
+    /**
+     * A generated trace; an ideal assembler recovers every frame that was not damaged
+     */
+    static final class Trace {
+        final String name;
+        final File file;
+        final int framesSent;
+        final int damagedFrames;
+
+        Trace(String name, File file, int framesSent, int damagedFrames) {
+            this.name = name;
+            this.file = file;
+            this.framesSent = framesSent;
+            this.damagedFrames = damagedFrames;
+        }
+    }
+
+    private final File mDirectory;
+    private final Random mRandom = new Random(42);  // Fixed seed, traces are identical run to run
+
+    SyntheticTraces(File directory) {
+        mDirectory = directory;
+    }
+
+    /**
+     * Y16 frames split into transfers with 12-byte UVC payload headers (FID toggle, EOF)
+     */
+    Trace y16WithHeaders(int frames) throws IOException {
+        File file = new File(mDirectory, "y16-headers.uvct");
+        try (UvcTraceFile.Writer writer = new UvcTraceFile.Writer(file)) {
+            for (int f = 0; f < frames; f++) {
+                writeFrame(writer, y16Frame(f, false), f & 1, true, -1, -1);
+            }
+        }
+        return new Trace("y16-headers", file, frames, 0);
+    }
+
+    /**
+     * Y16 frames with payload headers in payloads of the given size (header included)
+     * Payloads that are not a multiple of the USB packet size end in a short packet.
+     */
+    Trace y16WithPayloadSize(int frames, int payloadSize) throws IOException {
+        String name = "y16-payload-" + payloadSize;
+        File file = new File(mDirectory, name + ".uvct");
+        try (UvcTraceFile.Writer writer = new UvcTraceFile.Writer(file)) {
+            for (int f = 0; f < frames; f++) {
+                writeFrame(writer, y16Frame(f, false), f & 1, true, -1, -1, payloadSize);
+            }
+        }
+        return new Trace(name, file, frames, 0);
+    }
+
+    /**
+     * Y16 frames sent as bare data, as some cameras do
+     * Pixel low bytes are kept above 12 so no transfer starts with a plausible header length.
+     */
+    Trace y16Headerless(int frames) throws IOException {
+        File file = new File(mDirectory, "y16-headerless.uvct");
+        try (UvcTraceFile.Writer writer = new UvcTraceFile.Writer(file)) {
+            for (int f = 0; f < frames; f++) {
+                writeFrame(writer, y16Frame(f, true), f & 1, false, -1, -1);
+            }
+        }
+        return new Trace("y16-headerless", file, frames, 0);
+    }
+
+    /**
+     * MJPEG frames of varying size (SOI ... EOI) with payload headers
+     */
+    Trace mjpeg(int frames) throws IOException {
+        File file = new File(mDirectory, "mjpeg.uvct");
+        try (UvcTraceFile.Writer writer = new UvcTraceFile.Writer(file)) {
+            for (int f = 0; f < frames; f++) {
+                byte[] jpeg = new byte[150 * 1024 + mRandom.nextInt(200 * 1024)];
+                for (int i = 0; i < jpeg.length; i++) {
+                    jpeg[i] = (byte) mRandom.nextInt(0xFF);  // Never 0xFF, so no stray markers
+                }
+                jpeg[0] = (byte) 0xFF;
+                jpeg[1] = (byte) 0xD8;
+                jpeg[jpeg.length - 2] = (byte) 0xFF;
+                jpeg[jpeg.length - 1] = (byte) 0xD9;
+                writeFrame(writer, jpeg, f & 1, true, -1, -1);
+            }
+        }
+        return new Trace("mjpeg", file, frames, 0);
+    }
+
+    /**
+     * Y16 with headers where every 7th frame loses a transfer and every 11th frame has a
+     * transfer with a bogus header length, as seen on a marginal cable
+     */
+    Trace y16Corrupted(int frames) throws IOException {
+        File file = new File(mDirectory, "y16-corrupted.uvct");
+        int damaged = 0;
+        try (UvcTraceFile.Writer writer = new UvcTraceFile.Writer(file)) {
+            for (int f = 0; f < frames; f++) {
+                int dropPacket = f % 7 == 3 ? 4 : -1;
+                int badHeaderPacket = f % 11 == 5 ? 6 : -1;
+                if (dropPacket >= 0 || badHeaderPacket >= 0) {
+                    damaged++;
+                }
+                writeFrame(writer, y16Frame(f, false), f & 1, true, dropPacket, badHeaderPacket);
+            }
+        }
+        return new Trace("y16-corrupted", file, frames, damaged);
+    }
+
+    private byte[] y16Frame(int frame, boolean avoidHeaderBytes) {
+        byte[] data = new byte[WIDTH * HEIGHT * 2];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = 7000 + ((x * 7 + y * 3 + frame * 5) % 3000);  // Typical Boson count range
+                if (avoidHeaderBytes) {
+                    value |= 0x10;
+                }
+                int i = (y * WIDTH + x) * 2;
+                data[i] = (byte) value;
+                data[i + 1] = (byte) (value >> 8);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Splits one frame into transfers, optionally dropping one or corrupting its header
+     */
+    private void writeFrame(UvcTraceFile.Writer writer, byte[] frame, int fid, boolean headers,
+                            int dropPacket, int badHeaderPacket) throws IOException {
+        writeFrame(writer, frame, fid, headers, dropPacket, badHeaderPacket, TRANSFER_SIZE);
+    }
+
+    private void writeFrame(UvcTraceFile.Writer writer, byte[] frame, int fid, boolean headers,
+                            int dropPacket, int badHeaderPacket, int transferSize) throws IOException {
+        int payloadSize = headers ? transferSize - HEADER_LENGTH : transferSize;
+        int packets = (frame.length + payloadSize - 1) / payloadSize;
+        byte[] transfer = new byte[transferSize];
+
+        for (int p = 0; p < packets; p++) {
+            int offset = p * payloadSize;
+            int length = Math.min(payloadSize, frame.length - offset);
+            if (p == dropPacket) {
+                continue;
+            }
+
+            int headerLength = 0;
+            if (headers) {
+                headerLength = HEADER_LENGTH;
+                transfer[0] = (byte) (p == badHeaderPacket ? 0x40 : HEADER_LENGTH);
+                transfer[1] = (byte) (0x80 | (p == packets - 1 ? 0x02 : 0) | fid);  // EOH, EOF, FID
+                for (int i = 2; i < HEADER_LENGTH; i++) {
+                    transfer[i] = 0;
+                }
+            }
+            System.arraycopy(frame, offset, transfer, headerLength, length);
+            writer.writeStream(transfer, 0, headerLength + length);
+        }
+    }
+}